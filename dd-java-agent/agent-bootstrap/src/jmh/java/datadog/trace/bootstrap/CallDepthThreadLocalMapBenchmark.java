@@ -0,0 +1,81 @@
+package datadog.trace.bootstrap;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a guarded call (increment then reset, as done by advice entry and exit) between the
+ * previous implementation, which kept one thread-local per key class, and the slot-based one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CallDepthThreadLocalMapBenchmark {
+
+  private static final int SLOT = CallDepthThreadLocalMap.slotFor(Runnable.class);
+
+  @Benchmark
+  public int classValueAndThreadLocalPerKey() {
+    final int depth = PreviousCallDepthThreadLocalMap.incrementCallDepth(Runnable.class);
+    PreviousCallDepthThreadLocalMap.reset(Runnable.class);
+    return depth;
+  }
+
+  @Benchmark
+  public int slotLookedUpByClass() {
+    final int depth = CallDepthThreadLocalMap.incrementCallDepth(Runnable.class);
+    CallDepthThreadLocalMap.reset(Runnable.class);
+    return depth;
+  }
+
+  @Benchmark
+  public int slotResolvedAhead() {
+    final int depth = CallDepthThreadLocalMap.incrementCallDepth(SLOT);
+    CallDepthThreadLocalMap.reset(SLOT);
+    return depth;
+  }
+
+  /** The implementation this benchmark compares against. */
+  static final class PreviousCallDepthThreadLocalMap {
+
+    private static final ClassValue<ThreadLocalDepth> TLS =
+        new ClassValue<ThreadLocalDepth>() {
+          @Override
+          protected ThreadLocalDepth computeValue(final Class<?> type) {
+            return new ThreadLocalDepth();
+          }
+        };
+
+    static int incrementCallDepth(final Class<?> k) {
+      return TLS.get(k).get().depth++;
+    }
+
+    static void reset(final Class<?> k) {
+      TLS.get(k).get().depth = 0;
+    }
+
+    private static final class Depth {
+      private int depth;
+    }
+
+    private static final class ThreadLocalDepth extends ThreadLocal<Depth> {
+      @Override
+      protected Depth initialValue() {
+        return new Depth();
+      }
+    }
+  }
+}
@@ -1,45 +1,96 @@
 package datadog.trace.bootstrap;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Utility to track nested instrumentation.
  *
  * <p>For example, this can be used to track nested calls to super() in constructors by calling
  * #incrementCallDepth at the beginning of each constructor.
+ *
+ * <p>Every key is assigned a small integer slot, and the call depths of a thread are kept in a
+ * single {@code int[]} indexed by slot. Instrumentation on hot paths should resolve the slot once
+ * with {@link #slotFor(Class)}, typically in a static field of a decorator, and use the {@code int}
+ * overloads so that each call is one thread-local read plus an array access.
+ *
+ * <p>Slots are keyed by class name rather than class identity: when an application is redeployed
+ * its classes are loaded again under the same names and reuse the slots of the previous deployment,
+ * so the number of slots stays bounded by the number of distinct keys.
  */
 public class CallDepthThreadLocalMap {
 
-  private static final ClassValue<ThreadLocalDepth> TLS =
-      new ClassValue<ThreadLocalDepth>() {
+  private static final ConcurrentMap<String, Integer> SLOTS_BY_NAME = new ConcurrentHashMap<>();
+
+  private static final ClassValue<Integer> SLOTS =
+      new ClassValue<Integer>() {
         @Override
-        protected ThreadLocalDepth computeValue(Class<?> type) {
-          return new ThreadLocalDepth();
+        protected Integer computeValue(final Class<?> type) {
+          return slotFor(type.getName());
         }
       };
 
-  public static int incrementCallDepth(final Class<?> k) {
-    return TLS.get(k).get().increment();
+  private static final ThreadLocal<int[]> DEPTHS =
+      new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+          return new int[capacityFor(SLOTS_BY_NAME.size())];
+        }
+      };
+
+  /** @return the slot tracking call depth for {@code k} */
+  public static int slotFor(final Class<?> k) {
+    return SLOTS.get(k);
   }
 
-  public static void reset(final Class<?> k) {
-    TLS.get(k).get().depth = 0;
+  /** @return the slot tracking call depth for the key named {@code name} */
+  public static int slotFor(final String name) {
+    final Integer slot = SLOTS_BY_NAME.get(name);
+    if (null != slot) {
+      return slot;
+    }
+    synchronized (SLOTS_BY_NAME) {
+      Integer assigned = SLOTS_BY_NAME.get(name);
+      if (null == assigned) {
+        // slots are only ever added under this lock, so the size is the next free slot
+        assigned = SLOTS_BY_NAME.size();
+        SLOTS_BY_NAME.put(name, assigned);
+      }
+      return assigned;
+    }
   }
 
-  private static final class Depth {
-    private int depth;
+  public static int incrementCallDepth(final Class<?> k) {
+    return incrementCallDepth(slotFor(k));
+  }
 
-    private Depth() {
-      this.depth = 0;
+  public static int incrementCallDepth(final int slot) {
+    int[] depths = DEPTHS.get();
+    if (slot >= depths.length) {
+      // slots were assigned after this thread's array was created
+      depths = Arrays.copyOf(depths, capacityFor(slot + 1));
+      DEPTHS.set(depths);
     }
+    return depths[slot]++;
+  }
+
+  public static void reset(final Class<?> k) {
+    reset(slotFor(k));
+  }
 
-    private int increment() {
-      return this.depth++;
+  public static void reset(final int slot) {
+    final int[] depths = DEPTHS.get();
+    if (slot < depths.length) {
+      depths[slot] = 0;
     }
   }
 
-  private static final class ThreadLocalDepth extends ThreadLocal<Depth> {
-    @Override
-    protected Depth initialValue() {
-      return new Depth();
+  private static int capacityFor(final int slots) {
+    int capacity = 16;
+    while (capacity < slots) {
+      capacity <<= 1;
     }
+    return capacity;
   }
 }
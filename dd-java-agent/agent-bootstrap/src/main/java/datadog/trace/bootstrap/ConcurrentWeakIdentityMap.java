@@ -0,0 +1,243 @@
+package datadog.trace.bootstrap;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent map with weakly referenced keys compared by identity.
+ *
+ * <p>The map is split into independently locked stripes, each with its own hash table and reference
+ * queue. Reads never lock. Writes lock a single stripe and expunge the entries of collected keys
+ * queued for that stripe first; {@link #expungeStaleEntries()} does the same for all stripes in
+ * bulk and is meant to be called periodically.
+ *
+ * <p>The number of writes is counted per stripe under its lock, which gives an approximate usage
+ * figure without a shared counter. Reads are not counted, so they never write to shared memory.
+ */
+public final class ConcurrentWeakIdentityMap<K, V> implements WeakMap<K, V> {
+
+  private static final int STRIPE_BITS = 4;
+  private static final int STRIPES = 1 << STRIPE_BITS;
+  private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+  private final Stripe<K, V>[] stripes;
+
+  @SuppressWarnings("unchecked")
+  public ConcurrentWeakIdentityMap() {
+    stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; ++i) {
+      stripes[i] = new Stripe<>();
+    }
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (final Stripe<K, V> stripe : stripes) {
+      size += stripe.count;
+    }
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return null != get(key);
+  }
+
+  @Override
+  public V get(final K key) {
+    final int hash = hash(key);
+    final Stripe<K, V> stripe = stripeFor(hash);
+    final Entry<K, V> entry = stripe.find(key, hash);
+    return null == entry ? null : entry.value;
+  }
+
+  @Override
+  public void put(final K key, final V value) {
+    final int hash = hash(key);
+    final Stripe<K, V> stripe = stripeFor(hash);
+    synchronized (stripe) {
+      stripe.put(key, hash, value, false);
+    }
+  }
+
+  @Override
+  public void putIfAbsent(final K key, final V value) {
+    final int hash = hash(key);
+    final Stripe<K, V> stripe = stripeFor(hash);
+    if (null == stripe.find(key, hash)) {
+      synchronized (stripe) {
+        stripe.put(key, hash, value, true);
+      }
+    }
+  }
+
+  @Override
+  public V computeIfAbsent(final K key, final ValueSupplier<? super K, ? extends V> supplier) {
+    final int hash = hash(key);
+    final Stripe<K, V> stripe = stripeFor(hash);
+    Entry<K, V> entry = stripe.find(key, hash);
+    if (null != entry) {
+      return entry.value;
+    }
+    synchronized (stripe) {
+      entry = stripe.find(key, hash);
+      if (null != entry) {
+        return entry.value;
+      }
+      final V value = supplier.get(key);
+      stripe.put(key, hash, value, false);
+      return value;
+    }
+  }
+
+  /**
+   * @return the monitor guarding writes to the stripe of {@code key}, which callers can hold to
+   *     make a check-then-put sequence on that key atomic
+   */
+  public Object lockFor(final K key) {
+    return stripeFor(hash(key));
+  }
+
+  /** Removes the entries of all keys that have been garbage collected. */
+  public void expungeStaleEntries() {
+    for (final Stripe<K, V> stripe : stripes) {
+      // reference queues have no peek, so the first stale entry is polled outside the lock
+      final Object stale = stripe.poll();
+      if (null != stale) {
+        synchronized (stripe) {
+          stripe.remove(stale);
+          stripe.expungeStaleEntries();
+        }
+      }
+    }
+  }
+
+  /** @return approximate number of entries added or replaced */
+  public long writes() {
+    long writes = 0;
+    for (final Stripe<K, V> stripe : stripes) {
+      writes += stripe.writes;
+    }
+    return writes;
+  }
+
+  private Stripe<K, V> stripeFor(final int hash) {
+    return stripes[hash >>> (Integer.SIZE - STRIPE_BITS)];
+  }
+
+  private static int hash(final Object key) {
+    // fibonacci hashing spreads identity hash codes over the high bits used to select the stripe
+    return System.identityHashCode(key) * 0x9E3779B9;
+  }
+
+  private static final class Entry<K, V> extends WeakReference<K> {
+    final int hash;
+    volatile V value;
+    volatile Entry<K, V> next;
+
+    Entry(
+        final K key,
+        final int hash,
+        final V value,
+        final Entry<K, V> next,
+        final ReferenceQueue<? super K> queue) {
+      super(key, queue);
+      this.hash = hash;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /** Writes are guarded by the stripe's monitor. */
+  private static final class Stripe<K, V> extends ReferenceQueue<K> {
+    volatile AtomicReferenceArray<Entry<K, V>> table =
+        new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+    volatile int count;
+    volatile long writes;
+
+    Entry<K, V> find(final K key, final int hash) {
+      final AtomicReferenceArray<Entry<K, V>> table = this.table;
+      Entry<K, V> entry = table.get(hash & (table.length() - 1));
+      while (null != entry) {
+        if (entry.hash == hash && entry.get() == key) {
+          return entry;
+        }
+        entry = entry.next;
+      }
+      return null;
+    }
+
+    void put(final K key, final int hash, final V value, final boolean onlyIfAbsent) {
+      expungeStaleEntries();
+      final Entry<K, V> existing = find(key, hash);
+      if (null != existing) {
+        if (!onlyIfAbsent) {
+          existing.value = value;
+          writes++;
+        }
+        return;
+      }
+      if (count >= table.length() - (table.length() >>> 2)) {
+        resize();
+      }
+      final AtomicReferenceArray<Entry<K, V>> table = this.table;
+      final int index = hash & (table.length() - 1);
+      table.set(index, new Entry<>(key, hash, value, table.get(index), this));
+      count++;
+      writes++;
+    }
+
+    void expungeStaleEntries() {
+      Object stale;
+      while (null != (stale = poll())) {
+        remove(stale);
+      }
+    }
+
+    void remove(final Object stale) {
+      final AtomicReferenceArray<Entry<K, V>> table = this.table;
+      final int index = ((Entry<?, ?>) stale).hash & (table.length() - 1);
+      Entry<K, V> previous = null;
+      Entry<K, V> entry = table.get(index);
+      while (null != entry) {
+        if (entry == stale) {
+          // unlinking in place is safe: concurrent readers positioned on the entry carry on to next
+          if (null == previous) {
+            table.set(index, entry.next);
+          } else {
+            previous.next = entry.next;
+          }
+          count--;
+          return;
+        }
+        previous = entry;
+        entry = entry.next;
+      }
+      // not found: the entry was dropped when the table was resized
+    }
+
+    private void resize() {
+      final AtomicReferenceArray<Entry<K, V>> oldTable = table;
+      final AtomicReferenceArray<Entry<K, V>> newTable =
+          new AtomicReferenceArray<>(oldTable.length() << 1);
+      final int mask = newTable.length() - 1;
+      int newCount = 0;
+      for (int i = 0; i < oldTable.length(); ++i) {
+        for (Entry<K, V> entry = oldTable.get(i); null != entry; entry = entry.next) {
+          final K key = entry.get();
+          if (null != key) {
+            // entries are copied rather than relinked so readers of the old table are unaffected
+            final int index = entry.hash & mask;
+            newTable.set(
+                index, new Entry<>(key, entry.hash, entry.value, newTable.get(index), this));
+            newCount++;
+          }
+        }
+      }
+      table = newTable;
+      count = newCount;
+    }
+  }
+}
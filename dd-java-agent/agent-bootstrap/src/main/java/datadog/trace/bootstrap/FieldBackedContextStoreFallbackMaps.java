@@ -0,0 +1,55 @@
+package datadog.trace.bootstrap;
+
+import datadog.common.exec.AgentTaskScheduler;
+import datadog.common.exec.AgentTaskScheduler.Task;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maps used by field-backed context stores for keys whose class could not have a field injected,
+ * for example classes that were already loaded when the agent started.
+ *
+ * <p>Maps are registered by context store name so their usage can be reported, and stale entries
+ * are expunged from all of them every second.
+ */
+@Slf4j
+public final class FieldBackedContextStoreFallbackMaps {
+
+  static final long CLEAN_FREQUENCY_SECONDS = 1;
+
+  private static final Map<String, ConcurrentWeakIdentityMap<Object, Object>> MAPS =
+      new ConcurrentHashMap<>();
+
+  private FieldBackedContextStoreFallbackMaps() {}
+
+  public static ConcurrentWeakIdentityMap<Object, Object> newFallbackMap(final String storeName) {
+    log.debug("Context store {} is falling back to a weak map", storeName);
+    final ConcurrentWeakIdentityMap<Object, Object> map = new ConcurrentWeakIdentityMap<>();
+    AgentTaskScheduler.INSTANCE.weakScheduleAtFixedRate(
+        MapCleaningTask.INSTANCE,
+        map,
+        CLEAN_FREQUENCY_SECONDS,
+        CLEAN_FREQUENCY_SECONDS,
+        TimeUnit.SECONDS);
+    MAPS.put(storeName, map);
+    return map;
+  }
+
+  /** @return fallback maps created so far, by context store name */
+  public static Map<String, ConcurrentWeakIdentityMap<Object, Object>> fallbackMaps() {
+    return Collections.unmodifiableMap(MAPS);
+  }
+
+  private static class MapCleaningTask implements Task<ConcurrentWeakIdentityMap<?, ?>> {
+
+    static final MapCleaningTask INSTANCE = new MapCleaningTask();
+
+    @Override
+    public void run(final ConcurrentWeakIdentityMap<?, ?> target) {
+      target.expungeStaleEntries();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package datadog.trace.bootstrap;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bootstrap for invokedynamic-based advice dispatch.
+ *
+ * <p>When indy advice is enabled, non-inlined advice methods are called from instrumented methods
+ * through an {@code invokedynamic} instruction bootstrapped here instead of being copied into the
+ * instrumented method. The advice class is only resolved against the instrumented type's
+ * classloader on first invocation. If it cannot be resolved the call site is bound to a no-op, so
+ * the instrumented method keeps working without tracing. Errors thrown while resolving the advice
+ * are not caught and fail the call site with a {@link java.lang.BootstrapMethodError}.
+ *
+ * <p>Must be on the bootstrap classpath so that it is visible from every instrumented class.
+ */
+@Slf4j
+public final class IndyAdviceBootstrap {
+
+  /** Resolves advice classes against the classloader of the instrumented type. */
+  public interface AdviceResolver {
+    Class<?> resolve(String adviceClassName, ClassLoader classLoader) throws Exception;
+  }
+
+  private static volatile AdviceResolver resolver;
+
+  private IndyAdviceBootstrap() {}
+
+  public static void registerAdviceResolver(final AdviceResolver adviceResolver) {
+    resolver = adviceResolver;
+  }
+
+  /**
+   * Bootstrap method referenced by instrumented call sites.
+   *
+   * @param lookup lookup of the instrumented type
+   * @param adviceMethodName name of the advice method
+   * @param adviceMethodType type of the advice method
+   * @param args advice class name, enter (0) or exit (1), instrumented type, instrumented method
+   *     name
+   */
+  public static CallSite bootstrap(
+      final MethodHandles.Lookup lookup,
+      final String adviceMethodName,
+      final MethodType adviceMethodType,
+      final Object... args) {
+    final String adviceClassName = (String) args[0];
+    final Class<?> instrumentedType = (Class<?>) args[2];
+    try {
+      final Class<?> adviceClass =
+          resolver.resolve(adviceClassName, instrumentedType.getClassLoader());
+      return new ConstantCallSite(
+          MethodHandles.publicLookup().findStatic(adviceClass, adviceMethodName, adviceMethodType));
+    } catch (final Exception e) {
+      // errors such as a LinkageError are not recoverable here and are left to the JVM
+      log.warn(
+          "Unable to bind advice {}.{} for {}, disabling it",
+          adviceClassName,
+          adviceMethodName,
+          instrumentedType.getName(),
+          e);
+      return new ConstantCallSite(noop(adviceMethodType));
+    }
+  }
+
+  private static MethodHandle noop(final MethodType type) {
+    final Class<?> returnType = type.returnType();
+    final MethodHandle result;
+    if (returnType == void.class) {
+      // the returned null is discarded by the conversion to void
+      result = MethodHandles.constant(Object.class, null).asType(MethodType.methodType(void.class));
+    } else if (returnType.isPrimitive()) {
+      result = MethodHandles.constant(returnType, defaultPrimitive(returnType));
+    } else {
+      result = MethodHandles.constant(returnType, null);
+    }
+    return MethodHandles.dropArguments(result, 0, type.parameterList());
+  }
+
+  private static Object defaultPrimitive(final Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == byte.class) {
+      return (byte) 0;
+    } else if (type == short.class) {
+      return (short) 0;
+    } else if (type == char.class) {
+      return (char) 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == float.class) {
+      return 0f;
+    } else if (type == double.class) {
+      return 0d;
+    }
+    return 0;
+  }
+}
@@ -6,10 +6,13 @@ import static datadog.trace.api.cache.RadixTreeCache.PORTS;
 import datadog.trace.api.Config;
 import datadog.trace.api.DDSpanTypes;
 import datadog.trace.api.DDTags;
+import datadog.trace.api.Function;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
 import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter;
-import java.util.regex.Pattern;
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -17,10 +20,15 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
   public static final String DD_SPAN_ATTRIBUTE = "datadog.span";
   public static final String DD_RESPONSE_ATTRIBUTE = "datadog.response";
 
-  // Source: https://www.regextester.com/22
-  private static final Pattern VALID_IPV4_ADDRESS =
-      Pattern.compile(
-          "^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])$");
+  private static final Function<String, CachedPath> NEW_CACHED_PATH =
+      new Function<String, CachedPath>() {
+        @Override
+        public CachedPath apply(final String path) {
+          return new CachedPath(path);
+        }
+      };
+  // raw request path -> the last url built for it
+  private static final DDCache<String, CachedPath> URL_CACHE = DDCaches.newFixedSizeCache(256);
 
   protected abstract String method(REQUEST request);
 
@@ -51,32 +59,11 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
       try {
         final URIDataAdapter url = url(request);
         if (url != null) {
-          final StringBuilder urlNoParams = new StringBuilder();
-          String scheme = url.scheme();
-          if (scheme != null) {
-            urlNoParams.append(scheme);
-            urlNoParams.append("://");
-          }
-          String host = url.host();
-          if (host != null) {
-            urlNoParams.append(host);
-            int port = url.port();
-            if (port > 0 && port != 80 && port != 443) {
-              urlNoParams.append(":");
-              urlNoParams.append(port);
-            }
-          }
-          final String path = url.path();
-          if (path.isEmpty()) {
-            urlNoParams.append("/");
-          } else {
-            if (!path.startsWith("/")) {
-              urlNoParams.append("/");
-            }
-            urlNoParams.append(path);
-          }
-
-          span.setTag(Tags.HTTP_URL, urlNoParams.toString());
+          span.setTag(
+              Tags.HTTP_URL,
+              URL_CACHE
+                  .computeIfAbsent(url.path(), NEW_CACHED_PATH)
+                  .url(url.scheme(), url.host(), url.port()));
 
           if (Config.get().isHttpServerTagQueryString()) {
             span.setTag(DDTags.HTTP_QUERY, url.query());
@@ -96,7 +83,7 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
     if (connection != null) {
       final String ip = peerHostIP(connection);
       if (ip != null) {
-        if (VALID_IPV4_ADDRESS.matcher(ip).matches()) {
+        if (isIPv4(ip)) {
           span.setTag(Tags.PEER_HOST_IPV4, ip);
         } else if (ip.contains(":")) {
           span.setTag(Tags.PEER_HOST_IPV6, ip);
@@ -122,6 +109,108 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
     return span;
   }
 
+  /** @return whether the address is an IPv4 address in dotted decimal notation */
+  static boolean isIPv4(final String ip) {
+    final int length = ip.length();
+    if (length < 7 || length > 15) {
+      return false;
+    }
+    int dots = 0;
+    int digits = 0;
+    int octet = 0;
+    for (int i = 0; i < length; i++) {
+      final char c = ip.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (digits > 0 && octet == 0) {
+          return false; // leading zero
+        }
+        octet = octet * 10 + (c - '0');
+        if (++digits > 3 || octet > 255) {
+          return false;
+        }
+      } else if (c == '.') {
+        if (digits == 0 || ++dots > 3) {
+          return false;
+        }
+        digits = 0;
+        octet = 0;
+      } else {
+        return false;
+      }
+    }
+    return dots == 3 && digits > 0;
+  }
+
+  /**
+   * The url without the query string last built for a request path. Servers are usually reached
+   * under a single scheme, host and port, so the pre-encoded url can be reused for the next request
+   * with the same path.
+   */
+  private static final class CachedPath {
+    private final String path;
+    private volatile CachedURL url;
+
+    CachedPath(final String path) {
+      this.path = path;
+    }
+
+    UTF8BytesString url(final String scheme, final String host, final int port) {
+      final CachedURL cached = url;
+      if (cached != null && cached.matches(scheme, host, port)) {
+        return cached.url;
+      }
+      final CachedURL built = new CachedURL(scheme, host, port, buildURL(scheme, host, port));
+      url = built;
+      return built.url;
+    }
+
+    private UTF8BytesString buildURL(final String scheme, final String host, final int port) {
+      final StringBuilder urlNoParams = new StringBuilder();
+      if (scheme != null) {
+        urlNoParams.append(scheme);
+        urlNoParams.append("://");
+      }
+      if (host != null) {
+        urlNoParams.append(host);
+        if (port > 0 && port != 80 && port != 443) {
+          urlNoParams.append(":");
+          urlNoParams.append(port);
+        }
+      }
+      if (path.isEmpty()) {
+        urlNoParams.append("/");
+      } else {
+        if (!path.startsWith("/")) {
+          urlNoParams.append("/");
+        }
+        urlNoParams.append(path);
+      }
+      return UTF8BytesString.create(urlNoParams);
+    }
+  }
+
+  private static final class CachedURL {
+    private final String scheme;
+    private final String host;
+    private final int port;
+    private final UTF8BytesString url;
+
+    CachedURL(final String scheme, final String host, final int port, final UTF8BytesString url) {
+      this.scheme = scheme;
+      this.host = host;
+      this.port = port;
+      this.url = url;
+    }
+
+    boolean matches(final String scheme, final String host, final int port) {
+      return this.port == port && equals(this.scheme, scheme) && equals(this.host, host);
+    }
+
+    private static boolean equals(final String left, final String right) {
+      return left == null ? right == null : left.equals(right);
+    }
+  }
+
   //  @Override
   //  public Span onError(final Span span, final Throwable throwable) {
   //    assert span != null;
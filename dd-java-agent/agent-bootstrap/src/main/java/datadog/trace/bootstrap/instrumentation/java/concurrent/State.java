@@ -1,6 +1,11 @@
 package datadog.trace.bootstrap.instrumentation.java.concurrent;
 
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan;
+
+import datadog.trace.api.Config;
 import datadog.trace.bootstrap.ContextStore;
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.context.TraceScope;
 import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +26,27 @@ public final class State {
     }
   }
 
+  /**
+   * Carries only the span to the task, without registering with the trace: the trace is not kept
+   * open until the task runs. A span started in the task registers with the trace itself when it is
+   * started, but is dropped if the rest of the trace has already been reported by then.
+   */
+  private static final class SpanContinuation implements TraceScope.Continuation {
+    private final AgentSpan span;
+
+    private SpanContinuation(final AgentSpan span) {
+      this.span = span;
+    }
+
+    @Override
+    public TraceScope activate() {
+      return activateSpan(span);
+    }
+
+    @Override
+    public void cancel() {}
+  }
+
   public static ContextStore.Factory<State> FACTORY =
       new ContextStore.Factory<State>() {
         @Override
@@ -44,12 +70,21 @@ public final class State {
       // "double instruments" calls to ScheduledExecutorService.submit/schedule
       //
       // lazy write is guaranteed to be seen by getAndSet
-      continuationRef.lazySet(scope.capture());
+      continuationRef.lazySet(capture(scope));
       return true;
     }
     return false;
   }
 
+  private static TraceScope.Continuation capture(final TraceScope scope) {
+    if (scope instanceof AgentScope
+        && scope.isAsyncPropagating()
+        && Config.get().isTraceExecutorsLightweightPropagation()) {
+      return new SpanContinuation(((AgentScope) scope).span());
+    }
+    return scope.capture();
+  }
+
   public void closeContinuation() {
     TraceScope.Continuation continuation = getAndResetContinuation();
     if (null != continuation) {
@@ -2,6 +2,9 @@ package datadog.trace.bootstrap.instrumentation.jdbc;
 
 import static datadog.trace.bootstrap.instrumentation.jdbc.DBInfo.DEFAULT;
 
+import datadog.trace.api.Function;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.bootstrap.ExceptionLogger;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
@@ -687,6 +690,25 @@ public enum JDBCConnectionUrlParser {
     }
   }
 
+  // standard properties other than the user, connections setting them are parsed every time
+  private static final String[] NON_USER_PROPERTIES = {
+    "databasename", "databaseName", "servername", "serverName", "portnumber", "portNumber"
+  };
+
+  private static final DDCache<CacheKey, DBInfo> CACHED_DB_INFO = DDCaches.newFixedSizeCache(64);
+
+  private static final Function<CacheKey, DBInfo> PARSE =
+      new Function<CacheKey, DBInfo>() {
+        @Override
+        public DBInfo apply(final CacheKey key) {
+          return parseUncached(
+              key.url,
+              key.user == null
+                  ? Collections.<String, String>emptyMap()
+                  : Collections.singletonMap("user", key.user));
+        }
+      };
+
   private final String[] typeKeys;
 
   JDBCConnectionUrlParser(final String... typeKeys) {
@@ -695,10 +717,36 @@ public enum JDBCConnectionUrlParser {
 
   abstract DBInfo.Builder doParse(String jdbcUrl, final DBInfo.Builder builder);
 
-  public static DBInfo parse(String connectionUrl, final Properties props) {
+  /**
+   * Parse the connection url, the given properties fill in what the url does not define. The
+   * results are cached per url and user, so the connections of a pool are parsed only once.
+   *
+   * @param connectionUrl the jdbc connection url
+   * @param props the connection properties, may be {@literal null}
+   * @return the connection info, {@linkplain DBInfo#DEFAULT} if the url can't be parsed
+   */
+  public static DBInfo parse(final String connectionUrl, final Properties props) {
     if (connectionUrl == null) {
       return DEFAULT;
     }
+    if (props != null && !props.isEmpty()) {
+      for (final String key : NON_USER_PROPERTIES) {
+        if (props.containsKey(key)) {
+          // rare, not worth caching
+          return parseUncached(connectionUrl, props);
+        }
+      }
+      final Object user = props.get("user");
+      if (user instanceof String) {
+        return CACHED_DB_INFO.computeIfAbsent(new CacheKey(connectionUrl, (String) user), PARSE);
+      } else if (user != null) {
+        return parseUncached(connectionUrl, props);
+      }
+    }
+    return CACHED_DB_INFO.computeIfAbsent(new CacheKey(connectionUrl, null), PARSE);
+  }
+
+  private static DBInfo parseUncached(String connectionUrl, final Map<?, ?> props) {
     // Make this easier and ignore case.
     connectionUrl = connectionUrl.toLowerCase();
 
@@ -796,4 +844,31 @@ public enum JDBCConnectionUrlParser {
       }
     }
   }
+
+  private static final class CacheKey {
+    private final String url;
+    private final String user;
+
+    CacheKey(final String url, final String user) {
+      this.url = url;
+      this.user = user;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      final CacheKey other = (CacheKey) o;
+      return url.equals(other.url) && (user == null ? other.user == null : user.equals(other.user));
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * url.hashCode() + (user == null ? 0 : user.hashCode());
+    }
+  }
 }
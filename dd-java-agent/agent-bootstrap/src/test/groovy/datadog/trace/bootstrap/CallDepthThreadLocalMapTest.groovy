@@ -32,4 +32,47 @@ class CallDepthThreadLocalMapTest extends Specification {
     CallDepthThreadLocalMap.incrementCallDepth(k1) == 1
     CallDepthThreadLocalMap.incrementCallDepth(k2) == 1
   }
+
+  def "slots are stable per class and independent"() {
+    setup:
+    int slot1 = CallDepthThreadLocalMap.slotFor(Long)
+    int slot2 = CallDepthThreadLocalMap.slotFor(Short)
+
+    expect:
+    slot1 != slot2
+    CallDepthThreadLocalMap.slotFor(Long) == slot1
+
+    CallDepthThreadLocalMap.incrementCallDepth(slot1) == 0
+    CallDepthThreadLocalMap.incrementCallDepth(Long) == 1
+    CallDepthThreadLocalMap.incrementCallDepth(slot2) == 0
+
+    when:
+    CallDepthThreadLocalMap.reset(Long)
+
+    then:
+    CallDepthThreadLocalMap.incrementCallDepth(slot1) == 0
+    CallDepthThreadLocalMap.incrementCallDepth(slot2) == 1
+  }
+
+  def "depths grow beyond the initial capacity"() {
+    setup:
+    // create the thread's depths before assigning more slots than it can hold
+    CallDepthThreadLocalMap.incrementCallDepth(Byte)
+    def classes = (1..100).collect { new GroovyClassLoader().parseClass("class Key$it {}") }
+
+    expect:
+    classes.every { CallDepthThreadLocalMap.incrementCallDepth(it) == 0 }
+    classes.every { CallDepthThreadLocalMap.incrementCallDepth(it) == 1 }
+  }
+
+  def "redeployed classes reuse the slot of their name"() {
+    setup:
+    def first = new GroovyClassLoader().parseClass("class Redeployed {}")
+    def second = new GroovyClassLoader().parseClass("class Redeployed {}")
+
+    expect:
+    !first.is(second)
+    CallDepthThreadLocalMap.slotFor(first) == CallDepthThreadLocalMap.slotFor(second)
+    CallDepthThreadLocalMap.slotFor(first) == CallDepthThreadLocalMap.slotFor("Redeployed")
+  }
 }
@@ -0,0 +1,124 @@
+package datadog.trace.bootstrap
+
+import datadog.trace.util.gc.GCUtils
+import datadog.trace.util.test.DDSpecification
+import spock.lang.Retry
+
+import java.lang.ref.WeakReference
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+class ConcurrentWeakIdentityMapTest extends DDSpecification {
+
+  def map = new ConcurrentWeakIdentityMap<Object, Object>()
+
+  def "keys are compared by identity"() {
+    setup:
+    def key1 = new String("key")
+    def key2 = new String("key")
+
+    when:
+    map.put(key1, "value1")
+    map.put(key2, "value2")
+
+    then:
+    map.size() == 2
+    map.get(key1) == "value1"
+    map.get(key2) == "value2"
+    map.get("other") == null
+  }
+
+  def "put replaces and putIfAbsent keeps existing values"() {
+    setup:
+    def key = new Object()
+
+    when:
+    map.put(key, "value1")
+    map.putIfAbsent(key, "value2")
+
+    then:
+    map.get(key) == "value1"
+
+    when:
+    map.put(key, "value3")
+
+    then:
+    map.get(key) == "value3"
+    map.size() == 1
+    map.writes() == 2
+  }
+
+  def "computeIfAbsent only calls supplier once"() {
+    setup:
+    def key = new Object()
+    def calls = 0
+    def supplier = new WeakMap.ValueSupplier<Object, Object>() {
+        @Override
+        Object get(Object ignored) {
+          return ++calls
+        }
+      }
+
+    expect:
+    map.computeIfAbsent(key, supplier) == 1
+    map.computeIfAbsent(key, supplier) == 1
+    calls == 1
+  }
+
+  def "entries survive resizing"() {
+    setup:
+    def keys = (1..10000).collect { new Object() }
+
+    when:
+    keys.eachWithIndex { key, i -> map.put(key, i) }
+
+    then:
+    map.size() == keys.size()
+    keys.withIndex().every { key, i -> map.get(key) == i }
+  }
+
+  def "concurrent writers do not lose entries"() {
+    setup:
+    def threads = 8
+    def keysPerThread = 1000
+    def executor = Executors.newFixedThreadPool(threads)
+    def start = new CountDownLatch(1)
+    def keys = (1..threads).collect { (1..keysPerThread).collect { new Object() } }
+
+    when:
+    def futures = keys.collect { threadKeys ->
+      executor.submit {
+        start.await()
+        threadKeys.each { map.putIfAbsent(it, it) }
+      }
+    }
+    start.countDown()
+    futures*.get()
+
+    then:
+    map.size() == threads * keysPerThread
+    keys.flatten().every { map.get(it).is(it) }
+
+    cleanup:
+    executor.shutdownNow()
+  }
+
+  @Retry
+  def "stale entries are expunged in bulk"() {
+    setup:
+    def key = new Object()
+    map.put(key, "value")
+
+    expect:
+    map.size() == 1
+
+    when:
+    def keyRef = new WeakReference(key)
+    key = null
+    GCUtils.awaitGC(keyRef)
+    map.expungeStaleEntries()
+
+    then:
+    map.size() == 0
+  }
+}
@@ -6,6 +6,7 @@ import datadog.trace.bootstrap.instrumentation.api.AgentSpan
 import datadog.trace.bootstrap.instrumentation.api.DefaultURIDataAdapter
 import datadog.trace.bootstrap.instrumentation.api.Tags
 import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
 
 import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_TAG_QUERY_STRING
@@ -24,7 +25,7 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     then:
     if (req) {
       1 * span.setTag(Tags.HTTP_METHOD, "test-method")
-      1 * span.setTag(Tags.HTTP_URL, url)
+      1 * span.setTag(Tags.HTTP_URL, { it.toString() == url })
     }
     0 * _
 
@@ -49,7 +50,7 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
 
     then:
     if (expectedUrl) {
-      1 * span.setTag(Tags.HTTP_URL, expectedUrl)
+      1 * span.setTag(Tags.HTTP_URL, { it.toString() == expectedUrl })
     }
     if (expectedUrl && tagQueryString) {
       1 * span.setTag(DDTags.HTTP_QUERY, expectedQuery)
@@ -77,6 +78,22 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     req = [url: url == null ? null : new URI(url)]
   }
 
+  def "test url is rebuilt for another host with the same path"() {
+    setup:
+    def decorator = newDecorator()
+
+    when:
+    decorator.onRequest(span, [url: new URI("http://host-a/same/path")])
+    decorator.onRequest(span, [url: new URI("http://host-b:8080/same/path")])
+    decorator.onRequest(span, [url: new URI("http://host-b:8080/same/path")])
+
+    then:
+    3 * span.setTag(Tags.HTTP_METHOD, null)
+    1 * span.setTag(Tags.HTTP_URL, { it instanceof UTF8BytesString && it.toString() == "http://host-a/same/path" })
+    2 * span.setTag(Tags.HTTP_URL, { it instanceof UTF8BytesString && it.toString() == "http://host-b:8080/same/path" })
+    0 * _
+  }
+
   def "test onConnection"() {
     setup:
     def decorator = newDecorator()
@@ -103,6 +120,32 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     false | [ip: "3ffe:1900:4545:3:200:f8ff:fe21:67cf", port: 555]
   }
 
+  def "test ipv4 detection for #ip"() {
+    expect:
+    HttpServerDecorator.isIPv4(ip) == ipv4
+
+    where:
+    ip                                       | ipv4
+    "0.0.0.0"                                | true
+    "10.0.0.1"                               | true
+    "127.0.0.1"                              | true
+    "192.168.100.200"                        | true
+    "255.255.255.255"                        | true
+    "256.0.0.1"                              | false
+    "1.2.3"                                  | false
+    "1.2.3.4.5"                              | false
+    "1..3.4"                                 | false
+    ".1.2.3"                                 | false
+    "1.2.3."                                 | false
+    "01.2.3.4"                               | false
+    "1.2.3.1000"                             | false
+    "a.b.c.d"                                | false
+    "::1"                                    | false
+    "::ffff:10.0.0.1"                        | false
+    "3ffe:1900:4545:3:200:f8ff:fe21:67cf"    | false
+    ""                                       | false
+  }
+
   def "test onResponse"() {
     setup:
     def decorator = newDecorator()
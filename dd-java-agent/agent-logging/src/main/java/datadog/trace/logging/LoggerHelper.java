@@ -1,6 +1,8 @@
 package datadog.trace.logging;
 
 import org.slf4j.Marker;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
 
 public abstract class LoggerHelper {
   /**
@@ -24,4 +26,20 @@ public abstract class LoggerHelper {
    * @param t the {@link Throwable} to log
    */
   public abstract void log(LogLevel level, String message, Throwable t);
+
+  /**
+   * Log a parameterized message at a certain level.
+   *
+   * <p>The {@link LoggerHelper} can assume that the caller have checked if the {@code level} is
+   * {@code enabled}. The default implementation formats the message on the calling thread.
+   *
+   * @param level the {@link LogLevel} to log at
+   * @param format the message format, with {@code {}} placeholders for the {@code arguments}
+   * @param arguments the arguments of the message, where a trailing {@link Throwable} is logged as
+   *     such
+   */
+  public void formatLog(LogLevel level, String format, Object... arguments) {
+    FormattingTuple tuple = MessageFormatter.arrayFormat(format, arguments);
+    log(level, tuple.getMessage(), tuple.getThrowable());
+  }
 }
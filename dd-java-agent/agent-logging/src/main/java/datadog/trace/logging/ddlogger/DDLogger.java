@@ -5,8 +5,6 @@ import datadog.trace.logging.LoggerHelper;
 import datadog.trace.logging.LoggerHelperFactory;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
-import org.slf4j.helpers.FormattingTuple;
-import org.slf4j.helpers.MessageFormatter;
 
 /** Implementation of org.slf4j.Logger. Delegates actual rendering to {@link LoggerHelper}. */
 public class DDLogger implements Logger {
@@ -329,8 +327,7 @@ public class DDLogger implements Logger {
       return;
     }
 
-    FormattingTuple tuple = MessageFormatter.format(format, arg);
-    alwaysLog(level, marker, tuple.getMessage(), tuple.getThrowable());
+    alwaysFormatLog(level, marker, format, arg);
   }
 
   public void formatLog(LogLevel level, Marker marker, String format, Object arg1, Object arg2) {
@@ -338,8 +335,7 @@ public class DDLogger implements Logger {
       return;
     }
 
-    FormattingTuple tuple = MessageFormatter.format(format, arg1, arg2);
-    alwaysLog(level, marker, tuple.getMessage(), tuple.getThrowable());
+    alwaysFormatLog(level, marker, format, arg1, arg2);
   }
 
   public void formatLog(LogLevel level, Marker marker, String format, Object... arguments) {
@@ -347,8 +343,7 @@ public class DDLogger implements Logger {
       return;
     }
 
-    FormattingTuple tuple = MessageFormatter.arrayFormat(format, arguments);
-    alwaysLog(level, marker, tuple.getMessage(), tuple.getThrowable());
+    alwaysFormatLog(level, marker, format, arguments);
   }
 
   private void log(LogLevel level, Marker marker, String msg, Throwable t) {
@@ -362,4 +357,8 @@ public class DDLogger implements Logger {
     // TODO Ignoring Marker for now since SLCompatHelper ignores it as well
     helper.log(level, msg, t);
   }
+
+  private void alwaysFormatLog(LogLevel level, Marker marker, String format, Object... arguments) {
+    helper.formatLog(level, format, arguments);
+  }
 }
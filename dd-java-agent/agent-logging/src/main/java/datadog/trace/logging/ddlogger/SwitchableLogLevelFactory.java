@@ -52,5 +52,10 @@ public final class SwitchableLogLevelFactory extends LoggerHelperFactory
     public void log(LogLevel level, String message, Throwable t) {
       delegate.log(level, message, t);
     }
+
+    @Override
+    public void formatLog(LogLevel level, String format, Object... arguments) {
+      delegate.formatLog(level, format, arguments);
+    }
   }
 }
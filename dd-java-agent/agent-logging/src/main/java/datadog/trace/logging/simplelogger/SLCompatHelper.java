@@ -3,14 +3,20 @@ package datadog.trace.logging.simplelogger;
 import datadog.trace.logging.LogLevel;
 import datadog.trace.logging.LoggerHelper;
 import org.slf4j.Marker;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
 
 /**
  * A {@link LoggerHelper} that logs in a way compatible with the {@code SimpleLogger} from SLF4J.
+ *
+ * <p>Messages can optionally be rate limited per call site, and handed over to a {@link
+ * SLCompatRingBuffer} to be formatted and written asynchronously.
  */
 class SLCompatHelper extends LoggerHelper {
   private final String logName;
   private final LogLevel logLevel;
   private final SLCompatSettings settings;
+  private final SLCompatRateLimiter rateLimiter;
 
   SLCompatHelper(String name, SLCompatSettings settings) {
     this(settings.logNameForName(name), settings.logLevelForName(name), settings);
@@ -20,6 +26,7 @@ class SLCompatHelper extends LoggerHelper {
     this.logName = logName;
     this.logLevel = logLevel;
     this.settings = settings;
+    this.rateLimiter = settings.rateLimit > 0 ? new SLCompatRateLimiter(settings.rateLimit) : null;
   }
 
   @Override
@@ -30,11 +37,80 @@ class SLCompatHelper extends LoggerHelper {
 
   @Override
   public void log(LogLevel level, String message, Throwable t) {
+    log(level, message, null, t);
+  }
+
+  @Override
+  public void formatLog(LogLevel level, String format, Object... arguments) {
+    log(level, format, arguments, null);
+  }
+
+  private void log(LogLevel level, String format, Object[] arguments, Throwable t) {
+    int suppressed = 0;
+    if (rateLimiter != null) {
+      suppressed = rateLimiter.acquire(format);
+      if (suppressed < 0) {
+        return;
+      }
+    }
     long timeMillis = Integer.MIN_VALUE;
     if (settings.showDateTime) {
       timeMillis = System.currentTimeMillis();
     }
-    log(level, SLCompatFactory.START_TIME, timeMillis, message, t);
+    String threadName = null;
+    if (settings.showThreadName) {
+      threadName = Thread.currentThread().getName();
+    }
+    SLCompatRingBuffer ringBuffer = settings.ringBuffer;
+    if (ringBuffer != null) {
+      ringBuffer.offer(
+          new SLCompatRingBuffer.Event(
+              this, level, timeMillis, threadName, format, render(arguments), t, suppressed));
+    } else {
+      log(level, timeMillis, threadName, format, arguments, t, suppressed);
+    }
+  }
+
+  /**
+   * Render the arguments to strings on the logging thread, since they may change or be used by
+   * other threads once the call returns. Throwables are kept to print their stack trace.
+   */
+  private static Object[] render(Object[] arguments) {
+    if (arguments == null) {
+      return null;
+    }
+    Object[] rendered = new Object[arguments.length];
+    for (int i = 0; i < arguments.length; i++) {
+      Object argument = arguments[i];
+      if (argument == null || argument instanceof String || argument instanceof Throwable) {
+        rendered[i] = argument;
+      } else {
+        // formats arrays like the message would, and guards against failing toString() calls
+        rendered[i] = MessageFormatter.format("{}", argument).getMessage();
+      }
+    }
+    return rendered;
+  }
+
+  void log(
+      LogLevel level,
+      long timeMillis,
+      String threadName,
+      String format,
+      Object[] arguments,
+      Throwable t,
+      int suppressed) {
+    String message = format;
+    Throwable throwable = t;
+    if (arguments != null) {
+      FormattingTuple tuple = MessageFormatter.arrayFormat(format, arguments);
+      message = tuple.getMessage();
+      throwable = tuple.getThrowable();
+    }
+    if (suppressed > 0) {
+      message = message + " (" + suppressed + " similar messages were suppressed)";
+    }
+    log(level, SLCompatFactory.START_TIME, timeMillis, threadName, message, throwable);
   }
 
   void log(LogLevel level, long startTimeMillis, long timeMillis, String message, Throwable t) {
@@ -0,0 +1,68 @@
+package datadog.trace.logging.simplelogger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of messages per second logged from each call site of a logger.
+ *
+ * <p>A call site is identified by the message format, which avoids walking the stack. Only a
+ * bounded number of formats is tracked, so messages built by concatenation don't grow the map
+ * without bounds; they are not limited once the map is full.
+ */
+final class SLCompatRateLimiter {
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int MAX_CALL_SITES = 256;
+
+  private static final class CallSite {
+    final AtomicLong windowStart;
+    final AtomicInteger count = new AtomicInteger();
+    final AtomicInteger suppressed = new AtomicInteger();
+
+    CallSite(long now) {
+      windowStart = new AtomicLong(now);
+    }
+  }
+
+  private final int limit;
+  private final ConcurrentHashMap<String, CallSite> callSites = new ConcurrentHashMap<>();
+
+  SLCompatRateLimiter(int limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Check if a message with the given format can be logged now.
+   *
+   * @param format the message format
+   * @return -1 if the message must be suppressed, otherwise the number of messages from the same
+   *     call site that were suppressed since the last logged one
+   */
+  int acquire(String format) {
+    if (format == null) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    CallSite callSite = callSites.get(format);
+    if (callSite == null) {
+      if (callSites.size() >= MAX_CALL_SITES) {
+        return 0;
+      }
+      CallSite existing = callSites.putIfAbsent(format, callSite = new CallSite(now));
+      if (existing != null) {
+        callSite = existing;
+      }
+    }
+    long windowStart = callSite.windowStart.get();
+    if (now - windowStart >= WINDOW_NANOS && callSite.windowStart.compareAndSet(windowStart, now)) {
+      callSite.count.set(0);
+    }
+    if (callSite.count.incrementAndGet() > limit) {
+      callSite.suppressed.incrementAndGet();
+      return -1;
+    }
+    return callSite.suppressed.getAndSet(0);
+  }
+}
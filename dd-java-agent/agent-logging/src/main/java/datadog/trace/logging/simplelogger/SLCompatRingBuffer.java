@@ -0,0 +1,198 @@
+package datadog.trace.logging.simplelogger;
+
+import datadog.trace.logging.LogLevel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer of log events written by a single daemon thread.
+ *
+ * <p>The arguments of an event are still rendered to strings on the calling thread. Only the
+ * message formatting and the writing to the print stream happen on the writer thread. When the
+ * buffer is full the event is dropped, and the number of dropped events is reported by the writer
+ * thread once it has caught up. The writer thread parks when the buffer is empty and is unparked by
+ * the next event.
+ */
+final class SLCompatRingBuffer implements Runnable {
+  private static final long SHUTDOWN_WAIT_MILLIS = 5_000;
+
+  static final class Event {
+    final SLCompatHelper helper;
+    final LogLevel level;
+    final long timeMillis;
+    final String threadName;
+    final String format;
+    final Object[] arguments;
+    final Throwable t;
+    final int suppressed;
+
+    Event(
+        SLCompatHelper helper,
+        LogLevel level,
+        long timeMillis,
+        String threadName,
+        String format,
+        Object[] arguments,
+        Throwable t,
+        int suppressed) {
+      this.helper = helper;
+      this.level = level;
+      this.timeMillis = timeMillis;
+      this.threadName = threadName;
+      this.format = format;
+      this.arguments = arguments;
+      this.t = t;
+      this.suppressed = suppressed;
+    }
+  }
+
+  private final AtomicReferenceArray<Event> events;
+  private final int mask;
+  // sequence of the next event to claim by a logging thread
+  private final AtomicLong produced = new AtomicLong();
+  // sequence of the next event to write, only advanced by the writer thread
+  private final AtomicLong consumed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  // set by the writer thread before it parks, so that only the first event after that unparks it
+  private final AtomicBoolean idle = new AtomicBoolean();
+
+  private volatile Thread writer;
+  private volatile boolean shutdown;
+
+  SLCompatRingBuffer(int capacity) {
+    int size = 1;
+    while (size < capacity && size < (1 << 30)) {
+      size <<= 1;
+    }
+    this.events = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  void start() {
+    Thread thread = new Thread(this, "dd-log-writer");
+    thread.setDaemon(true);
+    thread.setContextClassLoader(null);
+    writer = thread;
+    thread.start();
+    try {
+      Runtime.getRuntime().addShutdownHook(new Shutdown());
+    } catch (IllegalStateException | SecurityException e) {
+      // the pending events are lost on exit
+    }
+  }
+
+  /**
+   * Add an event to the buffer without blocking.
+   *
+   * @param event the event to add
+   * @return false if the buffer was full and the event was dropped, true otherwise
+   */
+  boolean offer(Event event) {
+    long sequence;
+    do {
+      sequence = produced.get();
+      if (sequence - consumed.get() >= events.length()) {
+        dropped.incrementAndGet();
+        return false;
+      }
+    } while (!produced.compareAndSet(sequence, sequence + 1));
+    // a volatile write, so either the writer sees the event or this thread sees it idle
+    events.set((int) sequence & mask, event);
+    if (idle.get() && idle.compareAndSet(true, false)) {
+      LockSupport.unpark(writer);
+    }
+    return true;
+  }
+
+  /**
+   * Write the events available in the buffer. Must only be called from a single thread at a time.
+   *
+   * @return the number of events written
+   */
+  int drain() {
+    int written = 0;
+    long sequence = consumed.get();
+    Event event;
+    Event last = null;
+    while ((event = events.get((int) sequence & mask)) != null) {
+      events.lazySet((int) sequence & mask, null);
+      consumed.lazySet(++sequence);
+      write(event);
+      last = event;
+      written++;
+    }
+    if (last != null) {
+      // events are only dropped when the buffer is full, so there is always one to report with
+      long lost = dropped.getAndSet(0);
+      if (lost > 0) {
+        last.helper.log(
+            LogLevel.WARN,
+            SLCompatFactory.START_TIME,
+            System.currentTimeMillis(),
+            lost + " log messages were dropped because the log buffer was full",
+            null);
+      }
+    }
+    return written;
+  }
+
+  private void write(Event event) {
+    try {
+      event.helper.log(
+          event.level,
+          event.timeMillis,
+          event.threadName,
+          event.format,
+          event.arguments,
+          event.t,
+          event.suppressed);
+    } catch (Throwable t) {
+      // still write a line, so the event isn't lost without a trace
+      event.helper.log(
+          event.level,
+          event.timeMillis,
+          event.threadName,
+          event.format + " (the message could not be written: " + t.getClass().getName() + ")",
+          null,
+          null,
+          event.suppressed);
+    }
+  }
+
+  @Override
+  public void run() {
+    while (!shutdown) {
+      try {
+        if (drain() == 0) {
+          idle.set(true);
+          // check again, an event may have been added before the flag was seen by its thread
+          if (events.get((int) consumed.get() & mask) == null && !shutdown) {
+            LockSupport.park(this);
+          }
+          idle.set(false);
+        }
+      } catch (Throwable t) {
+        // a failing print stream must not stop the writer
+      }
+    }
+    drain();
+  }
+
+  private final class Shutdown extends Thread {
+    @Override
+    public void run() {
+      shutdown = true;
+      Thread t = writer;
+      if (t != null) {
+        LockSupport.unpark(t);
+        try {
+          t.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
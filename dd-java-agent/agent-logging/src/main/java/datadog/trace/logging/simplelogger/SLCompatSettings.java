@@ -35,6 +35,13 @@ public class SLCompatSettings {
     public static final String SHOW_DATE_TIME = PREFIX + "showDateTime";
     public static final String DEFAULT_LOG_LEVEL = PREFIX + "defaultLogLevel";
 
+    // These are not available in SimpleLogger, but reduce the cost of verbose logging.
+    // Asynchronous messages are formatted on the writer thread, so their arguments are rendered
+    // after the logging call returns.
+    public static final String ASYNC = PREFIX + "async";
+    public static final String ASYNC_BUFFER_SIZE = PREFIX + "asyncBufferSize";
+    public static final String RATE_LIMIT = PREFIX + "rateLimit";
+
     // This is not available in SimpleLogger, but added here to simplify testing.
     static final String CONFIGURATION_FILE = PREFIX + "configurationFile";
   }
@@ -50,6 +57,9 @@ public class SLCompatSettings {
     public static final String DATE_TIME_FORMAT = null;
     public static final boolean SHOW_DATE_TIME = false;
     public static final String DEFAULT_LOG_LEVEL = "INFO";
+    public static final boolean ASYNC = false;
+    public static final int ASYNC_BUFFER_SIZE = 1024;
+    public static final int RATE_LIMIT = 0;
 
     public static final String CONFIGURATION_FILE = "simplelogger.properties";
   }
@@ -226,6 +236,30 @@ public class SLCompatSettings {
     return property == null ? defaultValue : Boolean.parseBoolean(property);
   }
 
+  static int getInt(
+      Properties properties, Properties fallbackProperties, String name, int defaultValue) {
+    String property = getString(properties, fallbackProperties, name);
+    if (property != null) {
+      try {
+        return Integer.parseInt(property.trim());
+      } catch (NumberFormatException e) {
+        // fall back to the default
+      }
+    }
+    return defaultValue;
+  }
+
+  static SLCompatRingBuffer getRingBuffer(Properties properties, Properties fileProperties) {
+    if (!getBoolean(properties, fileProperties, Keys.ASYNC, Defaults.ASYNC)) {
+      return null;
+    }
+    SLCompatRingBuffer ringBuffer =
+        new SLCompatRingBuffer(
+            getInt(properties, fileProperties, Keys.ASYNC_BUFFER_SIZE, Defaults.ASYNC_BUFFER_SIZE));
+    ringBuffer.start();
+    return ringBuffer;
+  }
+
   private final Properties properties;
   private final Properties fileProperties;
 
@@ -239,6 +273,8 @@ public class SLCompatSettings {
   final DTFormatter dateTimeFormatter;
   final boolean showDateTime;
   final LogLevel defaultLogLevel;
+  final SLCompatRingBuffer ringBuffer;
+  final int rateLimit;
 
   public SLCompatSettings(Properties properties) {
     this(
@@ -272,7 +308,9 @@ public class SLCompatSettings {
         getBoolean(properties, fileProperties, Keys.SHOW_DATE_TIME, Defaults.SHOW_DATE_TIME),
         LogLevel.fromString(
             getString(
-                properties, fileProperties, Keys.DEFAULT_LOG_LEVEL, Defaults.DEFAULT_LOG_LEVEL)));
+                properties, fileProperties, Keys.DEFAULT_LOG_LEVEL, Defaults.DEFAULT_LOG_LEVEL)),
+        getRingBuffer(properties, fileProperties),
+        getInt(properties, fileProperties, Keys.RATE_LIMIT, Defaults.RATE_LIMIT));
   }
 
   public SLCompatSettings(
@@ -287,6 +325,36 @@ public class SLCompatSettings {
       DTFormatter dateTimeFormatter,
       boolean showDateTime,
       LogLevel defaultLogLevel) {
+    this(
+        properties,
+        fileProperties,
+        warnLevelString,
+        levelInBrackets,
+        printStream,
+        showShortLogName,
+        showLogName,
+        showThreadName,
+        dateTimeFormatter,
+        showDateTime,
+        defaultLogLevel,
+        null,
+        Defaults.RATE_LIMIT);
+  }
+
+  SLCompatSettings(
+      Properties properties,
+      Properties fileProperties,
+      String warnLevelString,
+      boolean levelInBrackets,
+      PrintStream printStream,
+      boolean showShortLogName,
+      boolean showLogName,
+      boolean showThreadName,
+      DTFormatter dateTimeFormatter,
+      boolean showDateTime,
+      LogLevel defaultLogLevel,
+      SLCompatRingBuffer ringBuffer,
+      int rateLimit) {
     this.properties = properties;
     this.fileProperties = fileProperties;
     this.warnLevelString = warnLevelString;
@@ -298,6 +366,8 @@ public class SLCompatSettings {
     this.dateTimeFormatter = dateTimeFormatter;
     this.showDateTime = showDateTime;
     this.defaultLogLevel = defaultLogLevel;
+    this.ringBuffer = ringBuffer;
+    this.rateLimit = rateLimit;
   }
 
   String getString(String name) {
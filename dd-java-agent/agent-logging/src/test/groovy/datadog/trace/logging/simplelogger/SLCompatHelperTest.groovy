@@ -3,6 +3,7 @@ package datadog.trace.logging.simplelogger
 import datadog.trace.logging.LogLevel
 import spock.lang.Shared
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 import java.text.SimpleDateFormat
 
@@ -14,6 +15,13 @@ class SLCompatHelperTest extends Specification {
     }
   }
 
+  private class UnprintableException extends Exception {
+    @Override
+    String getMessage() {
+      throw new IllegalStateException("no message")
+    }
+  }
+
   def "test levelEnabled"() {
     when:
     Properties props = new Properties()
@@ -139,4 +147,131 @@ class SLCompatHelperTest extends Specification {
     LogLevel.INFO | null     | false | false | false | true  | "yyyy-MM-dd HH:mm:ss z" | false  | "[thread] INFO log\n"
     LogLevel.INFO | null     | false | false | false | true  | "yyyy-MM-dd HH:mm:ss z" | true   | "${new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z").format(new Date(4711))} [thread] INFO log\n"
   }
+
+  def "test asynchronous logging renders arguments on the logging thread"() {
+    setup:
+    def outputStream = new ByteArrayOutputStream()
+    def printStream = new PrintStream(outputStream, true)
+    def ringBuffer = new SLCompatRingBuffer(2)
+    def settings = new SLCompatSettings(new Properties(), new Properties(), null, false, printStream, false, true, true, SLCompatSettings.DTFormatter.create(null), false, LogLevel.INFO, ringBuffer, 0)
+    def helper = new SLCompatHelper("foo", settings)
+    def argument = new StringBuilder("before")
+
+    when:
+    helper.formatLog(LogLevel.INFO, "log {}", argument)
+    helper.log(LogLevel.WARN, "plain", null)
+    helper.log(LogLevel.ERROR, "dropped", null)
+    argument.replace(0, argument.length(), "after")
+
+    then:
+    outputStream.toString() == ""
+
+    when:
+    def written = ringBuffer.drain()
+
+    then:
+    written == 2
+    outputStream.toString() == "[$thread] INFO foo - log before\n" +
+      "[$thread] WARN foo - plain\n" +
+      "[$thread] WARN foo - 1 log messages were dropped because the log buffer was full\n"
+  }
+
+  def "test asynchronous logging writes a line when an event fails"() {
+    setup:
+    def outputStream = new ByteArrayOutputStream()
+    def printStream = new PrintStream(outputStream, true)
+    def ringBuffer = new SLCompatRingBuffer(1)
+    def settings = new SLCompatSettings(new Properties(), new Properties(), null, false, printStream, false, true, true, SLCompatSettings.DTFormatter.create(null), false, LogLevel.INFO, ringBuffer, 0)
+    def helper = new SLCompatHelper("foo", settings)
+    def unprintable = new Object() {
+        @Override
+        String toString() {
+          throw new IllegalStateException("no string")
+        }
+      }
+
+    when:
+    helper.log(LogLevel.ERROR, "failed", new UnprintableException())
+    helper.log(LogLevel.ERROR, "dropped", null)
+    ringBuffer.drain()
+    helper.formatLog(LogLevel.INFO, "log {}", unprintable)
+    ringBuffer.drain()
+
+    then:
+    outputStream.toString().startsWith("[$thread] ERROR foo - failed\n")
+    outputStream.toString().endsWith(
+      "[$thread] ERROR foo - failed (the message could not be written: java.lang.IllegalStateException)\n" +
+      "[$thread] WARN foo - 1 log messages were dropped because the log buffer was full\n" +
+      "[$thread] INFO foo - log [FAILED toString()]\n")
+  }
+
+  def "test asynchronous logging with the writer thread"() {
+    setup:
+    def outputStream = new ByteArrayOutputStream()
+    def printStream = new PrintStream(outputStream, true)
+    def props = new Properties()
+    props.setProperty(SLCompatSettings.Keys.ASYNC, "true")
+    def settings = new SLCompatSettings(props, new Properties(), printStream)
+    def helper = new SLCompatHelper("foo", settings)
+    def conditions = new PollingConditions(timeout: 5)
+
+    when:
+    helper.formatLog(LogLevel.INFO, "log {}", "async")
+
+    then:
+    conditions.eventually {
+      assert outputStream.toString() == "[$thread] INFO foo - log async\n"
+    }
+  }
+
+  def "test idle writer thread is unparked by the next event"() {
+    setup:
+    def outputStream = new ByteArrayOutputStream()
+    def printStream = new PrintStream(outputStream, true)
+    def ringBuffer = new SLCompatRingBuffer(2)
+    def settings = new SLCompatSettings(new Properties(), new Properties(), null, false, printStream, false, true, true, SLCompatSettings.DTFormatter.create(null), false, LogLevel.INFO, ringBuffer, 0)
+    def helper = new SLCompatHelper("foo", settings)
+    def conditions = new PollingConditions(timeout: 5)
+    ringBuffer.start()
+
+    when:
+    helper.log(LogLevel.INFO, "first", null)
+
+    then:
+    conditions.eventually {
+      assert outputStream.toString() == "[$thread] INFO foo - first\n"
+      // parked without a timeout until the next event
+      assert ringBuffer.writer.state == Thread.State.WAITING
+    }
+
+    when:
+    helper.log(LogLevel.INFO, "second", null)
+
+    then:
+    conditions.eventually {
+      assert outputStream.toString() == "[$thread] INFO foo - first\n[$thread] INFO foo - second\n"
+    }
+  }
+
+  def "test rate limiting per call site"() {
+    setup:
+    def outputStream = new ByteArrayOutputStream()
+    def printStream = new PrintStream(outputStream, true)
+    def props = new Properties()
+    props.setProperty(SLCompatSettings.Keys.RATE_LIMIT, "2")
+    def settings = new SLCompatSettings(props, new Properties(), printStream)
+    def helper = new SLCompatHelper("foo", settings)
+
+    when:
+    5.times {
+      helper.formatLog(LogLevel.INFO, "first {}", it)
+      helper.formatLog(LogLevel.INFO, "second {}", it)
+    }
+
+    then:
+    outputStream.toString() == "[$thread] INFO foo - first 0\n" +
+      "[$thread] INFO foo - second 0\n" +
+      "[$thread] INFO foo - first 1\n" +
+      "[$thread] INFO foo - second 1\n"
+  }
 }
@@ -70,6 +70,8 @@ class SLCompatSettingsTest extends Specification {
     settings.dateTimeFormatter.class == SLCompatSettings.DiffDTFormatter
     settings.showDateTime == false
     settings.defaultLogLevel == LogLevel.INFO
+    settings.ringBuffer == null
+    settings.rateLimit == 0
   }
 
   def "test file properties"() {
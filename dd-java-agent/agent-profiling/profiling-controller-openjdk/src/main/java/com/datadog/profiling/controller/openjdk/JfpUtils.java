@@ -54,11 +54,33 @@ final class JfpUtils {
 
   public static Map<String, String> readNamedJfpResource(
       final String name, final String overridesFile) throws IOException {
+    return readNamedJfpResource(name, null, overridesFile);
+  }
+
+  /**
+   * Reads the named .jfp resource, puts the settings of the optional profile resource on top of it
+   * and finally the settings of the optional overrides file.
+   *
+   * @param name the base .jfp resource
+   * @param profileName the .jfp resource with the settings differing from the base, or {@literal
+   *     null}
+   * @param overridesFile the user supplied .jfp file, or {@literal null}
+   * @return the merged settings
+   * @throws IOException if any of the files can not be read
+   */
+  public static Map<String, String> readNamedJfpResource(
+      final String name, final String profileName, final String overridesFile) throws IOException {
     final Map<String, String> result;
     try (final InputStream stream = getNamedResource(name)) {
       result = readJfpFile(stream);
     }
 
+    if (profileName != null) {
+      try (final InputStream stream = getNamedResource(profileName)) {
+        result.putAll(readJfpFile(stream));
+      }
+    }
+
     if (overridesFile != null) {
       try (final InputStream stream = new FileInputStream(overridesFile)) {
         result.putAll(readJfpFile(stream));
@@ -17,9 +17,13 @@ package com.datadog.profiling.controller.openjdk;
 
 import com.datadog.profiling.controller.ConfigurationException;
 import com.datadog.profiling.controller.Controller;
+import com.datadog.profiling.controller.openjdk.events.ApplicationOverheadEventFactory;
+import com.datadog.profiling.controller.openjdk.events.ProfilerOverheadEventFactory;
 import datadog.trace.api.Config;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import jdk.jfr.Recording;
 
@@ -31,10 +35,17 @@ import jdk.jfr.Recording;
 public final class OpenJdkController implements Controller {
   // Visible for testing
   static final String JFP = "jfr/dd.jfp";
+  static final String MINIMAL_JFP = "jfr/dd-minimal.jfp";
+  static final String HIGH_DETAIL_JFP = "jfr/dd-high-detail.jfp";
+  static final String OVERHEAD_EVENT_ENABLED = "datadog.ProfilerOverhead#enabled";
+  static final String EVENT_TYPE_OVERHEAD_EVENT_ENABLED = "datadog.EventTypeOverhead#enabled";
+  static final String TRACER_OVERHEAD_EVENT_ENABLED = "datadog.TracerOverhead#enabled";
   static final int RECORDING_MAX_SIZE = 64 * 1024 * 1024; // 64 megs
   static final Duration RECORDING_MAX_AGE = Duration.ofMinutes(5);
 
   private final Map<String, String> recordingSettings;
+  // only set when measuring the overhead
+  private final ApplicationOverheadEventFactory applicationOverhead;
 
   /**
    * Main constructor for OpenJDK profiling controller.
@@ -48,12 +59,49 @@ public final class OpenJdkController implements Controller {
     Class.forName("jdk.jfr.Recording");
     Class.forName("jdk.jfr.FlightRecorder");
 
+    final Map<String, String> settings;
     try {
-      recordingSettings =
-          JfpUtils.readNamedJfpResource(JFP, config.getProfilingTemplateOverrideFile());
+      settings =
+          JfpUtils.readNamedJfpResource(
+              JFP,
+              profileJfp(config.getProfilingTemplate()),
+              config.getProfilingTemplateOverrideFile());
     } catch (final IOException e) {
       throw new ConfigurationException(e);
     }
+    if (config.isProfilingOverheadMeasurementEnabled()) {
+      ProfilerOverheadEventFactory.registerEvents();
+      final Map<String, String> withOverhead = new HashMap<>(settings);
+      withOverhead.put(OVERHEAD_EVENT_ENABLED, "true");
+      withOverhead.put(EVENT_TYPE_OVERHEAD_EVENT_ENABLED, "true");
+      withOverhead.put(TRACER_OVERHEAD_EVENT_ENABLED, "true");
+      recordingSettings = Collections.unmodifiableMap(withOverhead);
+      applicationOverhead = new ApplicationOverheadEventFactory();
+    } else {
+      recordingSettings = settings;
+      applicationOverhead = null;
+    }
+  }
+
+  /**
+   * @param template the name of the built-in profile; {@literal null} selects the default one
+   * @return the resource with the settings of the profile differing from {@linkplain #JFP}, or
+   *     {@literal null} for the default profile
+   */
+  static String profileJfp(final String template) throws ConfigurationException {
+    if (template == null || "default".equalsIgnoreCase(template)) {
+      return null;
+    }
+    if ("minimal".equalsIgnoreCase(template)) {
+      return MINIMAL_JFP;
+    }
+    if ("high-detail".equalsIgnoreCase(template)) {
+      return HIGH_DETAIL_JFP;
+    }
+    throw new ConfigurationException(
+        "Unknown JFR template '"
+            + template
+            + "'; expected one of 'minimal', 'default' or 'high-detail'");
   }
 
   @Override
@@ -64,6 +112,6 @@ public final class OpenJdkController implements Controller {
     recording.setMaxSize(RECORDING_MAX_SIZE);
     recording.setMaxAge(RECORDING_MAX_AGE);
     recording.start();
-    return new OpenJdkOngoingRecording(recording);
+    return new OpenJdkOngoingRecording(recording, applicationOverhead);
   }
 }
@@ -1,6 +1,7 @@
 package com.datadog.profiling.controller.openjdk;
 
 import com.datadog.profiling.controller.OngoingRecording;
+import com.datadog.profiling.controller.openjdk.events.ApplicationOverheadEventFactory;
 import java.time.Instant;
 import jdk.jfr.FlightRecorder;
 import jdk.jfr.Recording;
@@ -9,9 +10,16 @@ import jdk.jfr.RecordingState;
 public class OpenJdkOngoingRecording implements OngoingRecording {
 
   private final Recording recording;
+  private final ApplicationOverheadEventFactory applicationOverhead;
 
   OpenJdkOngoingRecording(final Recording recording) {
+    this(recording, null);
+  }
+
+  OpenJdkOngoingRecording(
+      final Recording recording, final ApplicationOverheadEventFactory applicationOverhead) {
     this.recording = recording;
+    this.applicationOverhead = applicationOverhead;
   }
 
   @Override
@@ -32,6 +40,10 @@ public class OpenJdkOngoingRecording implements OngoingRecording {
 
     final Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot();
     snapshot.setName(recording.getName()); // Copy name from original recording
+    if (applicationOverhead != null) {
+      // the overhead events of this snapshot are part of the next one
+      applicationOverhead.emit(snapshot, start, end);
+    }
     return new OpenJdkRecordingData(snapshot, start, end);
   }
 
@@ -0,0 +1,221 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estimates the overhead put on the application threads from the execution and allocation samples
+ * of a recording. JFR writes most events from the threads producing them, and the tracer runs on
+ * the application threads, so this cost doesn't show in the agent and JFR threads measured by
+ * {@link ProfilerOverheadEventFactory}.
+ *
+ * <p>A sample is attributed to an event type when the top of its stack, past the JFR internals, is
+ * the {@code commit} method of the event class. It is attributed to the tracer when the first frame
+ * from the top outside of the JDK is agent code. Every event type of the recording is reported with
+ * its number of events; the samples of the JVM's own events are taken on the JFR threads instead.
+ */
+@Slf4j
+public class ApplicationOverheadEventFactory {
+  private static final EventTypeOverheadEvent EVENT_TYPE_OVERHEAD_EVENT =
+      new EventTypeOverheadEvent();
+  private static final TracerOverheadEvent TRACER_OVERHEAD_EVENT = new TracerOverheadEvent();
+
+  private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+  // allocation event type -> field holding the allocated bytes
+  private static final Map<String, String> ALLOCATION_WEIGHTS = new HashMap<>();
+
+  static {
+    ALLOCATION_WEIGHTS.put("jdk.ObjectAllocationInNewTLAB", "tlabSize");
+    ALLOCATION_WEIGHTS.put("jdk.ObjectAllocationOutsideTLAB", "allocationSize");
+    ALLOCATION_WEIGHTS.put("jdk.ObjectAllocationSample", "weight");
+  }
+
+  // event class name -> event type name
+  private final Map<String, String> eventTypeNames = new HashMap<>();
+
+  /** Analyzes the snapshot of a recording and commits the overhead events to the recordings. */
+  public synchronized void emit(final Recording snapshot, final Instant start, final Instant end) {
+    if (!isApplicationOverheadEventEnabled()) {
+      return;
+    }
+    Path file = null;
+    try (final InputStream stream = snapshot.getStream(start, end)) {
+      if (stream == null) {
+        return;
+      }
+      file = Files.createTempFile("dd-overhead-", ".jfr");
+      Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+      for (final Event event : collectEvents(file)) {
+        event.commit();
+      }
+    } catch (final IOException e) {
+      log.debug("Unable to estimate the application overhead", e);
+    } finally {
+      if (file != null) {
+        try {
+          Files.delete(file);
+        } catch (final IOException e) {
+          log.debug("Unable to delete {}", file, e);
+        }
+      }
+    }
+  }
+
+  final List<Event> collectEvents(final Path recording) throws IOException {
+    // event type -> {event count, application samples, application allocated bytes}
+    final Map<String, long[]> eventTypes = new TreeMap<>();
+    long samples = 0;
+    long tracerSamples = 0;
+    long allocated = 0;
+    long tracerAllocated = 0;
+    try (final RecordingFile file = new RecordingFile(recording)) {
+      while (file.hasMoreEvents()) {
+        final RecordedEvent event = file.readEvent();
+        final String type = event.getEventType().getName();
+        eventTypes.computeIfAbsent(type, k -> new long[3])[0]++;
+
+        final boolean executionSample = EXECUTION_SAMPLE.equals(type);
+        final String weightField = ALLOCATION_WEIGHTS.get(type);
+        if (!executionSample && weightField == null) {
+          continue;
+        }
+        final RecordedThread thread =
+            executionSample ? event.getThread("sampledThread") : event.getThread();
+        if (thread == null
+            || ProfilerOverheadEventFactory.threadGroup(thread.getJavaName()) != null) {
+          // agent and JFR threads are measured by thread group
+          continue;
+        }
+        final long weight = executionSample ? 1 : Math.max(0, event.getLong(weightField));
+        final RecordedStackTrace stackTrace = event.getStackTrace();
+        final String committed = committedEventType(stackTrace);
+        if (committed != null) {
+          eventTypes.computeIfAbsent(committed, k -> new long[3])[executionSample ? 1 : 2] +=
+              weight;
+        }
+        final boolean tracer = isAgentCode(stackTrace);
+        if (executionSample) {
+          samples++;
+          tracerSamples += tracer ? 1 : 0;
+        } else {
+          allocated += weight;
+          tracerAllocated += tracer ? weight : 0;
+        }
+      }
+    }
+
+    final List<Event> events = new ArrayList<>(eventTypes.size() + 1);
+    for (final Map.Entry<String, long[]> eventType : eventTypes.entrySet()) {
+      final long[] usage = eventType.getValue();
+      events.add(
+          new EventTypeOverheadEvent(
+              eventType.getKey(), usage[0], usage[1], share(usage[1], samples), usage[2]));
+    }
+    events.add(
+        new TracerOverheadEvent(
+            tracerSamples,
+            share(tracerSamples, samples),
+            tracerAllocated,
+            share(tracerAllocated, allocated)));
+    return events;
+  }
+
+  /**
+   * @return the name of the event type committed at the top of the stack, or {@literal null} if no
+   *     event is being written
+   */
+  private String committedEventType(final RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return null;
+    }
+    for (final RecordedFrame frame : stackTrace.getFrames()) {
+      if (!frame.isJavaFrame()) {
+        continue;
+      }
+      final String className = frame.getMethod().getType().getName();
+      if (className.startsWith("jdk.jfr.internal.") || className.equals("jdk.jfr.Event")) {
+        continue;
+      }
+      return "commit".equals(frame.getMethod().getName()) ? eventTypeName(className) : null;
+    }
+    return null;
+  }
+
+  /** @return the name of the event type, which is the class name unless it is annotated */
+  private String eventTypeName(final String className) {
+    String name = eventTypeNames.get(className);
+    if (name == null) {
+      name = className;
+      try {
+        final Name annotation =
+            Class.forName(className, false, ApplicationOverheadEventFactory.class.getClassLoader())
+                .getAnnotation(Name.class);
+        if (annotation != null) {
+          name = annotation.value();
+        }
+      } catch (final ClassNotFoundException | LinkageError e) {
+        // the event class isn't visible from here, fall back to its class name
+      }
+      eventTypeNames.put(className, name);
+    }
+    return name;
+  }
+
+  /** @return true if the first frame from the top outside of the JDK is agent code */
+  private static boolean isAgentCode(final RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return false;
+    }
+    for (final RecordedFrame frame : stackTrace.getFrames()) {
+      if (!frame.isJavaFrame()) {
+        continue;
+      }
+      final String className = frame.getMethod().getType().getName();
+      if (isAgentClass(className)) {
+        return true;
+      }
+      if (!isJdkClass(className)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isAgentClass(final String className) {
+    return className.startsWith("datadog.") || className.startsWith("com.datadog.");
+  }
+
+  private static boolean isJdkClass(final String className) {
+    return className.startsWith("java.")
+        || className.startsWith("javax.")
+        || className.startsWith("jdk.")
+        || className.startsWith("sun.")
+        || className.startsWith("com.sun.");
+  }
+
+  private static float share(final long part, final long total) {
+    return total > 0 ? Math.min(1f, (float) part / total) : 0f;
+  }
+
+  boolean isApplicationOverheadEventEnabled() {
+    return EVENT_TYPE_OVERHEAD_EVENT.isEnabled() || TRACER_OVERHEAD_EVENT.isEnabled();
+  }
+}
@@ -0,0 +1,81 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+@Name("datadog.EventTypeOverhead")
+@Label("Event Type Overhead")
+@Description(
+    "Datadog profiler overhead estimation - number of events of a type in the previous recording, and the execution samples and allocations of application threads writing them.")
+@Category("Datadog")
+@StackTrace(false)
+@Enabled(false)
+public class EventTypeOverheadEvent extends Event {
+  @Label("Event Type")
+  private final String eventType;
+
+  @Label("Event Count")
+  private final long eventCount;
+
+  @Label("Application Samples")
+  @Description("Execution samples of application threads writing events of this type")
+  private final long applicationSamples;
+
+  @Label("Application CPU Share")
+  @Description("Application samples relative to all the execution samples of application threads")
+  @Percentage
+  private final float applicationCpuShare;
+
+  @Label("Application Allocated")
+  @Description("Sampled allocations of application threads writing events of this type")
+  @DataAmount(DataAmount.BYTES)
+  private final long applicationAllocated;
+
+  EventTypeOverheadEvent() {
+    this.eventType = null;
+    this.eventCount = Long.MIN_VALUE;
+    this.applicationSamples = Long.MIN_VALUE;
+    this.applicationCpuShare = Float.NaN;
+    this.applicationAllocated = Long.MIN_VALUE;
+  }
+
+  public EventTypeOverheadEvent(
+      String eventType,
+      long eventCount,
+      long applicationSamples,
+      float applicationCpuShare,
+      long applicationAllocated) {
+    this.eventType = eventType;
+    this.eventCount = eventCount;
+    this.applicationSamples = applicationSamples;
+    this.applicationCpuShare = applicationCpuShare;
+    this.applicationAllocated = applicationAllocated;
+  }
+
+  String getEventType() {
+    return eventType;
+  }
+
+  long getEventCount() {
+    return eventCount;
+  }
+
+  long getApplicationSamples() {
+    return applicationSamples;
+  }
+
+  float getApplicationCpuShare() {
+    return applicationCpuShare;
+  }
+
+  long getApplicationAllocated() {
+    return applicationAllocated;
+  }
+}
@@ -0,0 +1,85 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+@Name("datadog.ProfilerOverhead")
+@Label("Profiler Overhead")
+@Description(
+    "Datadog profiler overhead estimation - CPU time and allocations of a group of agent and JFR threads since the previous event.")
+@Category("Datadog")
+@Period(value = "60 s")
+@Enabled(false)
+public class ProfilerOverheadEvent extends Event {
+  private static final ProfilerOverheadEventFactory EVENT_FACTORY =
+      new ProfilerOverheadEventFactory();
+
+  @Label("Thread Group")
+  @Description("Thread name with the numeric suffix removed")
+  private final String threadGroup;
+
+  @Label("Thread Count")
+  private final int threadCount;
+
+  @Label("CPU Time")
+  @Timespan(Timespan.NANOSECONDS)
+  private final long cpuTime;
+
+  @Label("Process CPU Share")
+  @Description("CPU time of the thread group relative to the CPU time of the whole process")
+  @Percentage
+  private final float processCpuShare;
+
+  @Label("Allocated")
+  @DataAmount(DataAmount.BYTES)
+  private final long allocated;
+
+  ProfilerOverheadEvent() {
+    this.threadGroup = null;
+    this.threadCount = Integer.MIN_VALUE;
+    this.cpuTime = Long.MIN_VALUE;
+    this.processCpuShare = Float.NaN;
+    this.allocated = Long.MIN_VALUE;
+  }
+
+  public ProfilerOverheadEvent(
+      String threadGroup, int threadCount, long cpuTime, float processCpuShare, long allocated) {
+    this.threadGroup = threadGroup;
+    this.threadCount = threadCount;
+    this.cpuTime = cpuTime;
+    this.processCpuShare = processCpuShare;
+    this.allocated = allocated;
+  }
+
+  public static void emit() {
+    EVENT_FACTORY.collectEvents().forEach(Event::commit);
+  }
+
+  String getThreadGroup() {
+    return threadGroup;
+  }
+
+  int getThreadCount() {
+    return threadCount;
+  }
+
+  long getCpuTime() {
+    return cpuTime;
+  }
+
+  float getProcessCpuShare() {
+    return processCpuShare;
+  }
+
+  long getAllocated() {
+    return allocated;
+  }
+}
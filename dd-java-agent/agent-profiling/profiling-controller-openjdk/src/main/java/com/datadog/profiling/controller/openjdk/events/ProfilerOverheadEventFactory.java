@@ -0,0 +1,143 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Estimates the profiler overhead from the CPU time and the allocations of the agent ('dd-*') and
+ * JFR threads. The threads are grouped by their names without the numeric suffix and each
+ * collection reports the difference since the previous one.
+ */
+public class ProfilerOverheadEventFactory {
+  private static final AtomicBoolean EVENTS_REGISTERED_FLAG = new AtomicBoolean();
+
+  private static final ProfilerOverheadEvent PROFILER_OVERHEAD_EVENT = new ProfilerOverheadEvent();
+
+  private final com.sun.management.ThreadMXBean threadMXBean;
+  private final com.sun.management.OperatingSystemMXBean osMXBean;
+
+  // thread id -> {cpu time, allocated bytes} at the previous collection
+  private Map<Long, long[]> previousUsage = Collections.emptyMap();
+  private long previousProcessCpuTime;
+
+  public static void registerEvents() {
+    // prevent re-registration as that would cause JFR to throw an exception
+    if (EVENTS_REGISTERED_FLAG.compareAndSet(false, true)) {
+      FlightRecorder.addPeriodicEvent(ProfilerOverheadEvent.class, ProfilerOverheadEvent::emit);
+    }
+  }
+
+  ProfilerOverheadEventFactory(
+      com.sun.management.ThreadMXBean threadMXBean,
+      com.sun.management.OperatingSystemMXBean osMXBean) {
+    this.threadMXBean = threadMXBean;
+    this.osMXBean = osMXBean;
+    if (threadMXBean != null) {
+      previousProcessCpuTime = processCpuTime();
+      collect();
+    }
+  }
+
+  ProfilerOverheadEventFactory() {
+    this(threadMXBean(), osMXBean());
+  }
+
+  final synchronized List<ProfilerOverheadEvent> collectEvents() {
+    if (threadMXBean == null || !isProfilerOverheadEventEnabled()) {
+      return Collections.emptyList();
+    }
+    final long processCpuTime = processCpuTime();
+    final long processCpuDelta = processCpuTime - previousProcessCpuTime;
+    previousProcessCpuTime = processCpuTime;
+
+    final List<ProfilerOverheadEvent> events = new ArrayList<>();
+    for (final Map.Entry<String, long[]> group : collect().entrySet()) {
+      final long[] usage = group.getValue();
+      events.add(
+          new ProfilerOverheadEvent(
+              group.getKey(),
+              (int) usage[0],
+              usage[1],
+              processCpuDelta > 0 ? Math.min(1f, (float) usage[1] / processCpuDelta) : 0f,
+              usage[2]));
+    }
+    return events;
+  }
+
+  /** @return thread group -> {thread count, cpu time, allocated bytes} since the last call */
+  private Map<String, long[]> collect() {
+    final long[] ids = threadMXBean.getAllThreadIds();
+    final ThreadInfo[] infos = threadMXBean.getThreadInfo(ids, 0);
+    final long[] cpuTimes = threadMXBean.getThreadCpuTime(ids);
+    final long[] allocated = threadMXBean.getThreadAllocatedBytes(ids);
+
+    final Map<Long, long[]> usage = new HashMap<>();
+    final Map<String, long[]> groups = new TreeMap<>();
+    for (int i = 0; i < ids.length; i++) {
+      final String group = infos[i] != null ? threadGroup(infos[i].getThreadName()) : null;
+      if (group == null) {
+        continue;
+      }
+      // -1 is reported for dead threads or when the measurement is disabled
+      final long[] current = {Math.max(0, cpuTimes[i]), Math.max(0, allocated[i])};
+      usage.put(ids[i], current);
+      final long[] previous = previousUsage.get(ids[i]);
+      final long[] totals = groups.computeIfAbsent(group, k -> new long[3]);
+      totals[0]++;
+      totals[1] += previous != null ? current[0] - previous[0] : current[0];
+      totals[2] += previous != null ? current[1] - previous[1] : current[1];
+    }
+    previousUsage = usage;
+    return groups;
+  }
+
+  private long processCpuTime() {
+    return osMXBean != null ? Math.max(0, osMXBean.getProcessCpuTime()) : 0;
+  }
+
+  boolean isProfilerOverheadEventEnabled() {
+    return PROFILER_OVERHEAD_EVENT.isEnabled() && PROFILER_OVERHEAD_EVENT.shouldCommit();
+  }
+
+  /**
+   * @param threadName the thread name
+   * @return the thread name without the numeric suffix for the agent and JFR threads; {@literal
+   *     null} for any other thread
+   */
+  static String threadGroup(final String threadName) {
+    if (threadName == null || !(threadName.startsWith("dd-") || threadName.startsWith("JFR "))) {
+      return null;
+    }
+    int end = threadName.length();
+    while (end > 0 && Character.isDigit(threadName.charAt(end - 1))) {
+      end--;
+    }
+    while (end > 0 && (threadName.charAt(end - 1) == '-' || threadName.charAt(end - 1) == ' ')) {
+      end--;
+    }
+    return end > 0 && end < threadName.length() ? threadName.substring(0, end) : threadName;
+  }
+
+  private static com.sun.management.ThreadMXBean threadMXBean() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    return bean instanceof com.sun.management.ThreadMXBean
+        ? (com.sun.management.ThreadMXBean) bean
+        : null;
+  }
+
+  private static com.sun.management.OperatingSystemMXBean osMXBean() {
+    final java.lang.management.OperatingSystemMXBean bean =
+        ManagementFactory.getOperatingSystemMXBean();
+    return bean instanceof com.sun.management.OperatingSystemMXBean
+        ? (com.sun.management.OperatingSystemMXBean) bean
+        : null;
+  }
+}
@@ -0,0 +1,69 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+@Name("datadog.TracerOverhead")
+@Label("Tracer Overhead")
+@Description(
+    "Datadog tracer overhead estimation - execution samples and allocations of application threads in agent code in the previous recording.")
+@Category("Datadog")
+@StackTrace(false)
+@Enabled(false)
+public class TracerOverheadEvent extends Event {
+  @Label("Samples")
+  @Description("Execution samples of application threads in agent code")
+  private final long samples;
+
+  @Label("CPU Share")
+  @Description("Samples relative to all the execution samples of application threads")
+  @Percentage
+  private final float cpuShare;
+
+  @Label("Allocated")
+  @Description("Sampled allocations of application threads in agent code")
+  @DataAmount(DataAmount.BYTES)
+  private final long allocated;
+
+  @Label("Allocation Share")
+  @Description("Allocated relative to all the sampled allocations of application threads")
+  @Percentage
+  private final float allocationShare;
+
+  TracerOverheadEvent() {
+    this.samples = Long.MIN_VALUE;
+    this.cpuShare = Float.NaN;
+    this.allocated = Long.MIN_VALUE;
+    this.allocationShare = Float.NaN;
+  }
+
+  public TracerOverheadEvent(long samples, float cpuShare, long allocated, float allocationShare) {
+    this.samples = samples;
+    this.cpuShare = cpuShare;
+    this.allocated = allocated;
+    this.allocationShare = allocationShare;
+  }
+
+  long getSamples() {
+    return samples;
+  }
+
+  float getCpuShare() {
+    return cpuShare;
+  }
+
+  long getAllocated() {
+    return allocated;
+  }
+
+  float getAllocationShare() {
+    return allocationShare;
+  }
+}
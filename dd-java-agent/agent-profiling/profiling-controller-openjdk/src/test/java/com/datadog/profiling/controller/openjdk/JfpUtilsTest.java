@@ -4,12 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 public class JfpUtilsTest {
 
   private static final String CONFIG_ENTRY = "jdk.ThreadAllocationStatistics#enabled";
+  private static final String PROFILE_ENTRY = "jdk.ObjectAllocationInNewTLAB#enabled";
   private static final String CONFIG_OVERRIDE_ENTRY = "test.continuous.override#value";
 
   static final String OVERRIDES =
@@ -29,4 +31,38 @@ public class JfpUtilsTest {
     assertEquals("true", config.get(CONFIG_ENTRY));
     assertEquals("200", config.get(CONFIG_OVERRIDE_ENTRY));
   }
+
+  @Test
+  public void testLoadingProfileWithOverride() throws IOException {
+    final Map<String, String> base = JfpUtils.readNamedJfpResource(OpenJdkController.JFP, null);
+    final Map<String, String> config =
+        JfpUtils.readNamedJfpResource(
+            OpenJdkController.JFP, OpenJdkController.MINIMAL_JFP, OVERRIDES);
+    // unchanged by the profile
+    assertEquals("true", config.get(CONFIG_ENTRY));
+    // changed by the profile
+    assertEquals("true", base.get(PROFILE_ENTRY));
+    assertEquals("false", config.get(PROFILE_ENTRY));
+    // changed by the overrides file
+    assertEquals("200", config.get(CONFIG_OVERRIDE_ENTRY));
+    assertEquals(base.keySet(), withoutOverrides(config).keySet());
+  }
+
+  @Test
+  public void testProfilesOnlyChangeKnownSettings() throws IOException {
+    final Map<String, String> base = JfpUtils.readNamedJfpResource(OpenJdkController.JFP, null);
+    for (final String profile :
+        new String[] {OpenJdkController.MINIMAL_JFP, OpenJdkController.HIGH_DETAIL_JFP}) {
+      assertEquals(
+          base.keySet(),
+          JfpUtils.readNamedJfpResource(OpenJdkController.JFP, profile, null).keySet(),
+          profile);
+    }
+  }
+
+  private static Map<String, String> withoutOverrides(final Map<String, String> config) {
+    final Map<String, String> result = new HashMap<>(config);
+    result.keySet().removeIf(key -> key.startsWith("test."));
+    return result;
+  }
 }
@@ -2,6 +2,7 @@ package com.datadog.profiling.controller.openjdk;
 
 import static com.datadog.profiling.controller.openjdk.JfpUtilsTest.OVERRIDES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.datadog.profiling.controller.ConfigurationException;
@@ -38,4 +39,36 @@ public class OpenJdkControllerTest {
     assertEquals(OpenJdkController.RECORDING_MAX_AGE, recording.getMaxAge());
     recording.close();
   }
+
+  @Test
+  public void testCreateRecordingWithProfile()
+      throws ConfigurationException, ClassNotFoundException, IOException {
+    when(config.getProfilingTemplate()).thenReturn("minimal");
+    controller = new OpenJdkController(config);
+    final Recording recording = controller.createRecording(TEST_NAME).stop().getRecording();
+    assertEquals(
+        JfpUtils.readNamedJfpResource(
+            OpenJdkController.JFP, OpenJdkController.MINIMAL_JFP, OVERRIDES),
+        recording.getSettings());
+    recording.close();
+  }
+
+  @Test
+  public void testCreateRecordingWithOverheadMeasurement()
+      throws ConfigurationException, ClassNotFoundException {
+    when(config.isProfilingOverheadMeasurementEnabled()).thenReturn(true);
+    controller = new OpenJdkController(config);
+    final Recording recording = controller.createRecording(TEST_NAME).stop().getRecording();
+    assertEquals("true", recording.getSettings().get(OpenJdkController.OVERHEAD_EVENT_ENABLED));
+    assertEquals(
+        "true", recording.getSettings().get(OpenJdkController.EVENT_TYPE_OVERHEAD_EVENT_ENABLED));
+    assertEquals(
+        "true", recording.getSettings().get(OpenJdkController.TRACER_OVERHEAD_EVENT_ENABLED));
+    recording.close();
+  }
+
+  @Test
+  public void testUnknownProfile() {
+    assertThrows(ConfigurationException.class, () -> OpenJdkController.profileJfp("everything"));
+  }
 }
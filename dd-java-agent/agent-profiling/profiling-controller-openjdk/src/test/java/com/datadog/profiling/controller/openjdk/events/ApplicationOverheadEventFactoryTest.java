@@ -0,0 +1,82 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+
+class ApplicationOverheadEventFactoryTest {
+  private static final int EVENTS = 200_000;
+
+  @Name("datadog.test.Committed")
+  static class CommittedEvent extends Event {
+    long value;
+  }
+
+  @Test
+  void collectEvents() throws Exception {
+    final Path file = Files.createTempFile("overhead-", ".jfr");
+    try (final Recording recording = new Recording()) {
+      recording.enable(CommittedEvent.class);
+      recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(1));
+      recording.start();
+      // the test classes are in an agent package, so this application thread runs agent code
+      final Thread thread =
+          new Thread(
+              () -> {
+                final long until = System.nanoTime() + 500_000_000L;
+                int committed = 0;
+                while (committed < EVENTS || System.nanoTime() < until) {
+                  final CommittedEvent event = new CommittedEvent();
+                  event.value = committed++;
+                  event.commit();
+                }
+              },
+              "overhead-test-application");
+      thread.start();
+      thread.join();
+      recording.stop();
+      recording.dump(file);
+
+      final List<Event> events = new ApplicationOverheadEventFactory().collectEvents(file);
+
+      final List<EventTypeOverheadEvent> committed =
+          events.stream()
+              .filter(e -> e instanceof EventTypeOverheadEvent)
+              .map(e -> (EventTypeOverheadEvent) e)
+              .filter(e -> e.getEventType().equals("datadog.test.Committed"))
+              .collect(Collectors.toList());
+      assertEquals(1, committed.size());
+      assertTrue(committed.get(0).getEventCount() >= EVENTS);
+      assertTrue(committed.get(0).getApplicationSamples() > 0);
+      assertTrue(
+          committed.get(0).getApplicationCpuShare() > 0
+              && committed.get(0).getApplicationCpuShare() <= 1);
+
+      final List<TracerOverheadEvent> tracer =
+          events.stream()
+              .filter(e -> e instanceof TracerOverheadEvent)
+              .map(e -> (TracerOverheadEvent) e)
+              .collect(Collectors.toList());
+      assertEquals(1, tracer.size());
+      assertTrue(tracer.get(0).getSamples() > 0);
+      assertTrue(tracer.get(0).getCpuShare() > 0 && tracer.get(0).getCpuShare() <= 1);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void disabled() {
+    assertFalse(new ApplicationOverheadEventFactory().isApplicationOverheadEventEnabled());
+  }
+}
@@ -0,0 +1,86 @@
+package com.datadog.profiling.controller.openjdk.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ProfilerOverheadEventFactoryTest {
+  // keeps the allocations from being eliminated by escape analysis
+  private static volatile byte[] sink;
+
+  @Test
+  void threadGroup() {
+    assertEquals("dd-trace-monitor", ProfilerOverheadEventFactory.threadGroup("dd-trace-monitor"));
+    assertEquals("dd-worker", ProfilerOverheadEventFactory.threadGroup("dd-worker-12"));
+    assertEquals(
+        "JFR Periodic Tasks", ProfilerOverheadEventFactory.threadGroup("JFR Periodic Tasks"));
+    assertNull(ProfilerOverheadEventFactory.threadGroup("main"));
+    assertNull(ProfilerOverheadEventFactory.threadGroup("pool-1-thread-1"));
+    assertNull(ProfilerOverheadEventFactory.threadGroup(null));
+  }
+
+  @Test
+  void collectEvents() throws Exception {
+    ProfilerOverheadEventFactory eventFactory =
+        new ProfilerOverheadEventFactory() {
+          @Override
+          boolean isProfilerOverheadEventEnabled() {
+            return true;
+          }
+        };
+    CountDownLatch done = new CountDownLatch(2);
+    CountDownLatch collected = new CountDownLatch(1);
+    for (int i = 0; i < 2; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                long sum = 0;
+                for (int j = 0; j < 10_000; j++) {
+                  sink = new byte[1024];
+                  sum += sink.length;
+                }
+                assertEquals(10_000 * 1024, sum);
+                done.countDown();
+                try {
+                  // stay alive until collected
+                  collected.await();
+                } catch (InterruptedException ignored) {
+                }
+              },
+              "dd-overhead-test-" + i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+    done.await();
+
+    List<ProfilerOverheadEvent> events =
+        eventFactory.collectEvents().stream()
+            .filter(e -> e.getThreadGroup().equals("dd-overhead-test"))
+            .collect(Collectors.toList());
+    collected.countDown();
+
+    assertEquals(1, events.size());
+    ProfilerOverheadEvent event = events.get(0);
+    assertEquals(2, event.getThreadCount());
+    assertTrue(event.getCpuTime() > 0);
+    assertTrue(event.getAllocated() >= 2 * 10_000 * 1024L);
+    assertTrue(event.getProcessCpuShare() > 0 && event.getProcessCpuShare() <= 1);
+  }
+
+  @Test
+  void disabled() {
+    ProfilerOverheadEventFactory eventFactory =
+        new ProfilerOverheadEventFactory() {
+          @Override
+          boolean isProfilerOverheadEventEnabled() {
+            return false;
+          }
+        };
+    assertTrue(eventFactory.collectEvents().isEmpty());
+  }
+}
@@ -0,0 +1,158 @@
+package com.datadog.profiling.uploader;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compression ratio and CPU cost of the upload codecs.
+ *
+ * <p>Each chunk of the sample recordings stands for one upload. The chunks come from the test
+ * recording, or from the {@code .jfr} files in the directory named by the {@value
+ * #RECORDINGS_PROPERTY} system property. The ratio of each codec is printed when the trial ends.
+ *
+ * <p>{@code DEFLATE_DICTIONARY} is not an upload option: it primes each upload with the tail of the
+ * previous one, where JFR writes its metadata and constant pools, to measure what a rolling
+ * dictionary would gain if the intake knew the dictionary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+  static final String RECORDINGS_PROPERTY = "dd.profiling.benchmark.recordings";
+
+  private static final String RECORDING_RESOURCE = "test-recording.jfr";
+  private static final int HEADER_CHUNK_SIZE_OFFSET = 8;
+  // deflate only looks back 32KB, a longer dictionary is useless
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+
+  public enum Codec {
+    LZ4,
+    GZIP,
+    ZSTD,
+    DEFLATE_DICTIONARY
+  }
+
+  @Param({"LZ4", "GZIP", "ZSTD", "DEFLATE_DICTIONARY"})
+  Codec codec;
+
+  private List<byte[]> uploads;
+  private long uncompressed;
+  private long compressed;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    uploads = new ArrayList<>();
+    final String directory = System.getProperty(RECORDINGS_PROPERTY);
+    if (null == directory) {
+      try (final InputStream stream =
+          CompressionBenchmark.class.getClassLoader().getResourceAsStream(RECORDING_RESOURCE)) {
+        splitChunks(ByteStreams.toByteArray(stream), uploads);
+      }
+    } else {
+      try (final DirectoryStream<Path> recordings =
+          Files.newDirectoryStream(Paths.get(directory), "*.jfr")) {
+        for (final Path recording : recordings) {
+          splitChunks(Files.readAllBytes(recording), uploads);
+        }
+      }
+    }
+    for (final byte[] upload : uploads) {
+      uncompressed += upload.length;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void report() {
+    System.out.printf(
+        "%n%s: %d uploads, %d -> %d bytes, ratio %.2f%n",
+        codec, uploads.size(), uncompressed, compressed, (double) uncompressed / compressed);
+  }
+
+  @Benchmark
+  public long compress() throws IOException {
+    long size = 0;
+    byte[] previous = null;
+    for (final byte[] upload : uploads) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(upload.length / 4);
+      try (final OutputStream compressing = compressing(out, previous)) {
+        compressing.write(upload);
+      }
+      size += out.size();
+      previous = upload;
+    }
+    compressed = size;
+    return size;
+  }
+
+  private OutputStream compressing(final OutputStream out, final byte[] previous)
+      throws IOException {
+    switch (codec) {
+      case LZ4:
+        return new LZ4FrameOutputStream(
+            out,
+            LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB,
+            LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+      case GZIP:
+        return new GZIPOutputStream(out, RecordingRequestBody.BUFFER_SIZE);
+      case ZSTD:
+        return new ZstdFrameOutputStream(out);
+      case DEFLATE_DICTIONARY:
+      default:
+        final Deflater deflater = new Deflater();
+        if (null != previous) {
+          final int length = Math.min(DICTIONARY_SIZE, previous.length);
+          deflater.setDictionary(previous, previous.length - length, length);
+        }
+        return new DeflaterOutputStream(out, deflater, RecordingRequestBody.BUFFER_SIZE) {
+          @Override
+          public void close() throws IOException {
+            super.close();
+            deflater.end();
+          }
+        };
+    }
+  }
+
+  private static void splitChunks(final byte[] recording, final List<byte[]> chunks) {
+    int offset = 0;
+    while (offset < recording.length) {
+      final long size = ByteBuffer.wrap(recording).getLong(offset + HEADER_CHUNK_SIZE_OFFSET);
+      final int end = (int) Math.min(recording.length, offset + size);
+      chunks.add(Arrays.copyOfRange(recording, offset, end));
+      offset = end;
+    }
+  }
+}
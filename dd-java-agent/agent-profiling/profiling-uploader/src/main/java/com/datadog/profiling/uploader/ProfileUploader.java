@@ -18,19 +18,15 @@ package com.datadog.profiling.uploader;
 import com.datadog.profiling.controller.RecordingData;
 import com.datadog.profiling.controller.RecordingType;
 import com.datadog.profiling.uploader.util.PidHelper;
-import com.datadog.profiling.uploader.util.StreamUtils;
 import com.datadog.profiling.util.ProfilingThreadFactory;
 import datadog.common.container.ContainerInfo;
 import datadog.trace.api.Config;
 import datadog.trace.api.RatelimitedLogger;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.time.Duration;
-import java.util.ArrayDeque;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,7 +43,6 @@ import okhttp3.ConnectionSpec;
 import okhttp3.Credentials;
 import okhttp3.Dispatcher;
 import okhttp3.Headers;
-import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -58,8 +53,6 @@ import okhttp3.Response;
 @Slf4j
 public final class ProfileUploader {
 
-  private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
-
   static final String FORMAT_PARAM = "format";
   static final String TYPE_PARAM = "type";
   static final String RUNTIME_PARAM = "runtime";
@@ -96,20 +89,25 @@ public final class ProfileUploader {
   private static final class ResponseCallback implements Callback {
 
     private final RatelimitedLogger ratelimitedLogger;
+    private final RecordingRequestBody body;
 
-    public ResponseCallback(final RatelimitedLogger ratelimitedLogger) {
+    public ResponseCallback(
+        final RatelimitedLogger ratelimitedLogger, final RecordingRequestBody body) {
       this.ratelimitedLogger = ratelimitedLogger;
+      this.body = body;
     }
 
     @Override
     public void onFailure(final Call call, final IOException e) {
+      body.release();
       ratelimitedLogger.warn("Failed to upload profile to {}", call.request().url(), e);
     }
 
     @Override
     public void onResponse(final Call call, final Response response) {
+      body.release();
       if (response.isSuccessful()) {
-        log.debug("Upload done");
+        log.debug("Upload done (Size={} bytes)", body.bytesWritten());
       } else {
         final String apiKey = call.request().header(HEADER_DD_API_KEY);
         if (response.code() == 404 && apiKey == null) {
@@ -127,19 +125,14 @@ public final class ProfileUploader {
     }
   }
 
-  static final int SEED_EXPECTED_REQUEST_SIZE = 2 * 1024 * 1024; // 2MB;
-  static final int REQUEST_SIZE_HISTORY_SIZE = 10;
-  static final double REQUEST_SIZE_COEFFICIENT = 1.2;
-
   private final ExecutorService okHttpExecutorService;
   private final OkHttpClient client;
-  private final Callback responseCallback;
+  private final RatelimitedLogger ratelimitedLogger;
   private final String apiKey;
   private final String url;
   private final String containerId;
   private final List<String> tags;
-  private final Compression compression;
-  private final Deque<Integer> requestSizeHistory;
+  private final CompressionType compression;
 
   public ProfileUploader(final Config config) {
     this(
@@ -156,7 +149,7 @@ public final class ProfileUploader {
       final Config config, final RatelimitedLogger ratelimitedLogger, final String containerId) {
     url = config.getFinalProfilingUrl();
     apiKey = config.getApiKey();
-    responseCallback = new ResponseCallback(ratelimitedLogger);
+    this.ratelimitedLogger = ratelimitedLogger;
     this.containerId = containerId;
 
     log.debug("Started ProfileUploader with target url {}", url);
@@ -236,28 +229,32 @@ public final class ProfileUploader {
     // We are mainly talking to the same(ish) host so we need to raise this limit
     client.dispatcher().setMaxRequestsPerHost(MAX_RUNNING_REQUESTS);
 
-    compression = getCompression(CompressionType.of(config.getProfilingUploadCompression()));
-
-    requestSizeHistory = new ArrayDeque<>(REQUEST_SIZE_HISTORY_SIZE);
-    requestSizeHistory.add(SEED_EXPECTED_REQUEST_SIZE);
+    compression = CompressionType.of(config.getProfilingUploadCompression());
   }
 
+  /**
+   * Uploads the recording asynchronously. The recording is streamed from JFR's repository into the
+   * request and released once the request has completed.
+   */
   public void upload(final RecordingType type, final RecordingData data) {
+    final RecordingRequestBody body;
     try {
-      if (canEnqueueMoreRequests()) {
-        makeUploadRequest(type, data);
-      } else {
-        log.warn("Cannot upload profile data: too many enqueued requests!");
-      }
+      body = new RecordingRequestBody(data, compression);
     } catch (final IllegalStateException | IOException e) {
       log.warn("Problem uploading profile!", e);
-    } finally {
-      try {
-        data.getStream().close();
-      } catch (final IllegalStateException | IOException e) {
-        log.warn("Problem closing profile stream", e);
-      }
       data.release();
+      return;
+    }
+    if (!canEnqueueMoreRequests()) {
+      log.warn("Cannot upload profile data: too many enqueued requests!");
+      body.release();
+      return;
+    }
+    try {
+      makeUploadRequest(type, data, body);
+    } catch (final IllegalStateException e) {
+      log.warn("Problem uploading profile!", e);
+      body.release();
     }
   }
 
@@ -282,60 +279,9 @@ public final class ProfileUploader {
     return client;
   }
 
-  @FunctionalInterface
-  private interface Compression {
-
-    RequestBody compress(InputStream is, int expectedSize) throws IOException;
-  }
-
-  private Compression getCompression(final CompressionType type) {
-    final StreamUtils.BytesConsumer<RequestBody> consumer =
-        (bytes, offset, length) -> RequestBody.create(OCTET_STREAM, bytes, offset, length);
-    final Compression compression;
-    // currently only gzip and off are supported
-    // this needs to be updated once more compression types are added
-    switch (type) {
-      case GZIP:
-        {
-          compression = (is, expectedSize) -> StreamUtils.gzipStream(is, expectedSize, consumer);
-          break;
-        }
-      case OFF:
-        {
-          compression = (is, expectedSize) -> StreamUtils.readStream(is, expectedSize, consumer);
-          break;
-        }
-      case ON:
-      case LZ4:
-      default:
-        {
-          compression = (is, expectedSize) -> StreamUtils.lz4Stream(is, expectedSize, consumer);
-          break;
-        }
-    }
-    return compression;
-  }
-
-  private void makeUploadRequest(final RecordingType type, final RecordingData data)
-      throws IOException {
-    final int expectedRequestSize = getExpectedRequestSize();
-    // TODO: it would be really nice to avoid copy here, but:
-    // * if JFR doesn't write file to disk we seem to not be able to get size of the recording
-    // without reading whole stream
-    // * OkHTTP doesn't provide direct way to send uploads from streams - and workarounds would
-    // require stream that allows 'repeatable reads' because we may need to resend that data.
-    final RequestBody body = compression.compress(data.getStream(), expectedRequestSize);
-    if (log.isDebugEnabled()) {
-      log.debug(
-          "Uploading profile {} [{}] (Size={}/{} bytes)",
-          data.getName(),
-          type,
-          body.contentLength(),
-          expectedRequestSize);
-    }
-
-    // The body data is stored in byte array so we naturally get size limit that will fit into int
-    updateUploadSizesHistory((int) body.contentLength());
+  private void makeUploadRequest(
+      final RecordingType type, final RecordingData data, final RecordingRequestBody body) {
+    log.debug("Uploading profile {} [{}]", data.getName(), type);
 
     final MultipartBody.Builder bodyBuilder =
         new MultipartBody.Builder()
@@ -364,29 +310,7 @@ public final class ProfileUploader {
     if (containerId != null) {
       requestBuilder.addHeader(HEADER_DD_CONTAINER_ID, containerId);
     }
-    client.newCall(requestBuilder.build()).enqueue(responseCallback);
-  }
-
-  private int getExpectedRequestSize() {
-    synchronized (requestSizeHistory) {
-      // We have added seed value, so history cannot be empty
-      int size = 0;
-      for (final int s : requestSizeHistory) {
-        if (s > size) {
-          size = s;
-        }
-      }
-      return (int) (size * REQUEST_SIZE_COEFFICIENT);
-    }
-  }
-
-  private void updateUploadSizesHistory(final int newSize) {
-    synchronized (requestSizeHistory) {
-      while (requestSizeHistory.size() >= REQUEST_SIZE_HISTORY_SIZE) {
-        requestSizeHistory.removeLast();
-      }
-      requestSizeHistory.offerFirst(newSize);
-    }
+    client.newCall(requestBuilder.build()).enqueue(new ResponseCallback(ratelimitedLogger, body));
   }
 
   private boolean canEnqueueMoreRequests() {
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Datadog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datadog.profiling.uploader;
+
+import com.datadog.profiling.controller.RecordingData;
+import com.datadog.profiling.uploader.util.StreamUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body streaming a recording into the request, compressing it on the fly.
+ *
+ * <p>The recording is never copied into memory as a whole: it is read through a pooled buffer and
+ * the compressed output goes straight into OkHttp's pooled segments. The body is repeatable, so
+ * when OkHttp retries the request the recording is read again from JFR's on-disk repository.
+ *
+ * <p>The recording stream is opened when the body is created, so that an unavailable recording is
+ * reported before a request is made. The recording must be {@linkplain #release() released} once
+ * the request has completed.
+ */
+@Slf4j
+final class RecordingRequestBody extends RequestBody {
+
+  private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final BlockingQueue<byte[]> BUFFERS =
+      new ArrayBlockingQueue<>(ProfileUploader.MAX_RUNNING_REQUESTS);
+
+  private final RecordingData data;
+  private final CompressionType compression;
+
+  private InputStream firstStream;
+  private volatile long bytesWritten = -1;
+
+  RecordingRequestBody(final RecordingData data, final CompressionType compression)
+      throws IOException {
+    this.data = data;
+    this.compression = compression;
+    firstStream = data.getStream();
+  }
+
+  @Override
+  public MediaType contentType() {
+    return OCTET_STREAM;
+  }
+
+  /** The compressed size is only known once written, so the request is sent chunked. */
+  @Override
+  public long contentLength() {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(final BufferedSink sink) throws IOException {
+    InputStream stream = nextStream();
+    final CountingOutputStream out = new CountingOutputStream(sink.outputStream());
+    final byte[] buffer = acquireBuffer();
+    try {
+      stream = StreamUtils.ensureMarkSupported(stream);
+      if (compression == CompressionType.OFF || StreamUtils.isCompressed(stream)) {
+        copy(stream, out, buffer);
+      } else {
+        try (final OutputStream compressed = compressing(out)) {
+          copy(stream, compressed, buffer);
+        }
+      }
+      bytesWritten = out.count;
+    } finally {
+      releaseBuffer(buffer);
+      stream.close();
+    }
+  }
+
+  /** @return number of bytes last written to a request, or -1 if the body was not written yet */
+  long bytesWritten() {
+    return bytesWritten;
+  }
+
+  /** Closes the recording stream if it was never written and releases the recording. */
+  void release() {
+    final InputStream unused;
+    synchronized (this) {
+      unused = firstStream;
+      firstStream = null;
+    }
+    try {
+      if (null != unused) {
+        unused.close();
+      }
+    } catch (final IllegalStateException | IOException e) {
+      log.warn("Problem closing profile stream", e);
+    }
+    data.release();
+  }
+
+  private InputStream nextStream() throws IOException {
+    synchronized (this) {
+      if (null != firstStream) {
+        final InputStream stream = firstStream;
+        firstStream = null;
+        return stream;
+      }
+    }
+    try {
+      // a retry: read the recording again rather than keeping it in memory
+      return data.getStream();
+    } catch (final IllegalStateException e) {
+      throw new IOException("Recording " + data.getName() + " is no longer available", e);
+    }
+  }
+
+  private OutputStream compressing(final OutputStream out) throws IOException {
+    switch (compression) {
+      case GZIP:
+        return new GZIPOutputStream(out, BUFFER_SIZE);
+      case ZSTD:
+        return new ZstdFrameOutputStream(out);
+      case ON:
+      case LZ4:
+      default:
+        return new LZ4FrameOutputStream(
+            out,
+            LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB,
+            // copy of the default flag(s) used by LZ4FrameOutputStream
+            LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+    }
+  }
+
+  private static void copy(final InputStream is, final OutputStream os, final byte[] buffer)
+      throws IOException {
+    int length;
+    while ((length = is.read(buffer)) > 0) {
+      os.write(buffer, 0, length);
+    }
+  }
+
+  private static byte[] acquireBuffer() {
+    final byte[] buffer = BUFFERS.poll();
+    return null == buffer ? new byte[BUFFER_SIZE] : buffer;
+  }
+
+  private static void releaseBuffer(final byte[] buffer) {
+    BUFFERS.offer(buffer);
+  }
+
+  /**
+   * Counts the bytes written to the request sink and leaves the sink open when closed, because the
+   * multipart body keeps writing to it after this part.
+   */
+  private static final class CountingOutputStream extends OutputStream {
+    private final OutputStream delegate;
+    long count;
+
+    CountingOutputStream(final OutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      delegate.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      delegate.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.flush();
+    }
+  }
+}
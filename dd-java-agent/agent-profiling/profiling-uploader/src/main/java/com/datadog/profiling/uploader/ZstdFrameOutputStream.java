@@ -0,0 +1,140 @@
+package com.datadog.profiling.uploader;
+
+import io.airlift.compress.zstd.ZstdCompressor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Zstandard compressing stream, writing one frame per block of input.
+ *
+ * <p>The pure Java compressor only works on whole buffers, so the input is collected into blocks
+ * which are compressed independently. Concatenated frames form a valid Zstandard stream; larger
+ * blocks give a better ratio for more memory.
+ *
+ * <p>The block grows with the input up to the block size, so small recordings don't need a full
+ * block, and the buffers are returned to a small pool on close to be reused by the next upload.
+ */
+final class ZstdFrameOutputStream extends OutputStream {
+
+  static final int BLOCK_SIZE = 1024 * 1024;
+
+  private static final int INITIAL_BLOCK_SIZE = 64 * 1024;
+
+  // uploads are usually sequential, so there is no need to keep more buffers around
+  private static final BlockingQueue<Buffers> BUFFERS = new ArrayBlockingQueue<>(2);
+
+  private final OutputStream out;
+  private final ZstdCompressor compressor = new ZstdCompressor();
+  private final int blockSize;
+  private Buffers buffers;
+  private int length;
+  private boolean closed;
+
+  ZstdFrameOutputStream(final OutputStream out) {
+    this(out, BLOCK_SIZE);
+  }
+
+  ZstdFrameOutputStream(final OutputStream out, final int blockSize) {
+    this.out = out;
+    this.blockSize = blockSize;
+    buffers = acquireBuffers(blockSize);
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    ensureCapacity(1);
+    buffers.block[length++] = (byte) b;
+  }
+
+  @Override
+  public void write(final byte[] bytes, int offset, int len) throws IOException {
+    while (len > 0) {
+      final byte[] block = ensureCapacity(len);
+      final int chunk = Math.min(len, block.length - length);
+      System.arraycopy(bytes, offset, block, length, chunk);
+      length += chunk;
+      offset += chunk;
+      len -= chunk;
+    }
+  }
+
+  /** Only flushes frames already written: compressing a partial block would hurt the ratio. */
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (length > 0) {
+        writeFrame();
+      }
+    } finally {
+      releaseBuffers(buffers);
+      buffers = null;
+      out.close();
+    }
+  }
+
+  /**
+   * Grows the block towards the block size, or writes a frame when it is full.
+   *
+   * @return the block with room for at least one more byte
+   */
+  private byte[] ensureCapacity(final int len) throws IOException {
+    byte[] block = buffers.block;
+    if (block.length - length < len && block.length < blockSize) {
+      int size = block.length;
+      while (size - length < len && size < blockSize) {
+        size = Math.min(blockSize, size << 1);
+      }
+      final byte[] grown = new byte[size];
+      System.arraycopy(block, 0, grown, 0, length);
+      buffers.block = block = grown;
+    }
+    if (length == block.length) {
+      writeFrame();
+    }
+    return block;
+  }
+
+  private void writeFrame() throws IOException {
+    final int maxLength = compressor.maxCompressedLength(length);
+    if (buffers.compressed.length < maxLength) {
+      buffers.compressed = new byte[maxLength];
+    }
+    final byte[] compressed = buffers.compressed;
+    final int size =
+        compressor.compress(buffers.block, 0, length, compressed, 0, compressed.length);
+    out.write(compressed, 0, size);
+    length = 0;
+  }
+
+  private static Buffers acquireBuffers(final int blockSize) {
+    final Buffers buffers = BUFFERS.poll();
+    if (null == buffers || buffers.block.length > blockSize) {
+      return new Buffers(Math.min(blockSize, INITIAL_BLOCK_SIZE));
+    }
+    return buffers;
+  }
+
+  private static void releaseBuffers(final Buffers buffers) {
+    BUFFERS.offer(buffers);
+  }
+
+  private static final class Buffers {
+    byte[] block;
+    byte[] compressed = new byte[0];
+
+    Buffers(final int blockSize) {
+      block = new byte[blockSize];
+    }
+  }
+}
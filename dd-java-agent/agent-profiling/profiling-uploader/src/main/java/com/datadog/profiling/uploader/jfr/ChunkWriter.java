@@ -0,0 +1,101 @@
+package com.datadog.profiling.uploader.jfr;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/** Buffered writer of rewritten chunks, able to patch chunk headers once a chunk is complete. */
+final class ChunkWriter {
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+
+  ChunkWriter(final FileChannel channel, final int bufferSize) {
+    this.channel = channel;
+    buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  /** @return number of bytes written so far */
+  long position() throws IOException {
+    return channel.position() + buffer.position();
+  }
+
+  void write(final byte[] bytes, int offset, int length) throws IOException {
+    while (length > 0) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      final int chunk = Math.min(length, buffer.remaining());
+      buffer.put(bytes, offset, chunk);
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  void writeByte(final int b) throws IOException {
+    if (!buffer.hasRemaining()) {
+      flush();
+    }
+    buffer.put((byte) b);
+  }
+
+  /**
+   * Writes a variable length encoded value using exactly {@code width} bytes, padding it with
+   * continuation bytes if needed, so that rewritten values keep the size of the original ones.
+   */
+  void writeVarLong(long value, final int width) throws IOException {
+    if (width < 9 && (value >>> (7 * width)) != 0) {
+      throw new IOException("Value " + value + " does not fit in " + width + " bytes");
+    }
+    for (int i = 0; i < width - 1; i++) {
+      writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    // the ninth byte of an encoded value holds eight bits
+    writeByte((int) (width == 9 ? value & 0xFF : value & 0x7F));
+  }
+
+  /** Overwrites a long at an absolute position, typically in the header of a written chunk. */
+  void patchLong(final long position, final long value) throws IOException {
+    flush();
+    final ByteBuffer bytes = ByteBuffer.allocate(8);
+    bytes.putLong(0, value);
+    channel.write(bytes, position);
+  }
+
+  /** Overwrites a value written with {@link #writeVarLong(long, int)} on 9 bytes. */
+  void patchVarLong(final long position, long value) throws IOException {
+    final long buffered = channel.position();
+    if (position < buffered) {
+      // already written out, at least partly; a positional write keeps the channel position
+      final ByteBuffer bytes = ByteBuffer.allocate(9);
+      for (int i = 0; i < 8; i++) {
+        bytes.put((byte) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      bytes.put((byte) value);
+      bytes.flip();
+      if (position + 9 > buffered) {
+        flush();
+      }
+      while (bytes.hasRemaining()) {
+        channel.write(bytes, position + bytes.position());
+      }
+    } else {
+      int index = (int) (position - buffered);
+      for (int i = 0; i < 8; i++) {
+        buffer.put(index++, (byte) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      buffer.put(index, (byte) value);
+    }
+  }
+
+  void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,58 @@
+package com.datadog.profiling.uploader.jfr;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * CPU time a thread may spend on a task. Measured as thread CPU time when the JVM supports and
+ * enables it, and as wall time otherwise.
+ */
+final class CpuBudget {
+
+  /** Thrown when the budget has been used up; the task should be abandoned. */
+  static final class ExceededException extends IOException {
+    ExceededException(final long usedNanos) {
+      super("CPU budget exceeded after " + usedNanos / 1_000_000 + "ms");
+    }
+  }
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final long limitNanos;
+  private final long startCpuTime;
+  private final long startWallTime;
+
+  CpuBudget(final long limitNanos) {
+    this.limitNanos = limitNanos;
+    startCpuTime = cpuTime();
+    startWallTime = System.nanoTime();
+  }
+
+  long usedNanos() {
+    if (startCpuTime >= 0) {
+      final long cpuTime = cpuTime();
+      if (cpuTime >= 0) {
+        return cpuTime - startCpuTime;
+      }
+    }
+    // thread CPU time is unsupported, disabled, or was disabled while the task was running
+    return System.nanoTime() - startWallTime;
+  }
+
+  void check() throws ExceededException {
+    final long used = usedNanos();
+    if (used > limitNanos) {
+      throw new ExceededException(used);
+    }
+  }
+
+  /** @return the CPU time of the current thread, or -1 if it can't be measured */
+  private static long cpuTime() {
+    try {
+      return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    } catch (final UnsupportedOperationException e) {
+      return -1;
+    }
+  }
+}
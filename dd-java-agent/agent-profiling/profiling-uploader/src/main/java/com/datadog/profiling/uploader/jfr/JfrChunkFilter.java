@@ -0,0 +1,479 @@
+package com.datadog.profiling.uploader.jfr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites JFR chunks without the events that are least worth uploading.
+ *
+ * <p>Chunks are streamed twice: the first pass only reads their metadata, the second copies every
+ * event that is kept and skips the others. Checkpoint events are kept, with their links to previous
+ * checkpoints re-encoded in place, so constant pools stay valid; the chunk header is patched once
+ * the chunk has been written. Constant pool entries only referenced by dropped events are left as
+ * they are.
+ *
+ * <p>The weight of the allocation samples which are dropped is added to the last kept one, so the
+ * allocation totals are preserved. Kept samples have their weight re-encoded on 9 bytes, so it can
+ * be updated in place once the following samples have been read.
+ *
+ * <p>Chunks written without compressed integers are copied unchanged.
+ */
+public final class JfrChunkFilter {
+
+  static final long METADATA_EVENT = 0;
+  static final long CHECKPOINT_EVENT = 1;
+
+  static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+  static final String ALLOCATION_WEIGHT = "weight";
+  static final String EXCEPTION_SAMPLE = "datadog.ExceptionSample";
+
+  private static final byte[] MAGIC = {'F', 'L', 'R', 0};
+  private static final int HEADER_SIZE = 68;
+  private static final int CHUNK_SIZE_OFFSET = 8;
+  private static final int CONSTANT_POOL_OFFSET = 16;
+  private static final int METADATA_OFFSET = 24;
+  private static final int FEATURES_OFFSET = 64;
+  private static final int COMPRESSED_INTS = 1;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  // getting the thread CPU time is not free, the budget is only checked every so many events
+  private static final int EVENTS_PER_BUDGET_CHECK = 1024;
+
+  /** Source of the recording, opened once per pass. */
+  public interface Source {
+    InputStream open() throws IOException;
+  }
+
+  /** Sizes and counts of a filtered recording. */
+  public static final class Result {
+    private long inputBytes;
+    private long outputBytes;
+    private long keptEvents;
+    private long droppedEvents;
+
+    public long inputBytes() {
+      return inputBytes;
+    }
+
+    public long outputBytes() {
+      return outputBytes;
+    }
+
+    public long keptEvents() {
+      return keptEvents;
+    }
+
+    public long droppedEvents() {
+      return droppedEvents;
+    }
+  }
+
+  private final String allocationSample;
+  private final String allocationWeight;
+  private final int allocationSampleStride;
+  private final String exceptionSample;
+  private final int exceptionSamplesPerStackTrace;
+
+  /**
+   * @param allocationSampleStride keep one {@value #ALLOCATION_SAMPLE} event out of that many, 1
+   *     keeps them all
+   * @param exceptionSamplesPerStackTrace keep that many {@value #EXCEPTION_SAMPLE} events per stack
+   *     trace and chunk, 0 keeps them all
+   */
+  public JfrChunkFilter(final int allocationSampleStride, final int exceptionSamplesPerStackTrace) {
+    this(
+        ALLOCATION_SAMPLE,
+        ALLOCATION_WEIGHT,
+        allocationSampleStride,
+        EXCEPTION_SAMPLE,
+        exceptionSamplesPerStackTrace);
+  }
+
+  JfrChunkFilter(
+      final String allocationSample,
+      final String allocationWeight,
+      final int allocationSampleStride,
+      final String exceptionSample,
+      final int exceptionSamplesPerStackTrace) {
+    this.allocationSample = allocationSample;
+    this.allocationWeight = allocationWeight;
+    this.allocationSampleStride = Math.max(1, allocationSampleStride);
+    this.exceptionSample = exceptionSample;
+    this.exceptionSamplesPerStackTrace = Math.max(0, exceptionSamplesPerStackTrace);
+  }
+
+  /**
+   * Writes the filtered recording to {@code out}.
+   *
+   * @throws CpuBudget.ExceededException if filtering took more CPU time than allowed, in which case
+   *     {@code out} holds an incomplete recording
+   */
+  Result filter(final Source source, final FileChannel out, final CpuBudget budget)
+      throws IOException {
+    final List<JfrMetadata> chunks = readMetadata(source, budget);
+    final Result result = new Result();
+    final ChunkWriter writer = new ChunkWriter(out, BUFFER_SIZE);
+    try (final JfrInput input = new JfrInput(source.open(), BUFFER_SIZE)) {
+      for (final JfrMetadata metadata : chunks) {
+        final byte[] header = new byte[HEADER_SIZE];
+        input.readFully(header, 0, HEADER_SIZE);
+        final long chunkStart = writer.position();
+        writer.write(header, 0, HEADER_SIZE);
+        final long chunkSize = ByteBuffer.wrap(header).getLong(CHUNK_SIZE_OFFSET);
+        if (null == metadata) {
+          input.copyTo(writer, chunkSize - HEADER_SIZE);
+        } else {
+          new ChunkRewrite(metadata, header, input, writer, chunkStart, result, budget).run();
+        }
+      }
+      writer.flush();
+      result.inputBytes = input.position();
+      result.outputBytes = writer.position();
+    }
+    return result;
+  }
+
+  /** @return the metadata of each chunk, or null for chunks which are copied as they are */
+  private static List<JfrMetadata> readMetadata(final Source source, final CpuBudget budget)
+      throws IOException {
+    final List<JfrMetadata> chunks = new ArrayList<>();
+    try (final JfrInput input = new JfrInput(source.open(), BUFFER_SIZE)) {
+      final byte[] header = new byte[HEADER_SIZE];
+      while (!input.atEnd()) {
+        final long chunkStart = input.position();
+        input.readFully(header, 0, HEADER_SIZE);
+        for (int i = 0; i < MAGIC.length; i++) {
+          if (header[i] != MAGIC[i]) {
+            throw new IOException("Not a JFR chunk at offset " + chunkStart);
+          }
+        }
+        final ByteBuffer fields = ByteBuffer.wrap(header);
+        final long chunkSize = fields.getLong(CHUNK_SIZE_OFFSET);
+        final long metadataPosition = fields.getLong(METADATA_OFFSET);
+        if (chunkSize < HEADER_SIZE
+            || metadataPosition < HEADER_SIZE
+            || metadataPosition >= chunkSize) {
+          // a chunk still being written, nothing after it can be trusted
+          throw new IOException("Incomplete JFR chunk at offset " + chunkStart);
+        }
+        if ((fields.getInt(FEATURES_OFFSET) & COMPRESSED_INTS) == 0) {
+          chunks.add(null);
+        } else {
+          input.skip(metadataPosition - HEADER_SIZE);
+          chunks.add(JfrMetadata.read(input));
+        }
+        input.skip(chunkStart + chunkSize - input.position());
+        budget.check();
+      }
+    }
+    return chunks;
+  }
+
+  /** Rewrite of a single chunk, positioned right after its header. */
+  private final class ChunkRewrite {
+    private final JfrInput input;
+    private final ChunkWriter writer;
+    private final Result result;
+    private final CpuBudget budget;
+
+    private final long inputStart;
+    private final long outputStart;
+    private final long chunkSize;
+    private final long constantPoolPosition;
+    private final long metadataPosition;
+
+    private final JfrMetadata metadata;
+    private final long allocationSampleType;
+    private final JfrMetadata.Type allocationSampleWeighted;
+    private final int weightField;
+    private final JfrMetadata.Type exceptionSampleType;
+    private final int stackTraceField;
+
+    // offsets of checkpoint and metadata events, in the original chunk and in the rewritten one
+    private final Map<Long, Long> offsets = new HashMap<>();
+    private final Map<Long, int[]> exceptionsPerStackTrace = new HashMap<>();
+    private final JfrInput event = new JfrInput(BUFFER_SIZE);
+    private final byte[] prefix = new byte[18];
+    private long allocationSamples;
+    // position of the weight of the last kept allocation sample, and the weight it should hold
+    private long allocationWeightPosition = -1;
+    private long allocationWeightSum;
+
+    ChunkRewrite(
+        final JfrMetadata metadata,
+        final byte[] header,
+        final JfrInput input,
+        final ChunkWriter writer,
+        final long outputStart,
+        final Result result,
+        final CpuBudget budget) {
+      this.metadata = metadata;
+      this.input = input;
+      this.writer = writer;
+      this.outputStart = outputStart;
+      this.result = result;
+      this.budget = budget;
+      inputStart = input.position() - HEADER_SIZE;
+      final ByteBuffer fields = ByteBuffer.wrap(header);
+      chunkSize = fields.getLong(CHUNK_SIZE_OFFSET);
+      constantPoolPosition = fields.getLong(CONSTANT_POOL_OFFSET);
+      metadataPosition = fields.getLong(METADATA_OFFSET);
+
+      final JfrMetadata.Type allocations = metadata.type(allocationSample);
+      allocationSampleType = null == allocations ? -1 : allocations.id;
+      final int weight = null == allocations ? -1 : allocations.fieldIndex(allocationWeight);
+      // keeping every sample leaves their weight alone, and the events are copied as they are
+      allocationSampleWeighted = weight < 0 || allocationSampleStride == 1 ? null : allocations;
+      weightField = weight;
+      final JfrMetadata.Type exceptions = metadata.type(exceptionSample);
+      final int stackTrace = null == exceptions ? -1 : exceptions.fieldIndex("stackTrace");
+      exceptionSampleType = stackTrace < 0 ? null : exceptions;
+      stackTraceField = stackTrace;
+    }
+
+    void run() throws IOException {
+      long events = 0;
+      while (input.position() - inputStart < chunkSize) {
+        final long eventStart = input.position();
+        final long inputOffset = eventStart - inputStart;
+        final long outputOffset = writer.position() - outputStart;
+
+        final int prefixLength = readPrefix();
+        final long size = varLong(prefix, 0);
+        final long type = varLong(prefix, varLongLength(prefix, 0));
+        final long remaining = eventStart + size - input.position();
+
+        if (type == CHECKPOINT_EVENT) {
+          offsets.put(inputOffset, outputOffset);
+          writer.write(prefix, 0, prefixLength);
+          copyVarLong(); // start time
+          copyVarLong(); // duration
+          final int width = readRawVarLong(0);
+          final long delta = varLong(prefix, 0);
+          long rewritten = 0;
+          if (delta != 0) {
+            final Long previous = offsets.get(inputOffset + delta);
+            if (null == previous) {
+              throw new IOException("Checkpoint at " + inputOffset + " links to no checkpoint");
+            }
+            rewritten = previous - outputOffset;
+          }
+          writer.writeVarLong(rewritten, width);
+          input.copyTo(writer, eventStart + size - input.position());
+          result.keptEvents++;
+        } else if (type == METADATA_EVENT) {
+          offsets.put(inputOffset, outputOffset);
+          writer.write(prefix, 0, prefixLength);
+          input.copyTo(writer, remaining);
+        } else if (null != allocationSampleWeighted
+            && type == allocationSampleType
+            && remaining <= event.buffer().length) {
+          input.readFully(event.buffer(), 0, (int) remaining);
+          sampleAllocation(prefixLength, (int) remaining);
+        } else if (type == allocationSampleType) {
+          copyOrSkip(prefixLength, remaining, allocationSamples++ % allocationSampleStride == 0);
+        } else if (null != exceptionSampleType
+            && type == exceptionSampleType.id
+            && remaining <= event.buffer().length) {
+          input.readFully(event.buffer(), 0, (int) remaining);
+          final boolean keep = keepExceptionSample((int) remaining);
+          if (keep) {
+            writer.write(prefix, 0, prefixLength);
+            writer.write(event.buffer(), 0, (int) remaining);
+            result.keptEvents++;
+          } else {
+            result.droppedEvents++;
+          }
+        } else {
+          copyOrSkip(prefixLength, remaining, true);
+        }
+
+        if (++events % EVENTS_PER_BUDGET_CHECK == 0) {
+          budget.check();
+        }
+      }
+
+      patchAllocationWeight();
+      final Long rewrittenConstantPool = offsets.get(constantPoolPosition);
+      final Long rewrittenMetadata = offsets.get(metadataPosition);
+      if (null == rewrittenConstantPool || null == rewrittenMetadata) {
+        throw new IOException("Chunk header points to no checkpoint or metadata event");
+      }
+      writer.patchLong(outputStart + CHUNK_SIZE_OFFSET, writer.position() - outputStart);
+      writer.patchLong(outputStart + CONSTANT_POOL_OFFSET, rewrittenConstantPool);
+      writer.patchLong(outputStart + METADATA_OFFSET, rewrittenMetadata);
+    }
+
+    private void copyOrSkip(final int prefixLength, final long remaining, final boolean keep)
+        throws IOException {
+      if (keep) {
+        writer.write(prefix, 0, prefixLength);
+        input.copyTo(writer, remaining);
+        result.keptEvents++;
+      } else {
+        input.skip(remaining);
+        result.droppedEvents++;
+      }
+    }
+
+    /**
+     * Keeps one allocation sample out of {@link #allocationSampleStride}, adding the weight of the
+     * dropped ones to the last kept sample.
+     */
+    private void sampleAllocation(final int prefixLength, final int length) throws IOException {
+      event.reset(length);
+      final List<JfrMetadata.Field> fields = allocationSampleWeighted.fields;
+      for (int i = 0; i < weightField; i++) {
+        skipValue(fields.get(i));
+      }
+      final int weightStart = (int) event.position();
+      final long weight = event.readVarLong();
+      final int weightEnd = (int) event.position();
+
+      if (allocationSamples++ % allocationSampleStride != 0) {
+        allocationWeightSum += weight;
+        result.droppedEvents++;
+        return;
+      }
+      patchAllocationWeight();
+      // the weight is written on 9 bytes, and the event size grows accordingly
+      final int sizeLength = varLongLength(prefix, 0);
+      final int typeLength = prefixLength - sizeLength;
+      final long body = typeLength + length + 9 - (weightEnd - weightStart);
+      int width = sizeLength;
+      while (width < 9 && ((body + width) >>> (7 * width)) != 0) {
+        width++;
+      }
+      writer.writeVarLong(body + width, width);
+      writer.write(prefix, sizeLength, typeLength);
+      writer.write(event.buffer(), 0, weightStart);
+      allocationWeightPosition = writer.position();
+      allocationWeightSum = weight;
+      writer.writeVarLong(weight, 9);
+      writer.write(event.buffer(), weightEnd, length - weightEnd);
+      result.keptEvents++;
+    }
+
+    /**
+     * Sets the weight of the last kept allocation sample to the sum of the weights it stands for.
+     */
+    private void patchAllocationWeight() throws IOException {
+      if (allocationWeightPosition >= 0) {
+        writer.patchVarLong(allocationWeightPosition, allocationWeightSum);
+        allocationWeightPosition = -1;
+      }
+    }
+
+    /** Reads the size and type of an event into {@link #prefix}, returning their length. */
+    private int readPrefix() throws IOException {
+      int length = readRawVarLong(0);
+      length += readRawVarLong(length);
+      return length;
+    }
+
+    /** Reads a value into {@link #prefix}, returning the number of bytes it was encoded with. */
+    private int readRawVarLong(final int offset) throws IOException {
+      for (int i = 0; i < 9; i++) {
+        final int b = input.readByte();
+        prefix[offset + i] = (byte) b;
+        if (b < 0x80 || i == 8) {
+          return i + 1;
+        }
+      }
+      throw new AssertionError();
+    }
+
+    private void copyVarLong() throws IOException {
+      final int length = readRawVarLong(0);
+      writer.write(prefix, 0, length);
+    }
+
+    private boolean keepExceptionSample(final int length) throws IOException {
+      if (exceptionSamplesPerStackTrace == 0) {
+        return true;
+      }
+      event.reset(length);
+      final List<JfrMetadata.Field> fields = exceptionSampleType.fields;
+      for (int i = 0; i < stackTraceField; i++) {
+        skipValue(fields.get(i));
+      }
+      final long stackTrace = event.readVarLong();
+      int[] count = exceptionsPerStackTrace.get(stackTrace);
+      if (null == count) {
+        count = new int[1];
+        exceptionsPerStackTrace.put(stackTrace, count);
+      }
+      return count[0]++ < exceptionSamplesPerStackTrace;
+    }
+
+    private void skipValue(final JfrMetadata.Field field) throws IOException {
+      final int count = field.array ? event.readVarInt() : 1;
+      for (int i = 0; i < count; i++) {
+        if (field.constantPool) {
+          event.readVarLong();
+        } else {
+          skipValue(field.typeId);
+        }
+      }
+    }
+
+    private void skipValue(final long typeId) throws IOException {
+      final JfrMetadata.Type type = metadata.type(typeId);
+      if (null == type) {
+        throw new IOException("Unknown type " + typeId);
+      }
+      switch (type.name) {
+        case "boolean":
+        case "byte":
+          event.readByte();
+          break;
+        case "short":
+        case "char":
+        case "int":
+        case "long":
+          event.readVarLong();
+          break;
+        case "float":
+          event.skip(4);
+          break;
+        case "double":
+          event.skip(8);
+          break;
+        case "java.lang.String":
+          event.readString();
+          break;
+        default:
+          for (final JfrMetadata.Field field : type.fields) {
+            skipValue(field);
+          }
+      }
+    }
+  }
+
+  private static long varLong(final byte[] bytes, final int offset) {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      final long b = bytes[offset + i] & 0xFF;
+      value |= (b & 0x7F) << (7 * i);
+      if (b < 0x80) {
+        return value;
+      }
+    }
+    return value | ((bytes[offset + 8] & 0xFFL) << 56);
+  }
+
+  private static int varLongLength(final byte[] bytes, final int offset) {
+    for (int i = 0; i < 8; i++) {
+      if ((bytes[offset + i] & 0xFF) < 0x80) {
+        return i + 1;
+      }
+    }
+    return 9;
+  }
+}
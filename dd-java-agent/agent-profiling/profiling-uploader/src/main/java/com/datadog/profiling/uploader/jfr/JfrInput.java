@@ -0,0 +1,181 @@
+package com.datadog.profiling.uploader.jfr;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/** Buffered, position-tracking reader of the JFR binary format. */
+final class JfrInput implements AutoCloseable {
+
+  private final InputStream in;
+  private final byte[] buffer;
+  private int offset;
+  private int limit;
+  private long position;
+
+  JfrInput(final InputStream in, final int bufferSize) {
+    this.in = in;
+    buffer = new byte[bufferSize];
+  }
+
+  /** Creates a reader decoding bytes placed in its buffer, see {@link #reset(int)}. */
+  JfrInput(final int bufferSize) {
+    this(null, bufferSize);
+  }
+
+  byte[] buffer() {
+    return buffer;
+  }
+
+  /** Makes the first {@code length} bytes of the buffer readable again, from position 0. */
+  void reset(final int length) {
+    offset = 0;
+    limit = length;
+    position = 0;
+  }
+
+  /** @return number of bytes consumed so far */
+  long position() {
+    return position;
+  }
+
+  /** @return true if the end of the stream has been reached */
+  boolean atEnd() throws IOException {
+    return offset == limit && !fill();
+  }
+
+  int readByte() throws IOException {
+    if (offset == limit && !fill()) {
+      throw new EOFException();
+    }
+    position++;
+    return buffer[offset++] & 0xFF;
+  }
+
+  void readFully(final byte[] bytes, final int off, final int len) throws IOException {
+    int copied = 0;
+    while (copied < len) {
+      if (offset == limit && !fill()) {
+        throw new EOFException();
+      }
+      final int chunk = Math.min(len - copied, limit - offset);
+      System.arraycopy(buffer, offset, bytes, off + copied, chunk);
+      offset += chunk;
+      copied += chunk;
+    }
+    position += len;
+  }
+
+  long readLong() throws IOException {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | readByte();
+    }
+    return value;
+  }
+
+  /** Reads a variable length encoded value, as written when integers are compressed. */
+  long readVarLong() throws IOException {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      final long b = readByte();
+      value |= (b & 0x7F) << (7 * i);
+      if (b < 0x80) {
+        return value;
+      }
+    }
+    return value | ((long) readByte() << 56);
+  }
+
+  int readVarInt() throws IOException {
+    return (int) readVarLong();
+  }
+
+  /** Reads a string, or returns null for strings stored in a constant pool. */
+  String readString() throws IOException {
+    final int encoding = readByte();
+    switch (encoding) {
+      case 0:
+        return null;
+      case 1:
+        return "";
+      case 2:
+        readVarLong();
+        return null;
+      case 3:
+      case 5:
+        {
+          final byte[] bytes = new byte[readVarInt()];
+          readFully(bytes, 0, bytes.length);
+          return new String(
+              bytes, encoding == 3 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+        }
+      case 4:
+        {
+          final char[] chars = new char[readVarInt()];
+          for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) readVarInt();
+          }
+          return new String(chars);
+        }
+      default:
+        throw new IOException("Unknown string encoding " + encoding);
+    }
+  }
+
+  void skip(long count) throws IOException {
+    position += count;
+    final int buffered = Math.min(limit - offset, (int) Math.min(count, Integer.MAX_VALUE));
+    offset += buffered;
+    count -= buffered;
+    while (count > 0) {
+      if (null == in) {
+        throw new EOFException();
+      }
+      final long skipped = in.skip(count);
+      if (skipped <= 0) {
+        if (in.read() < 0) {
+          throw new EOFException();
+        }
+        count--;
+      } else {
+        count -= skipped;
+      }
+    }
+  }
+
+  /** Copies {@code count} bytes to {@code out}, through this reader's buffer. */
+  void copyTo(final ChunkWriter out, long count) throws IOException {
+    while (count > 0) {
+      if (offset == limit && !fill()) {
+        throw new EOFException();
+      }
+      final int chunk = (int) Math.min(count, limit - offset);
+      out.write(buffer, offset, chunk);
+      offset += chunk;
+      position += chunk;
+      count -= chunk;
+    }
+  }
+
+  private boolean fill() throws IOException {
+    if (null == in) {
+      return false;
+    }
+    final int read = in.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    offset = 0;
+    limit = read;
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (null != in) {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.datadog.profiling.uploader.jfr;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Event and value types declared in the metadata event of a chunk. */
+final class JfrMetadata {
+
+  static final class Type {
+    final long id;
+    final String name;
+    final List<Field> fields = new ArrayList<>();
+
+    Type(final long id, final String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    /** @return index of the field, or -1 if the type has no such field */
+    int fieldIndex(final String fieldName) {
+      for (int i = 0; i < fields.size(); i++) {
+        if (fields.get(i).name.equals(fieldName)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  static final class Field {
+    final String name;
+    final long typeId;
+    final boolean constantPool;
+    final boolean array;
+
+    Field(final String name, final long typeId, final boolean constantPool, final boolean array) {
+      this.name = name;
+      this.typeId = typeId;
+      this.constantPool = constantPool;
+      this.array = array;
+    }
+  }
+
+  private final Map<Long, Type> typesById = new HashMap<>();
+  private final Map<String, Type> typesByName = new HashMap<>();
+
+  private JfrMetadata() {}
+
+  Type type(final long id) {
+    return typesById.get(id);
+  }
+
+  Type type(final String name) {
+    return typesByName.get(name);
+  }
+
+  /**
+   * Parses a metadata event.
+   *
+   * @param input reader positioned at the start of the metadata event
+   */
+  static JfrMetadata read(final JfrInput input) throws IOException {
+    input.readVarInt(); // size
+    if (input.readVarLong() != JfrChunkFilter.METADATA_EVENT) {
+      throw new IOException("Not a metadata event");
+    }
+    input.readVarLong(); // start time
+    input.readVarLong(); // duration
+    input.readVarLong(); // metadata id
+    final String[] strings = new String[input.readVarInt()];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = input.readString();
+    }
+    final JfrMetadata metadata = new JfrMetadata();
+    metadata.readElement(input, strings, null);
+    return metadata;
+  }
+
+  private void readElement(final JfrInput input, final String[] strings, final Type owner)
+      throws IOException {
+    final String element = strings[input.readVarInt()];
+    final int attributeCount = input.readVarInt();
+    final Map<String, String> attributes = new HashMap<>(attributeCount * 2);
+    for (int i = 0; i < attributeCount; i++) {
+      attributes.put(strings[input.readVarInt()], strings[input.readVarInt()]);
+    }
+
+    Type type = null;
+    if ("class".equals(element)) {
+      type = new Type(Long.parseLong(attributes.get("id")), attributes.get("name"));
+      typesById.put(type.id, type);
+      typesByName.put(type.name, type);
+    } else if ("field".equals(element) && null != owner) {
+      owner.fields.add(
+          new Field(
+              attributes.get("name"),
+              Long.parseLong(attributes.get("class")),
+              "true".equals(attributes.get("constantPool")),
+              null != attributes.get("dimension")));
+    }
+
+    final int childCount = input.readVarInt();
+    for (int i = 0; i < childCount; i++) {
+      // fields only belong to the class element directly enclosing them
+      readElement(input, strings, type);
+    }
+  }
+}
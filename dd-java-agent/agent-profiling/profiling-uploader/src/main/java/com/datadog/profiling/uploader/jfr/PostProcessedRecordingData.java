@@ -0,0 +1,49 @@
+package com.datadog.profiling.uploader.jfr;
+
+import com.datadog.profiling.controller.RecordingData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/** Recording rewritten to a temporary file, which is deleted on release. */
+final class PostProcessedRecordingData implements RecordingData {
+
+  private final Path file;
+  private final String name;
+  private final Instant start;
+  private final Instant end;
+
+  PostProcessedRecordingData(final RecordingData original, final Path file) {
+    this.file = file;
+    name = original.getName();
+    start = original.getStart();
+    end = original.getEnd();
+  }
+
+  @Override
+  public InputStream getStream() throws IOException {
+    return Files.newInputStream(file);
+  }
+
+  @Override
+  public void release() {
+    RecordingPostProcessor.delete(file);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Instant getStart() {
+    return start;
+  }
+
+  @Override
+  public Instant getEnd() {
+    return end;
+  }
+}
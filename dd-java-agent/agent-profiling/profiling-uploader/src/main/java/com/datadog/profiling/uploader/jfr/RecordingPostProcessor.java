@@ -0,0 +1,132 @@
+package com.datadog.profiling.uploader.jfr;
+
+import com.datadog.profiling.controller.RecordingData;
+import com.datadog.profiling.controller.RecordingDataListener;
+import com.datadog.profiling.controller.RecordingType;
+import com.datadog.profiling.util.ProfilingThreadFactory;
+import datadog.trace.api.Config;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shrinks recordings with a {@link JfrChunkFilter} before handing them over to the uploader.
+ *
+ * <p>Recordings are processed one at a time on a low priority thread, within a CPU budget. A
+ * recording arriving while another one is processed, or whose processing fails, runs out of budget
+ * or does not make it smaller, is passed on unchanged.
+ */
+@Slf4j
+public final class RecordingPostProcessor implements RecordingDataListener {
+
+  private static final int TERMINATION_TIMEOUT = 5;
+
+  private final RecordingDataListener delegate;
+  private final JfrChunkFilter filter;
+  private final long cpuBudgetNanos;
+  private final ThreadPoolExecutor executor;
+
+  public RecordingPostProcessor(final Config config, final RecordingDataListener delegate) {
+    this(
+        delegate,
+        new JfrChunkFilter(
+            config.getProfilingPostProcessingAllocationSampleStride(),
+            config.getProfilingPostProcessingExceptionSamplesPerStackTrace()),
+        TimeUnit.MILLISECONDS.toNanos(config.getProfilingPostProcessingCpuBudget()));
+  }
+
+  RecordingPostProcessor(
+      final RecordingDataListener delegate,
+      final JfrChunkFilter filter,
+      final long cpuBudgetNanos) {
+    this.delegate = delegate;
+    this.filter = filter;
+    this.cpuBudgetNanos = cpuBudgetNanos;
+    final ProfilingThreadFactory threadFactory =
+        new ProfilingThreadFactory("dd-profiler-post-processor");
+    // no queue: recordings are never held back waiting for the previous one to be processed
+    executor =
+        new ThreadPoolExecutor(
+            0,
+            1,
+            60,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+              final Thread thread = threadFactory.newThread(runnable);
+              thread.setPriority(Thread.MIN_PRIORITY);
+              return thread;
+            });
+  }
+
+  @Override
+  public void onNewData(final RecordingType type, final RecordingData data) {
+    try {
+      executor.execute(() -> delegate.onNewData(type, process(data)));
+    } catch (final RejectedExecutionException e) {
+      log.debug("Post-processing busy, passing {} on unchanged", data.getName());
+      delegate.onNewData(type, data);
+    }
+  }
+
+  /** @return the processed recording, or {@code data} itself if it could not be processed */
+  RecordingData process(final RecordingData data) {
+    Path file = null;
+    try {
+      file = Files.createTempFile("dd-profiler-", ".jfr");
+      final CpuBudget budget = new CpuBudget(cpuBudgetNanos);
+      final JfrChunkFilter.Result result;
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        result = filter.filter(data::getStream, channel, budget);
+      }
+      if (result.outputBytes() >= result.inputBytes()) {
+        delete(file);
+        return data;
+      }
+      log.debug(
+          "Post-processed {} in {}ms: {} -> {} bytes, {} events dropped",
+          data.getName(),
+          TimeUnit.NANOSECONDS.toMillis(budget.usedNanos()),
+          result.inputBytes(),
+          result.outputBytes(),
+          result.droppedEvents());
+      final RecordingData processed = new PostProcessedRecordingData(data, file);
+      data.release();
+      return processed;
+    } catch (final CpuBudget.ExceededException e) {
+      log.debug("Post-processing of {} abandoned: {}", data.getName(), e.getMessage());
+    } catch (final IOException | IllegalStateException e) {
+      log.debug("Post-processing of {} failed", data.getName(), e);
+    }
+    if (null != file) {
+      delete(file);
+    }
+    return data;
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS);
+    } catch (final InterruptedException e) {
+      // Note: this should only happen in main thread right before exiting, so eating up interrupted
+      // state should be fine.
+      log.warn("Wait for post-processor shutdown interrupted");
+    }
+  }
+
+  static void delete(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (final IOException e) {
+      log.debug("Could not delete {}", file, e);
+    }
+  }
+}
@@ -17,6 +17,9 @@ public final class StreamUtils {
   // https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md#general-structure-of-lz4-frame-format
   static final int[] LZ4_MAGIC = new int[] {0x04, 0x22, 0x4D, 0x18};
 
+  // https://github.com/facebook/zstd/blob/dev/doc/zstd_compression_format.md#frames
+  static final int[] ZSTD_MAGIC = new int[] {0x28, 0xB5, 0x2F, 0xFD};
+
   // JMC's IOToolkit hides this from us...
   static final int ZIP_MAGIC[] = new int[] {80, 75, 3, 4};
   static final int GZ_MAGIC[] = new int[] {31, 139};
@@ -36,7 +39,7 @@ public final class StreamUtils {
 
   /**
    * Read a stream into a consumer gzip-compressing content. If the stream is already compressed
-   * (gzip, zip, lz4) the original data will be returned.
+   * (gzip, zip, lz4, zstd) the original data will be returned.
    *
    * @param is the input stream
    * @return gzipped contents of the input stream or the the original content if the stream is
@@ -59,7 +62,7 @@ public final class StreamUtils {
 
   /**
    * Read a stream into a consumer lz4-compressing content. If the stream is already compressed
-   * (gzip, zip, lz4) the original data will be returned.
+   * (gzip, zip, lz4, zstd) the original data will be returned.
    *
    * @param is the input stream
    * @return lz4ed contents of the input stream or the the original content if the stream is already
@@ -198,9 +201,9 @@ public final class StreamUtils {
    * @return {@literal true} if the stream is compressed in a supported format
    * @throws IOException
    */
-  private static boolean isCompressed(final InputStream is) throws IOException {
+  public static boolean isCompressed(final InputStream is) throws IOException {
     checkMarkSupported(is);
-    return isGzip(is) || isLz4(is) || isZip(is);
+    return isGzip(is) || isLz4(is) || isZstd(is) || isZip(is);
   }
 
   /**
@@ -254,7 +257,24 @@ public final class StreamUtils {
     }
   }
 
-  private static InputStream ensureMarkSupported(InputStream is) {
+  /**
+   * Check whether the stream represents Zstandard data
+   *
+   * @param is input stream; must support {@linkplain InputStream#mark(int)}
+   * @return {@literal true} if the stream represents Zstandard data
+   * @throws IOException
+   */
+  private static boolean isZstd(final InputStream is) throws IOException {
+    checkMarkSupported(is);
+    is.mark(ZSTD_MAGIC.length);
+    try {
+      return IOToolkit.hasMagic(is, ZSTD_MAGIC);
+    } finally {
+      is.reset();
+    }
+  }
+
+  public static InputStream ensureMarkSupported(InputStream is) {
     if (!is.markSupported()) {
       is = new BufferedInputStream(is);
     }
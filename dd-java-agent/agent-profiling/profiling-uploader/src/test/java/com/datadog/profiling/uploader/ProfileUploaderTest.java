@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -41,6 +42,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.io.ByteStreams;
 import datadog.trace.api.Config;
 import datadog.trace.api.RatelimitedLogger;
+import io.airlift.compress.zstd.ZstdDecompressor;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -49,6 +51,7 @@ import java.net.ConnectException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -114,6 +117,9 @@ public class ProfileUploaderTest {
 
   private final Duration FOREVER_REQUEST_TIMEOUT = Duration.ofSeconds(1000);
 
+  // recordings are released asynchronously, once their request has completed
+  private final long RELEASE_TIMEOUT_MILLIS = 5000;
+
   @Mock private Config config;
   @Mock private RatelimitedLogger ratelimitedLogger;
 
@@ -146,7 +152,7 @@ public class ProfileUploaderTest {
   }
 
   @ParameterizedTest
-  @ValueSource(strings = {"on", "lz4", "gzip", "off", "invalid"})
+  @ValueSource(strings = {"on", "lz4", "gzip", "zstd", "off", "invalid"})
   public void testRequestParameters(final String compression)
       throws IOException, InterruptedException {
     when(config.getProfilingUploadCompression()).thenReturn(compression);
@@ -191,6 +197,8 @@ public class ProfileUploaderTest {
         (byte[]) Iterables.getFirst(parameters.get(ProfileUploader.DATA_PARAM), new byte[] {});
     if (compression.equals("gzip")) {
       uploadedBytes = unGzip(uploadedBytes);
+    } else if (compression.equals("zstd")) {
+      uploadedBytes = unZstd(uploadedBytes, expectedBytes.length);
     } else if (compression.equals("on")
         || compression.equals("lz4")
         || compression.equals("invalid")) {
@@ -342,8 +350,8 @@ public class ProfileUploaderTest {
     final RecordingData recording = mockRecordingData(RECORDING_RESOURCE);
     uploader.upload(RECORDING_TYPE, recording);
 
-    verify(recording.getStream()).close();
-    verify(recording).release();
+    verify(recording.getStream(), timeout(RELEASE_TIMEOUT_MILLIS)).close();
+    verify(recording, timeout(RELEASE_TIMEOUT_MILLIS)).release();
   }
 
   @Test
@@ -355,8 +363,8 @@ public class ProfileUploaderTest {
 
     assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
 
-    verify(recording.getStream()).close();
-    verify(recording).release();
+    verify(recording.getStream(), timeout(RELEASE_TIMEOUT_MILLIS)).close();
+    verify(recording, timeout(RELEASE_TIMEOUT_MILLIS)).release();
   }
 
   @Test
@@ -366,8 +374,8 @@ public class ProfileUploaderTest {
     final RecordingData recording = mockRecordingData(RECORDING_RESOURCE);
     uploader.upload(RECORDING_TYPE, recording);
 
-    verify(recording.getStream()).close();
-    verify(recording).release();
+    verify(recording.getStream(), timeout(RELEASE_TIMEOUT_MILLIS)).close();
+    verify(recording, timeout(RELEASE_TIMEOUT_MILLIS)).release();
 
     // Shutting down uploader ensures all callbacks are called on http client
     uploader.shutdown();
@@ -388,8 +396,8 @@ public class ProfileUploaderTest {
 
     assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
 
-    verify(recording.getStream()).close();
-    verify(recording).release();
+    verify(recording.getStream(), timeout(RELEASE_TIMEOUT_MILLIS)).close();
+    verify(recording, timeout(RELEASE_TIMEOUT_MILLIS)).release();
   }
 
   @Test
@@ -399,7 +407,7 @@ public class ProfileUploaderTest {
     uploader.upload(RECORDING_TYPE, recording);
 
     verify(recording).release();
-    verify(recording, times(2)).getStream();
+    verify(recording).getStream();
     verifyNoMoreInteractions(recording);
   }
 
@@ -442,8 +450,8 @@ public class ProfileUploaderTest {
 
     assertNotNull(server.takeRequest(2000, TimeUnit.MILLISECONDS), "Got enqueued request");
 
-    verify(additionalRecording.getStream()).close();
-    verify(additionalRecording).release();
+    verify(additionalRecording.getStream(), timeout(RELEASE_TIMEOUT_MILLIS)).close();
+    verify(additionalRecording, timeout(RELEASE_TIMEOUT_MILLIS)).release();
   }
 
   @Test
@@ -484,9 +492,12 @@ public class ProfileUploaderTest {
     // or parallel requests has been reached.
     assertNull(server.takeRequest(100, TimeUnit.MILLISECONDS), "No more requests");
 
-    for (final RecordingData recording : hangingRequests) {
-      verify(recording.getStream()).close();
-      verify(recording).release();
+    // Enqueued recordings are kept until their request runs, rejected ones are released at once
+    final RecordingData rejected = hangingRequests.get(hangingRequests.size() - 1);
+    verify(rejected.getStream()).close();
+    verify(rejected).release();
+    for (final RecordingData recording : hangingRequests.subList(0, hangingRequests.size() - 1)) {
+      verify(recording, times(0)).release();
     }
   }
 
@@ -499,8 +510,8 @@ public class ProfileUploaderTest {
 
     assertNull(server.takeRequest(100, TimeUnit.MILLISECONDS), "No more requests");
 
-    verify(recording.getStream()).close();
-    verify(recording).release();
+    verify(recording.getStream(), timeout(RELEASE_TIMEOUT_MILLIS)).close();
+    verify(recording, timeout(RELEASE_TIMEOUT_MILLIS)).release();
   }
 
   private RecordingData mockRecordingData(final String recordingResource) throws IOException {
@@ -524,6 +535,13 @@ public class ProfileUploaderTest {
     return result.toByteArray();
   }
 
+  private byte[] unZstd(final byte[] compressed, final int length) {
+    final byte[] result = new byte[length];
+    final int decompressed =
+        new ZstdDecompressor().decompress(compressed, 0, compressed.length, result, 0, length);
+    return Arrays.copyOf(result, decompressed);
+  }
+
   private byte[] unLz4(final byte[] compressed) throws IOException {
     final InputStream stream = new LZ4FrameInputStream(new ByteArrayInputStream(compressed));
     final ByteArrayOutputStream result = new ByteArrayOutputStream();
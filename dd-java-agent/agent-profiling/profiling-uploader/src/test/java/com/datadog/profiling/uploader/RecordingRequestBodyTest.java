@@ -0,0 +1,120 @@
+package com.datadog.profiling.uploader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datadog.profiling.controller.RecordingData;
+import com.google.common.io.ByteStreams;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class RecordingRequestBodyTest {
+
+  private static final String RECORDING_RESOURCE = "test-recording.jfr";
+
+  @ParameterizedTest
+  @EnumSource(CompressionType.class)
+  void testWritesRecording(final CompressionType compression) throws IOException {
+    final RecordingRequestBody body = new RecordingRequestBody(recordingData(), compression);
+
+    final Buffer sink = new Buffer();
+    body.writeTo(sink);
+
+    assertEquals(-1, body.contentLength());
+    assertEquals(sink.size(), body.bytesWritten());
+    assertArrayEquals(recordingBytes(), decompress(compression, sink.inputStream()));
+  }
+
+  @Test
+  void testRetryReadsRecordingAgain() throws IOException {
+    final RecordingData data = recordingData();
+    final RecordingRequestBody body = new RecordingRequestBody(data, CompressionType.LZ4);
+
+    final Buffer first = new Buffer();
+    body.writeTo(first);
+    final Buffer retry = new Buffer();
+    body.writeTo(retry);
+
+    verify(data, times(2)).getStream();
+    assertEquals(first.readByteString(), retry.readByteString());
+  }
+
+  @Test
+  void testRetryOfReleasedRecordingFails() throws IOException {
+    final RecordingData data = recordingData();
+    final RecordingRequestBody body = new RecordingRequestBody(data, CompressionType.OFF);
+    body.writeTo(new Buffer());
+    body.release();
+    when(data.getStream()).thenThrow(new IllegalStateException("closed"));
+
+    assertThrows(IOException.class, () -> body.writeTo(new Buffer()));
+    verify(data).release();
+  }
+
+  @Test
+  void testZstdStreamsReuseBuffers() throws IOException {
+    final byte[] recording = recordingBytes();
+    for (final int blockSize : new int[] {100_000, 100_000, ZstdFrameOutputStream.BLOCK_SIZE}) {
+      final Buffer sink = new Buffer();
+      try (final OutputStream out = new ZstdFrameOutputStream(sink.outputStream(), blockSize)) {
+        for (int i = 0; i < 1000; i++) {
+          out.write(recording[i]);
+        }
+        out.write(recording, 1000, recording.length - 1000);
+      }
+      assertArrayEquals(recording, decompress(CompressionType.ZSTD, sink.inputStream()));
+    }
+  }
+
+  private static RecordingData recordingData() throws IOException {
+    final RecordingData data = mock(RecordingData.class);
+    when(data.getStream()).thenAnswer(invocation -> recordingStream());
+    return data;
+  }
+
+  private static InputStream recordingStream() {
+    return Thread.currentThread().getContextClassLoader().getResourceAsStream(RECORDING_RESOURCE);
+  }
+
+  private static byte[] recordingBytes() throws IOException {
+    try (final InputStream stream = recordingStream()) {
+      return ByteStreams.toByteArray(stream);
+    }
+  }
+
+  private static byte[] decompress(final CompressionType compression, final InputStream stream)
+      throws IOException {
+    switch (compression) {
+      case OFF:
+        return ByteStreams.toByteArray(stream);
+      case GZIP:
+        return ByteStreams.toByteArray(new GZIPInputStream(stream));
+      case ZSTD:
+        {
+          final byte[] compressed = ByteStreams.toByteArray(stream);
+          final byte[] decompressed = new byte[recordingBytes().length];
+          final int length =
+              new ZstdDecompressor()
+                  .decompress(
+                      compressed, 0, compressed.length, decompressed, 0, decompressed.length);
+          return Arrays.copyOf(decompressed, length);
+        }
+      default:
+        return ByteStreams.toByteArray(new LZ4FrameInputStream(stream));
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.datadog.profiling.uploader.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datadog.profiling.controller.RecordingData;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JfrChunkFilterTest {
+
+  private static final String RECORDING_RESOURCE = "test-recording.jfr";
+  // the test recording has no allocation or exception samples, events with similar shapes are used
+  private static final String ALLOCATIONS = "jdk.ObjectAllocationInNewTLAB";
+  private static final String ALLOCATION_WEIGHT = "allocationSize";
+  private static final String EXCEPTIONS = "jdk.JavaMonitorWait";
+
+  private Path output;
+
+  @BeforeEach
+  void setup() throws IOException {
+    output = Files.createTempFile("filtered-", ".jfr");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(output);
+  }
+
+  @Test
+  void testKeepingEverythingCopiesRecording() throws IOException {
+    final JfrChunkFilter.Result result = filter(new JfrChunkFilter(1, 0), recordingSource());
+
+    assertEquals(0, result.droppedEvents());
+    assertEquals(result.inputBytes(), result.outputBytes());
+    assertArrayEquals(recordingBytes(), Files.readAllBytes(output));
+  }
+
+  @Test
+  void testDropsEvents() throws IOException {
+    final JfrChunkFilter.Result result =
+        filter(
+            new JfrChunkFilter(ALLOCATIONS, ALLOCATION_WEIGHT, 4, EXCEPTIONS, 1),
+            recordingSource());
+
+    assertTrue(result.droppedEvents() > 0);
+    assertTrue(result.outputBytes() < result.inputBytes());
+    assertEquals(Files.size(output), result.outputBytes());
+
+    // the rewritten chunks can be parsed again, and filtering them again drops nothing more
+    final byte[] filtered = Files.readAllBytes(output);
+    final JfrChunkFilter.Result again =
+        filter(
+            new JfrChunkFilter(ALLOCATIONS, ALLOCATION_WEIGHT, 1, EXCEPTIONS, 1),
+            () -> new ByteArrayInputStream(filtered));
+    assertEquals(0, again.droppedEvents());
+    assertEquals(result.keptEvents(), again.keptEvents());
+    assertArrayEquals(filtered, Files.readAllBytes(output));
+  }
+
+  @Test
+  void testFilteredRecordingIsReadByJdk() throws Exception {
+    final Path recording = Files.createTempFile("recording-", ".jfr");
+    try {
+      Files.write(recording, recordingBytes());
+      final Map<String, Integer> original = readEventCounts(recording);
+      final JfrChunkFilter.Result result =
+          filter(
+              new JfrChunkFilter(ALLOCATIONS, ALLOCATION_WEIGHT, 4, EXCEPTIONS, 1),
+              recordingSource());
+      final Map<String, Integer> filtered = readEventCounts(output);
+
+      int dropped = 0;
+      for (final Map.Entry<String, Integer> entry : original.entrySet()) {
+        final int count = filtered.getOrDefault(entry.getKey(), 0);
+        if (entry.getKey().equals(ALLOCATIONS) || entry.getKey().equals(EXCEPTIONS)) {
+          assertTrue(count > 0 && count < entry.getValue(), entry.getKey());
+        } else {
+          assertEquals(entry.getValue(), count, entry.getKey());
+        }
+        dropped += entry.getValue() - count;
+      }
+      assertEquals(original.keySet(), filtered.keySet());
+      assertEquals(result.droppedEvents(), dropped);
+    } finally {
+      Files.deleteIfExists(recording);
+    }
+  }
+
+  @Test
+  void testAllocationWeightIsPreserved() throws Exception {
+    final Path recording = Files.createTempFile("recording-", ".jfr");
+    try {
+      Files.write(recording, recordingBytes());
+      final JfrChunkFilter.Result result =
+          filter(
+              new JfrChunkFilter(ALLOCATIONS, ALLOCATION_WEIGHT, 3, EXCEPTIONS, 0),
+              recordingSource());
+
+      assertTrue(result.droppedEvents() > 0);
+      assertTrue(
+          readEventCounts(output).get(ALLOCATIONS) < readEventCounts(recording).get(ALLOCATIONS));
+      assertEquals(totalAllocationWeight(recording), totalAllocationWeight(output));
+    } finally {
+      Files.deleteIfExists(recording);
+    }
+  }
+
+  @Test
+  void testBudgetExceeded() throws IOException {
+    try (final FileChannel channel = open()) {
+      assertThrows(
+          CpuBudget.ExceededException.class,
+          () -> new JfrChunkFilter(4, 1).filter(recordingSource(), channel, new CpuBudget(-1)));
+    }
+  }
+
+  @Test
+  void testBudgetFallsBackToWallTime() throws Exception {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadCpuTimeSupported());
+    final boolean enabled = threads.isThreadCpuTimeEnabled();
+    threads.setThreadCpuTimeEnabled(false);
+    try {
+      final CpuBudget budget = new CpuBudget(0);
+      Thread.sleep(1);
+      assertThrows(CpuBudget.ExceededException.class, budget::check);
+    } finally {
+      threads.setThreadCpuTimeEnabled(enabled);
+    }
+  }
+
+  @Test
+  void testPostProcessedRecording() throws IOException {
+    final RecordingData data = recordingData();
+    final RecordingPostProcessor postProcessor =
+        new RecordingPostProcessor(
+            (type, recording) -> {},
+            new JfrChunkFilter(ALLOCATIONS, ALLOCATION_WEIGHT, 4, EXCEPTIONS, 1),
+            Long.MAX_VALUE);
+
+    final RecordingData processed = postProcessor.process(data);
+    postProcessor.shutdown();
+
+    assertNotSame(data, processed);
+    verify(data).release();
+    assertEquals(data.getName(), processed.getName());
+    try (final InputStream stream = processed.getStream()) {
+      assertTrue(ByteStreams.toByteArray(stream).length < recordingBytes().length);
+    }
+    processed.release();
+    assertThrows(IOException.class, processed::getStream);
+  }
+
+  @Test
+  void testRecordingPassedOnWhenBudgetExceeded() throws IOException {
+    final RecordingData data = recordingData();
+    final RecordingPostProcessor postProcessor =
+        new RecordingPostProcessor((type, recording) -> {}, new JfrChunkFilter(4, 1), -1);
+
+    assertSame(data, postProcessor.process(data));
+    postProcessor.shutdown();
+  }
+
+  private JfrChunkFilter.Result filter(
+      final JfrChunkFilter filter, final JfrChunkFilter.Source source) throws IOException {
+    try (final FileChannel channel = open()) {
+      return filter.filter(source, channel, new CpuBudget(Long.MAX_VALUE));
+    }
+  }
+
+  private FileChannel open() throws IOException {
+    return FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   * Counts the events of each type with the JDK's own parser. The JFR API is only available on some
+   * Java 8 builds, so it is used reflectively.
+   */
+  private static Map<String, Integer> readEventCounts(final Path recording) throws Exception {
+    final Map<String, Integer> counts = new HashMap<>();
+    for (final Object event : readEvents(recording)) {
+      counts.merge(eventType(event), 1, Integer::sum);
+    }
+    return counts;
+  }
+
+  private static long totalAllocationWeight(final Path recording) throws Exception {
+    long total = 0;
+    for (final Object event : readEvents(recording)) {
+      if (ALLOCATIONS.equals(eventType(event))) {
+        total +=
+            (Long)
+                event
+                    .getClass()
+                    .getMethod("getLong", String.class)
+                    .invoke(event, ALLOCATION_WEIGHT);
+      }
+    }
+    return total;
+  }
+
+  private static List<?> readEvents(final Path recording) throws Exception {
+    final Class<?> recordingFile;
+    try {
+      recordingFile = Class.forName("jdk.jfr.consumer.RecordingFile");
+    } catch (final ClassNotFoundException e) {
+      assumeTrue(false, "JFR is not available");
+      throw e;
+    }
+    return (List<?>) recordingFile.getMethod("readAllEvents", Path.class).invoke(null, recording);
+  }
+
+  private static String eventType(final Object event) throws Exception {
+    final Object type = event.getClass().getMethod("getEventType").invoke(event);
+    return (String) type.getClass().getMethod("getName").invoke(type);
+  }
+
+  private static RecordingData recordingData() throws IOException {
+    final RecordingData data = mock(RecordingData.class);
+    when(data.getName()).thenReturn("test");
+    when(data.getStream()).thenAnswer(invocation -> recordingSource().open());
+    return data;
+  }
+
+  private static JfrChunkFilter.Source recordingSource() {
+    return () ->
+        Thread.currentThread().getContextClassLoader().getResourceAsStream(RECORDING_RESOURCE);
+  }
+
+  private static byte[] recordingBytes() throws IOException {
+    try (final InputStream stream = recordingSource().open()) {
+      return ByteStreams.toByteArray(stream);
+    }
+  }
+}
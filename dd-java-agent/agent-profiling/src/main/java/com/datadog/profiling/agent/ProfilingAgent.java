@@ -4,8 +4,10 @@ import com.datadog.profiling.controller.ConfigurationException;
 import com.datadog.profiling.controller.Controller;
 import com.datadog.profiling.controller.ControllerFactory;
 import com.datadog.profiling.controller.ProfilingSystem;
+import com.datadog.profiling.controller.RecordingDataListener;
 import com.datadog.profiling.controller.UnsupportedEnvironmentException;
 import com.datadog.profiling.uploader.ProfileUploader;
+import com.datadog.profiling.uploader.jfr.RecordingPostProcessor;
 import datadog.trace.api.Config;
 import java.lang.ref.WeakReference;
 import java.time.Duration;
@@ -49,6 +51,12 @@ public class ProfilingAgent {
         final Controller controller = ControllerFactory.createController(config);
 
         final ProfileUploader uploader = new ProfileUploader(config);
+        final RecordingPostProcessor postProcessor =
+            config.isProfilingPostProcessingEnabled()
+                ? new RecordingPostProcessor(config, uploader::upload)
+                : null;
+        final RecordingDataListener listener =
+            null == postProcessor ? uploader::upload : postProcessor;
 
         final Duration startupDelay = Duration.ofSeconds(config.getProfilingStartDelay());
         final Duration uploadPeriod = Duration.ofSeconds(config.getProfilingUploadPeriod());
@@ -60,7 +68,7 @@ public class ProfilingAgent {
         profiler =
             new ProfilingSystem(
                 controller,
-                uploader::upload,
+                listener,
                 startupDelay,
                 startupDelayRandomRange,
                 uploadPeriod,
@@ -75,7 +83,7 @@ public class ProfilingAgent {
           This means that if/when we implement functionality to manually shutdown profiler we would
           need to not forget to add code that removes this shutdown hook from JVM.
            */
-          Runtime.getRuntime().addShutdownHook(new ShutdownHook(profiler, uploader));
+          Runtime.getRuntime().addShutdownHook(new ShutdownHook(profiler, postProcessor, uploader));
         } catch (final IllegalStateException ex) {
           // The JVM is already shutting down.
         }
@@ -92,10 +100,15 @@ public class ProfilingAgent {
   private static class ShutdownHook extends Thread {
 
     private final WeakReference<ProfilingSystem> profilerRef;
+    private final WeakReference<RecordingPostProcessor> postProcessorRef;
     private final WeakReference<ProfileUploader> uploaderRef;
 
-    private ShutdownHook(final ProfilingSystem profiler, final ProfileUploader uploader) {
+    private ShutdownHook(
+        final ProfilingSystem profiler,
+        final RecordingPostProcessor postProcessor,
+        final ProfileUploader uploader) {
       profilerRef = new WeakReference<>(profiler);
+      postProcessorRef = new WeakReference<>(postProcessor);
       uploaderRef = new WeakReference<>(uploader);
     }
 
@@ -106,6 +119,11 @@ public class ProfilingAgent {
         profiler.shutdown();
       }
 
+      final RecordingPostProcessor postProcessor = postProcessorRef.get();
+      if (postProcessor != null) {
+        postProcessor.shutdown();
+      }
+
       final ProfileUploader uploader = uploaderRef.get();
       if (uploader != null) {
         uploader.shutdown();
@@ -0,0 +1,201 @@
+package datadog.trace.agent.tooling;
+
+import datadog.trace.agent.tooling.bytebuddy.ExceptionHandlers;
+import datadog.trace.api.Config;
+import datadog.trace.bootstrap.IndyAdviceBootstrap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Creates the advice transformers used by {@link Instrumenter.Default}.
+ *
+ * <p>Advice is inlined into instrumented methods by default. Advice classes declaring {@code inline
+ * = false} are instead called from the instrumented method, which keeps hot methods small enough to
+ * be inlined by the JIT. Such advice classes are injected into the instrumented type's classloader
+ * and called with {@code invokestatic}, or, when {@code dd.trace.indy.advice.enabled} is set,
+ * through an {@code invokedynamic} call site bootstrapped by {@link IndyAdviceBootstrap} which
+ * resolves the advice class lazily on first call.
+ */
+@Slf4j
+final class AdviceTransformers {
+
+  private static final ConcurrentMap<String, HelperInjector> ADVICE_INJECTORS =
+      new ConcurrentHashMap<>();
+
+  static final IndyAdviceBootstrap.AdviceResolver RESOLVER =
+      new IndyAdviceBootstrap.AdviceResolver() {
+        @Override
+        public Class<?> resolve(final String adviceClassName, final ClassLoader classLoader)
+            throws Exception {
+          injectAdvice(adviceClassName, classLoader);
+          return Class.forName(adviceClassName, false, classLoader);
+        }
+      };
+
+  private AdviceTransformers() {}
+
+  static AgentBuilder.Transformer forAdvice(
+      final ElementMatcher<? super MethodDescription> matcher, final String adviceClassName) {
+    // the advice class is only parsed once a type is matched, not at agent startup
+    return new LazyAdvice(matcher, adviceClassName, Config.get().isIndyAdviceEnabled());
+  }
+
+  private static AgentBuilder.Transformer createAdvice(
+      final ElementMatcher<? super MethodDescription> matcher,
+      final String adviceClassName,
+      final boolean indyEnabled) {
+    final AgentBuilder.Transformer inlined =
+        new AgentBuilder.Transformer.ForAdvice()
+            .include(Utils.getBootstrapProxy(), Utils.getAgentClassLoader())
+            .withExceptionHandler(ExceptionHandlers.defaultExceptionHandler())
+            .advice(matcher, adviceClassName);
+    if (!isDelegating(adviceClassName)) {
+      return inlined;
+    }
+    if (indyEnabled) {
+      final AgentBuilder.Transformer indy =
+          new AgentBuilder.Transformer.ForAdvice(
+                  Advice.withCustomMapping().bootstrap(bootstrapMethod()))
+              .include(Utils.getBootstrapProxy(), Utils.getAgentClassLoader())
+              .withExceptionHandler(ExceptionHandlers.defaultExceptionHandler())
+              .advice(matcher, adviceClassName);
+      return new DelegatingAdvice(adviceClassName, inlined, indy);
+    }
+    return new DelegatingAdvice(adviceClassName, inlined, null);
+  }
+
+  static void injectAdvice(final String adviceClassName, final ClassLoader classLoader) {
+    HelperInjector injector = ADVICE_INJECTORS.get(adviceClassName);
+    if (null == injector) {
+      injector = new HelperInjector(adviceClassName, adviceClassName);
+      final HelperInjector existing = ADVICE_INJECTORS.putIfAbsent(adviceClassName, injector);
+      if (null != existing) {
+        injector = existing;
+      }
+    }
+    injector.transform(null, null, classLoader, null);
+  }
+
+  /** @return true if any advice method of the class is not inlined */
+  private static boolean isDelegating(final String adviceClassName) {
+    final TypeDescription advice =
+        TypePool.Default.of(ClassFileLocator.ForClassLoader.of(Utils.getAgentClassLoader()))
+            .describe(adviceClassName)
+            .resolve();
+    for (final MethodDescription.InDefinedShape method : advice.getDeclaredMethods()) {
+      final AnnotationDescription.Loadable<Advice.OnMethodEnter> enter =
+          method.getDeclaredAnnotations().ofType(Advice.OnMethodEnter.class);
+      if (enter != null && !enter.load().inline()) {
+        return true;
+      }
+      final AnnotationDescription.Loadable<Advice.OnMethodExit> exit =
+          method.getDeclaredAnnotations().ofType(Advice.OnMethodExit.class);
+      if (exit != null && !exit.load().inline()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static MethodDescription.InDefinedShape bootstrapMethod() {
+    try {
+      return new MethodDescription.ForLoadedMethod(
+          IndyAdviceBootstrap.class.getMethod(
+              "bootstrap",
+              MethodHandles.Lookup.class,
+              String.class,
+              MethodType.class,
+              Object[].class));
+    } catch (final NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Creates the advice transformer on first use. */
+  private static final class LazyAdvice implements AgentBuilder.Transformer {
+    private final ElementMatcher<? super MethodDescription> matcher;
+    private final String adviceClassName;
+    private final boolean indyEnabled;
+    private volatile AgentBuilder.Transformer delegate;
+
+    LazyAdvice(
+        final ElementMatcher<? super MethodDescription> matcher,
+        final String adviceClassName,
+        final boolean indyEnabled) {
+      this.matcher = matcher;
+      this.adviceClassName = adviceClassName;
+      this.indyEnabled = indyEnabled;
+    }
+
+    @Override
+    public DynamicType.Builder<?> transform(
+        final DynamicType.Builder<?> builder,
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module) {
+      AgentBuilder.Transformer transformer = delegate;
+      if (null == transformer) {
+        // benign race, the transformers are equivalent
+        transformer = delegate = createAdvice(matcher, adviceClassName, indyEnabled);
+      }
+      return transformer.transform(builder, typeDescription, classLoader, module);
+    }
+  }
+
+  /**
+   * Applies non-inlined advice: through invokedynamic when possible, otherwise with invokestatic
+   * after injecting the advice class next to the instrumented type.
+   */
+  private static final class DelegatingAdvice implements AgentBuilder.Transformer {
+    private final String adviceClassName;
+    private final AgentBuilder.Transformer direct;
+    private final AgentBuilder.Transformer indy;
+
+    DelegatingAdvice(
+        final String adviceClassName,
+        final AgentBuilder.Transformer direct,
+        final AgentBuilder.Transformer indy) {
+      this.adviceClassName = adviceClassName;
+      this.direct = direct;
+      this.indy = indy;
+    }
+
+    @Override
+    public DynamicType.Builder<?> transform(
+        final DynamicType.Builder<?> builder,
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module) {
+      // invokedynamic can only be used in class files of Java 7 or later
+      if (null != indy && supportsIndy(typeDescription, classLoader)) {
+        return indy.transform(builder, typeDescription, classLoader, module);
+      }
+      injectAdvice(adviceClassName, classLoader);
+      return direct.transform(builder, typeDescription, classLoader, module);
+    }
+
+    private static boolean supportsIndy(
+        final TypeDescription typeDescription, final ClassLoader classLoader) {
+      try {
+        return ClassFileVersion.of(typeDescription, ClassFileLocator.ForClassLoader.of(classLoader))
+            .isAtLeast(ClassFileVersion.JAVA_V7);
+      } catch (final Exception e) {
+        return false;
+      }
+    }
+  }
+}
@@ -9,6 +9,7 @@ import static net.bytebuddy.matcher.ElementMatchers.none;
 
 import datadog.trace.agent.tooling.context.FieldBackedProvider;
 import datadog.trace.api.Config;
+import datadog.trace.bootstrap.IndyAdviceBootstrap;
 import java.lang.instrument.Instrumentation;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -64,6 +65,10 @@ public class AgentInstaller {
 
     FieldBackedProvider.resetContextMatchers();
 
+    if (Config.get().isIndyAdviceEnabled()) {
+      IndyAdviceBootstrap.registerAdviceResolver(AdviceTransformers.RESOLVER);
+    }
+
     AgentBuilder.Ignored ignoredAgentBuilder =
         new AgentBuilder.Default()
             .disableClassFormatChanges()
@@ -94,6 +99,10 @@ public class AgentInstaller {
     for (final AgentBuilder.Listener listener : listeners) {
       agentBuilder = agentBuilder.with(listener);
     }
+    if (TransformationStats.ENABLED) {
+      agentBuilder = agentBuilder.with(TransformationStats.listener());
+      TransformationStats.registerShutdownHook();
+    }
     int numInstrumenters = 0;
     for (final Instrumenter instrumenter :
         ServiceLoader.load(Instrumenter.class, AgentInstaller.class.getClassLoader())) {
@@ -0,0 +1,219 @@
+package datadog.trace.agent.tooling;
+
+import datadog.trace.bootstrap.WeakMap;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.FieldVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.commons.ClassRemapper;
+import net.bytebuddy.jar.asm.commons.Remapper;
+
+/**
+ * JVM-wide bookkeeping for helper classes shared by all {@link HelperInjector}s running in batched
+ * mode.
+ *
+ * <p>The set of helpers already defined is tracked per classloader rather than per instrumenter, so
+ * helpers shared between instrumenters are only defined once per classloader. Helpers which only
+ * reference JDK types, bootstrap types or other loader-independent helpers, and which hold no
+ * static state, are defined once on the bootstrap classloader. Isolating classloaders (JBoss
+ * Modules, OSGi) only delegate the {@link Constants#BOOTSTRAP_PACKAGE_PREFIXES} to bootstrap, so
+ * those helpers are still defined on each classloader which can't load them from bootstrap.
+ */
+final class HelperClassRegistry {
+
+  /** Helper name -> set of internal names it references (excluding itself). */
+  private static final Map<String, Set<String>> HELPER_REFERENCES = new ConcurrentHashMap<>();
+
+  /** Helpers declaring static fields other than constants, which can't be shared. */
+  private static final Set<String> STATEFUL_HELPERS =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  /**
+   * Helper name -> class file bytes. Softly referenced: the bytes never change, but they are only
+   * needed while classloaders are being instrumented.
+   */
+  private static final Map<String, SoftReference<byte[]>> HELPER_BYTES = new ConcurrentHashMap<>();
+
+  private static final Set<String> SHARED_HELPERS =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  private static final WeakMap<ClassLoader, Set<String>> INJECTED_HELPERS =
+      WeakMap.Provider.newWeakMap();
+
+  private static final WeakMap.ValueSupplier<ClassLoader, Set<String>> NEW_HELPER_SET =
+      new WeakMap.ValueSupplier<ClassLoader, Set<String>>() {
+        @Override
+        public Set<String> get(final ClassLoader key) {
+          return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        }
+      };
+
+  private HelperClassRegistry() {}
+
+  /** @return the bytes of the helper class, read from the agent classloader once per JVM. */
+  static byte[] helperBytes(final String helperClassName) throws IOException {
+    final SoftReference<byte[]> cached = HELPER_BYTES.get(helperClassName);
+    byte[] bytes = null == cached ? null : cached.get();
+    if (null == bytes) {
+      bytes =
+          ClassFileLocator.ForClassLoader.of(Utils.getAgentClassLoader())
+              .locate(helperClassName)
+              .resolve();
+      HELPER_BYTES.put(helperClassName, new SoftReference<>(bytes));
+    }
+    return bytes;
+  }
+
+  /** @return names of helpers already defined in (or visible to) the classloader. */
+  static Set<String> injectedHelpers(final ClassLoader classLoader) {
+    return INJECTED_HELPERS.computeIfAbsent(classLoader, NEW_HELPER_SET);
+  }
+
+  static void markShared(final Collection<String> helperClassNames) {
+    SHARED_HELPERS.addAll(helperClassNames);
+  }
+
+  /**
+   * Finds the helpers which can be defined once on the bootstrap classloader: helpers that only
+   * reference JDK types, bootstrap types, and other loader-independent helpers in the same group.
+   * Helpers with static fields other than constants are never shared, as all classloaders would
+   * then share their state.
+   *
+   * @param helperClassNames the group of helpers of an instrumenter
+   * @return the loader-independent subset of {@code helperClassNames}, in injection order
+   */
+  static Set<String> loaderIndependentHelpers(final Set<String> helperClassNames)
+      throws IOException {
+    final Set<String> candidates = new HashSet<>();
+    for (final String helperClassName : helperClassNames) {
+      if (!isBootstrapType(helperClassName) && !hasStaticState(helperClassName)) {
+        candidates.add(helperClassName);
+      }
+    }
+    // iterate to a fixed point: a helper is only independent if all helpers it uses are
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (final String helperClassName : helperClassNames) {
+        if (candidates.contains(helperClassName)) {
+          for (final String reference : helperReferences(helperClassName)) {
+            final String referenceName = reference.replace('/', '.');
+            if (!isBootstrapType(referenceName)
+                && !candidates.contains(referenceName)
+                && !SHARED_HELPERS.contains(referenceName)) {
+              candidates.remove(helperClassName);
+              changed = true;
+              break;
+            }
+          }
+        }
+      }
+    }
+    final Set<String> independent = new LinkedHashSet<>();
+    for (final String helperClassName : helperClassNames) {
+      if (candidates.contains(helperClassName)) {
+        independent.add(helperClassName);
+      }
+    }
+    return independent;
+  }
+
+  static Map<String, byte[]> bytesOf(final Collection<String> helperClassNames) throws IOException {
+    final Map<String, byte[]> classnameToBytes = new LinkedHashMap<>();
+    for (final String helperClassName : helperClassNames) {
+      classnameToBytes.put(helperClassName, helperBytes(helperClassName));
+    }
+    return classnameToBytes;
+  }
+
+  private static Set<String> helperReferences(final String helperClassName) throws IOException {
+    Set<String> references = HELPER_REFERENCES.get(helperClassName);
+    if (null == references) {
+      final ReferenceCollector collector =
+          new ReferenceCollector(helperClassName.replace('.', '/'));
+      final StaticStateDetector detector = new StaticStateDetector();
+      new ClassReader(helperBytes(helperClassName))
+          .accept(new ClassRemapper(detector, collector), ClassReader.SKIP_DEBUG);
+      references = collector.references;
+      if (detector.stateful) {
+        STATEFUL_HELPERS.add(helperClassName);
+      }
+      HELPER_REFERENCES.put(helperClassName, references);
+    }
+    return references;
+  }
+
+  private static boolean hasStaticState(final String helperClassName) throws IOException {
+    helperReferences(helperClassName);
+    return STATEFUL_HELPERS.contains(helperClassName);
+  }
+
+  private static boolean isBootstrapType(final String className) {
+    if (className.startsWith("java.")) {
+      return true;
+    }
+    for (final String prefix : Constants.BOOTSTRAP_PACKAGE_PREFIXES) {
+      if (className.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Detects static fields which can hold state: anything but final fields of primitive or String
+   * type, which are constants once the class is initialized.
+   */
+  private static final class StaticStateDetector extends ClassVisitor {
+    boolean stateful;
+
+    private StaticStateDetector() {
+      // the references of method bodies are only visited when there is a visitor to write them to
+      super(Opcodes.ASM7, new ClassWriter(0));
+    }
+
+    @Override
+    public FieldVisitor visitField(
+        final int access,
+        final String name,
+        final String descriptor,
+        final String signature,
+        final Object value) {
+      if ((access & Opcodes.ACC_STATIC) != 0
+          && ((access & Opcodes.ACC_FINAL) == 0
+              || (descriptor.length() > 1 && !"Ljava/lang/String;".equals(descriptor)))) {
+        stateful = true;
+      }
+      return super.visitField(access, name, descriptor, signature, value);
+    }
+  }
+
+  private static final class ReferenceCollector extends Remapper {
+    private final String self;
+    final Set<String> references = new HashSet<>();
+
+    private ReferenceCollector(final String self) {
+      this.self = self;
+    }
+
+    @Override
+    public String map(final String internalName) {
+      if (!self.equals(internalName)) {
+        references.add(internalName);
+      }
+      return internalName;
+    }
+  }
+}
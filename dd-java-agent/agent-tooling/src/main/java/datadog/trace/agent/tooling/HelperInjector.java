@@ -2,6 +2,7 @@ package datadog.trace.agent.tooling;
 
 import static datadog.trace.agent.tooling.ClassLoaderMatcher.BOOTSTRAP_CLASSLOADER;
 
+import datadog.trace.api.Config;
 import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
@@ -21,7 +22,6 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.agent.builder.AgentBuilder.Transformer;
 import net.bytebuddy.description.type.TypeDescription;
-import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.loading.ClassInjector;
 import net.bytebuddy.utility.JavaModule;
@@ -39,6 +39,7 @@ public class HelperInjector implements Transformer {
       };
 
   private final String requestingName;
+  private final boolean batched;
 
   private final Set<String> helperClassNames;
   private final Map<String, byte[]> dynamicTypeMap = new LinkedHashMap<>();
@@ -58,12 +59,15 @@ public class HelperInjector implements Transformer {
    */
   public HelperInjector(final String requestingName, final String... helperClassNames) {
     this.requestingName = requestingName;
+    batched = Config.get().isBatchedHelperInjection();
 
     this.helperClassNames = new LinkedHashSet<>(Arrays.asList(helperClassNames));
   }
 
   public HelperInjector(final String requestingName, final Map<String, byte[]> helperMap) {
     this.requestingName = requestingName;
+    // helpers with explicit bytes are not shared with other injectors
+    batched = false;
 
     helperClassNames = helperMap.keySet();
     dynamicTypeMap.putAll(helperMap);
@@ -80,17 +84,9 @@ public class HelperInjector implements Transformer {
 
   private Map<String, byte[]> getHelperMap() throws IOException {
     if (dynamicTypeMap.isEmpty()) {
-      final Map<String, byte[]> classnameToBytes = new LinkedHashMap<>();
-
-      final ClassFileLocator locator =
-          ClassFileLocator.ForClassLoader.of(Utils.getAgentClassLoader());
-
-      for (final String helperClassName : helperClassNames) {
-        final byte[] classBytes = locator.locate(helperClassName).resolve();
-        classnameToBytes.put(helperClassName, classBytes);
-      }
-
-      return classnameToBytes;
+      // helper bytes never change, so they are read from the agent classloader once per JVM and
+      // kept as long as memory allows
+      return HelperClassRegistry.bytesOf(helperClassNames);
     } else {
       return dynamicTypeMap;
     }
@@ -111,20 +107,35 @@ public class HelperInjector implements Transformer {
         try {
           log.debug("Injecting classes onto classloader {} -> {}", classLoader, helperClassNames);
 
-          final Map<String, byte[]> classnameToBytes = getHelperMap();
           final Map<String, Class<?>> classes;
-          if (classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER) {
-            classes = injectBootstrapClassLoader(classnameToBytes);
+          if (batched) {
+            classes = injectBatched(classLoader);
           } else {
-            classes = injectClassLoader(classLoader, classnameToBytes);
+            final Map<String, byte[]> classnameToBytes = getHelperMap();
+            if (classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER) {
+              classes = injectBootstrapClassLoader(classnameToBytes);
+            } else {
+              classes = injectClassLoader(classLoader, classnameToBytes);
+            }
           }
 
           // All datadog helper classes are in the unnamed module
           // And there's exactly one unnamed module per classloader
           // Use the module of the first class for convenience
           if (JavaModule.isSupported()) {
-            final JavaModule javaModule = JavaModule.ofType(classes.values().iterator().next());
-            helperModules.add(new WeakReference<>(javaModule.unwrap()));
+            if (batched) {
+              // batched helpers may be split between the bootstrap and the target classloader
+              final Set<Object> modules = new LinkedHashSet<>();
+              for (final Class<?> helperClass : classes.values()) {
+                modules.add(JavaModule.ofType(helperClass).unwrap());
+              }
+              for (final Object realModule : modules) {
+                helperModules.add(new WeakReference<>(realModule));
+              }
+            } else {
+              final JavaModule javaModule = JavaModule.ofType(classes.values().iterator().next());
+              helperModules.add(new WeakReference<>(javaModule.unwrap()));
+            }
           }
         } catch (final Exception e) {
           if (log.isErrorEnabled()) {
@@ -146,6 +157,85 @@ public class HelperInjector implements Transformer {
     return builder;
   }
 
+  /**
+   * Injects only the helpers not yet defined by another injector, defining loader-independent
+   * helpers once on the bootstrap classloader and the rest in a single batch on {@code
+   * classLoader}. Shared helpers which {@code classLoader} can't load from bootstrap are defined on
+   * it as well.
+   *
+   * @return all helper classes of this injector as seen from {@code classLoader}
+   */
+  private Map<String, Class<?>> injectBatched(final ClassLoader classLoader) throws IOException {
+    final Set<String> injected = HelperClassRegistry.injectedHelpers(classLoader);
+    final Set<String> missing = new LinkedHashSet<>();
+    for (final String helperClassName : helperClassNames) {
+      if (!injected.contains(helperClassName)) {
+        missing.add(helperClassName);
+      }
+    }
+    final Map<String, Class<?>> classes = new LinkedHashMap<>();
+    if (!missing.isEmpty()
+        && classLoader != BOOTSTRAP_CLASSLOADER_PLACEHOLDER
+        && AgentInstaller.getInstrumentation() != null) {
+      final Set<String> shared = HelperClassRegistry.loaderIndependentHelpers(missing);
+      if (!shared.isEmpty()) {
+        final Set<String> bootstrapHelpers =
+            HelperClassRegistry.injectedHelpers(BOOTSTRAP_CLASSLOADER_PLACEHOLDER);
+        synchronized (bootstrapHelpers) {
+          final Set<String> toShare = new LinkedHashSet<>(shared);
+          toShare.removeAll(bootstrapHelpers);
+          if (!toShare.isEmpty()) {
+            log.debug("Sharing helpers on bootstrap classloader {}", toShare);
+            injectBootstrapClassLoader(HelperClassRegistry.bytesOf(toShare));
+            bootstrapHelpers.addAll(toShare);
+          }
+        }
+        HelperClassRegistry.markShared(shared);
+        for (final String helperClassName : shared) {
+          final Class<?> helperClass = loadHelper(classLoader, helperClassName);
+          if (null != helperClass) {
+            classes.put(helperClassName, helperClass);
+            missing.remove(helperClassName);
+            injected.add(helperClassName);
+          }
+        }
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      final Map<String, byte[]> classnameToBytes = HelperClassRegistry.bytesOf(missing);
+      if (classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER) {
+        classes.putAll(injectBootstrapClassLoader(classnameToBytes));
+      } else {
+        classes.putAll(injectClassLoader(classLoader, classnameToBytes));
+      }
+      injected.addAll(missing);
+    }
+
+    // resolve helpers defined earlier, so their modules are known to this injector
+    final ClassLoader resolvingLoader =
+        classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER ? null : classLoader;
+    for (final String helperClassName : helperClassNames) {
+      if (!classes.containsKey(helperClassName)) {
+        final Class<?> helperClass = loadHelper(resolvingLoader, helperClassName);
+        if (null == helperClass) {
+          throw new IOException("Helper class not found after injection: " + helperClassName);
+        }
+        classes.put(helperClassName, helperClass);
+      }
+    }
+    return classes;
+  }
+
+  /** @return the helper class as seen from {@code classLoader}, or null if it can't load it */
+  private static Class<?> loadHelper(final ClassLoader classLoader, final String helperClassName) {
+    try {
+      return Class.forName(helperClassName, false, classLoader);
+    } catch (final ClassNotFoundException | LinkageError e) {
+      return null;
+    }
+  }
+
   private Map<String, Class<?>> injectBootstrapClassLoader(
       final Map<String, byte[]> classnameToBytes) throws IOException {
     // Mar 2020: Since we're proactively cleaning up tempDirs, we cannot share dirs per thread.
@@ -7,7 +7,6 @@ import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.not;
 
 import datadog.trace.agent.tooling.bytebuddy.DDTransformers;
-import datadog.trace.agent.tooling.bytebuddy.ExceptionHandlers;
 import datadog.trace.agent.tooling.context.FieldBackedProvider;
 import datadog.trace.agent.tooling.context.InstrumentationContextProvider;
 import datadog.trace.agent.tooling.context.NoopContextProvider;
@@ -82,16 +81,23 @@ public interface Instrumenter {
         return parentAgentBuilder;
       }
 
+      ElementMatcher<TypeDescription> typeMatcher =
+          failSafe(
+              typeMatcher(),
+              "Instrumentation type matcher unexpected exception: " + getClass().getName());
+      ElementMatcher<ClassLoader> classLoaderMatcher =
+          failSafe(
+              classLoaderMatcher(),
+              "Instrumentation class loader matcher unexpected exception: " + getClass().getName());
+      if (TransformationStats.ENABLED) {
+        typeMatcher = TransformationStats.timedTypeMatcher(getClass().getName(), typeMatcher);
+        classLoaderMatcher =
+            TransformationStats.timedClassLoaderMatcher(getClass().getName(), classLoaderMatcher);
+      }
+
       AgentBuilder.Identified.Extendable agentBuilder =
           parentAgentBuilder
-              .type(
-                  failSafe(
-                      typeMatcher(),
-                      "Instrumentation type matcher unexpected exception: " + getClass().getName()),
-                  failSafe(
-                      classLoaderMatcher(),
-                      "Instrumentation class loader matcher unexpected exception: "
-                          + getClass().getName()))
+              .type(typeMatcher, classLoaderMatcher)
               .and(NOT_DECORATOR_MATCHER)
               .and(new MuzzleMatcher())
               .and(new PostMatchHook())
@@ -118,11 +124,7 @@ public interface Instrumenter {
         AgentBuilder.Identified.Extendable agentBuilder) {
       for (final Map.Entry<? extends ElementMatcher, String> entry : transformers().entrySet()) {
         agentBuilder =
-            agentBuilder.transform(
-                new AgentBuilder.Transformer.ForAdvice()
-                    .include(Utils.getBootstrapProxy(), Utils.getAgentClassLoader())
-                    .withExceptionHandler(ExceptionHandlers.defaultExceptionHandler())
-                    .advice(entry.getKey(), entry.getValue()));
+            agentBuilder.transform(AdviceTransformers.forAdvice(entry.getKey(), entry.getValue()));
       }
       return agentBuilder;
     }
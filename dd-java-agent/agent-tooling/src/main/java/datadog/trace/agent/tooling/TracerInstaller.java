@@ -1,5 +1,6 @@
 package datadog.trace.agent.tooling;
 
+import datadog.trace.agent.tooling.context.ContextStoreFallbackMetrics;
 import datadog.trace.api.Config;
 import datadog.trace.api.GlobalTracer;
 import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
@@ -28,6 +29,9 @@ public class TracerInstaller {
     } catch (final RuntimeException re) {
       log.warn("Failed to register tracer: {}", tracer, re);
     }
+    if (Config.get().isHealthMetricsEnabled()) {
+      ContextStoreFallbackMetrics.start(tracer.getStatsDClient());
+    }
     log.info("Global tracer installed");
   }
 }
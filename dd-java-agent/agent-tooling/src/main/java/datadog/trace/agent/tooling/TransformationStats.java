@@ -0,0 +1,341 @@
+package datadog.trace.agent.tooling;
+
+import com.squareup.moshi.JsonWriter;
+import datadog.trace.agent.tooling.context.ContextStoreFallbackMetrics;
+import datadog.trace.api.Config;
+import datadog.trace.bootstrap.ConcurrentWeakIdentityMap;
+import datadog.trace.bootstrap.FieldBackedContextStoreFallbackMaps;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.utility.JavaModule;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Collects class transformation timings when {@code dd.trace.transformation.stats.file} is set and
+ * writes them as a JSON report to that file when the JVM shuts down.
+ *
+ * <p>The report contains the number of classes seen by the agent with their total transform
+ * latency, the transform latency of the slowest classes, the time spent in the type and classloader
+ * matchers of every instrumenter, the number of entries retained by the type pool cache, the heap
+ * and non-heap memory in use, and how often each context store fell back to a map instead of a
+ * field. It is meant for benchmarking agent versions against each other, not for production use.
+ */
+@Slf4j
+public final class TransformationStats {
+
+  private static final String REPORT_FILE = Config.get().getTransformationStatsFile();
+
+  public static final boolean ENABLED = null != REPORT_FILE;
+
+  private static final ConcurrentMap<String, InstrumenterTimings> INSTRUMENTER_TIMINGS =
+      new ConcurrentHashMap<>();
+
+  // only the slowest types are kept, so the stats don't grow with the number of classes loaded
+  private static final int MAX_TYPE_TIMINGS = 1000;
+
+  private static final TypeTimings TYPE_TIMINGS = new TypeTimings(MAX_TYPE_TIMINGS);
+
+  private static final ThreadLocal<Deque<TypeTiming>> IN_PROGRESS =
+      new ThreadLocal<Deque<TypeTiming>>() {
+        @Override
+        protected Deque<TypeTiming> initialValue() {
+          return new ArrayDeque<>();
+        }
+      };
+
+  private TransformationStats() {}
+
+  static <T> ElementMatcher.Junction<T> timedTypeMatcher(
+      final String instrumenter, final ElementMatcher<T> matcher) {
+    return new TimedMatcher<>(timingsFor(instrumenter).typeMatcher, matcher);
+  }
+
+  static <T> ElementMatcher.Junction<T> timedClassLoaderMatcher(
+      final String instrumenter, final ElementMatcher<T> matcher) {
+    return new TimedMatcher<>(timingsFor(instrumenter).classLoaderMatcher, matcher);
+  }
+
+  static AgentBuilder.Listener listener() {
+    return new Listener();
+  }
+
+  static void registerShutdownHook() {
+    try {
+      Runtime.getRuntime().addShutdownHook(new ReportWriter());
+    } catch (final IllegalStateException e) {
+      // The JVM is already shutting down.
+    }
+  }
+
+  /** Writes the statistics collected so far to {@code file}. */
+  public static void writeReport(final File file) throws IOException {
+    try (final BufferedSink sink = Okio.buffer(Okio.sink(file));
+        final JsonWriter writer = JsonWriter.of(sink)) {
+      writer.setIndent("  ");
+      writer.beginObject();
+      writer.name("types").value(TYPE_TIMINGS.types.get());
+      writer.name("transformed").value(TYPE_TIMINGS.transformed.get());
+      writer.name("errors").value(TYPE_TIMINGS.errors.get());
+      writer.name("total_transform_nanos").value(TYPE_TIMINGS.totalNanos.get());
+      writer.name("type_pool_cache_entries").value(AgentTooling.poolStrategy().approximateSize());
+      // collect first so the heap usage is what is retained rather than what was allocated
+      System.gc();
+      final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      writer.name("heap_used_bytes").value(memory.getHeapMemoryUsage().getUsed());
+      writer.name("non_heap_used_bytes").value(memory.getNonHeapMemoryUsage().getUsed());
+
+      writer.name("instrumenters").beginArray();
+      for (final Map.Entry<String, InstrumenterTimings> entry : INSTRUMENTER_TIMINGS.entrySet()) {
+        final InstrumenterTimings timings = entry.getValue();
+        writer.beginObject();
+        writer.name("name").value(entry.getKey());
+        writer.name("type_matcher_nanos").value(timings.typeMatcher.nanos.get());
+        writer.name("type_matcher_calls").value(timings.typeMatcher.calls.get());
+        writer.name("type_matcher_matches").value(timings.typeMatcher.matches.get());
+        writer.name("classloader_matcher_nanos").value(timings.classLoaderMatcher.nanos.get());
+        writer.name("classloader_matcher_calls").value(timings.classLoaderMatcher.calls.get());
+        writer.name("classloader_matcher_matches").value(timings.classLoaderMatcher.matches.get());
+        writer.endObject();
+      }
+      writer.endArray();
+
+      writer.name("context_store_fallbacks").beginArray();
+      for (final Map.Entry<String, ConcurrentWeakIdentityMap<Object, Object>> entry :
+          FieldBackedContextStoreFallbackMaps.fallbackMaps().entrySet()) {
+        final ConcurrentWeakIdentityMap<Object, Object> map = entry.getValue();
+        writer.beginObject();
+        writer.name("name").value(entry.getKey());
+        final ContextStoreFallbackMetrics.Store store =
+            ContextStoreFallbackMetrics.storeFor(entry.getKey());
+        if (store != null) {
+          writer.name("key_class").value(store.keyClassName);
+          writer.name("context_class").value(store.contextClassName);
+        }
+        writer.name("size").value(map.size());
+        writer.name("writes").value(map.writes());
+        writer.endObject();
+      }
+      writer.endArray();
+
+      writer.name("slowest_type_timings").beginArray();
+      for (final TypeTiming timing : TYPE_TIMINGS.slowest()) {
+        writer.beginObject();
+        writer.name("name").value(timing.typeName);
+        writer.name("classloader").value(timing.classLoader);
+        writer.name("nanos").value(timing.nanos);
+        writer.name("transformed").value(timing.transformed);
+        writer.name("error").value(timing.error);
+        writer.endObject();
+      }
+      writer.endArray();
+      writer.endObject();
+    }
+  }
+
+  private static InstrumenterTimings timingsFor(final String instrumenter) {
+    InstrumenterTimings timings = INSTRUMENTER_TIMINGS.get(instrumenter);
+    if (null == timings) {
+      timings = new InstrumenterTimings();
+      final InstrumenterTimings existing = INSTRUMENTER_TIMINGS.putIfAbsent(instrumenter, timings);
+      if (null != existing) {
+        timings = existing;
+      }
+    }
+    return timings;
+  }
+
+  private static final class InstrumenterTimings {
+    final MatcherTiming typeMatcher = new MatcherTiming();
+    final MatcherTiming classLoaderMatcher = new MatcherTiming();
+  }
+
+  private static final class MatcherTiming {
+    final AtomicLong nanos = new AtomicLong();
+    final AtomicLong calls = new AtomicLong();
+    final AtomicLong matches = new AtomicLong();
+  }
+
+  static final class TypeTiming {
+    final String typeName;
+    final String classLoader;
+    final long start;
+    long nanos;
+    boolean transformed;
+    boolean error;
+
+    TypeTiming(final String typeName, final ClassLoader classLoader) {
+      this.typeName = typeName;
+      this.classLoader = null == classLoader ? "<bootstrap>" : classLoader.getClass().getName();
+      start = System.nanoTime();
+    }
+  }
+
+  /** Totals over all types, and the timings of the slowest types. */
+  static final class TypeTimings {
+    private static final Comparator<TypeTiming> BY_NANOS =
+        new Comparator<TypeTiming>() {
+          @Override
+          public int compare(final TypeTiming left, final TypeTiming right) {
+            return Long.compare(left.nanos, right.nanos);
+          }
+        };
+
+    final AtomicLong types = new AtomicLong();
+    final AtomicLong transformed = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+    final AtomicLong totalNanos = new AtomicLong();
+
+    private final int capacity;
+    // the fastest of the kept timings is at the head
+    private final PriorityQueue<TypeTiming> slowest;
+
+    TypeTimings(final int capacity) {
+      this.capacity = capacity;
+      slowest = new PriorityQueue<>(capacity, BY_NANOS);
+    }
+
+    void record(final TypeTiming timing) {
+      types.incrementAndGet();
+      if (timing.transformed) {
+        transformed.incrementAndGet();
+      }
+      if (timing.error) {
+        errors.incrementAndGet();
+      }
+      totalNanos.addAndGet(timing.nanos);
+      synchronized (slowest) {
+        if (slowest.size() < capacity) {
+          slowest.offer(timing);
+        } else if (slowest.peek().nanos < timing.nanos) {
+          slowest.poll();
+          slowest.offer(timing);
+        }
+      }
+    }
+
+    /** @return the timings of the slowest types, slowest first */
+    List<TypeTiming> slowest() {
+      final List<TypeTiming> timings;
+      synchronized (slowest) {
+        timings = new ArrayList<>(slowest);
+      }
+      Collections.sort(timings, Collections.reverseOrder(BY_NANOS));
+      return timings;
+    }
+  }
+
+  private static final class TimedMatcher<T> extends ElementMatcher.Junction.AbstractBase<T> {
+    private final MatcherTiming timing;
+    private final ElementMatcher<T> delegate;
+
+    TimedMatcher(final MatcherTiming timing, final ElementMatcher<T> delegate) {
+      this.timing = timing;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean matches(final T target) {
+      final long start = System.nanoTime();
+      final boolean matches = delegate.matches(target);
+      timing.nanos.addAndGet(System.nanoTime() - start);
+      timing.calls.incrementAndGet();
+      if (matches) {
+        timing.matches.incrementAndGet();
+      }
+      return matches;
+    }
+
+    @Override
+    public String toString() {
+      return delegate.toString();
+    }
+  }
+
+  private static final class Listener implements AgentBuilder.Listener {
+    @Override
+    public void onDiscovery(
+        final String typeName,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded) {
+      // transformations nest when helper injection or class loading triggers another transform
+      IN_PROGRESS.get().push(new TypeTiming(typeName, classLoader));
+    }
+
+    @Override
+    public void onTransformation(
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded,
+        final DynamicType dynamicType) {
+      final TypeTiming timing = IN_PROGRESS.get().peek();
+      if (null != timing) {
+        timing.transformed = true;
+      }
+    }
+
+    @Override
+    public void onIgnored(
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded) {}
+
+    @Override
+    public void onError(
+        final String typeName,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded,
+        final Throwable throwable) {
+      final TypeTiming timing = IN_PROGRESS.get().peek();
+      if (null != timing) {
+        timing.error = true;
+      }
+    }
+
+    @Override
+    public void onComplete(
+        final String typeName,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded) {
+      final TypeTiming timing = IN_PROGRESS.get().poll();
+      if (null != timing) {
+        timing.nanos = System.nanoTime() - timing.start;
+        TYPE_TIMINGS.record(timing);
+      }
+    }
+  }
+
+  private static final class ReportWriter extends Thread {
+    @Override
+    public void run() {
+      try {
+        writeReport(new File(REPORT_FILE));
+      } catch (final IOException e) {
+        log.warn("Unable to write transformation stats to {}", REPORT_FILE, e);
+      }
+    }
+  }
+}
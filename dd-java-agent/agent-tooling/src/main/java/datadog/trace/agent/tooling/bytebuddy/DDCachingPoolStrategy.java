@@ -118,7 +118,7 @@ public class DDCachingPoolStrategy implements PoolStrategy {
         cacheProvider, classFileLocator, TypePool.Default.ReaderMode.FAST);
   }
 
-  final long approximateSize() {
+  public final long approximateSize() {
     return sharedResolutionCache.size();
   }
 
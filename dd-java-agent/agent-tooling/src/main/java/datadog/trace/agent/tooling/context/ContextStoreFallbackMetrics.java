@@ -0,0 +1,85 @@
+package datadog.trace.agent.tooling.context;
+
+import com.timgroup.statsd.StatsDClient;
+import datadog.common.exec.AgentTaskScheduler;
+import datadog.common.exec.AgentTaskScheduler.Task;
+import datadog.trace.bootstrap.ConcurrentWeakIdentityMap;
+import datadog.trace.bootstrap.FieldBackedContextStoreFallbackMaps;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the usage of the maps that context stores fall back to when a field could not be
+ * injected, as health metrics tagged with the key and context class of each store.
+ */
+public final class ContextStoreFallbackMetrics {
+
+  static final long REPORT_FREQUENCY_SECONDS = 10;
+
+  private static final Map<String, Store> STORES = new ConcurrentHashMap<>();
+
+  // only touched by the scheduler thread
+  private static final Map<String, Long> REPORTED_WRITES = new HashMap<>();
+
+  private ContextStoreFallbackMetrics() {}
+
+  /** Reports the fallback maps every 10 seconds for as long as the client is reachable. */
+  public static void start(final StatsDClient statsd) {
+    AgentTaskScheduler.INSTANCE.weakScheduleAtFixedRate(
+        ReportTask.INSTANCE,
+        statsd,
+        REPORT_FREQUENCY_SECONDS,
+        REPORT_FREQUENCY_SECONDS,
+        TimeUnit.SECONDS);
+  }
+
+  static void registerStore(
+      final String storeName, final String keyClassName, final String contextClassName) {
+    STORES.put(storeName, new Store(keyClassName, contextClassName));
+  }
+
+  /** @return the key and context class of the store, or {@code null} if it is unknown */
+  public static Store storeFor(final String storeName) {
+    return STORES.get(storeName);
+  }
+
+  static void report(final StatsDClient statsd) {
+    for (final Map.Entry<String, ConcurrentWeakIdentityMap<Object, Object>> entry :
+        FieldBackedContextStoreFallbackMaps.fallbackMaps().entrySet()) {
+      final Store store = storeFor(entry.getKey());
+      if (store == null) {
+        continue;
+      }
+      final ConcurrentWeakIdentityMap<Object, Object> map = entry.getValue();
+      final long writes = map.writes();
+      final Long previous = REPORTED_WRITES.put(entry.getKey(), writes);
+      statsd.gauge("context_store.fallback.entries", map.size(), store.tags);
+      statsd.count(
+          "context_store.fallback.writes", writes - (previous == null ? 0 : previous), store.tags);
+    }
+  }
+
+  public static final class Store {
+    public final String keyClassName;
+    public final String contextClassName;
+    final String[] tags;
+
+    Store(final String keyClassName, final String contextClassName) {
+      this.keyClassName = keyClassName;
+      this.contextClassName = contextClassName;
+      this.tags = new String[] {"key_class:" + keyClassName, "context_class:" + contextClassName};
+    }
+  }
+
+  private static class ReportTask implements Task<StatsDClient> {
+
+    static final ReportTask INSTANCE = new ReportTask();
+
+    @Override
+    public void run(final StatsDClient target) {
+      report(target);
+    }
+  }
+}
@@ -9,10 +9,11 @@ import datadog.trace.agent.tooling.Instrumenter;
 import datadog.trace.agent.tooling.Instrumenter.Default;
 import datadog.trace.agent.tooling.Utils;
 import datadog.trace.api.Config;
+import datadog.trace.bootstrap.ConcurrentWeakIdentityMap;
 import datadog.trace.bootstrap.ContextStore;
 import datadog.trace.bootstrap.FieldBackedContextStoreAppliedMarker;
+import datadog.trace.bootstrap.FieldBackedContextStoreFallbackMaps;
 import datadog.trace.bootstrap.InstrumentationContext;
-import datadog.trace.bootstrap.WeakMap;
 import java.lang.reflect.Method;
 import java.security.ProtectionDomain;
 import java.util.Arrays;
@@ -625,10 +626,12 @@ public class FieldBackedProvider implements InstrumentationContextProvider {
    */
   private DynamicType.Unloaded<?> makeContextStoreImplementationClass(
       final String keyClassName, final String contextClassName) {
+    final String storeName = getContextStoreImplementationClassName(keyClassName, contextClassName);
+    ContextStoreFallbackMetrics.registerStore(storeName, keyClassName, contextClassName);
     return byteBuddy
         .rebase(ContextStoreImplementationTemplate.class)
         .modifiers(Visibility.PUBLIC, TypeManifestation.FINAL)
-        .name(getContextStoreImplementationClassName(keyClassName, contextClassName))
+        .name(storeName)
         .visit(getContextStoreImplementationVisitor(keyClassName, contextClassName))
         .make();
   }
@@ -876,14 +879,14 @@ public class FieldBackedProvider implements InstrumentationContextProvider {
     private static final ContextStoreImplementationTemplate INSTANCE =
         new ContextStoreImplementationTemplate();
 
-    private volatile WeakMap map;
+    private volatile ConcurrentWeakIdentityMap<Object, Object> map;
     private final Object synchronizationInstance = new Object();
 
-    private WeakMap getMap() {
+    private ConcurrentWeakIdentityMap<Object, Object> getMap() {
       if (null == map) {
         synchronized (synchronizationInstance) {
           if (null == map) {
-            this.map = WeakMap.Provider.newWeakMap();
+            this.map = FieldBackedContextStoreFallbackMaps.newFallbackMap(getClass().getName());
           }
         }
       }
@@ -958,7 +961,8 @@ public class FieldBackedProvider implements InstrumentationContextProvider {
     }
 
     private Object mapSynchronizeInstance(final Object key) {
-      return synchronizationInstance;
+      // lock only the stripe of the key so unrelated keys can be stored concurrently
+      return getMap().lockFor(key);
     }
 
     public static ContextStore getContextStore(final Class keyClass, final Class contextClass) {
@@ -14,6 +14,9 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * A scope listener that receives the MDC/ThreadContext put and receive methods and update the trace
  * and span reference anytime a new scope is activated or closed.
+ *
+ * <p>When the logging framework's log events get the trace and span ids from the active span when
+ * they are created, and lazy log injection is enabled, the listener leaves the log context alone.
  */
 @Slf4j
 public class LogContextScopeListener implements ScopeListener {
@@ -24,13 +27,38 @@ public class LogContextScopeListener implements ScopeListener {
   /** A reference to the log context method that removes an attribute from the log context */
   private final Method removeMethod;
 
+  /** Whether the log events get the ids when they are created */
+  private volatile boolean injectedInLogEvents;
+
   public LogContextScopeListener(final Method putMethod, final Method removeMethod) {
+    this(putMethod, removeMethod, false);
+  }
+
+  public LogContextScopeListener(
+      final Method putMethod, final Method removeMethod, final boolean injectedInLogEvents) {
     this.putMethod = putMethod;
     this.removeMethod = removeMethod;
+    this.injectedInLogEvents = injectedInLogEvents;
+  }
+
+  /**
+   * Set once the logging framework is known, which may be after the listener was registered.
+   *
+   * @param injectedInLogEvents whether the log events get the ids when they are created
+   */
+  public void setInjectedInLogEvents(final boolean injectedInLogEvents) {
+    this.injectedInLogEvents = injectedInLogEvents;
+  }
+
+  private boolean injectLazily() {
+    return injectedInLogEvents && Config.get().isLogsInjectionLazy();
   }
 
   @Override
   public void afterScopeActivated() {
+    if (injectLazily()) {
+      return;
+    }
     try {
       putMethod.invoke(
           null, CorrelationIdentifier.getTraceIdKey(), CorrelationIdentifier.getTraceId());
@@ -43,6 +71,9 @@ public class LogContextScopeListener implements ScopeListener {
 
   @Override
   public void afterScopeClosed() {
+    if (injectLazily()) {
+      return;
+    }
     try {
       removeMethod.invoke(null, CorrelationIdentifier.getTraceIdKey());
       removeMethod.invoke(null, CorrelationIdentifier.getSpanIdKey());
@@ -74,6 +105,16 @@ public class LogContextScopeListener implements ScopeListener {
     LOG_CONTEXT_DD_TAGS = Collections.unmodifiableMap(logContextDDTags);
   }
 
+  /** @return whether the class is visible to the class loader */
+  public static boolean isClassPresent(final String className, final ClassLoader classLoader) {
+    try {
+      Class.forName(className, false, classLoader);
+      return true;
+    } catch (final ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
   public static void addDDTagsToMDC(final Method putMethod)
       throws InvocationTargetException, IllegalAccessException {
     for (final Map.Entry<String, String> e : LOG_CONTEXT_DD_TAGS.entrySet()) {
@@ -2,8 +2,10 @@ package datadog.trace.agent.test
 
 
 import datadog.trace.agent.tooling.AgentInstaller
+import datadog.trace.agent.tooling.HelperClassRegistry
 import datadog.trace.agent.tooling.HelperInjector
 import datadog.trace.agent.tooling.Utils
+import datadog.trace.api.config.TraceInstrumentationConfig
 import datadog.trace.util.test.DDSpecification
 import net.bytebuddy.agent.ByteBuddyAgent
 import net.bytebuddy.description.type.TypeDescription
@@ -15,6 +17,7 @@ import java.lang.ref.WeakReference
 import java.util.concurrent.atomic.AtomicReference
 
 import static datadog.trace.agent.test.utils.ClasspathUtils.isClassLoaded
+import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
 import static datadog.trace.agent.tooling.ClassLoaderMatcher.BOOTSTRAP_CLASSLOADER
 import static datadog.trace.util.gc.GCUtils.awaitGC
 
@@ -105,4 +108,51 @@ class HelperInjectionTest extends DDSpecification {
     then:
     null == loaderRef.get()
   }
+
+  def "batched helpers shared between injectors are defined once"() {
+    setup:
+    String helperClassName = HelperInjectionTest.getPackage().getName() + '.BatchedHelperClass'
+    HelperInjector first = null
+    HelperInjector second = null
+    withConfigOverride(TraceInstrumentationConfig.BATCHED_HELPER_INJECTION, "true") {
+      first = new HelperInjector("first", helperClassName)
+      second = new HelperInjector("second", helperClassName)
+    }
+    URLClassLoader loader = new URLClassLoader(new URL[0], (ClassLoader) null)
+
+    when:
+    first.transform(null, null, loader, null)
+    Class<?> helperClass = loader.loadClass(helperClassName)
+    second.transform(null, null, loader, null)
+
+    then:
+    loader.loadClass(helperClassName) == helperClass
+    // BatchedHelperClass references HelperClass, so it is defined on the classloader itself
+    helperClass.getClassLoader() == loader
+  }
+
+  def "only helpers referencing bootstrap types and other independent helpers are shared"() {
+    setup:
+    String packageName = HelperInjectionTest.getPackage().getName()
+
+    expect:
+    HelperClassRegistry.loaderIndependentHelpers(helpers.collect { "$packageName.$it".toString() } as LinkedHashSet) ==
+      shared.collect { "$packageName.$it".toString() } as LinkedHashSet
+
+    where:
+    helpers                                 | shared
+    ["HelperClass"]                         | ["HelperClass"]
+    ["BatchedHelperClass"]                  | []
+    ["BatchedHelperClass", "HelperClass"]   | ["BatchedHelperClass", "HelperClass"]
+    ["StatefulHelperClass"]                 | []
+    ["ConstantHelperClass"]                 | ["ConstantHelperClass"]
+  }
+
+  def "helper bytes are read once"() {
+    setup:
+    String helperClassName = HelperInjectionTest.getPackage().getName() + '.HelperClass'
+
+    expect:
+    HelperClassRegistry.helperBytes(helperClassName).is(HelperClassRegistry.helperBytes(helperClassName))
+  }
 }
@@ -0,0 +1,121 @@
+package datadog.trace.agent.tooling
+
+import datadog.trace.agent.tooling.advice.AdviceTarget
+import datadog.trace.agent.tooling.advice.DelegatedTestAdvice
+import datadog.trace.agent.tooling.advice.InlinedTestAdvice
+import datadog.trace.agent.tooling.advice.InstructionCounter
+import datadog.trace.api.config.TraceInstrumentationConfig
+import datadog.trace.bootstrap.IndyAdviceBootstrap
+import datadog.trace.util.test.DDSpecification
+import net.bytebuddy.ByteBuddy
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.dynamic.DynamicType
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy
+
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+
+import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
+import static net.bytebuddy.matcher.ElementMatchers.named
+
+class AdviceTransformersTest extends DDSpecification {
+
+  def setupSpec() {
+    IndyAdviceBootstrap.registerAdviceResolver(AdviceTransformers.RESOLVER)
+  }
+
+  def "#advice.simpleName is applied with indy #indy"() {
+    setup:
+    def loader = new URLClassLoader(new URL[0], (ClassLoader) getClass().classLoader)
+    def instrumented = withConfigOverride(TraceInstrumentationConfig.INDY_ADVICE_ENABLED, "$indy") {
+      instrument(advice.name, loader)
+    }
+    def target = instrumented.load(loader, ClassLoadingStrategy.Default.INJECTION).loaded.newInstance()
+    def events = []
+
+    when:
+    def result = target.handle(events, "/foo")
+
+    then:
+    result == "/foo"
+    events == ["enter FOO", "handle /foo", "exit"]
+
+    where:
+    advice              | indy
+    InlinedTestAdvice   | false
+    InlinedTestAdvice   | true
+    DelegatedTestAdvice | false
+    DelegatedTestAdvice | true
+  }
+
+  def "delegated advice keeps the instrumented method small with indy #indy"() {
+    setup:
+    def loader = new URLClassLoader(new URL[0], (ClassLoader) getClass().classLoader)
+    def original = instructions(instrument(null, loader))
+    def inlined
+    def delegated
+    withConfigOverride(TraceInstrumentationConfig.INDY_ADVICE_ENABLED, "$indy") {
+      inlined = instructions(instrument(InlinedTestAdvice.name, loader))
+      delegated = instructions(instrument(DelegatedTestAdvice.name, loader))
+    }
+
+    expect:
+    original < delegated
+    delegated < inlined
+    // the delegated advice only adds the calls, the local variables and the exception handling
+    delegated - original < (inlined - original) / 2
+
+    where:
+    indy << [false, true]
+  }
+
+  def "advice class is only parsed when a type is transformed"() {
+    when:
+    def transformer = AdviceTransformers.forAdvice(named("handle"), "datadog.trace.agent.tooling.advice.MissingAdvice")
+
+    then:
+    transformer != null
+    noExceptionThrown()
+  }
+
+  def "unresolved advice is bound to a no-op"() {
+    setup:
+    IndyAdviceBootstrap.registerAdviceResolver({ name, loader -> throw new ClassNotFoundException(name) } as IndyAdviceBootstrap.AdviceResolver)
+
+    when:
+    def callSite = IndyAdviceBootstrap.bootstrap(MethodHandles.lookup(), "enter", MethodType.methodType(int, String), "MissingAdvice", 0, AdviceTarget, "handle")
+
+    then:
+    callSite.dynamicInvoker().invokeWithArguments("/foo") == 0
+
+    cleanup:
+    IndyAdviceBootstrap.registerAdviceResolver(AdviceTransformers.RESOLVER)
+  }
+
+  def "errors resolving advice are not swallowed"() {
+    setup:
+    IndyAdviceBootstrap.registerAdviceResolver({ name, loader -> throw new NoClassDefFoundError(name) } as IndyAdviceBootstrap.AdviceResolver)
+
+    when:
+    IndyAdviceBootstrap.bootstrap(MethodHandles.lookup(), "enter", MethodType.methodType(void), "BrokenAdvice", 0, AdviceTarget, "handle")
+
+    then:
+    thrown(NoClassDefFoundError)
+
+    cleanup:
+    IndyAdviceBootstrap.registerAdviceResolver(AdviceTransformers.RESOLVER)
+  }
+
+  static DynamicType.Unloaded<?> instrument(String adviceClassName, ClassLoader loader) {
+    DynamicType.Builder<?> builder = new ByteBuddy().redefine(AdviceTarget)
+    if (adviceClassName != null) {
+      builder = AdviceTransformers.forAdvice(named("handle"), adviceClassName)
+        .transform(builder, new TypeDescription.ForLoadedType(AdviceTarget), loader, null)
+    }
+    return builder.make()
+  }
+
+  static int instructions(DynamicType.Unloaded<?> type) {
+    return InstructionCounter.count(type.bytes, "handle")
+  }
+}
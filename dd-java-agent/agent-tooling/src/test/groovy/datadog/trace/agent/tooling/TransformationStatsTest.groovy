@@ -0,0 +1,118 @@
+package datadog.trace.agent.tooling
+
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+import static net.bytebuddy.matcher.ElementMatchers.named
+
+class TransformationStatsTest extends Specification {
+
+  def "timed matchers count calls and matches"() {
+    setup:
+    def matcher = TransformationStats.timedTypeMatcher("timed-type", named("foo"))
+    def classLoaderMatcher = TransformationStats.timedClassLoaderMatcher("timed-classloader", named("foo"))
+
+    when:
+    matcher.matches(new TestElement("foo"))
+    matcher.matches(new TestElement("bar"))
+    matcher.matches(new TestElement("foo"))
+    classLoaderMatcher.matches(new TestElement("bar"))
+
+    then:
+    def typeTimings = TransformationStats.INSTRUMENTER_TIMINGS.get("timed-type").typeMatcher
+    typeTimings.calls.get() == 3
+    typeTimings.matches.get() == 2
+    typeTimings.nanos.get() > 0
+    def classLoaderTimings = TransformationStats.INSTRUMENTER_TIMINGS.get("timed-classloader").classLoaderMatcher
+    classLoaderTimings.calls.get() == 1
+    classLoaderTimings.matches.get() == 0
+    matcher.toString() == named("foo").toString()
+  }
+
+  def "only the slowest type timings are kept"() {
+    setup:
+    def timings = new TransformationStats.TypeTimings(3)
+    def nanos = (1..10).toList()
+    Collections.shuffle(nanos)
+
+    when:
+    nanos.each {
+      def timing = new TransformationStats.TypeTiming("type$it", null)
+      timing.nanos = it
+      timing.transformed = it % 2 == 0
+      timing.error = it == 5
+      timings.record(timing)
+    }
+
+    then:
+    timings.types.get() == 10
+    timings.transformed.get() == 5
+    timings.errors.get() == 1
+    timings.totalNanos.get() == 55
+    timings.slowest()*.typeName == ["type10", "type9", "type8"]
+    timings.slowest()*.classLoader == ["<bootstrap>"] * 3
+  }
+
+  def "listener times nested transformations"() {
+    setup:
+    def listener = TransformationStats.listener()
+    def before = TransformationStats.TYPE_TIMINGS.types.get()
+    def transformedBefore = TransformationStats.TYPE_TIMINGS.transformed.get()
+    def errorsBefore = TransformationStats.TYPE_TIMINGS.errors.get()
+
+    when:
+    listener.onDiscovery("outer", null, null, false)
+    listener.onDiscovery("inner", null, null, false)
+    listener.onTransformation(null, null, null, false, null)
+    listener.onComplete("inner", null, null, false)
+    listener.onError("outer", null, null, false, new IllegalStateException())
+    listener.onComplete("outer", null, null, false)
+
+    then:
+    TransformationStats.TYPE_TIMINGS.types.get() == before + 2
+    TransformationStats.TYPE_TIMINGS.transformed.get() == transformedBefore + 1
+    TransformationStats.TYPE_TIMINGS.errors.get() == errorsBefore + 1
+    def slowest = TransformationStats.TYPE_TIMINGS.slowest()
+    slowest.find { it.typeName == "inner" }.transformed
+    !slowest.find { it.typeName == "inner" }.error
+    slowest.find { it.typeName == "outer" }.error
+    !slowest.find { it.typeName == "outer" }.transformed
+  }
+
+  def "report is written as json"() {
+    setup:
+    TransformationStats.timedTypeMatcher("reported", named("foo")).matches(new TestElement("foo"))
+    def listener = TransformationStats.listener()
+    listener.onDiscovery("reported.Type", null, null, false)
+    listener.onComplete("reported.Type", null, null, false)
+    def file = File.createTempFile("transformation-stats", ".json")
+    file.deleteOnExit()
+
+    when:
+    TransformationStats.writeReport(file)
+    def report = new JsonSlurper().parse(file)
+
+    then:
+    report.types >= 1
+    report.total_transform_nanos >= 0
+    report.type_pool_cache_entries >= 0
+    report.heap_used_bytes > 0
+    report.non_heap_used_bytes > 0
+    report.instrumenters.find { it.name == "reported" }.type_matcher_matches == 1
+    report.slowest_type_timings.find { it.name == "reported.Type" }.classloader == "<bootstrap>"
+    report.context_store_fallbacks != null
+  }
+
+  static class TestElement implements net.bytebuddy.description.NamedElement {
+    final String name
+
+    TestElement(String name) {
+      this.name = name
+    }
+
+    @Override
+    String getActualName() {
+      return name
+    }
+  }
+}
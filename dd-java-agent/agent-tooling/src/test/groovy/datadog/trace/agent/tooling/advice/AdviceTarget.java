@@ -0,0 +1,10 @@
+package datadog.trace.agent.tooling.advice;
+
+import java.util.List;
+
+public class AdviceTarget {
+  public String handle(final List<String> events, final String request) {
+    events.add("handle " + request);
+    return request;
+  }
+}
@@ -0,0 +1,34 @@
+package datadog.trace.agent.tooling.advice;
+
+import java.util.List;
+import net.bytebuddy.asm.Advice;
+
+public class InlinedTestAdvice {
+
+  @Advice.OnMethodEnter(suppress = Throwable.class)
+  public static long onEnter(
+      @Advice.Argument(0) final List<String> events, @Advice.Argument(1) final String request) {
+    if (request == null || request.isEmpty()) {
+      events.add("enter without request");
+    } else if (request.startsWith("/")) {
+      events.add("enter " + request.substring(1).toUpperCase());
+    } else {
+      events.add("enter " + request.toUpperCase());
+    }
+    return System.nanoTime();
+  }
+
+  @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+  public static void onExit(
+      @Advice.Argument(0) final List<String> events,
+      @Advice.Enter final long start,
+      @Advice.Thrown final Throwable throwable) {
+    if (throwable != null) {
+      events.add("exit with " + throwable.getClass().getSimpleName());
+    } else if (System.nanoTime() >= start) {
+      events.add("exit");
+    } else {
+      events.add("exit before enter");
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package datadog.trace.agent.tooling.advice;
+
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.Handle;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+
+/** Counts the bytecode instructions of a method, as a measure of its size for the JIT. */
+public final class InstructionCounter extends MethodVisitor {
+  private int count;
+
+  private InstructionCounter() {
+    super(Opcodes.ASM8);
+  }
+
+  public static int count(final byte[] classBytes, final String methodName) {
+    final InstructionCounter counter = new InstructionCounter();
+    new ClassReader(classBytes)
+        .accept(
+            new ClassVisitor(Opcodes.ASM8) {
+              @Override
+              public MethodVisitor visitMethod(
+                  final int access,
+                  final String name,
+                  final String descriptor,
+                  final String signature,
+                  final String[] exceptions) {
+                return methodName.equals(name) ? counter : null;
+              }
+            },
+            ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    return counter.count;
+  }
+
+  @Override
+  public void visitInsn(final int opcode) {
+    count++;
+  }
+
+  @Override
+  public void visitIntInsn(final int opcode, final int operand) {
+    count++;
+  }
+
+  @Override
+  public void visitVarInsn(final int opcode, final int var) {
+    count++;
+  }
+
+  @Override
+  public void visitTypeInsn(final int opcode, final String type) {
+    count++;
+  }
+
+  @Override
+  public void visitFieldInsn(
+      final int opcode, final String owner, final String name, final String descriptor) {
+    count++;
+  }
+
+  @Override
+  public void visitMethodInsn(
+      final int opcode,
+      final String owner,
+      final String name,
+      final String descriptor,
+      final boolean isInterface) {
+    count++;
+  }
+
+  @Override
+  public void visitInvokeDynamicInsn(
+      final String name,
+      final String descriptor,
+      final Handle bootstrapMethodHandle,
+      final Object... bootstrapMethodArguments) {
+    count++;
+  }
+
+  @Override
+  public void visitJumpInsn(final int opcode, final Label label) {
+    count++;
+  }
+
+  @Override
+  public void visitLdcInsn(final Object value) {
+    count++;
+  }
+
+  @Override
+  public void visitIincInsn(final int var, final int increment) {
+    count++;
+  }
+
+  @Override
+  public void visitTableSwitchInsn(
+      final int min, final int max, final Label dflt, final Label... labels) {
+    count++;
+  }
+
+  @Override
+  public void visitLookupSwitchInsn(final Label dflt, final int[] keys, final Label[] labels) {
+    count++;
+  }
+
+  @Override
+  public void visitMultiANewArrayInsn(final String descriptor, final int numDimensions) {
+    count++;
+  }
+}
@@ -0,0 +1,48 @@
+package datadog.trace.agent.tooling.context
+
+import com.timgroup.statsd.StatsDClient
+import datadog.trace.bootstrap.FieldBackedContextStoreFallbackMaps
+import spock.lang.Specification
+
+class ContextStoreFallbackMetricsTest extends Specification {
+
+  def "fallback maps are reported per store"() {
+    setup:
+    def statsd = Mock(StatsDClient)
+    def tags = ["key_class:java.lang.Runnable", "context_class:java.lang.String"] as String[]
+    ContextStoreFallbackMetrics.registerStore("test.RunnableStore", "java.lang.Runnable", "java.lang.String")
+    def map = FieldBackedContextStoreFallbackMaps.newFallbackMap("test.RunnableStore")
+    def first = new Object()
+    def second = new Object()
+
+    when:
+    map.put(first, "first")
+    map.put(second, "second")
+    ContextStoreFallbackMetrics.report(statsd)
+
+    then:
+    1 * statsd.gauge("context_store.fallback.entries", 2, tags)
+    1 * statsd.count("context_store.fallback.writes", 2, tags)
+
+    when:
+    map.put(first, "again")
+    ContextStoreFallbackMetrics.report(statsd)
+
+    then:
+    1 * statsd.gauge("context_store.fallback.entries", 2, tags)
+    1 * statsd.count("context_store.fallback.writes", 1, tags)
+  }
+
+  def "stores that are not known are not reported"() {
+    setup:
+    def statsd = Mock(StatsDClient)
+    FieldBackedContextStoreFallbackMaps.newFallbackMap("test.UnknownStore").put(new Object(), "value")
+
+    when:
+    ContextStoreFallbackMetrics.report(statsd)
+
+    then:
+    0 * statsd._(_, _, { it.contains("key_class:unknown") })
+    ContextStoreFallbackMetrics.storeFor("test.UnknownStore") == null
+  }
+}
@@ -0,0 +1,8 @@
+package datadog.trace.agent.test;
+
+/** Used by {@link HelperInjectionTest}. References another helper, so it is not shared. */
+class BatchedHelperClass {
+  static Class<?> helper() {
+    return HelperClass.class;
+  }
+}
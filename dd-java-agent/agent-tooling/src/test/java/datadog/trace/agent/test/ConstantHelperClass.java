@@ -0,0 +1,7 @@
+package datadog.trace.agent.test;
+
+/** Used by {@link HelperInjectionTest}. Only holds constants, so it can be shared. */
+class ConstantHelperClass {
+  static final String NAME = "constant";
+  static final int SIZE = 16;
+}
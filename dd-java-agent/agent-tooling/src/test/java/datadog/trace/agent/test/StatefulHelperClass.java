@@ -0,0 +1,13 @@
+package datadog.trace.agent.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Used by {@link HelperInjectionTest}. Only references JDK types, but its static state must not be
+ * shared between classloaders.
+ */
+class StatefulHelperClass {
+  static final String NAME = "stateful";
+  static final Map<String, String> CACHE = new HashMap<>();
+}
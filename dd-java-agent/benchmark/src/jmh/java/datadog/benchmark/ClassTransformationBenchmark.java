@@ -0,0 +1,172 @@
+package datadog.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads a realistic class corpus (Spring, Netty and JDBC drivers by default) into a fresh
+ * classloader per invocation, so every class goes through the agent's transformer.
+ *
+ * <p>The corpus can be replaced with {@code -Ddd.benchmark.corpus=a.jar:b.jar}. When the agent is
+ * attached with {@code -Ddd.trace.transformation.stats.file=...}, it writes per-class transform
+ * latency, per-instrumenter matcher time, type pool cache size and memory usage in bytes to that
+ * file as JSON. Together with JMH's JSON result file this allows comparing agent versions.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ClassTransformationBenchmark {
+
+  private static final String[] DEFAULT_CORPUS_MARKERS = {
+    "org.springframework.web.servlet.DispatcherServlet",
+    "org.springframework.context.ApplicationContext",
+    "org.springframework.beans.factory.BeanFactory",
+    "org.springframework.core.SpringVersion",
+    "io.netty.channel.Channel",
+    "io.netty.handler.codec.http.HttpObjectDecoder",
+    "org.postgresql.Driver",
+    "com.mysql.cj.jdbc.Driver",
+  };
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+    URL[] classpath;
+    List<String> classNames;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      final List<File> corpusJars = new ArrayList<>();
+      final String corpus = System.getProperty("dd.benchmark.corpus");
+      if (corpus != null) {
+        for (final String path : corpus.split(File.pathSeparator)) {
+          corpusJars.add(new File(path));
+        }
+      } else {
+        for (final String marker : DEFAULT_CORPUS_MARKERS) {
+          final File jar =
+              new File(
+                  Class.forName(marker, false, getClass().getClassLoader())
+                      .getProtectionDomain()
+                      .getCodeSource()
+                      .getLocation()
+                      .toURI());
+          if (!corpusJars.contains(jar)) {
+            corpusJars.add(jar);
+          }
+        }
+      }
+
+      // the whole benchmark classpath is visible so that corpus classes can link
+      final List<URL> urls = new ArrayList<>();
+      for (final String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+        urls.add(new File(path).toURI().toURL());
+      }
+      classpath = urls.toArray(new URL[0]);
+
+      classNames = new ArrayList<>();
+      for (final File jar : corpusJars) {
+        classNames.addAll(classNamesIn(jar));
+      }
+    }
+  }
+
+  /** Reported alongside the timings in the JMH result file. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Counters {
+    public long classesLoaded;
+    public long linkageErrors;
+    public long retainedHeapBytes;
+    public long retainedNonHeapBytes;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private long heapBefore;
+    private long nonHeapBefore;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      classesLoaded = 0;
+      linkageErrors = 0;
+      heapBefore = usedHeapAfterGc();
+      nonHeapBefore = memory.getNonHeapMemoryUsage().getUsed();
+    }
+
+    @TearDown(Level.Iteration)
+    public void measureRetained() {
+      // the corpus loader is unreachable by now, so what is left is retained by the agent
+      retainedHeapBytes = usedHeapAfterGc() - heapBefore;
+      // class metadata and code generated for the agent, e.g. helpers and context stores
+      retainedNonHeapBytes = memory.getNonHeapMemoryUsage().getUsed() - nonHeapBefore;
+    }
+
+    private long usedHeapAfterGc() {
+      System.gc();
+      return memory.getHeapMemoryUsage().getUsed();
+    }
+  }
+
+  @Benchmark
+  public int loadCorpus(final Corpus corpus, final Counters counters) throws IOException {
+    try (final URLClassLoader loader = new URLClassLoader(corpus.classpath, null)) {
+      for (final String className : corpus.classNames) {
+        try {
+          Class.forName(className, false, loader);
+          counters.classesLoaded++;
+        } catch (final ClassNotFoundException | LinkageError e) {
+          counters.linkageErrors++;
+        }
+      }
+    }
+    return corpus.classNames.size();
+  }
+
+  private static List<String> classNamesIn(final File jar) throws IOException {
+    final List<String> classNames = new ArrayList<>();
+    try (final JarFile jarFile = new JarFile(jar)) {
+      final Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        final String name = entries.nextElement().getName();
+        if (name.endsWith(".class")
+            && !name.endsWith("module-info.class")
+            && !name.startsWith("META-INF/")) {
+          classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+        }
+      }
+    }
+    return classNames;
+  }
+
+  @Fork(jvmArgsAppend = "-javaagent:/path/to/dd-java-agent-master.jar")
+  public static class WithAgentMaster extends ClassTransformationBenchmark {}
+
+  @Fork(
+      jvmArgsAppend = {
+        "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar",
+        "-Ddd.trace.transformation.stats.file=build/reports/jmh/transformation-stats.json"
+      })
+  public static class WithAgent extends ClassTransformationBenchmark {}
+}
@@ -0,0 +1,51 @@
+package datadog.benchmark;
+
+import datadog.trace.api.Trace;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streams a 1M element {@link Flux} through a few operators under a trace, so every element goes
+ * through the {@code onNext} of the tracing subscribers the agent adds to each operator. The
+ * operators don't read the active span, so with lazy scope activation no scope is activated for the
+ * elements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FluxBenchmark {
+  private static final int ELEMENTS = 1_000_000;
+
+  @Benchmark
+  @Trace(operationName = "flux")
+  public long flux() {
+    return Flux.range(0, ELEMENTS)
+        .map(i -> i * 31L)
+        .filter(l -> (l & 1) == 0)
+        .reduce(0L, Long::sum)
+        .block();
+  }
+
+  @Fork(jvmArgsAppend = "-javaagent:/path/to/dd-java-agent-master.jar")
+  public static class WithAgentMaster extends FluxBenchmark {}
+
+  @Fork(
+      jvmArgsAppend =
+          "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar")
+  public static class WithAgent extends FluxBenchmark {}
+
+  @Fork(
+      jvmArgsAppend = {
+        "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar",
+        "-Ddd.reactor.lazy-scope-activation=true"
+      })
+  public static class WithAgentLazyScopeActivation extends FluxBenchmark {}
+}
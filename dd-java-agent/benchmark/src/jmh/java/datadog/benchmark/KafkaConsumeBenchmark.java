@@ -0,0 +1,106 @@
+package datadog.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.test.rule.KafkaEmbedded;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+/**
+ * Consumes 10k records spread over a few partitions of an embedded broker, iterating every batch
+ * returned by {@code poll}. Compares the span per record of the default kafka consumer tracing with
+ * the span per batch of {@code dd.kafka.client.batch.tracing.enabled}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KafkaConsumeBenchmark {
+  private static final String TOPIC = "benchmark";
+  private static final int PARTITIONS = 4;
+  private static final int RECORDS = 10_000;
+
+  private KafkaEmbedded broker;
+  private KafkaConsumer<String, String> consumer;
+  private List<TopicPartition> partitions;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    broker = new KafkaEmbedded(1, true, PARTITIONS, TOPIC);
+    broker.afterPropertiesSet();
+
+    try (final KafkaProducer<String, String> producer =
+        new KafkaProducer<>(
+            KafkaTestUtils.senderProps(broker.getBrokersAsString()),
+            new StringSerializer(),
+            new StringSerializer())) {
+      for (int i = 0; i < RECORDS; i++) {
+        producer.send(new ProducerRecord<String, String>(TOPIC, i % PARTITIONS, null, "r" + i));
+      }
+      producer.flush();
+    }
+
+    final Map<String, Object> props = KafkaTestUtils.consumerProps("benchmark", "false", broker);
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+    consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer());
+    partitions = new ArrayList<>();
+    for (int i = 0; i < PARTITIONS; i++) {
+      partitions.add(new TopicPartition(TOPIC, i));
+    }
+    consumer.assign(partitions);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    consumer.close();
+    broker.destroy();
+  }
+
+  @Benchmark
+  public int consume(final Blackhole blackhole) {
+    consumer.seekToBeginning(partitions);
+    int consumed = 0;
+    while (consumed < RECORDS) {
+      for (final ConsumerRecord<String, String> record : consumer.poll(100)) {
+        blackhole.consume(record.value());
+        consumed++;
+      }
+    }
+    return consumed;
+  }
+
+  @Fork(
+      jvmArgsAppend =
+          "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar")
+  public static class WithAgent extends KafkaConsumeBenchmark {}
+
+  @Fork(
+      jvmArgsAppend = {
+        "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar",
+        "-Ddd.kafka.client.batch.tracing.enabled=true"
+      })
+  public static class WithAgentBatchTracing extends KafkaConsumeBenchmark {}
+}
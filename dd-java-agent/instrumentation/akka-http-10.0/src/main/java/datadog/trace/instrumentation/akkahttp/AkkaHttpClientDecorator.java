@@ -1,7 +1,9 @@
 package datadog.trace.instrumentation.akkahttp;
 
+import akka.http.scaladsl.HttpExt;
 import akka.http.scaladsl.model.HttpRequest;
 import akka.http.scaladsl.model.HttpResponse;
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.HttpClientDecorator;
 import java.net.URI;
@@ -11,6 +13,7 @@ public class AkkaHttpClientDecorator extends HttpClientDecorator<HttpRequest, Ht
   public static final CharSequence AKKA_CLIENT_REQUEST =
       UTF8BytesString.createConstant("akka-http.client.request");
   public static final AkkaHttpClientDecorator DECORATE = new AkkaHttpClientDecorator();
+  public static final int HTTP_EXT_CALL_DEPTH = CallDepthThreadLocalMap.slotFor(HttpExt.class);
 
   @Override
   protected String[] instrumentationNames() {
@@ -5,6 +5,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.akkahttp.AkkaHttpClientDecorator.AKKA_CLIENT_REQUEST;
 import static datadog.trace.instrumentation.akkahttp.AkkaHttpClientDecorator.DECORATE;
+import static datadog.trace.instrumentation.akkahttp.AkkaHttpClientDecorator.HTTP_EXT_CALL_DEPTH;
 import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
 
@@ -76,7 +77,7 @@ public final class AkkaHttpClientInstrumentation extends Instrumenter.Default {
       In the future we may want to separate these, but since lots of code is reused we would need to come up
       with way of continuing to reusing it.
        */
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HttpExt.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HTTP_EXT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -105,7 +106,7 @@ public final class AkkaHttpClientInstrumentation extends Instrumenter.Default {
       if (scope == null) {
         return;
       }
-      CallDepthThreadLocalMap.reset(HttpExt.class);
+      CallDepthThreadLocalMap.reset(HTTP_EXT_CALL_DEPTH);
 
       final AgentSpan span = scope.span();
 
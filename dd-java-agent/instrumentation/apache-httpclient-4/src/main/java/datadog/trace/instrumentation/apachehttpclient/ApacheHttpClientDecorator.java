@@ -1,15 +1,19 @@
 package datadog.trace.instrumentation.apachehttpclient;
 
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.HttpClientDecorator;
 import java.net.URI;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpUriRequest;
 
 public class ApacheHttpClientDecorator extends HttpClientDecorator<HttpUriRequest, HttpResponse> {
 
   public static final CharSequence HTTP_REQUEST = UTF8BytesString.createConstant("http.request");
   public static final ApacheHttpClientDecorator DECORATE = new ApacheHttpClientDecorator();
+  public static final int HTTP_CLIENT_CALL_DEPTH =
+      CallDepthThreadLocalMap.slotFor(HttpClient.class);
 
   @Override
   protected String[] instrumentationNames() {
@@ -6,6 +6,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.apachehttpclient.ApacheHttpClientDecorator.DECORATE;
+import static datadog.trace.instrumentation.apachehttpclient.ApacheHttpClientDecorator.HTTP_CLIENT_CALL_DEPTH;
 import static datadog.trace.instrumentation.apachehttpclient.ApacheHttpClientDecorator.HTTP_REQUEST;
 import static datadog.trace.instrumentation.apachehttpclient.HttpHeadersInjectAdapter.SETTER;
 import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
@@ -33,7 +34,6 @@ import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpUriRequest;
 
@@ -186,7 +186,7 @@ public class ApacheHttpClientInstrumentation extends Instrumenter.Default {
       } finally {
         scope.close();
         span.finish();
-        CallDepthThreadLocalMap.reset(HttpClient.class);
+        CallDepthThreadLocalMap.reset(HTTP_CLIENT_CALL_DEPTH);
       }
     }
   }
@@ -194,7 +194,7 @@ public class ApacheHttpClientInstrumentation extends Instrumenter.Default {
   public static class UriRequestAdvice {
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static AgentScope methodEnter(@Advice.Argument(0) final HttpUriRequest request) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HttpClient.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HTTP_CLIENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -223,7 +223,7 @@ public class ApacheHttpClientInstrumentation extends Instrumenter.Default {
                 typing = Assigner.Typing.DYNAMIC,
                 readOnly = false)
             Object handler) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HttpClient.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HTTP_CLIENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -251,7 +251,7 @@ public class ApacheHttpClientInstrumentation extends Instrumenter.Default {
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static AgentScope methodEnter(
         @Advice.Argument(0) final HttpHost host, @Advice.Argument(1) final HttpRequest request) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HttpClient.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HTTP_CLIENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -285,7 +285,7 @@ public class ApacheHttpClientInstrumentation extends Instrumenter.Default {
                 typing = Assigner.Typing.DYNAMIC,
                 readOnly = false)
             Object handler) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HttpClient.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HTTP_CLIENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
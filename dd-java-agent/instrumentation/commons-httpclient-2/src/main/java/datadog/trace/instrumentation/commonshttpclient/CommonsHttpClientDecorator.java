@@ -1,9 +1,11 @@
 package datadog.trace.instrumentation.commonshttpclient;
 
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.HttpClientDecorator;
 import java.net.URI;
 import java.net.URISyntaxException;
+import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpMethod;
 import org.apache.commons.httpclient.StatusLine;
 import org.apache.commons.httpclient.URIException;
@@ -11,6 +13,8 @@ import org.apache.commons.httpclient.URIException;
 public class CommonsHttpClientDecorator extends HttpClientDecorator<HttpMethod, HttpMethod> {
   public static final CharSequence HTTP_REQUEST = UTF8BytesString.createConstant("http.request");
   public static final CommonsHttpClientDecorator DECORATE = new CommonsHttpClientDecorator();
+  public static final int HTTP_CLIENT_CALL_DEPTH =
+      CallDepthThreadLocalMap.slotFor(HttpClient.class);
 
   @Override
   protected String[] instrumentationNames() {
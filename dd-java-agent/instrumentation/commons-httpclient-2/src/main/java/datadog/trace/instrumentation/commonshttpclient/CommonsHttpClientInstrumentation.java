@@ -6,6 +6,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.commonshttpclient.CommonsHttpClientDecorator.DECORATE;
+import static datadog.trace.instrumentation.commonshttpclient.CommonsHttpClientDecorator.HTTP_CLIENT_CALL_DEPTH;
 import static datadog.trace.instrumentation.commonshttpclient.CommonsHttpClientDecorator.HTTP_REQUEST;
 import static datadog.trace.instrumentation.commonshttpclient.HttpHeadersInjectAdapter.SETTER;
 import static java.util.Collections.singletonMap;
@@ -24,7 +25,6 @@ import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
-import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpMethod;
 
 @AutoService(Instrumenter.class)
@@ -66,7 +66,7 @@ public class CommonsHttpClientInstrumentation extends Instrumenter.Default {
   public static class ExecAdvice {
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static AgentScope methodEnter(@Advice.Argument(1) final HttpMethod httpMethod) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HttpClient.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(HTTP_CLIENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -98,7 +98,7 @@ public class CommonsHttpClientInstrumentation extends Instrumenter.Default {
       } finally {
         scope.close();
         span.finish();
-        CallDepthThreadLocalMap.reset(HttpClient.class);
+        CallDepthThreadLocalMap.reset(HTTP_CLIENT_CALL_DEPTH);
       }
     }
   }
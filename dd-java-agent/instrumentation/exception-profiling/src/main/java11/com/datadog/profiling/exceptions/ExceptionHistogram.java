@@ -1,20 +1,30 @@
 package com.datadog.profiling.exceptions;
 
 import datadog.trace.api.Config;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Stream;
 import jdk.jfr.EventType;
 import jdk.jfr.FlightRecorder;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * A simple exception type histogram implementation.<br>
+ * A bounded exception type histogram implementation.<br>
  * It tracks a fixed number of exception types and for each of them it keeps the number of instances
  * created since the last {@linkplain ExceptionHistogram#emit()} call (or creating a new {@linkplain
  * ExceptionHistogram} instance if {@linkplain ExceptionHistogram#emit()} hasn't been called yet).
  * <br>
+ * The exception types are kept in a fixed-size Space-Saving sketch keyed by the exception class
+ * identity: when there is no free slot for a new type it replaces the least frequent type of its
+ * neighbourhood and inherits its count as an error. The exceptions counted as errors are reported
+ * under {@linkplain #CLIPPED_ENTRY_TYPE_NAME}, so the reported counts add up to the number of
+ * recorded exceptions. Recording is lock-free.<br>
  * An {@linkplain ExceptionHistogram} instance is registered with JFR to call {@linkplain
  * ExceptionHistogram#emit()} method at chunk end, as specified in {@linkplain ExceptionCountEvent}
  * class. This callback will then emit a number of {@linkplain ExceptionCountEvent} events.
@@ -24,15 +34,27 @@ public class ExceptionHistogram {
 
   static final String CLIPPED_ENTRY_TYPE_NAME = "TOO-MANY-EXCEPTIONS";
 
-  private final Map<String, AtomicLong> histogram = new ConcurrentHashMap<>();
+  // number of slots a type may occupy, starting at its hash slot
+  private static final int MAX_PROBES = 8;
+
+  private static final Comparator<Pair<String, Long>> BY_COUNT =
+      Comparator.comparingLong(p -> p.getValue());
+
+  private final AtomicReferenceArray<Class<?>> types;
+  private final AtomicLongArray counts;
+  private final AtomicLongArray errors;
+  private final int probes;
   private final int maxTopItems;
-  private final int maxSize;
   private final EventType exceptionCountEventType;
   private final Runnable eventHook;
 
   ExceptionHistogram(final Config config) {
     maxTopItems = config.getProfilingExceptionHistogramTopItems();
-    maxSize = config.getProfilingExceptionHistogramMaxCollectionSize();
+    final int capacity = Math.max(1, config.getProfilingExceptionHistogramMaxCollectionSize());
+    types = new AtomicReferenceArray<>(capacity);
+    counts = new AtomicLongArray(capacity);
+    errors = new AtomicLongArray(capacity);
+    probes = Math.min(capacity, MAX_PROBES);
     exceptionCountEventType = EventType.getEventType(ExceptionCountEvent.class);
     eventHook = this::emit;
     FlightRecorder.addPeriodicEvent(ExceptionCountEvent.class, eventHook);
@@ -54,27 +76,57 @@ public class ExceptionHistogram {
     if (exception == null) {
       return false;
     }
-    return record(exception.getClass().getName());
+    return record(exception.getClass());
   }
 
-  private boolean record(String typeName) {
+  private boolean record(final Class<?> type) {
     if (!exceptionCountEventType.isEnabled()) {
       return false;
     }
-    if (!histogram.containsKey(typeName) && histogram.size() >= maxSize) {
-      log.debug("Histogram is too big, skipping adding new entry: {}", typeName);
-      // Overwrite type name to limit total number of entries in the histogram
-      typeName = CLIPPED_ENTRY_TYPE_NAME;
+    final int start = slot(type);
+    while (true) {
+      int free = -1;
+      int min = -1;
+      long minCount = Long.MAX_VALUE;
+      for (int i = 0; i < probes; i++) {
+        final int slot = (start + i) % types.length();
+        final Class<?> current = types.get(slot);
+        if (current == type) {
+          /*
+           * This is supposed to signal that a particular exception type was seen the first time in a particular time span.
+           * !ATTENTION! This will work on best-effort basis - namely a type which was evicted from the histogram
+           * will receive a new 'first hit' when it gets recorded again.
+           */
+          return counts.getAndIncrement(slot) == 0;
+        }
+        if (current == null) {
+          if (free == -1) {
+            free = slot;
+          }
+        } else {
+          final long count = counts.get(slot);
+          if (count < minCount) {
+            minCount = count;
+            min = slot;
+          }
+        }
+      }
+      if (free != -1) {
+        if (types.compareAndSet(free, null, type)) {
+          counts.getAndIncrement(free);
+          return true;
+        }
+      } else {
+        final Class<?> evicted = types.get(min);
+        if (evicted != null && types.compareAndSet(min, evicted, type)) {
+          log.debug("Histogram is full, replacing {} with {}", evicted.getName(), type.getName());
+          // the new type inherits the count of the evicted one as its error
+          errors.set(min, counts.getAndIncrement(min));
+          return true;
+        }
+      }
+      // lost a race for the slot; look again
     }
-
-    long count = histogram.computeIfAbsent(typeName, k -> new AtomicLong()).getAndIncrement();
-
-    /*
-     * This is supposed to signal that a particular exception type was seen the first time in a particular time span.
-     * !ATTENTION! This will work on best-effort basis - namely all overflowing exception which are recorded
-     * as 'TOO-MANY-EXCEPTIONS' will receive only one common 'first hit'.
-     */
-    return count == 0;
   }
 
   private void emit() {
@@ -86,21 +138,73 @@ public class ExceptionHistogram {
   }
 
   void doEmit() {
-    Stream<Pair<String, Long>> items =
-        histogram.entrySet().stream()
-            .map(e -> Pair.of(e.getKey(), e.getValue().getAndSet(0)))
-            .filter(p -> p.getValue() != 0)
-            .sorted((l1, l2) -> Long.compare(l2.getValue(), l1.getValue()));
+    // racing recorders may rarely put a type in two slots; merge them
+    final Map<Class<?>, Long> totals = new IdentityHashMap<>();
+    long clipped = 0;
+    for (int i = 0; i < types.length(); i++) {
+      final Class<?> type = types.get(i);
+      if (type == null) {
+        // a recorder may increment the count of a type just removed by the previous emit; the
+        // exception is still reported, without its type
+        if (counts.get(i) != 0) {
+          clipped += counts.getAndSet(i, 0);
+          errors.set(i, 0);
+        }
+        continue;
+      }
+      final long count = counts.getAndSet(i, 0);
+      // a recorder replacing the type sets the error after incrementing the count, so an error
+      // may land after the count was reset; clamping keeps it from being counted twice
+      final long error = Math.min(errors.getAndSet(i, 0), count);
+      clipped += error;
+      if (count > error) {
+        totals.merge(type, count - error, Long::sum);
+      }
+    }
 
-    if (maxTopItems > 0) {
-      items = items.limit(maxTopItems);
+    final List<Pair<String, Long>> items = new ArrayList<>();
+    final PriorityQueue<Pair<String, Long>> top =
+        maxTopItems > 0 ? new PriorityQueue<>(maxTopItems + 1, BY_COUNT) : null;
+    for (final Map.Entry<Class<?>, Long> total : totals.entrySet()) {
+      add(Pair.of(total.getKey().getName(), total.getValue()), items, top);
+    }
+    if (clipped > 0) {
+      add(Pair.of(CLIPPED_ENTRY_TYPE_NAME, clipped), items, top);
     }
+    if (top != null) {
+      items.addAll(top);
+    }
+    items.sort(BY_COUNT.reversed());
 
-    emitEvents(items);
+    emitEvents(items.stream());
 
-    // Stream is 'materialized' by `forEach` call above so we have to do clean up after that
+    // Events are emitted by `emitEvents` call above so we have to do clean up after that
     // Otherwise we would keep entries for one extra iteration
-    histogram.entrySet().removeIf(e -> e.getValue().get() == 0L);
+    for (int i = 0; i < types.length(); i++) {
+      final Class<?> type = types.get(i);
+      if (type != null && counts.get(i) == 0) {
+        types.compareAndSet(i, type, null);
+      }
+    }
+  }
+
+  private void add(
+      final Pair<String, Long> item,
+      final List<Pair<String, Long>> items,
+      final PriorityQueue<Pair<String, Long>> top) {
+    if (top == null) {
+      items.add(item);
+      return;
+    }
+    top.add(item);
+    if (top.size() > maxTopItems) {
+      top.poll();
+    }
+  }
+
+  private int slot(final Class<?> type) {
+    // identity hash codes of classes are not spread well enough to be used as they are
+    return ((System.identityHashCode(type) * 0x9E3779B9) >>> 1) % types.length();
   }
 
   // important that this is non-final and package private; allows concurrency tests
@@ -3,11 +3,14 @@ package com.datadog.profiling.exceptions;
 import datadog.common.exec.AgentTaskScheduler;
 import datadog.common.exec.AgentTaskScheduler.Task;
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A streaming (non-remembering) sampler.
@@ -39,19 +42,40 @@ class StreamingSampler {
    */
   private static final int CARRIED_OVER_BUDGET_LOOK_BACK = 16;
 
+  /** Samples taken in one window; only updated for sampling candidates */
   private static final class Counts {
-    private final LongAdder testCounter = new LongAdder();
     private final AtomicLong sampleCounter = new AtomicLong(0L);
 
-    void addTest() {
-      testCounter.increment();
-    }
-
     boolean addSample(final long limit) {
       return sampleCounter.getAndUpdate(s -> s + (s < limit ? 1 : 0)) < limit;
     }
   }
 
+  /**
+   * The state of a thread using the sampler. It is only written by its thread, so that the
+   * per-event bookkeeping does not touch any shared cache line.
+   */
+  private static final class ThreadCounts {
+    private static final AtomicLongFieldUpdater<ThreadCounts> TESTS =
+        AtomicLongFieldUpdater.newUpdater(ThreadCounts.class, "tests");
+
+    private final Thread owner = Thread.currentThread();
+    // written by the owner thread only, read by the window maintenance thread
+    private volatile long tests;
+
+    // accessed solely from the owner thread
+    private int epoch = -1;
+    private long eventsToSkip;
+
+    // accessed solely from the window maintenance thread
+    private long reportedTests;
+
+    void addTest() {
+      // the owner is the only writer - no need for an atomic increment
+      TESTS.lazySet(this, tests + 1);
+    }
+  }
+
   /*
    * Exponential Moving Average (EMA) last element weight.
    * Check out papers about using EMA for streaming data - eg.
@@ -66,11 +90,21 @@ class StreamingSampler {
   private final int samplesPerWindow;
 
   private final AtomicReference<Counts> countsRef;
+  private final Queue<ThreadCounts> threadCounts = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ThreadCounts> threadCountsRef =
+      ThreadLocal.withInitial(
+          () -> {
+            final ThreadCounts counts = new ThreadCounts();
+            threadCounts.add(counts);
+            return counts;
+          });
 
   // these attributes need to be volatile since they are accessed from user threds as well as the
   // maintenance one
   private volatile double probability = 1d;
   private volatile long samplesBudget;
+  // incremented whenever the probability changes, telling the threads to redraw their skip counts
+  private volatile int epoch;
 
   // these attributes are accessed solely from the window maintenance thread
   private double totalCountRunningAverage = 0d;
@@ -120,16 +154,59 @@ class StreamingSampler {
   /**
    * Provides binary answer whether the current event is to be sampled
    *
+   * <p>Instead of drawing a random number for each event each thread draws the number of events to
+   * skip before its next sampling candidate from the geometric distribution. Only the candidates
+   * are checked against the shared samples budget.
+   *
    * @return {@literal true} if the event should be sampled
    */
   final boolean sample() {
-    final Counts counts = countsRef.get();
+    final ThreadCounts counts = threadCountsRef.get();
     counts.addTest();
-    if (ThreadLocalRandom.current().nextDouble() < probability) {
-      return counts.addSample(samplesBudget);
+    final int currentEpoch = epoch;
+    if (counts.epoch != currentEpoch) {
+      counts.epoch = currentEpoch;
+      counts.eventsToSkip = eventsToSkip(probability);
+    }
+    if (counts.eventsToSkip > 0) {
+      counts.eventsToSkip--;
+      return false;
     }
+    counts.eventsToSkip = eventsToSkip(probability);
+    return countsRef.get().addSample(samplesBudget);
+  }
 
-    return false;
+  /**
+   * @param probability the sampling probability
+   * @return number of events before the next sampling candidate
+   */
+  private static long eventsToSkip(final double probability) {
+    if (probability >= 1d) {
+      return 0;
+    }
+    if (probability <= 0d) {
+      return Long.MAX_VALUE;
+    }
+    // (0, 1] to avoid log(0)
+    final double uniform = 1d - ThreadLocalRandom.current().nextDouble();
+    return (long) (Math.log(uniform) / Math.log1p(-probability));
+  }
+
+  /** @return the number of events seen by all threads since the last call */
+  private long collectTestCount() {
+    long totalCount = 0;
+    for (final Iterator<ThreadCounts> it = threadCounts.iterator(); it.hasNext(); ) {
+      final ThreadCounts counts = it.next();
+      // check the owner first - a terminated thread will not add any more events
+      final boolean terminated = !counts.owner.isAlive();
+      final long tests = counts.tests;
+      totalCount += tests - counts.reportedTests;
+      counts.reportedTests = tests;
+      if (terminated) {
+        it.remove();
+      }
+    }
+    return totalCount;
   }
 
   private void rollWindow() {
@@ -139,7 +216,7 @@ class StreamingSampler {
      * using the newly created counts instead of the ones currently processed by the maintenance routine.
      */
     final Counts counts = countsRef.getAndSet(new Counts());
-    final long totalCount = counts.testCounter.sum();
+    final long totalCount = collectTestCount();
     final long sampledCount = counts.sampleCounter.get();
 
     samplesBudget = calculateBudgetEma(sampledCount);
@@ -156,6 +233,7 @@ class StreamingSampler {
     } else {
       probability = Math.min(samplesBudget / totalCountRunningAverage, 1d);
     }
+    epoch++;
   }
 
   private long calculateBudgetEma(final long sampledCount) {
@@ -10,9 +10,12 @@ import datadog.trace.api.Config;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 import jdk.jfr.FlightRecorder;
 import jdk.jfr.Recording;
@@ -114,6 +117,96 @@ public class ExceptionHistogramTest {
     assertFalse(histogram.record(new NullPointerException()));
   }
 
+  @Test
+  public void testCountsAddUpWhenFull() throws InterruptedException {
+    final Properties properties = new Properties();
+    properties.setProperty(
+        Config.PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE, Integer.toString(MAX_SIZE));
+    final Map<String, Long> emitted = new HashMap<>();
+    final ExceptionHistogram histogram =
+        new ExceptionHistogram(Config.get(properties)) {
+          @Override
+          void emitEvents(Stream<ExceptionHistogram.Pair<String, Long>> items) {
+            items.forEach(p -> emitted.put(p.getKey(), p.getValue()));
+          }
+        };
+    histogram.deregister();
+
+    final Exception[] exceptions = {
+      new IllegalStateException(), new IllegalArgumentException(), new NullPointerException()
+    };
+    final Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 10_000; i++) {
+                  histogram.record(exceptions[i % exceptions.length]);
+                }
+              });
+      threads[t].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    histogram.doEmit();
+
+    // only MAX_SIZE types fit, the rest is clipped
+    assertEquals(MAX_SIZE + 1, emitted.size());
+    assertTrue(emitted.containsKey(ExceptionHistogram.CLIPPED_ENTRY_TYPE_NAME));
+    assertEquals(
+        threads.length * 10_000L, emitted.values().stream().mapToLong(Long::longValue).sum());
+  }
+
+  @Test
+  public void testCountsAddUpWhenEmittingConcurrently() throws InterruptedException {
+    final Properties properties = new Properties();
+    properties.setProperty(
+        Config.PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE, Integer.toString(MAX_SIZE));
+    final AtomicLong emitted = new AtomicLong();
+    final ExceptionHistogram histogram =
+        new ExceptionHistogram(Config.get(properties)) {
+          @Override
+          void emitEvents(Stream<ExceptionHistogram.Pair<String, Long>> items) {
+            items.forEach(p -> emitted.addAndGet(p.getValue()));
+          }
+        };
+    histogram.deregister();
+
+    final Exception[] exceptions = {
+      new IllegalStateException(), new IllegalArgumentException(), new NullPointerException()
+    };
+    final Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 100_000; i++) {
+                  histogram.record(exceptions[i % exceptions.length]);
+                }
+              });
+      threads[t].start();
+    }
+    final AtomicBoolean recording = new AtomicBoolean(true);
+    final Thread emitter =
+        new Thread(
+            () -> {
+              while (recording.get()) {
+                histogram.doEmit();
+              }
+            });
+    emitter.start();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    recording.set(false);
+    emitter.join();
+    histogram.doEmit();
+
+    // evictions racing with emits must not count an exception more than once
+    assertEquals(threads.length * 100_000L, emitted.get());
+  }
+
   @Test
   public void testExceptionsRecorded()
       throws IOException, CouldNotLoadRecordingException, InterruptedException {
@@ -205,21 +298,22 @@ public class ExceptionHistogramTest {
     snapshot = FlightRecorder.getFlightRecorder().takeSnapshot();
     final IItemCollection firstRecording = getEvents(snapshot, Instant.MIN, firstRecordingNow);
 
+    // the later, more frequent types replace the earlier ones; their counts are clipped
     assertEquals(MAX_ITEMS + 1, firstRecording.getAggregate(Aggregators.count()).longValue());
     assertEquals(
-        5,
+        10,
         firstRecording
-            .apply(ItemFilters.equals(TYPE, Exception.class.getCanonicalName()))
+            .apply(ItemFilters.equals(TYPE, NegativeArraySizeException.class.getCanonicalName()))
             .getAggregate(Aggregators.sum(COUNT))
             .longValue());
     assertEquals(
-        8,
+        11,
         firstRecording
-            .apply(ItemFilters.equals(TYPE, IllegalArgumentException.class.getCanonicalName()))
+            .apply(ItemFilters.equals(TYPE, NullPointerException.class.getCanonicalName()))
             .getAggregate(Aggregators.sum(COUNT))
             .longValue());
     assertEquals(
-        21,
+        13,
         firstRecording
             .apply(ItemFilters.equals(TYPE, ExceptionHistogram.CLIPPED_ENTRY_TYPE_NAME))
             .getAggregate(Aggregators.sum(COUNT))
@@ -249,20 +343,20 @@ public class ExceptionHistogramTest {
 
     assertEquals(MAX_ITEMS + 1, secondRecording.getAggregate(Aggregators.count()).longValue());
     assertEquals(
-        5,
+        10,
         secondRecording
-            .apply(ItemFilters.equals(TYPE, IllegalArgumentException.class.getCanonicalName()))
+            .apply(ItemFilters.equals(TYPE, NullPointerException.class.getCanonicalName()))
             .getAggregate(Aggregators.sum(COUNT))
             .longValue());
     assertEquals(
-        8,
+        11,
         secondRecording
-            .apply(ItemFilters.equals(TYPE, NegativeArraySizeException.class.getCanonicalName()))
+            .apply(ItemFilters.equals(TYPE, RuntimeException.class.getCanonicalName()))
             .getAggregate(Aggregators.sum(COUNT))
             .longValue());
     assertEquals(
-        21,
-        firstRecording
+        13,
+        secondRecording
             .apply(ItemFilters.equals(TYPE, ExceptionHistogram.CLIPPED_ENTRY_TYPE_NAME))
             .getAggregate(Aggregators.sum(COUNT))
             .longValue());
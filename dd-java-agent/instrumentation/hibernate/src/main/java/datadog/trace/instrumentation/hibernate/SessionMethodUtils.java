@@ -18,6 +18,8 @@ public class SessionMethodUtils {
   public static final Set<String> SCOPE_ONLY_METHODS =
       new HashSet<>(Arrays.asList("immediateLoad", "internalLoad"));
 
+  private static final int CALL_DEPTH = CallDepthThreadLocalMap.slotFor(SessionMethodUtils.class);
+
   /**
    * Starts a scope as a child from a Span, where the Span is attached to the given spanKey using
    * the given contextStore.
@@ -36,7 +38,7 @@ public class SessionMethodUtils {
       return null; // No state found. We aren't in a Session.
     }
 
-    final int depth = CallDepthThreadLocalMap.incrementCallDepth(SessionMethodUtils.class);
+    final int depth = CallDepthThreadLocalMap.incrementCallDepth(CALL_DEPTH);
     if (depth > 0) {
       return null; // This method call is being traced already.
     }
@@ -69,7 +71,7 @@ public class SessionMethodUtils {
       return;
     }
 
-    CallDepthThreadLocalMap.reset(SessionMethodUtils.class);
+    CallDepthThreadLocalMap.reset(CALL_DEPTH);
     final AgentScope scope = sessionState.getMethodScope();
     final AgentSpan span = scope.span();
     if (span != null && (sessionState.hasChildSpan || closeSpan)) {
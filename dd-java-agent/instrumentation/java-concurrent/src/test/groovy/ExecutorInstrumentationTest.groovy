@@ -23,6 +23,8 @@ import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
 
+import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
+import static datadog.trace.api.config.TraceInstrumentationConfig.TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeScope
 import static org.junit.Assume.assumeTrue
 
@@ -140,6 +142,50 @@ class ExecutorInstrumentationTest extends AgentTestRunner {
     "execute Runnable"       | executeRunnable     | java7SafeCompletableFutureThreadPerTaskExecutor()
   }
 
+  def "#poolImpl '#name' propagates without holding the trace in lightweight mode"() {
+    setup:
+    def pool = poolImpl
+    def m = method
+    // this child won't have a span and is still running when the parent finishes
+    def blockedChild = new JavaAsyncChild(false, true)
+
+    withConfigOverride(TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION, "true") {
+      new Runnable() {
+        @Override
+        @Trace(operationName = "parent")
+        void run() {
+          activeScope().setAsyncPropagation(true)
+          // this child will have a span
+          m(pool, new JavaAsyncChild())
+          blockUntilChildSpansFinished(1)
+          m(pool, blockedChild)
+        }
+      }.run()
+    }
+
+    TEST_WRITER.waitForTraces(1)
+    List<DDSpan> trace = TEST_WRITER.get(0)
+
+    expect:
+    TEST_WRITER.size() == 1
+    trace.size() == 2
+    trace.get(0).operationName == "parent"
+    trace.get(1).operationName == "asyncChild"
+    trace.get(1).parentId == trace.get(0).spanId
+
+    cleanup:
+    blockedChild.unblock()
+    pool?.shutdown()
+
+    where:
+    name                   | method              | poolImpl
+    "execute Runnable"     | executeRunnable     | new ThreadPoolExecutor(2, 2, 1000, TimeUnit.NANOSECONDS, new ArrayBlockingQueue<Runnable>(1))
+    "submit Callable"      | submitCallable      | new ThreadPoolExecutor(2, 2, 1000, TimeUnit.NANOSECONDS, new ArrayBlockingQueue<Runnable>(1))
+    "schedule Runnable"    | scheduleRunnable    | new ScheduledThreadPoolExecutor(2)
+    "execute ForkJoinTask" | executeForkJoinTask | new ForkJoinPool()
+    "submit Runnable"      | submitRunnable      | new ForkJoinPool()
+  }
+
   def "#poolImpl '#name' wraps"() {
     setup:
     def pool = poolImpl
@@ -2,6 +2,7 @@ package datadog.trace.instrumentation.jdbc;
 
 import datadog.trace.api.DDSpanTypes;
 import datadog.trace.api.DDTags;
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
@@ -12,12 +13,16 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 public class JDBCDecorator extends DatabaseClientDecorator<DBInfo> {
 
   public static final JDBCDecorator DECORATE = new JDBCDecorator();
   public static final CharSequence DATABASE_QUERY =
       UTF8BytesString.createConstant("database.query");
+  public static final int STATEMENT_CALL_DEPTH = CallDepthThreadLocalMap.slotFor(Statement.class);
+  public static final int PREPARED_STATEMENT_CALL_DEPTH =
+      CallDepthThreadLocalMap.slotFor(PreparedStatement.class);
   private static final UTF8BytesString DB_QUERY = UTF8BytesString.createConstant("DB Query");
   private static final UTF8BytesString JDBC_STATEMENT =
       UTF8BytesString.createConstant("java-jdbc-statement");
@@ -6,6 +6,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DATABASE_QUERY;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DECORATE;
+import static datadog.trace.instrumentation.jdbc.JDBCDecorator.PREPARED_STATEMENT_CALL_DEPTH;
 import static datadog.trace.instrumentation.jdbc.JDBCUtils.connectionFromStatement;
 import static java.util.Collections.singletonMap;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
@@ -68,7 +69,8 @@ public final class PreparedStatementInstrumentation extends Instrumenter.Default
         return null;
       }
 
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(PreparedStatement.class);
+      final int callDepth =
+          CallDepthThreadLocalMap.incrementCallDepth(PREPARED_STATEMENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -91,7 +93,7 @@ public final class PreparedStatementInstrumentation extends Instrumenter.Default
       DECORATE.beforeFinish(scope.span());
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(PreparedStatement.class);
+      CallDepthThreadLocalMap.reset(PREPARED_STATEMENT_CALL_DEPTH);
     }
   }
 }
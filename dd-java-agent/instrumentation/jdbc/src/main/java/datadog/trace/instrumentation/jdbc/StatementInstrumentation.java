@@ -6,6 +6,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DATABASE_QUERY;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DECORATE;
+import static datadog.trace.instrumentation.jdbc.JDBCDecorator.STATEMENT_CALL_DEPTH;
 import static datadog.trace.instrumentation.jdbc.JDBCUtils.connectionFromStatement;
 import static java.util.Collections.singletonMap;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
@@ -67,7 +68,7 @@ public final class StatementInstrumentation extends Instrumenter.Default {
         return null;
       }
 
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(STATEMENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -90,7 +91,7 @@ public final class StatementInstrumentation extends Instrumenter.Default {
       DECORATE.beforeFinish(scope.span());
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(Statement.class);
+      CallDepthThreadLocalMap.reset(STATEMENT_CALL_DEPTH);
     }
   }
 }
@@ -178,4 +178,27 @@ class JDBCConnectionUrlParserTest extends DDSpecification {
 
     expected = new DBInfo.Builder().type(type).subtype(subtype).user(user).instance(instance).db(db).host(host).port(port).build()
   }
+
+  def "parsed urls are cached per user"() {
+    setup:
+    def url = "jdbc:postgresql://pg.host:11/pgdb"
+    def user = new Properties()
+    user.setProperty("user", "pguser")
+    def otherUser = new Properties()
+    otherUser.setProperty("user", "otheruser")
+
+    expect:
+    parse(url, null).is(parse(url, new Properties()))
+    parse(url, user).is(parse(url, user))
+    parse(url, user).user == "pguser"
+    parse(url, otherUser).user == "otheruser"
+    parse(url, null).user == null
+  }
+
+  def "urls with standard properties are not cached"() {
+    expect:
+    !parse("jdbc:derby:derbydb", stdProps).is(parse("jdbc:derby:derbydb", stdProps))
+    parse("jdbc:derby:derbydb", stdProps).port == 9999
+    parse("jdbc:derby:derbydb", null).port == null
+  }
 }
@@ -0,0 +1,29 @@
+package datadog.trace.instrumentation.jetty8;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.bytebuddy.asm.Advice;
+
+/**
+ * Calls {@link JettyHandlerAdvice} instead of inlining it, so that the instrumented {@code
+ * Handler.handle} stays small enough for the JIT to inline it. Only used when {@code
+ * dd.trace.indy.advice.enabled} is set.
+ */
+public class JettyHandlerDelegatingAdvice {
+
+  @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+  public static AgentScope onEnter(
+      @Advice.This final Object source, @Advice.Argument(2) final HttpServletRequest req) {
+    return JettyHandlerAdvice.onEnter(source, req);
+  }
+
+  @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class, inline = false)
+  public static void stopSpan(
+      @Advice.Argument(2) final HttpServletRequest req,
+      @Advice.Argument(3) final HttpServletResponse resp,
+      @Advice.Enter final AgentScope scope,
+      @Advice.Thrown final Throwable throwable) {
+    JettyHandlerAdvice.stopSpan(req, resp, scope, throwable);
+  }
+}
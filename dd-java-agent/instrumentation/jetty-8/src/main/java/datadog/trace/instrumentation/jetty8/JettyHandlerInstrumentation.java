@@ -10,6 +10,7 @@ import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
 
 import com.google.auto.service.AutoService;
 import datadog.trace.agent.tooling.Instrumenter;
+import datadog.trace.api.Config;
 import java.util.Map;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
@@ -41,6 +42,16 @@ public final class JettyHandlerInstrumentation extends Instrumenter.Default {
 
   @Override
   public String[] helperClassNames() {
+    if (Config.get().isIndyAdviceEnabled()) {
+      // the delegating advice calls the advice methods of JettyHandlerAdvice
+      return new String[] {
+        packageName + ".JettyDecorator",
+        packageName + ".HttpServletRequestExtractAdapter",
+        packageName + ".RequestURIDataAdapter",
+        packageName + ".TagSettingAsyncListener",
+        packageName + ".JettyHandlerAdvice"
+      };
+    }
     return new String[] {
       packageName + ".JettyDecorator",
       packageName + ".HttpServletRequestExtractAdapter",
@@ -58,6 +69,8 @@ public final class JettyHandlerInstrumentation extends Instrumenter.Default {
             .and(takesArgument(2, named("javax.servlet.http.HttpServletRequest")))
             .and(takesArgument(3, named("javax.servlet.http.HttpServletResponse")))
             .and(isPublic()),
-        packageName + ".JettyHandlerAdvice");
+        Config.get().isIndyAdviceEnabled()
+            ? packageName + ".JettyHandlerDelegatingAdvice"
+            : packageName + ".JettyHandlerAdvice");
   }
 }
@@ -2,6 +2,7 @@ package datadog.trace.instrumentation.jms;
 
 import datadog.trace.api.DDSpanTypes;
 import datadog.trace.api.DDTags;
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
@@ -10,6 +11,7 @@ import datadog.trace.bootstrap.instrumentation.decorator.ClientDecorator;
 import java.lang.reflect.Method;
 import javax.jms.Destination;
 import javax.jms.Message;
+import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.TemporaryQueue;
 import javax.jms.TemporaryTopic;
@@ -20,6 +22,8 @@ public final class JMSDecorator extends ClientDecorator {
   public static final CharSequence JMS_CONSUME = UTF8BytesString.createConstant("jms.consume");
   public static final CharSequence JMS_ONMESSAGE = UTF8BytesString.createConstant("jms.onMessage");
   public static final CharSequence JMS_PRODUCE = UTF8BytesString.createConstant("jms.produce");
+  public static final int MESSAGE_PRODUCER_CALL_DEPTH =
+      CallDepthThreadLocalMap.slotFor(MessageProducer.class);
 
   private final String spanKind;
   private final String spanType;
@@ -6,6 +6,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.jms.JMSDecorator.JMS_PRODUCE;
+import static datadog.trace.instrumentation.jms.JMSDecorator.MESSAGE_PRODUCER_CALL_DEPTH;
 import static datadog.trace.instrumentation.jms.JMSDecorator.PRODUCER_DECORATE;
 import static datadog.trace.instrumentation.jms.MessageInjectAdapter.SETTER;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
@@ -76,7 +77,7 @@ public final class JMSMessageProducerInstrumentation extends Instrumenter.Defaul
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static AgentScope onEnter(
         @Advice.Argument(0) final Message message, @Advice.This final MessageProducer producer) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(MessageProducer.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(MESSAGE_PRODUCER_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -108,7 +109,7 @@ public final class JMSMessageProducerInstrumentation extends Instrumenter.Defaul
       PRODUCER_DECORATE.beforeFinish(scope);
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(MessageProducer.class);
+      CallDepthThreadLocalMap.reset(MESSAGE_PRODUCER_CALL_DEPTH);
     }
   }
 
@@ -119,7 +120,7 @@ public final class JMSMessageProducerInstrumentation extends Instrumenter.Defaul
         @Advice.Argument(0) final Destination destination,
         @Advice.Argument(1) final Message message,
         @Advice.This final MessageProducer producer) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(MessageProducer.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(MESSAGE_PRODUCER_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -144,7 +145,7 @@ public final class JMSMessageProducerInstrumentation extends Instrumenter.Defaul
       PRODUCER_DECORATE.beforeFinish(scope);
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(MessageProducer.class);
+      CallDepthThreadLocalMap.reset(MESSAGE_PRODUCER_CALL_DEPTH);
     }
   }
 }
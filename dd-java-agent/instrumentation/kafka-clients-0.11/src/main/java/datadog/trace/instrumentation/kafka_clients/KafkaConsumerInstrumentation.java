@@ -20,6 +20,7 @@ import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 
 @AutoService(Instrumenter.class)
 public final class KafkaConsumerInstrumentation extends Instrumenter.Default {
@@ -40,6 +41,7 @@ public final class KafkaConsumerInstrumentation extends Instrumenter.Default {
       packageName + ".TextMapExtractAdapter",
       packageName + ".TracingIterable",
       packageName + ".TracingIterator",
+      packageName + ".TracingBatchIterator",
       packageName + ".TracingList",
       packageName + ".Base64Decoder"
     };
@@ -77,7 +79,7 @@ public final class KafkaConsumerInstrumentation extends Instrumenter.Default {
     @Advice.OnMethodExit(suppress = Throwable.class)
     public static void wrap(@Advice.Return(readOnly = false) Iterable<ConsumerRecord> iterable) {
       if (iterable != null) {
-        iterable = new TracingIterable(iterable, KAFKA_CONSUME, CONSUMER_DECORATE);
+        iterable = new TracingIterable(iterable, KAFKA_CONSUME, CONSUMER_DECORATE, 0);
       }
     }
   }
@@ -95,9 +97,11 @@ public final class KafkaConsumerInstrumentation extends Instrumenter.Default {
   public static class IteratorAdvice {
 
     @Advice.OnMethodExit(suppress = Throwable.class)
-    public static void wrap(@Advice.Return(readOnly = false) Iterator<ConsumerRecord> iterator) {
+    public static void wrap(
+        @Advice.This final ConsumerRecords records,
+        @Advice.Return(readOnly = false) Iterator<ConsumerRecord> iterator) {
       if (iterator != null) {
-        iterator = new TracingIterator(iterator, KAFKA_CONSUME, CONSUMER_DECORATE);
+        iterator = TracingIterator.wrap(iterator, KAFKA_CONSUME, CONSUMER_DECORATE, records);
       }
     }
   }
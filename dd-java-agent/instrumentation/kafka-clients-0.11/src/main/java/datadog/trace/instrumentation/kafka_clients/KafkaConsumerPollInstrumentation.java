@@ -0,0 +1,57 @@
+package datadog.trace.instrumentation.kafka_clients;
+
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedOneOf;
+import static java.util.Collections.singletonMap;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
+import static net.bytebuddy.matcher.ElementMatchers.isPublic;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+import com.google.auto.service.AutoService;
+import datadog.trace.agent.tooling.Instrumenter;
+import java.util.Map;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+/**
+ * Finishes the batch span left open by a partial iteration of the previous records, before the
+ * consumer polls for more records or is closed.
+ */
+@AutoService(Instrumenter.class)
+public final class KafkaConsumerPollInstrumentation extends Instrumenter.Default {
+
+  public KafkaConsumerPollInstrumentation() {
+    super("kafka");
+  }
+
+  @Override
+  public ElementMatcher<TypeDescription> typeMatcher() {
+    return named("org.apache.kafka.clients.consumer.KafkaConsumer");
+  }
+
+  @Override
+  public String[] helperClassNames() {
+    return new String[] {
+      packageName + ".KafkaDecorator",
+      packageName + ".TextMapExtractAdapter",
+      packageName + ".TracingBatchIterator",
+      packageName + ".Base64Decoder"
+    };
+  }
+
+  @Override
+  public Map<? extends ElementMatcher<? super MethodDescription>, String> transformers() {
+    return singletonMap(
+        isMethod().and(isPublic()).and(namedOneOf("poll", "close")),
+        KafkaConsumerPollInstrumentation.class.getName() + "$FinishOpenBatchAdvice");
+  }
+
+  public static class FinishOpenBatchAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class)
+    public static void finishOpenBatch() {
+      TracingBatchIterator.finishOpenBatch();
+    }
+  }
+}
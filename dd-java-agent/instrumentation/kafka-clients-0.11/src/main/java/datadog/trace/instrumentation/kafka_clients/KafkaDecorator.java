@@ -8,6 +8,7 @@ import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.RE
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+import datadog.trace.api.Config;
 import datadog.trace.api.DDSpanTypes;
 import datadog.trace.api.DDTags;
 import datadog.trace.api.Functions;
@@ -92,6 +93,13 @@ public class KafkaDecorator extends ClientDecorator {
     }
   }
 
+  public void onConsumeBatch(final AgentSpan span, final ConsumerRecord first) {
+    final String topic = first.topic() == null ? "kafka" : first.topic();
+    span.setTag(
+        DDTags.RESOURCE_NAME, CONSUMER_RESOURCE_NAME_CACHE.computeIfAbsent(topic, CONSUMER_PREFIX));
+    span.setTag(InstrumentationTags.DD_MEASURED, true);
+  }
+
   public void finishConsumerSpan(final AgentSpan span) {
     if (endToEndDurationsEnabled) {
       long now = System.currentTimeMillis();
@@ -112,6 +120,19 @@ public class KafkaDecorator extends ClientDecorator {
     }
   }
 
+  /**
+   * @return {@literal false} if the span belongs to a trace the sampler dropped and the propagation
+   *     of such traces is disabled
+   */
+  public boolean shouldPropagate(final AgentSpan span) {
+    if (!Config.get().isKafkaClientPropagationSkipUnsampled()) {
+      return true;
+    }
+    // the sampling decision is made by the first injection of the trace
+    final Integer samplingPriority = span.getSamplingPriority();
+    return samplingPriority == null || samplingPriority > 0;
+  }
+
   public void onProduce(final AgentSpan span, final ProducerRecord record) {
     if (record != null) {
       if (record.partition() != null) {
@@ -47,6 +47,7 @@ public final class KafkaProducerInstrumentation extends Instrumenter.Default {
     return new String[] {
       packageName + ".KafkaDecorator",
       packageName + ".TextMapInjectAdapter",
+      packageName + ".TextMapInjectAdapter$1",
       KafkaProducerInstrumentation.class.getName() + "$ProducerCallback"
     };
   }
@@ -87,8 +88,10 @@ public final class KafkaProducerInstrumentation extends Instrumenter.Default {
       // This can help in mixed client environments where clients < 0.11 that do not support
       // headers attempt to read messages that were produced by clients > 0.11 and the magic
       // value of the broker(s) is >= 2
+      // Traces dropped by the sampler may be skipped too, when configured to
       if (apiVersions.maxUsableProduceMagic() >= RecordBatch.MAGIC_VALUE_V2
-          && Config.get().isKafkaClientPropagationEnabled()) {
+          && Config.get().isKafkaClientPropagationEnabled()
+          && PRODUCER_DECORATE.shouldPropagate(span)) {
         try {
           propagate().inject(span, record.headers(), SETTER);
         } catch (final IllegalStateException e) {
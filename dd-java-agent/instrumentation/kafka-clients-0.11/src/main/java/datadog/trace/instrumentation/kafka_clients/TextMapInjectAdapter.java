@@ -1,5 +1,8 @@
 package datadog.trace.instrumentation.kafka_clients;
 
+import datadog.trace.api.Function;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
 import java.nio.charset.StandardCharsets;
 import org.apache.kafka.common.header.Headers;
@@ -8,8 +11,29 @@ public class TextMapInjectAdapter implements AgentPropagation.Setter<Headers> {
 
   public static final TextMapInjectAdapter SETTER = new TextMapInjectAdapter();
 
+  private static final String SAMPLING_PRIORITY_KEY = "x-datadog-sampling-priority";
+  private static final String ORIGIN_KEY = "x-datadog-origin";
+
+  // Sampling priorities and origins only take a handful of values, so their encoded bytes are
+  // shared between records. Kafka only reads header values. Trace and span ids are different for
+  // almost every record and are encoded directly.
+  private static final DDCache<String, byte[]> ENCODED_VALUES = DDCaches.newFixedSizeCache(16);
+  private static final Function<String, byte[]> ENCODE =
+      new Function<String, byte[]>() {
+        @Override
+        public byte[] apply(final String value) {
+          return value.getBytes(StandardCharsets.UTF_8);
+        }
+      };
+
   @Override
   public void set(final Headers headers, final String key, final String value) {
-    headers.remove(key).add(key, value.getBytes(StandardCharsets.UTF_8));
+    final byte[] encoded;
+    if (SAMPLING_PRIORITY_KEY.equals(key) || ORIGIN_KEY.equals(key)) {
+      encoded = ENCODED_VALUES.computeIfAbsent(value, ENCODE);
+    } else {
+      encoded = value.getBytes(StandardCharsets.UTF_8);
+    }
+    headers.remove(key).add(key, encoded);
   }
 }
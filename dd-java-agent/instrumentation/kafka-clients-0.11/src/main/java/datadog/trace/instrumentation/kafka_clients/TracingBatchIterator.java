@@ -0,0 +1,131 @@
+package datadog.trace.instrumentation.kafka_clients;
+
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan;
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
+import static datadog.trace.instrumentation.kafka_clients.TextMapExtractAdapter.GETTER;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan.Context;
+import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
+import java.util.Iterator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.record.TimestampType;
+
+/**
+ * Traces the iteration of a batch of records with a single span, instead of a span per record. The
+ * span continues the trace of the first record, is active while the records are processed and
+ * finishes once the iteration is done. It is tagged with the number of records, the number of
+ * partitions when known and the longest queue time of the batch.
+ *
+ * <p>When the records are not iterated to the end, because the loop breaks early or throws, the
+ * batch is finished by the next batch started on the same thread, or when the consumer polls again
+ * or is closed.
+ */
+@Slf4j
+public class TracingBatchIterator implements Iterator<ConsumerRecord> {
+  private static final ThreadLocal<TracingBatchIterator> OPEN_BATCH = new ThreadLocal<>();
+
+  private final Iterator<ConsumerRecord> delegateIterator;
+  private final CharSequence operationName;
+  private final KafkaDecorator decorator;
+  private final int partitionCount;
+
+  /**
+   * Note: this may potentially create problems if this iterator is used from different threads. But
+   * at the moment we cannot do much about this.
+   */
+  private AgentScope currentScope;
+
+  private int recordCount;
+  private long consumeTime;
+  private long maxQueueTime = -1;
+
+  public TracingBatchIterator(
+      final Iterator<ConsumerRecord> delegateIterator,
+      final CharSequence operationName,
+      final KafkaDecorator decorator,
+      final int partitionCount) {
+    this.delegateIterator = delegateIterator;
+    this.operationName = operationName;
+    this.decorator = decorator;
+    this.partitionCount = partitionCount;
+  }
+
+  /** Finishes the batch still open on the current thread, if any. */
+  public static void finishOpenBatch() {
+    final TracingBatchIterator open = OPEN_BATCH.get();
+    if (open != null) {
+      open.finish();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    final boolean hasNext = delegateIterator.hasNext();
+    if (!hasNext && currentScope != null) {
+      finish();
+    }
+    return hasNext;
+  }
+
+  @Override
+  public ConsumerRecord next() {
+    final ConsumerRecord next = delegateIterator.next();
+
+    try {
+      if (next != null) {
+        if (currentScope == null) {
+          start(next);
+        }
+        recordCount++;
+        if (next.timestampType() != TimestampType.NO_TIMESTAMP_TYPE) {
+          maxQueueTime = Math.max(maxQueueTime, consumeTime - next.timestamp());
+        }
+      }
+    } catch (final Exception e) {
+      log.debug("Error during decoration", e);
+    }
+    return next;
+  }
+
+  private void start(final ConsumerRecord first) {
+    finishOpenBatch();
+    final Context spanContext = propagate().extract(first.headers(), GETTER);
+    final AgentSpan span = startSpan(operationName, spanContext);
+    decorator.afterStart(span);
+    decorator.onConsumeBatch(span, first);
+    consumeTime = NANOSECONDS.toMillis(span.getStartTime());
+    currentScope = activateSpan(span);
+    currentScope.setAsyncPropagation(true);
+    OPEN_BATCH.set(this);
+  }
+
+  private void finish() {
+    if (OPEN_BATCH.get() == this) {
+      OPEN_BATCH.remove();
+    }
+    if (currentScope == null) {
+      return;
+    }
+    final AgentSpan span = currentScope.span();
+    span.setTag(InstrumentationTags.RECORD_COUNT, recordCount);
+    if (partitionCount > 0) {
+      span.setTag(InstrumentationTags.PARTITION_COUNT, partitionCount);
+    }
+    if (maxQueueTime >= 0) {
+      span.setTag(InstrumentationTags.RECORD_QUEUE_TIME_MS, maxQueueTime);
+    }
+    currentScope.close();
+    decorator.finishConsumerSpan(span);
+    currentScope = null;
+  }
+
+  @Override
+  public void remove() {
+    delegateIterator.remove();
+  }
+}
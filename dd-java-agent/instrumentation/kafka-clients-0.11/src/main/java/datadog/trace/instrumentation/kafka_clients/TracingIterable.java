@@ -7,15 +7,18 @@ public class TracingIterable implements Iterable<ConsumerRecord> {
   private final Iterable<ConsumerRecord> delegate;
   private final CharSequence operationName;
   private final KafkaDecorator decorator;
+  private final int partitionCount;
   private boolean firstIterator = true;
 
   public TracingIterable(
       final Iterable<ConsumerRecord> delegate,
       final CharSequence operationName,
-      final KafkaDecorator decorator) {
+      final KafkaDecorator decorator,
+      final int partitionCount) {
     this.delegate = delegate;
     this.operationName = operationName;
     this.decorator = decorator;
+    this.partitionCount = partitionCount;
   }
 
   @Override
@@ -25,7 +28,7 @@ public class TracingIterable implements Iterable<ConsumerRecord> {
     // However, this is not thread-safe, but usually the first (hopefully only) traversal of
     // ConsumerRecords is performed in the same thread that called poll()
     if (firstIterator) {
-      it = new TracingIterator(delegate.iterator(), operationName, decorator);
+      it = TracingIterator.wrap(delegate.iterator(), operationName, decorator, partitionCount);
       firstIterator = false;
     } else {
       it = delegate.iterator();
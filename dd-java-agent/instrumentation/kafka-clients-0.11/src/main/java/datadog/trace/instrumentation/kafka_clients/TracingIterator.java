@@ -5,6 +5,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.kafka_clients.TextMapExtractAdapter.GETTER;
 
+import datadog.trace.api.Config;
 import datadog.trace.bootstrap.instrumentation.api.AgentScope;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan.Context;
@@ -12,6 +13,7 @@ import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
 import java.util.Iterator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 
 @Slf4j
 public class TracingIterator implements Iterator<ConsumerRecord> {
@@ -34,6 +36,37 @@ public class TracingIterator implements Iterator<ConsumerRecord> {
     this.decorator = decorator;
   }
 
+  /**
+   * @param partitionCount the number of partitions of the records, {@literal 0} if unknown
+   * @return an iterator tracing each record or, when batch tracing is enabled, all of them at once
+   */
+  public static Iterator<ConsumerRecord> wrap(
+      final Iterator<ConsumerRecord> delegateIterator,
+      final CharSequence operationName,
+      final KafkaDecorator decorator,
+      final int partitionCount) {
+    if (Config.get().isKafkaClientBatchTracingEnabled()) {
+      return new TracingBatchIterator(delegateIterator, operationName, decorator, partitionCount);
+    }
+    return new TracingIterator(delegateIterator, operationName, decorator);
+  }
+
+  /**
+   * Like {@link #wrap(Iterator, CharSequence, KafkaDecorator, int)}, only counting the partitions
+   * of the records when tracing them in a batch.
+   */
+  public static Iterator<ConsumerRecord> wrap(
+      final Iterator<ConsumerRecord> delegateIterator,
+      final CharSequence operationName,
+      final KafkaDecorator decorator,
+      final ConsumerRecords records) {
+    if (Config.get().isKafkaClientBatchTracingEnabled()) {
+      return new TracingBatchIterator(
+          delegateIterator, operationName, decorator, records.partitions().size());
+    }
+    return new TracingIterator(delegateIterator, operationName, decorator);
+  }
+
   @Override
   public boolean hasNext() {
     if (currentScope != null) {
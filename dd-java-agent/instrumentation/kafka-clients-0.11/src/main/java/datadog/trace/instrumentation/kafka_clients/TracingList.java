@@ -12,7 +12,8 @@ public class TracingList extends TracingIterable implements List<ConsumerRecord>
       final List<ConsumerRecord> delegate,
       final CharSequence operationName,
       final KafkaDecorator decorator) {
-    super(delegate, operationName, decorator);
+    // the records of a single partition
+    super(delegate, operationName, decorator, 1);
     this.delegate = delegate;
   }
 
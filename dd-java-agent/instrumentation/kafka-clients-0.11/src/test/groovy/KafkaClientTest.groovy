@@ -1,5 +1,6 @@
 import datadog.trace.agent.test.AgentTestRunner
 import datadog.trace.api.Config
+import datadog.trace.api.sampling.PrioritySampling
 import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags
 import datadog.trace.bootstrap.instrumentation.api.Tags
 import org.apache.kafka.clients.consumer.ConsumerConfig
@@ -30,6 +31,7 @@ import static datadog.trace.agent.test.utils.TraceUtils.basicSpan
 import static datadog.trace.agent.test.utils.TraceUtils.runUnderTrace
 import static datadog.trace.api.ConfigDefaults.DEFAULT_KAFKA_CLIENT_PROPAGATION_ENABLED
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeScope
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeSpan
 
 class KafkaClientTest extends AgentTestRunner {
   static {
@@ -440,6 +442,199 @@ class KafkaClientTest extends AgentTestRunner {
 
   }
 
+  def "test batch tracing kafka consume"() {
+    setup:
+    def kafkaPartition = 0
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
+    def consumer = new KafkaConsumer<String, String>(consumerProperties)
+
+    def senderProps = KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString())
+    def producer = new KafkaProducer(senderProps)
+
+    consumer.assign(Arrays.asList(new TopicPartition(SHARED_TOPIC, kafkaPartition)))
+
+    when:
+    producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, "first"))
+    producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, "second"))
+    producer.flush()
+    TEST_WRITER.waitForTraces(2)
+    def pollResult = KafkaTestUtils.getRecords(consumer)
+    def values = []
+    withConfigOverride(Config.KAFKA_CLIENT_BATCH_TRACING_ENABLED, "true") {
+      for (ConsumerRecord record : pollResult) {
+        assert activeScope() != null
+        values.add(record.value())
+      }
+    }
+
+    then:
+    values == ["first", "second"]
+    activeScope() == null
+
+    assertTraces(3) {
+      trace(1) {
+        // PRODUCER span 0
+        span {
+          serviceName "kafka"
+          operationName "kafka.produce"
+          resourceName "Produce Topic $SHARED_TOPIC"
+          spanType "queue"
+          errored false
+          parent()
+          tags {
+            "$Tags.COMPONENT" "java-kafka"
+            "$Tags.SPAN_KIND" Tags.SPAN_KIND_PRODUCER
+            "$InstrumentationTags.PARTITION" { it >= 0 }
+            defaultTags(true)
+          }
+        }
+      }
+      trace(1) {
+        // PRODUCER span 0
+        span {
+          serviceName "kafka"
+          operationName "kafka.produce"
+          resourceName "Produce Topic $SHARED_TOPIC"
+          spanType "queue"
+          errored false
+          parent()
+          tags {
+            "$Tags.COMPONENT" "java-kafka"
+            "$Tags.SPAN_KIND" Tags.SPAN_KIND_PRODUCER
+            "$InstrumentationTags.PARTITION" { it >= 0 }
+            defaultTags(true)
+          }
+        }
+      }
+      trace(1) {
+        // CONSUMER span 0, the whole batch
+        span {
+          serviceName "kafka"
+          operationName "kafka.consume"
+          resourceName "Consume Topic $SHARED_TOPIC"
+          spanType "queue"
+          errored false
+          childOf trace(0)[0]
+          tags {
+            "$Tags.COMPONENT" "java-kafka"
+            "$Tags.SPAN_KIND" Tags.SPAN_KIND_CONSUMER
+            "$InstrumentationTags.RECORD_COUNT" 2
+            "$InstrumentationTags.PARTITION_COUNT" 1
+            "$InstrumentationTags.RECORD_QUEUE_TIME_MS" { it >= 0 }
+            if (expectE2EDuration) {
+              "$InstrumentationTags.RECORD_END_TO_END_DURATION_MS" { it >= 0 }
+            }
+            defaultTags(true)
+          }
+        }
+      }
+    }
+
+    cleanup:
+    consumer.close()
+    producer.close()
+  }
+
+  def "test batch span is finished by the next poll after a partial iteration"() {
+    setup:
+    def kafkaPartition = 0
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
+    def consumer = new KafkaConsumer<String, String>(consumerProperties)
+
+    def senderProps = KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString())
+    def producer = new KafkaProducer(senderProps)
+
+    consumer.assign(Arrays.asList(new TopicPartition(SHARED_TOPIC, kafkaPartition)))
+
+    when:
+    producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, "first"))
+    producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, "second"))
+    producer.flush()
+    TEST_WRITER.waitForTraces(2)
+    def pollResult = KafkaTestUtils.getRecords(consumer)
+    def values = []
+    withConfigOverride(Config.KAFKA_CLIENT_BATCH_TRACING_ENABLED, "true") {
+      for (ConsumerRecord record : pollResult) {
+        values.add(record.value())
+        break
+      }
+    }
+
+    then:
+    values == ["first"]
+    activeScope() != null
+
+    when:
+    consumer.poll(0)
+
+    then:
+    activeScope() == null
+    assertTraces(3) {
+      trace(1) {
+        // PRODUCER span 0
+        span {
+          serviceName "kafka"
+          operationName "kafka.produce"
+          resourceName "Produce Topic $SHARED_TOPIC"
+          spanType "queue"
+          errored false
+          parent()
+          tags {
+            "$Tags.COMPONENT" "java-kafka"
+            "$Tags.SPAN_KIND" Tags.SPAN_KIND_PRODUCER
+            "$InstrumentationTags.PARTITION" { it >= 0 }
+            defaultTags(true)
+          }
+        }
+      }
+      trace(1) {
+        // PRODUCER span 0
+        span {
+          serviceName "kafka"
+          operationName "kafka.produce"
+          resourceName "Produce Topic $SHARED_TOPIC"
+          spanType "queue"
+          errored false
+          parent()
+          tags {
+            "$Tags.COMPONENT" "java-kafka"
+            "$Tags.SPAN_KIND" Tags.SPAN_KIND_PRODUCER
+            "$InstrumentationTags.PARTITION" { it >= 0 }
+            defaultTags(true)
+          }
+        }
+      }
+      trace(1) {
+        // CONSUMER span 0, the part of the batch that was iterated
+        span {
+          serviceName "kafka"
+          operationName "kafka.consume"
+          resourceName "Consume Topic $SHARED_TOPIC"
+          spanType "queue"
+          errored false
+          childOf trace(0)[0]
+          tags {
+            "$Tags.COMPONENT" "java-kafka"
+            "$Tags.SPAN_KIND" Tags.SPAN_KIND_CONSUMER
+            "$InstrumentationTags.RECORD_COUNT" 1
+            "$InstrumentationTags.PARTITION_COUNT" 1
+            "$InstrumentationTags.RECORD_QUEUE_TIME_MS" { it >= 0 }
+            if (expectE2EDuration) {
+              "$InstrumentationTags.RECORD_END_TO_END_DURATION_MS" { it >= 0 }
+            }
+            defaultTags(true)
+          }
+        }
+      }
+    }
+
+    cleanup:
+    consumer.close()
+    producer.close()
+  }
+
   @Unroll
   def "test kafka client header propagation manual config"() {
     setup:
@@ -502,6 +697,47 @@ class KafkaClientTest extends AgentTestRunner {
   }
 
 
+  def "test kafka client skips propagation of dropped traces #skip"() {
+    setup:
+    def senderProps = KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString())
+    def producerFactory = new DefaultKafkaProducerFactory<String, String>(senderProps)
+    def kafkaTemplate = new KafkaTemplate<String, String>(producerFactory)
+
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    def consumerFactory = new DefaultKafkaConsumerFactory<String, String>(consumerProperties)
+    def container = new KafkaMessageListenerContainer<>(consumerFactory, containerProperties())
+    def records = new LinkedBlockingQueue<ConsumerRecord<String, String>>()
+    container.setupMessageListener(new MessageListener<String, String>() {
+      @Override
+      void onMessage(ConsumerRecord<String, String> record) {
+        records.add(record)
+      }
+    })
+    container.start()
+    ContainerTestUtils.waitForAssignment(container, embeddedKafka.getPartitionsPerTopic())
+
+    when:
+    withConfigOverride(Config.KAFKA_CLIENT_PROPAGATION_SKIP_UNSAMPLED, skip) {
+      runUnderTrace("parent") {
+        activeSpan().setSamplingPriority(PrioritySampling.USER_DROP)
+        kafkaTemplate.send(SHARED_TOPIC, "Testing dropped trace")
+      }
+    }
+
+    then:
+    def received = records.poll(5, TimeUnit.SECONDS)
+    received.headers().iterator().hasNext() == expected
+
+    cleanup:
+    producerFactory.stop()
+    container?.stop()
+
+    where:
+    skip    | expected
+    "true"  | false
+    "false" | true
+  }
+
   def containerProperties() {
     try {
       // Different class names for test and latestDepTest.
@@ -0,0 +1,84 @@
+package datadog.trace.instrumentation.log4j27;
+
+import static datadog.trace.agent.tooling.ClassLoaderMatcher.hasClassesNamed;
+import static datadog.trace.agent.tooling.bytebuddy.matcher.DDElementMatchers.implementsInterface;
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeSpan;
+import static java.util.Collections.singletonMap;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+import com.google.auto.service.AutoService;
+import datadog.trace.agent.tooling.Instrumenter;
+import datadog.trace.api.Config;
+import datadog.trace.api.CorrelationIdentifier;
+import java.util.Map;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
+import org.apache.logging.log4j.util.StringMap;
+
+/**
+ * Adds the trace and span ids of the active span to the context data of log4j log events when lazy
+ * log injection is enabled, instead of keeping them in the ThreadContext.
+ */
+@AutoService(Instrumenter.class)
+public class ContextDataInjectorInstrumentation extends Instrumenter.Default {
+
+  public ContextDataInjectorInstrumentation() {
+    super("log4j");
+  }
+
+  @Override
+  protected boolean defaultEnabled() {
+    return Config.get().isLogsInjectionEnabled();
+  }
+
+  @Override
+  public ElementMatcher<ClassLoader> classLoaderMatcher() {
+    return hasClassesNamed("org.apache.logging.log4j.core.ContextDataInjector");
+  }
+
+  @Override
+  public ElementMatcher<? super TypeDescription> typeMatcher() {
+    return implementsInterface(named("org.apache.logging.log4j.core.ContextDataInjector"));
+  }
+
+  @Override
+  public Map<? extends ElementMatcher<? super MethodDescription>, String> transformers() {
+    return singletonMap(
+        isMethod().and(named("injectContextData")).and(takesArguments(2)),
+        ContextDataInjectorInstrumentation.class.getName() + "$InjectContextDataAdvice");
+  }
+
+  public static class InjectContextDataAdvice {
+    @Advice.OnMethodExit(suppress = Throwable.class)
+    public static void onExit(
+        @Advice.Argument(1) final StringMap reusable,
+        @Advice.Return(readOnly = false) StringMap contextData) {
+      if (!Config.get().isLogsInjectionLazy() || null == activeSpan()) {
+        return;
+      }
+      if (null == contextData || contextData != reusable || contextData.isFrozen()) {
+        // the context data may be the thread's own copy or a map frozen by an earlier event, so the
+        // ids are added to the reusable map of the event when possible, otherwise to a new map
+        final StringMap copy;
+        if (null == reusable || reusable == contextData || reusable.isFrozen()) {
+          copy = ContextDataFactory.createContextData();
+        } else {
+          copy = reusable;
+          copy.clear();
+        }
+        if (null != contextData) {
+          copy.putAll(contextData);
+        }
+        contextData = copy;
+      }
+      contextData.putValue(
+          CorrelationIdentifier.getTraceIdKey(), CorrelationIdentifier.getTraceId());
+      contextData.putValue(CorrelationIdentifier.getSpanIdKey(), CorrelationIdentifier.getSpanId());
+    }
+  }
+}
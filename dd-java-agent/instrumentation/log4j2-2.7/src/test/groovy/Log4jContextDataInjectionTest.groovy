@@ -0,0 +1,149 @@
+import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.agent.test.utils.ConfigUtils
+import datadog.trace.api.CorrelationIdentifier
+import datadog.trace.bootstrap.instrumentation.api.AgentScope
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan
+import org.apache.logging.log4j.Level
+import org.apache.logging.log4j.LogManager
+import org.apache.logging.log4j.ThreadContext
+import org.apache.logging.log4j.core.LogEvent
+import org.apache.logging.log4j.core.LoggerContext
+import org.apache.logging.log4j.core.appender.AbstractAppender
+import org.apache.logging.log4j.core.config.LoggerConfig
+import org.apache.logging.log4j.core.impl.ContextDataFactory
+import org.apache.logging.log4j.core.impl.ContextDataInjectorFactory
+import org.apache.logging.log4j.core.impl.ReusableLogEventFactory
+
+import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
+import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_INJECTION_LAZY
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan
+
+class Log4jContextDataInjectionTest extends AgentTestRunner {
+
+  static {
+    ConfigUtils.updateConfig {
+      System.setProperty("dd.logs.injection", "true")
+    }
+  }
+
+  def cleanup() {
+    ThreadContext.clearAll()
+  }
+
+  def "log events get the ids of the active span with lazy injection"() {
+    when:
+    Map<String, String> logged = withConfigOverride(LOGS_INJECTION_LAZY, "true") {
+      ThreadContext.put("foo", "bar")
+      AgentSpan span = startSpan("test")
+      AgentScope scope = activateSpan(span)
+      try {
+        return [
+          threadContextTraceId: ThreadContext.get(CorrelationIdentifier.getTraceIdKey()),
+          traceId             : CorrelationIdentifier.getTraceId(),
+          spanId              : CorrelationIdentifier.getSpanId(),
+          eventTraceId        : injectContextData().getValue(CorrelationIdentifier.getTraceIdKey()),
+          eventSpanId         : injectContextData().getValue(CorrelationIdentifier.getSpanIdKey()),
+          eventFoo            : injectContextData().getValue("foo")
+        ]
+      } finally {
+        scope.close()
+        span.finish()
+      }
+    }
+
+    then:
+    logged.threadContextTraceId == null
+    logged.eventTraceId == logged.traceId
+    logged.eventSpanId == logged.spanId
+    logged.eventFoo == "bar"
+    ThreadContext.get("foo") == "bar"
+  }
+
+  def "log events don't get ids without an active span"() {
+    when:
+    def contextData = withConfigOverride(LOGS_INJECTION_LAZY, "true") {
+      injectContextData()
+    }
+
+    then:
+    contextData.getValue(CorrelationIdentifier.getTraceIdKey()) == null
+    contextData.getValue(CorrelationIdentifier.getSpanIdKey()) == null
+  }
+
+  def "log events get the ids from the thread context without lazy injection"() {
+    when:
+    AgentSpan span = startSpan("test")
+    AgentScope scope = activateSpan(span)
+    def threadContextTraceId = ThreadContext.get(CorrelationIdentifier.getTraceIdKey())
+    def eventTraceId = injectContextData().getValue(CorrelationIdentifier.getTraceIdKey())
+    def traceId = CorrelationIdentifier.getTraceId()
+    scope.close()
+    span.finish()
+
+    then:
+    threadContextTraceId == traceId
+    eventTraceId == traceId
+  }
+
+  def "reused log events get the ids of the active span after an event without span"() {
+    setup:
+    def appender = new RecordingAppender()
+    appender.start()
+    LoggerContext context = (LoggerContext) LogManager.getContext(false)
+    def loggerConfig = new LoggerConfig("reusable", Level.INFO, false)
+    loggerConfig.addAppender(appender, null, null)
+    loggerConfig.setLogEventFactory(new ReusableLogEventFactory())
+    context.configuration.addLogger("reusable", loggerConfig)
+    context.updateLoggers()
+    def logger = context.getLogger("reusable")
+
+    when:
+    String traceId = null
+    String spanId = null
+    withConfigOverride(LOGS_INJECTION_LAZY, "true") {
+      ThreadContext.put("foo", "bar")
+      logger.info("without span")
+      AgentSpan span = startSpan("test")
+      AgentScope scope = activateSpan(span)
+      try {
+        traceId = CorrelationIdentifier.getTraceId()
+        spanId = CorrelationIdentifier.getSpanId()
+        logger.info("with span")
+      } finally {
+        scope.close()
+        span.finish()
+      }
+      logger.info("after span")
+    }
+
+    then:
+    appender.contextData.size() == 3
+    appender.contextData[0] == [foo: "bar"]
+    appender.contextData[1] == [foo: "bar", (CorrelationIdentifier.getTraceIdKey()): traceId, (CorrelationIdentifier.getSpanIdKey()): spanId]
+    appender.contextData[2] == [foo: "bar"]
+
+    cleanup:
+    context.configuration.removeLogger("reusable")
+    context.updateLoggers()
+    appender.stop()
+  }
+
+  def injectContextData() {
+    return ContextDataInjectorFactory.createInjector().injectContextData(null, ContextDataFactory.createContextData())
+  }
+}
+
+class RecordingAppender extends AbstractAppender {
+  final List<Map<String, String>> contextData = []
+
+  RecordingAppender() {
+    super("recording", null, null)
+  }
+
+  @Override
+  void append(LogEvent event) {
+    // reusable events are cleared once appended, so the context data is copied
+    contextData.add(event.contextData.toMap())
+  }
+}
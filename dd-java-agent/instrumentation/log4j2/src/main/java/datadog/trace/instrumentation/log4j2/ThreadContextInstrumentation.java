@@ -60,7 +60,14 @@ public class ThreadContextInstrumentation extends Instrumenter.Default {
       try {
         final Method putMethod = threadContextClass.getMethod("put", String.class, String.class);
         final Method removeMethod = threadContextClass.getMethod("remove", String.class);
-        GlobalTracer.get().addScopeListener(new LogContextScopeListener(putMethod, removeMethod));
+        // log4j-core 2.7+ log events get the ids from the active span when they are created
+        final boolean injectedInLogEvents =
+            LogContextScopeListener.isClassPresent(
+                "org.apache.logging.log4j.core.ContextDataInjector",
+                threadContextClass.getClassLoader());
+        GlobalTracer.get()
+            .addScopeListener(
+                new LogContextScopeListener(putMethod, removeMethod, injectedInLogEvents));
 
         if (Config.get().isLogsMDCTagsInjectionEnabled()) {
           final Field contextMapField = threadContextClass.getDeclaredField("contextMap");
@@ -20,39 +20,42 @@ public class HttpServerRequestTracingHandler extends ChannelInboundHandlerAdapte
 
   @Override
   public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-
-    if (!(msg instanceof HttpRequest)) {
-      final AgentSpan span = ctx.channel().attr(AttributeKeys.SERVER_ATTRIBUTE_KEY).get();
-      if (span == null) {
-        ctx.fireChannelRead(msg); // superclass does not throw
-      } else {
-        try (final AgentScope scope = activateSpan(span)) {
-          scope.setAsyncPropagation(true);
-          ctx.fireChannelRead(msg); // superclass does not throw
-        }
-      }
-      return;
+    if (msg instanceof HttpRequest) {
+      fireRequest(ctx, msg, startRequestSpan(ctx, (HttpRequest) msg));
+    } else {
+      fireContent(ctx, msg, ctx.channel().attr(AttributeKeys.SERVER_ATTRIBUTE_KEY).get());
     }
+  }
 
-    final HttpRequest request = (HttpRequest) msg;
-
+  /**
+   * Starts and activates the span of the request. The span is also stored in the channel's {@link
+   * AttributeKeys#SERVER_ATTRIBUTE_KEY} attribute for other integrations.
+   */
+  static AgentScope startRequestSpan(final ChannelHandlerContext ctx, final HttpRequest request) {
     final Context context =
         propagate().extract(request.headers(), ContextVisitors.stringValuesEntrySet());
 
     final AgentSpan span = startSpan(NETTY_REQUEST, context);
     span.setTag(InstrumentationTags.DD_MEASURED, true);
-    try (final AgentScope scope = activateSpan(span)) {
-      DECORATE.afterStart(span);
-      DECORATE.onConnection(span, ctx.channel());
-      DECORATE.onRequest(span, request);
+    DECORATE.afterStart(span);
+    DECORATE.onConnection(span, ctx.channel());
+    DECORATE.onRequest(span, request);
 
-      scope.setAsyncPropagation(true);
+    ctx.channel().attr(AttributeKeys.SERVER_ATTRIBUTE_KEY).set(span);
 
-      ctx.channel().attr(AttributeKeys.SERVER_ATTRIBUTE_KEY).set(span);
+    final AgentScope scope = activateSpan(span);
+    scope.setAsyncPropagation(true);
+    return scope;
+  }
 
+  /** Fires the read of the request and closes the scope of its span */
+  static void fireRequest(
+      final ChannelHandlerContext ctx, final Object msg, final AgentScope requestScope) {
+    try (final AgentScope scope = requestScope) {
       try {
         ctx.fireChannelRead(msg);
       } catch (final Throwable throwable) {
+        final AgentSpan span = scope.span();
         DECORATE.onError(span, throwable);
         DECORATE.beforeFinish(span);
         span.finish(); // Finish the span manually since finishSpanOnClose was false
@@ -60,4 +63,16 @@ public class HttpServerRequestTracingHandler extends ChannelInboundHandlerAdapte
       }
     }
   }
+
+  /** Fires the read of a message following the request in the scope of the request's span */
+  static void fireContent(final ChannelHandlerContext ctx, final Object msg, final AgentSpan span) {
+    if (span == null) {
+      ctx.fireChannelRead(msg); // superclass does not throw
+    } else {
+      try (final AgentScope scope = activateSpan(span)) {
+        scope.setAsyncPropagation(true);
+        ctx.fireChannelRead(msg); // superclass does not throw
+      }
+    }
+  }
 }
@@ -16,7 +16,15 @@ public class HttpServerResponseTracingHandler extends ChannelOutboundHandlerAdap
 
   @Override
   public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise prm) {
-    final AgentSpan span = ctx.channel().attr(AttributeKeys.SERVER_ATTRIBUTE_KEY).get();
+    write(ctx, msg, prm, ctx.channel().attr(AttributeKeys.SERVER_ATTRIBUTE_KEY).get());
+  }
+
+  /** Writes the message, finishing the request's span if it is the response */
+  static void write(
+      final ChannelHandlerContext ctx,
+      final Object msg,
+      final ChannelPromise prm,
+      final AgentSpan span) {
     if (span == null || !(msg instanceof HttpResponse)) {
       ctx.write(msg, prm);
       return;
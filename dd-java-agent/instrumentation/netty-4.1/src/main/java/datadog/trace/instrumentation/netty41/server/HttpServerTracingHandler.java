@@ -1,12 +1,36 @@
 package datadog.trace.instrumentation.netty41.server;
 
-import io.netty.channel.CombinedChannelDuplexHandler;
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpRequest;
 
-public class HttpServerTracingHandler
-    extends CombinedChannelDuplexHandler<
-        HttpServerRequestTracingHandler, HttpServerResponseTracingHandler> {
+/**
+ * Traces the requests of a {@link io.netty.handler.codec.http.HttpServerCodec} channel with a
+ * single handler. There is an instance per channel, so the span of the current request is kept in a
+ * field rather than looked up in the channel's attributes for every message.
+ */
+public class HttpServerTracingHandler extends ChannelDuplexHandler {
 
-  public HttpServerTracingHandler() {
-    super(new HttpServerRequestTracingHandler(), new HttpServerResponseTracingHandler());
+  // only accessed from the channel's event loop
+  private AgentSpan span;
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (msg instanceof HttpRequest) {
+      final AgentScope scope =
+          HttpServerRequestTracingHandler.startRequestSpan(ctx, (HttpRequest) msg);
+      span = scope.span();
+      HttpServerRequestTracingHandler.fireRequest(ctx, msg, scope);
+    } else {
+      HttpServerRequestTracingHandler.fireContent(ctx, msg, span);
+    }
+  }
+
+  @Override
+  public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise prm) {
+    HttpServerResponseTracingHandler.write(ctx, msg, prm, span);
   }
 }
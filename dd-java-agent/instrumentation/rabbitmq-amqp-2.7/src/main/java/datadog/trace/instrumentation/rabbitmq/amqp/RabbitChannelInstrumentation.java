@@ -9,6 +9,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.noopSpan;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.propagate;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.rabbitmq.amqp.RabbitDecorator.AMQP_COMMAND;
+import static datadog.trace.instrumentation.rabbitmq.amqp.RabbitDecorator.CHANNEL_CALL_DEPTH;
 import static datadog.trace.instrumentation.rabbitmq.amqp.RabbitDecorator.CONSUMER_DECORATE;
 import static datadog.trace.instrumentation.rabbitmq.amqp.RabbitDecorator.DECORATE;
 import static datadog.trace.instrumentation.rabbitmq.amqp.RabbitDecorator.PRODUCER_DECORATE;
@@ -114,7 +115,7 @@ public class RabbitChannelInstrumentation extends Instrumenter.Default {
     @Advice.OnMethodEnter
     public static AgentScope onEnter(
         @Advice.This final Channel channel, @Advice.Origin("Channel.#m") final String method) {
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(Channel.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(CHANNEL_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -141,7 +142,7 @@ public class RabbitChannelInstrumentation extends Instrumenter.Default {
       DECORATE.beforeFinish(scope);
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(Channel.class);
+      CallDepthThreadLocalMap.reset(CHANNEL_CALL_DEPTH);
     }
   }
 
@@ -200,7 +201,7 @@ public class RabbitChannelInstrumentation extends Instrumenter.Default {
         @Advice.Local("placeholderScope") AgentScope placeholderScope,
         @Advice.Local("callDepth") int callDepth) {
 
-      callDepth = CallDepthThreadLocalMap.incrementCallDepth(Channel.class);
+      callDepth = CallDepthThreadLocalMap.incrementCallDepth(CHANNEL_CALL_DEPTH);
       // Don't want RabbitCommandInstrumentation to mess up our actual parent span.
       placeholderScope = activateSpan(noopSpan());
       return System.currentTimeMillis();
@@ -262,7 +263,7 @@ public class RabbitChannelInstrumentation extends Instrumenter.Default {
         CONSUMER_DECORATE.beforeFinish(span);
       } finally {
         span.finish();
-        CallDepthThreadLocalMap.reset(Channel.class);
+        CallDepthThreadLocalMap.reset(CHANNEL_CALL_DEPTH);
       }
     }
   }
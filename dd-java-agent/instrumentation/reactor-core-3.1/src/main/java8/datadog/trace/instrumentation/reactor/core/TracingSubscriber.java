@@ -1,8 +1,10 @@
 package datadog.trace.instrumentation.reactor.core;
 
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan;
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpanLazily;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeScope;
 
+import datadog.trace.api.Config;
 import datadog.trace.bootstrap.instrumentation.api.AgentScope;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
@@ -18,6 +20,16 @@ import reactor.core.Fuseable;
 import reactor.core.Scannable;
 import reactor.util.context.Context;
 
+/**
+ * Activates the span of the downstream subscriber around the signals sent downstream and the span
+ * of the upstream publisher around the requests sent upstream. The upstream span is also put in the
+ * subscriber {@link Context}, from where the next {@link TracingSubscriber} upstream picks it up as
+ * its downstream span.
+ *
+ * <p>With lazy scope activation, the spans are only made active lazily around {@code onNext} and
+ * {@code request}, so the scopes are only activated for the signals where the active scope is
+ * actually used.
+ */
 @Slf4j
 public class TracingSubscriber<T>
     implements Subscription, CoreSubscriber<T>, Fuseable.QueueSubscription<T>, Scannable {
@@ -28,11 +40,13 @@ public class TracingSubscriber<T>
   private final CoreSubscriber<T> delegate;
   private final Context context;
   private final AgentSpan downstreamSpan;
+  private final boolean lazyScopeActivation;
   private Subscription subscription;
 
   public TracingSubscriber(final AgentSpan upstreamSpan, final CoreSubscriber<T> delegate) {
     this.delegate = delegate;
     this.upstreamSpan = upstreamSpan;
+    lazyScopeActivation = Config.get().isReactorLazyScopeActivation();
     downstreamSpan =
         (AgentSpan)
             delegate.currentContext().getOrEmpty(AgentSpan.class).orElseGet(AgentTracer::noopSpan);
@@ -70,12 +84,20 @@ public class TracingSubscriber<T>
 
   @Override
   public void onNext(final T t) {
-    try (final AgentScope scope = activateSpan(downstreamSpan)) {
-      scope.setAsyncPropagation(true);
+    try (final AgentScope scope = activateSignalScope(downstreamSpan)) {
       delegate.onNext(t);
     }
   }
 
+  private AgentScope activateSignalScope(final AgentSpan span) {
+    if (lazyScopeActivation) {
+      return activateSpanLazily(span);
+    }
+    final AgentScope scope = activateSpan(span);
+    scope.setAsyncPropagation(true);
+    return scope;
+  }
+
   private UnifiedScope finalScopeForDownstream() {
     final TraceScope.Continuation current = continuation.getAndSet(null);
     if (current != null) {
@@ -110,8 +132,7 @@ public class TracingSubscriber<T>
 
   @Override
   public void request(final long n) {
-    try (final AgentScope scope = activateSpan(upstreamSpan)) {
-      scope.setAsyncPropagation(true);
+    try (final AgentScope scope = activateSignalScope(upstreamSpan)) {
       subscription.request(n);
     }
   }
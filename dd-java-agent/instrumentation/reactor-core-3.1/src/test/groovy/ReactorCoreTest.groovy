@@ -12,7 +12,9 @@ import spock.lang.Shared
 
 import java.time.Duration
 
+import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
 import static datadog.trace.agent.test.utils.TraceUtils.basicSpan
+import static datadog.trace.api.config.TraceInstrumentationConfig.REACTOR_LAZY_SCOPE_ACTIVATION
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.noopSpan
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan
@@ -94,6 +96,54 @@ class ReactorCoreTest extends AgentTestRunner {
     "mono from callable"  | 12       | 2         | { -> Mono.fromCallable({ addOneFunc(10) }).map(addOne) }
   }
 
+  def "Publisher '#name' test with lazy scope activation"() {
+    when:
+    def result = withConfigOverride(REACTOR_LAZY_SCOPE_ACTIVATION, "true") {
+      runUnderTrace(publisherSupplier)
+    }
+
+    then:
+    result == expected
+    and:
+    assertTraces(1) {
+      sortSpansByStart()
+      trace(workSpans + 2) {
+        span {
+          resourceName "trace-parent"
+          operationName "trace-parent"
+          parent()
+          tags {
+            "$Tags.COMPONENT" "trace"
+            defaultTags()
+          }
+        }
+
+        basicSpan(it, "publisher-parent", "publisher-parent", span(0))
+
+        for (int i = 0; i < workSpans; i++) {
+          span {
+            resourceName "addOne"
+            operationName "addOne"
+            childOf(span(1))
+            tags {
+              "$Tags.COMPONENT" "trace"
+              defaultTags()
+            }
+          }
+        }
+      }
+    }
+
+    where:
+    name                  | expected | workSpans | publisherSupplier
+    "basic mono"          | 2        | 1         | { -> Mono.just(1).map(addOne) }
+    "delayed mono"        | 4        | 1         | { -> Mono.just(3).delayElement(Duration.ofMillis(100)).map(addOne) }
+    "two operations flux" | [8, 9]   | 4         | { -> Flux.fromIterable([6, 7]).map(addOne).map(addOne) }
+    "delayed twice flux"  | [10, 11] | 4         | { ->
+      Flux.fromIterable([8, 9]).delayElements(Duration.ofMillis(100)).map(addOne).delayElements(Duration.ofMillis(100)).map(addOne)
+    }
+  }
+
   def "Publisher error '#name' test"() {
     when:
     runUnderTrace(publisherSupplier)
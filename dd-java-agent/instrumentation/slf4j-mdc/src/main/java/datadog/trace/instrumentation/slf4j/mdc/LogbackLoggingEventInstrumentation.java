@@ -0,0 +1,74 @@
+package datadog.trace.instrumentation.slf4j.mdc;
+
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeSpan;
+import static java.util.Collections.singletonMap;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+import com.google.auto.service.AutoService;
+import datadog.trace.agent.tooling.Instrumenter;
+import datadog.trace.api.Config;
+import datadog.trace.api.CorrelationIdentifier;
+import java.util.HashMap;
+import java.util.Map;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+/**
+ * Adds the trace and span ids of the active span to the MDC properties of logback log events when
+ * lazy log injection is enabled, instead of keeping them in the MDC. The properties are taken from
+ * the MDC the first time they are read, which is on the logging thread, also for asynchronous
+ * appenders.
+ */
+@AutoService(Instrumenter.class)
+public class LogbackLoggingEventInstrumentation extends Instrumenter.Default {
+
+  public LogbackLoggingEventInstrumentation() {
+    super(MDCInjectionInstrumentation.MDC_INSTRUMENTATION_NAME);
+  }
+
+  @Override
+  protected boolean defaultEnabled() {
+    return Config.get().isLogsInjectionEnabled();
+  }
+
+  @Override
+  public ElementMatcher<? super TypeDescription> typeMatcher() {
+    return named("ch.qos.logback.classic.spi.LoggingEvent");
+  }
+
+  @Override
+  public Map<? extends ElementMatcher<? super MethodDescription>, String> transformers() {
+    return singletonMap(
+        named("getMDCPropertyMap").and(takesArguments(0)),
+        LogbackLoggingEventInstrumentation.class.getName() + "$GetMDCPropertyMapAdvice");
+  }
+
+  public static class GetMDCPropertyMapAdvice {
+    @Advice.OnMethodEnter(suppress = Throwable.class)
+    public static boolean onEnter(
+        @Advice.FieldValue("mdcPropertyMap") final Map<String, String> mdcPropertyMap) {
+      return null == mdcPropertyMap;
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class)
+    public static void onExit(
+        @Advice.Enter final boolean firstRead,
+        @Advice.FieldValue(value = "mdcPropertyMap", readOnly = false)
+            Map<String, String> mdcPropertyMap,
+        @Advice.Return(readOnly = false) Map<String, String> result) {
+      if (!firstRead || !Config.get().isLogsInjectionLazy() || null == activeSpan()) {
+        return;
+      }
+      // the map taken from the MDC is shared, so it is copied
+      final Map<String, String> withIds =
+          null == result ? new HashMap<String, String>() : new HashMap<>(result);
+      withIds.put(CorrelationIdentifier.getTraceIdKey(), CorrelationIdentifier.getTraceId());
+      withIds.put(CorrelationIdentifier.getSpanIdKey(), CorrelationIdentifier.getSpanId());
+      mdcPropertyMap = withIds;
+      result = withIds;
+    }
+  }
+}
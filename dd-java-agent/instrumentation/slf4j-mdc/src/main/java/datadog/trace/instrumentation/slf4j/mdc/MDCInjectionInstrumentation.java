@@ -87,12 +87,25 @@ public class MDCInjectionInstrumentation extends Instrumenter.Default {
       try {
         final Method putMethod = mdcClass.getMethod("put", String.class, String.class);
         final Method removeMethod = mdcClass.getMethod("remove", String.class);
-        GlobalTracer.get().addScopeListener(new LogContextScopeListener(putMethod, removeMethod));
+        final LogContextScopeListener listener =
+            new LogContextScopeListener(putMethod, removeMethod);
+        GlobalTracer.get().addScopeListener(listener);
+
+        final Field mdcAdapterField = mdcClass.getDeclaredField("mdcAdapter");
+        mdcAdapterField.setAccessible(true);
+        final Object mdcAdapterInstance = mdcAdapterField.get(null);
+        // logback and log4j2 log events get the ids from the active span when they are created
+        if (null != mdcAdapterInstance) {
+          final String mdcAdapterClassName = mdcAdapterInstance.getClass().getName();
+          listener.setInjectedInLogEvents(
+              mdcAdapterClassName.equals("ch.qos.logback.classic.util.LogbackMDCAdapter")
+                  || (mdcAdapterClassName.equals("org.apache.logging.slf4j.Log4jMDCAdapter")
+                      && LogContextScopeListener.isClassPresent(
+                          "org.apache.logging.log4j.core.ContextDataInjector",
+                          mdcAdapterInstance.getClass().getClassLoader())));
+        }
 
         if (Config.get().isLogsMDCTagsInjectionEnabled()) {
-          final Field mdcAdapterField = mdcClass.getDeclaredField("mdcAdapter");
-          mdcAdapterField.setAccessible(true);
-          final Object mdcAdapterInstance = mdcAdapterField.get(null);
           final Field copyOnThreadLocalField =
               mdcAdapterInstance.getClass().getDeclaredField("copyOnThreadLocal");
           if (!ThreadLocal.class.isAssignableFrom(copyOnThreadLocalField.getType())) {
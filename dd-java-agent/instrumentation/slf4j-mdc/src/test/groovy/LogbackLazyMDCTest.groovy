@@ -0,0 +1,74 @@
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.Logger
+import ch.qos.logback.classic.spi.LoggingEvent
+import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.agent.test.utils.ConfigUtils
+import datadog.trace.api.CorrelationIdentifier
+import datadog.trace.bootstrap.instrumentation.api.AgentScope
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan
+import org.slf4j.LoggerFactory
+import org.slf4j.MDC
+
+import static datadog.trace.agent.test.utils.ConfigUtils.withConfigOverride
+import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_INJECTION_LAZY
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan
+
+class LogbackLazyMDCTest extends AgentTestRunner {
+
+  static {
+    ConfigUtils.updateConfig {
+      System.setProperty("dd.logs.injection", "true")
+    }
+  }
+
+  def cleanup() {
+    MDC.clear()
+  }
+
+  def "logging events get the ids of the active span with lazy injection"() {
+    when:
+    Map<String, String> logged = withConfigOverride(LOGS_INJECTION_LAZY, "true") {
+      MDC.put("foo", "bar")
+      AgentSpan span = startSpan("test")
+      AgentScope scope = activateSpan(span)
+      try {
+        def properties = loggingEvent().getMDCPropertyMap()
+        return [
+          mdcTraceId  : MDC.get(CorrelationIdentifier.getTraceIdKey()),
+          traceId     : CorrelationIdentifier.getTraceId(),
+          spanId      : CorrelationIdentifier.getSpanId(),
+          eventTraceId: properties[CorrelationIdentifier.getTraceIdKey()],
+          eventSpanId : properties[CorrelationIdentifier.getSpanIdKey()],
+          eventFoo    : properties["foo"]
+        ]
+      } finally {
+        scope.close()
+        span.finish()
+      }
+    }
+
+    then:
+    logged.mdcTraceId == null
+    logged.eventTraceId == logged.traceId
+    logged.eventSpanId == logged.spanId
+    logged.eventFoo == "bar"
+    MDC.getCopyOfContextMap() == ["foo": "bar"]
+  }
+
+  def "logging events don't get ids without an active span"() {
+    when:
+    def properties = withConfigOverride(LOGS_INJECTION_LAZY, "true") {
+      loggingEvent().getMDCPropertyMap()
+    }
+
+    then:
+    !properties.containsKey(CorrelationIdentifier.getTraceIdKey())
+    !properties.containsKey(CorrelationIdentifier.getSpanIdKey())
+  }
+
+  def loggingEvent() {
+    Logger logger = (Logger) LoggerFactory.getLogger(LogbackLazyMDCTest)
+    return new LoggingEvent(LogbackLazyMDCTest.name, logger, Level.INFO, "message", null, null)
+  }
+}
@@ -2,13 +2,17 @@ package datadog.trace.instrumentation.spymemcached;
 
 import datadog.trace.api.DDSpanTypes;
 import datadog.trace.api.DDTags;
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.decorator.DBTypeProcessingDatabaseClientDecorator;
+import net.spy.memcached.MemcachedClient;
 import net.spy.memcached.MemcachedConnection;
 
 public class MemcacheClientDecorator
     extends DBTypeProcessingDatabaseClientDecorator<MemcachedConnection> {
   public static final MemcacheClientDecorator DECORATE = new MemcacheClientDecorator();
+  public static final int MEMCACHED_CLIENT_CALL_DEPTH =
+      CallDepthThreadLocalMap.slotFor(MemcachedClient.class);
 
   @Override
   protected String[] instrumentationNames() {
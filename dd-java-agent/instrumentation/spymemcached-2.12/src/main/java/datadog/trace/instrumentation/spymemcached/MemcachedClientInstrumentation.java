@@ -1,6 +1,7 @@
 package datadog.trace.instrumentation.spymemcached;
 
 import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedOneOf;
+import static datadog.trace.instrumentation.spymemcached.MemcacheClientDecorator.MEMCACHED_CLIENT_CALL_DEPTH;
 import static net.bytebuddy.matcher.ElementMatchers.isMethod;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
 import static net.bytebuddy.matcher.ElementMatchers.named;
@@ -76,7 +77,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
 
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static boolean methodEnter() {
-      return CallDepthThreadLocalMap.incrementCallDepth(MemcachedClient.class) <= 0;
+      return CallDepthThreadLocalMap.incrementCallDepth(MEMCACHED_CLIENT_CALL_DEPTH) <= 0;
     }
 
     @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
@@ -88,7 +89,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
       if (!shouldInjectListener) {
         return;
       }
-      CallDepthThreadLocalMap.reset(MemcachedClient.class);
+      CallDepthThreadLocalMap.reset(MEMCACHED_CLIENT_CALL_DEPTH);
       if (future != null) {
         final OperationCompletionListener listener =
             new OperationCompletionListener(client.getConnection(), methodName);
@@ -101,7 +102,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
 
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static boolean methodEnter() {
-      return CallDepthThreadLocalMap.incrementCallDepth(MemcachedClient.class) <= 0;
+      return CallDepthThreadLocalMap.incrementCallDepth(MEMCACHED_CLIENT_CALL_DEPTH) <= 0;
     }
 
     @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
@@ -113,7 +114,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
       if (!shouldInjectListener) {
         return;
       }
-      CallDepthThreadLocalMap.reset(MemcachedClient.class);
+      CallDepthThreadLocalMap.reset(MEMCACHED_CLIENT_CALL_DEPTH);
       if (future != null) {
         final GetCompletionListener listener =
             new GetCompletionListener(client.getConnection(), methodName);
@@ -126,7 +127,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
 
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static boolean methodEnter() {
-      return CallDepthThreadLocalMap.incrementCallDepth(MemcachedClient.class) <= 0;
+      return CallDepthThreadLocalMap.incrementCallDepth(MEMCACHED_CLIENT_CALL_DEPTH) <= 0;
     }
 
     @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
@@ -138,7 +139,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
       if (!shouldInjectListener) {
         return;
       }
-      CallDepthThreadLocalMap.reset(MemcachedClient.class);
+      CallDepthThreadLocalMap.reset(MEMCACHED_CLIENT_CALL_DEPTH);
       if (future != null) {
         final BulkGetCompletionListener listener =
             new BulkGetCompletionListener(client.getConnection(), methodName);
@@ -152,7 +153,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static SyncCompletionListener methodEnter(
         @Advice.This final MemcachedClient client, @Advice.Origin("#m") final String methodName) {
-      if (CallDepthThreadLocalMap.incrementCallDepth(MemcachedClient.class) <= 0) {
+      if (CallDepthThreadLocalMap.incrementCallDepth(MEMCACHED_CLIENT_CALL_DEPTH) <= 0) {
         return new SyncCompletionListener(client.getConnection(), methodName);
       } else {
         return null;
@@ -166,7 +167,7 @@ public final class MemcachedClientInstrumentation extends Instrumenter.Default {
       if (listener == null) {
         return;
       }
-      CallDepthThreadLocalMap.reset(MemcachedClient.class);
+      CallDepthThreadLocalMap.reset(MEMCACHED_CLIENT_CALL_DEPTH);
       listener.done(thrown);
     }
   }
@@ -6,6 +6,7 @@ import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedOn
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.twilio.TwilioClientDecorator.DECORATE;
+import static datadog.trace.instrumentation.twilio.TwilioClientDecorator.TWILIO_CALL_DEPTH;
 import static datadog.trace.instrumentation.twilio.TwilioClientDecorator.TWILIO_SDK;
 import static java.util.Collections.singletonMap;
 import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
@@ -96,7 +97,7 @@ public class TwilioAsyncInstrumentation extends Instrumenter.Default {
       // case of async operations where we want visibility into how long the task was delayed from
       // starting. Our call depth checker does not span threads, so the async case is handled
       // automatically for us.
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(Twilio.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(TWILIO_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -141,7 +142,7 @@ public class TwilioAsyncInstrumentation extends Instrumenter.Default {
       } finally {
         scope.close();
         // span finished in SpanFinishingCallback
-        CallDepthThreadLocalMap.reset(Twilio.class); // reset call depth count
+        CallDepthThreadLocalMap.reset(TWILIO_CALL_DEPTH); // reset call depth count
       }
     }
   }
@@ -1,10 +1,12 @@
 package datadog.trace.instrumentation.twilio;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.Twilio;
 import com.twilio.rest.api.v2010.account.Call;
 import com.twilio.rest.api.v2010.account.Message;
 import datadog.trace.api.DDSpanTypes;
 import datadog.trace.api.DDTags;
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.ClientDecorator;
@@ -19,6 +21,7 @@ public class TwilioClientDecorator extends ClientDecorator {
   public static final CharSequence TWILIO_SDK = UTF8BytesString.createConstant("twilio.sdk");
 
   public static final TwilioClientDecorator DECORATE = new TwilioClientDecorator();
+  public static final int TWILIO_CALL_DEPTH = CallDepthThreadLocalMap.slotFor(Twilio.class);
 
   static final String COMPONENT_NAME = "twilio-sdk";
 
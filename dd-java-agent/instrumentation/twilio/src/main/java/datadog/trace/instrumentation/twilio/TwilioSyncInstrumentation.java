@@ -6,6 +6,7 @@ import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedOn
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan;
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.twilio.TwilioClientDecorator.DECORATE;
+import static datadog.trace.instrumentation.twilio.TwilioClientDecorator.TWILIO_CALL_DEPTH;
 import static datadog.trace.instrumentation.twilio.TwilioClientDecorator.TWILIO_SDK;
 import static java.util.Collections.singletonMap;
 import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
@@ -14,7 +15,6 @@ import static net.bytebuddy.matcher.ElementMatchers.isPublic;
 import static net.bytebuddy.matcher.ElementMatchers.not;
 
 import com.google.auto.service.AutoService;
-import com.twilio.Twilio;
 import datadog.trace.agent.tooling.Instrumenter;
 import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.instrumentation.api.AgentScope;
@@ -91,7 +91,7 @@ public class TwilioSyncInstrumentation extends Instrumenter.Default {
       // case of async operations where we want visibility into how long the task was delayed from
       // starting. Our call depth checker does not span threads, so the async case is handled
       // automatically for us.
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(Twilio.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(TWILIO_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -122,7 +122,7 @@ public class TwilioSyncInstrumentation extends Instrumenter.Default {
       } finally {
         scope.close();
         span.finish();
-        CallDepthThreadLocalMap.reset(Twilio.class); // reset call depth count
+        CallDepthThreadLocalMap.reset(TWILIO_CALL_DEPTH); // reset call depth count
       }
     }
   }
@@ -37,6 +37,7 @@ public final class ConfigDefaults {
   static final boolean DEFAULT_HTTP_CLIENT_TAG_QUERY_STRING = false;
   static final boolean DEFAULT_HTTP_CLIENT_SPLIT_BY_DOMAIN = false;
   static final boolean DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE = false;
+  static final boolean DEFAULT_DB_CLIENT_SQL_OBFUSCATION = false;
   static final int DEFAULT_SCOPE_DEPTH_LIMIT = 100;
   static final int DEFAULT_PARTIAL_FLUSH_MIN_SPANS = 1000;
   static final String DEFAULT_PROPAGATION_STYLE_EXTRACT = PropagationStyle.DATADOG.name();
@@ -55,18 +56,25 @@ public final class ConfigDefaults {
   static final int DEFAULT_PROFILING_START_DELAY = 10;
   static final boolean DEFAULT_PROFILING_START_FORCE_FIRST = false;
   static final int DEFAULT_PROFILING_UPLOAD_PERIOD = 60; // 1 min
+  static final String DEFAULT_PROFILING_TEMPLATE = "default";
   static final int DEFAULT_PROFILING_UPLOAD_TIMEOUT = 30; // seconds
   static final String DEFAULT_PROFILING_UPLOAD_COMPRESSION = "on";
   static final int DEFAULT_PROFILING_PROXY_PORT = 8080;
   static final int DEFAULT_PROFILING_EXCEPTION_SAMPLE_LIMIT = 10_000;
   static final int DEFAULT_PROFILING_EXCEPTION_HISTOGRAM_TOP_ITEMS = 50;
   static final int DEFAULT_PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE = 10000;
+  static final boolean DEFAULT_PROFILING_POSTPROCESSING_ENABLED = false;
+  static final int DEFAULT_PROFILING_POSTPROCESSING_CPU_BUDGET = 500; // milliseconds
+  static final int DEFAULT_PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE = 2;
+  static final int DEFAULT_PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE = 10;
+  static final boolean DEFAULT_PROFILING_OVERHEAD_MEASUREMENT_ENABLED = false;
 
   static final boolean DEFAULT_KAFKA_CLIENT_PROPAGATION_ENABLED = true;
 
   static final boolean DEFAULT_TRACE_REPORT_HOSTNAME = false;
   static final String DEFAULT_TRACE_ANNOTATIONS = null;
   static final boolean DEFAULT_TRACE_EXECUTORS_ALL = false;
+  static final boolean DEFAULT_TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION = false;
   static final String DEFAULT_TRACE_METHODS = null;
   static final boolean DEFAULT_TRACE_ANALYTICS_ENABLED = false;
   static final float DEFAULT_ANALYTICS_SAMPLE_RATE = 1.0f;
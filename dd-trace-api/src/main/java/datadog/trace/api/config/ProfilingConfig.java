@@ -25,6 +25,7 @@ public final class ProfilingConfig {
   public static final String PROFILING_START_FORCE_FIRST =
       "profiling.experimental.start-force-first";
   public static final String PROFILING_UPLOAD_PERIOD = "profiling.upload.period";
+  public static final String PROFILING_TEMPLATE = "profiling.jfr-template";
   public static final String PROFILING_TEMPLATE_OVERRIDE_FILE =
       "profiling.jfr-template-override-file";
   public static final String PROFILING_UPLOAD_TIMEOUT = "profiling.upload.timeout";
@@ -38,6 +39,15 @@ public final class ProfilingConfig {
       "profiling.exception.histogram.top-items";
   public static final String PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE =
       "profiling.exception.histogram.max-collection-size";
+  public static final String PROFILING_POSTPROCESSING_ENABLED = "profiling.postprocessing.enabled";
+  public static final String PROFILING_POSTPROCESSING_CPU_BUDGET =
+      "profiling.postprocessing.cpu-budget";
+  public static final String PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE =
+      "profiling.postprocessing.allocation-sample-stride";
+  public static final String PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE =
+      "profiling.postprocessing.exception-samples-per-stack-trace";
+  public static final String PROFILING_OVERHEAD_MEASUREMENT_ENABLED =
+      "profiling.overhead-measurement.enabled";
 
   private ProfilingConfig() {}
 }
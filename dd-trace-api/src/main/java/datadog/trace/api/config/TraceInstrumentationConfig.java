@@ -15,6 +15,8 @@ public final class TraceInstrumentationConfig {
   public static final String TRACE_ANNOTATIONS = "trace.annotations";
   public static final String TRACE_EXECUTORS_ALL = "trace.executors.all";
   public static final String TRACE_EXECUTORS = "trace.executors";
+  public static final String TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION =
+      "trace.executors.lightweight-propagation";
   public static final String TRACE_METHODS = "trace.methods";
   public static final String TRACE_CLASSES_EXCLUDE = "trace.classes.exclude";
   public static final String TRACE_TESTS_ENABLED = "trace.tests.enabled";
@@ -23,18 +25,28 @@ public final class TraceInstrumentationConfig {
   public static final String HTTP_CLIENT_TAG_QUERY_STRING = "http.client.tag.query-string";
   public static final String HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN = "trace.http.client.split-by-domain";
   public static final String DB_CLIENT_HOST_SPLIT_BY_INSTANCE = "trace.db.client.split-by-instance";
+  public static final String DB_CLIENT_SQL_OBFUSCATION = "trace.db.client.sql-obfuscation";
 
   public static final String RUNTIME_CONTEXT_FIELD_INJECTION =
       "trace.runtime.context.field.injection";
+  public static final String BATCHED_HELPER_INJECTION = "trace.batched.helper.injection";
+  public static final String TRANSFORMATION_STATS_FILE = "trace.transformation.stats.file";
+  public static final String INDY_ADVICE_ENABLED = "trace.indy.advice.enabled";
 
   public static final String LOGS_INJECTION_ENABLED = "logs.injection";
   public static final String LOGS_MDC_TAGS_INJECTION_ENABLED = "logs.mdc.tags.injection";
+  public static final String LOGS_INJECTION_LAZY = "logs.injection.lazy";
 
   public static final String KAFKA_CLIENT_PROPAGATION_ENABLED = "kafka.client.propagation.enabled";
   public static final String KAFKA_CLIENT_BASE64_DECODING_ENABLED =
       "kafka.client.base64.decoding.enabled";
+  public static final String KAFKA_CLIENT_PROPAGATION_SKIP_UNSAMPLED =
+      "kafka.client.propagation.skip-unsampled";
+  public static final String KAFKA_CLIENT_BATCH_TRACING_ENABLED =
+      "kafka.client.batch.tracing.enabled";
 
   public static final String HYSTRIX_TAGS_ENABLED = "hystrix.tags.enabled";
+  public static final String REACTOR_LAZY_SCOPE_ACTIVATION = "reactor.lazy-scope-activation";
   public static final String SERVLET_PRINCIPAL_ENABLED = "trace.servlet.principal.enabled";
   public static final String SERVLET_ASYNC_TIMEOUT_ERROR = "trace.servlet.async-timeout.error";
 
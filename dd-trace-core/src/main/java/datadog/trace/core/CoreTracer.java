@@ -102,7 +102,7 @@ public class CoreTracer implements AgentTracer.TracerAPI {
   /** number of spans in a pending trace before they get flushed */
   @lombok.Getter private final int partialFlushMinSpans;
 
-  private final StatsDClient statsDClient;
+  @lombok.Getter private final StatsDClient statsDClient;
   private final Monitoring monitoring;
   private final Monitoring performanceMonitoring;
   private final Recording traceWriteTimer;
@@ -355,6 +355,11 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     return scopeManager.activate(span, source);
   }
 
+  @Override
+  public AgentScope activateSpanLazily(final AgentSpan span) {
+    return scopeManager.activateLazily(span);
+  }
+
   @Override
   public AgentSpan activeSpan() {
     return scopeManager.activeSpan();
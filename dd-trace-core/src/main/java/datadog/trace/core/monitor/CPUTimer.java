@@ -6,44 +6,38 @@ import java.lang.management.ThreadMXBean;
 
 public class CPUTimer extends Timer {
 
-  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
   private final StatsDClient statsd;
 
   private final String name;
   private final String[] tags = getTags();
-  private long start;
+  // owned by the flushing thread
   private long cpuTime = 0;
 
-  CPUTimer(String name, StatsDClient statsd, long flushAfterNanos) {
-    super(name, getTags(), statsd, flushAfterNanos);
+  CPUTimer(String name, StatsDClient statsd) {
+    super(name, getTags(), statsd);
     this.name = name + ".cpu";
     this.statsd = statsd;
   }
 
   @Override
-  public Recording start() {
-    super.start();
-    this.start = threadMXBean.getCurrentThreadCpuTime();
-    return this;
+  ThreadTimer newThreadTimer() {
+    return new CPUThreadTimer(this);
   }
 
   @Override
-  public void reset() {
-    long cpuNanos = threadMXBean.getCurrentThreadCpuTime();
-    this.cpuTime += (cpuNanos - start);
-    this.start = cpuNanos;
-    super.reset();
+  void collect(ThreadTimer timer) {
+    super.collect(timer);
+    CPUThreadTimer cpuTimer = (CPUThreadTimer) timer;
+    long total = cpuTimer.cpuTime;
+    cpuTime += total - cpuTimer.reportedCpuTime;
+    cpuTimer.reportedCpuTime = total;
   }
 
   @Override
-  public void stop() {
-    this.cpuTime += threadMXBean.getCurrentThreadCpuTime() - start;
-    super.stop();
-  }
-
-  @Override
-  public void flush() {
-    super.flush();
+  void report() {
+    super.report();
     statsd.gauge(name, cpuTime, tags);
     this.cpuTime = 0;
   }
@@ -51,4 +45,37 @@ public class CPUTimer extends Timer {
   private static String[] getTags() {
     return new String[] {"thread:" + Thread.currentThread().getName()};
   }
+
+  static final class CPUThreadTimer extends ThreadTimer {
+    private long start;
+    // written by the owner thread only, read when flushing
+    volatile long cpuTime;
+    // owned by the flushing thread
+    long reportedCpuTime;
+
+    CPUThreadTimer(Timer timer) {
+      super(timer);
+    }
+
+    @Override
+    public Recording start() {
+      super.start();
+      this.start = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+      return this;
+    }
+
+    @Override
+    public void reset() {
+      long cpuNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+      this.cpuTime += (cpuNanos - start);
+      this.start = cpuNanos;
+      super.reset();
+    }
+
+    @Override
+    public void stop() {
+      this.cpuTime += THREAD_MX_BEAN.getCurrentThreadCpuTime() - start;
+      super.stop();
+    }
+  }
 }
@@ -4,25 +4,36 @@ import static java.lang.management.ManagementFactory.getThreadMXBean;
 
 import com.timgroup.statsd.NoOpStatsDClient;
 import com.timgroup.statsd.StatsDClient;
+import datadog.common.exec.AgentTaskScheduler;
+import datadog.common.exec.AgentTaskScheduler.Task;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Creates the timers and counters reporting to StatsD. The timers are flushed periodically by a
+ * background reporter, so recording never has to report inline.
+ */
 public final class Monitoring {
 
   public static final Monitoring DISABLED = new Monitoring();
 
   private final StatsDClient statsd;
-  private final long flushAfterNanos;
   private final boolean enabled;
+  private final Queue<Timer> timers = new ConcurrentLinkedQueue<>();
+  // the timers of thread local recordings are dropped once their thread has terminated
+  private final Queue<ThreadOwnedTimer> threadTimers = new ConcurrentLinkedQueue<>();
 
   public Monitoring(final StatsDClient statsd, long flushInterval, TimeUnit flushUnit) {
     this.statsd = statsd;
-    this.flushAfterNanos = flushUnit.toNanos(flushInterval);
     this.enabled = true;
+    AgentTaskScheduler.INSTANCE.weakScheduleAtFixedRate(
+        FlushTask.INSTANCE, this, flushInterval, flushInterval, flushUnit);
   }
 
   private Monitoring() {
     this.statsd = new NoOpStatsDClient();
-    this.flushAfterNanos = 0;
     this.enabled = false;
   }
 
@@ -30,14 +41,14 @@ public final class Monitoring {
     if (!enabled) {
       return NoOpRecording.NO_OP;
     }
-    return new Timer(name, statsd, flushAfterNanos);
+    return register(new Timer(name, statsd));
   }
 
   public Recording newTimer(final String name, final String... tags) {
     if (!enabled) {
       return NoOpRecording.NO_OP;
     }
-    return new Timer(name, tags, statsd, flushAfterNanos);
+    return register(new Timer(name, tags, statsd));
   }
 
   public Recording newThreadLocalTimer(final String name) {
@@ -48,7 +59,11 @@ public final class Monitoring {
         new ThreadLocal<Recording>() {
           @Override
           protected Recording initialValue() {
-            return newTimer(name, "thread:" + Thread.currentThread().getName());
+            final Timer timer =
+                new Timer(
+                    name, new String[] {"thread:" + Thread.currentThread().getName()}, statsd);
+            threadTimers.offer(new ThreadOwnedTimer(Thread.currentThread(), timer));
+            return timer;
           }
         });
   }
@@ -58,7 +73,7 @@ public final class Monitoring {
       return NoOpRecording.NO_OP;
     }
     if (getThreadMXBean().isCurrentThreadCpuTimeSupported()) {
-      return new CPUTimer(name, statsd, flushAfterNanos);
+      return register(new CPUTimer(name, statsd));
     }
     return newTimer(name);
   }
@@ -69,4 +84,53 @@ public final class Monitoring {
     }
     return new StatsDCounter(name, statsd);
   }
+
+  /** Flushes the stats of all timers; normally called by the background reporter */
+  public void flush() {
+    for (final Timer timer : timers) {
+      timer.flush();
+    }
+    final Iterator<ThreadOwnedTimer> it = threadTimers.iterator();
+    while (it.hasNext()) {
+      final ThreadOwnedTimer threadTimer = it.next();
+      // a thread which is not alive before flushing can't record anything afterwards
+      final boolean terminated = !threadTimer.owner.isAlive();
+      threadTimer.timer.flush();
+      if (terminated) {
+        it.remove();
+      }
+    }
+  }
+
+  /** @return the number of thread local timers which have not been dropped yet */
+  int threadTimerCount() {
+    return threadTimers.size();
+  }
+
+  private Timer register(final Timer timer) {
+    timers.offer(timer);
+    return timer;
+  }
+
+  private static final class ThreadOwnedTimer {
+    final Thread owner;
+    final Timer timer;
+
+    ThreadOwnedTimer(final Thread owner, final Timer timer) {
+      this.owner = owner;
+      this.timer = timer;
+    }
+  }
+
+  /*
+   * Important to use explicit class to avoid implicit hard references to monitoring from within executor.
+   */
+  private static final class FlushTask implements Task<Monitoring> {
+    static final FlushTask INSTANCE = new FlushTask();
+
+    @Override
+    public void run(final Monitoring target) {
+      target.flush();
+    }
+  }
 }
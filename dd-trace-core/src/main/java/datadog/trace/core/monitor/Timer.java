@@ -4,11 +4,19 @@ import static datadog.trace.core.monitor.Utils.mergeTags;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import com.timgroup.statsd.StatsDClient;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.HdrHistogram.Histogram;
 import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.SingleWriterRecorder;
 
 /**
- * A timer which records times in a histogram, and flushes stats from the histogram after a
- * configurable period of time.
+ * A timer which records times in a histogram, and flushes stats from the histogram when {@link
+ * #flush()} is called, normally by the {@link Monitoring} reporter.
+ *
+ * <p>The timer can be used from any number of threads: each thread records into its own interval
+ * histogram without locking, and the interval histograms are merged when the stats are flushed.
  */
 public class Timer extends Recording {
 
@@ -22,20 +30,26 @@ public class Timer extends Recording {
   private final String name;
   private final StatsDClient statsd;
   private final PackedHistogram histogram;
-  private final long flushAfterNanos;
 
   private final String[] meanTags;
   private final String[] p50Tags;
   private final String[] p99Tags;
   private final String[] maxTags;
 
-  private long start;
-  private long lastFlush = 0;
+  private final Queue<ThreadTimer> threadTimers = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ThreadTimer> threadTimer =
+      new ThreadLocal<ThreadTimer>() {
+        @Override
+        protected ThreadTimer initialValue() {
+          final ThreadTimer timer = newThreadTimer();
+          threadTimers.offer(timer);
+          return timer;
+        }
+      };
 
-  Timer(final String name, final String[] tags, final StatsDClient statsd, long flushAfterNanos) {
+  Timer(final String name, final String[] tags, final StatsDClient statsd) {
     this.name = name;
     this.statsd = statsd;
-    this.flushAfterNanos = flushAfterNanos;
     this.histogram = new PackedHistogram(THIRTY_SECONDS_AS_NANOS, 3);
     this.meanTags = mergeTags(MEAN, tags);
     this.p50Tags = mergeTags(P_50, tags);
@@ -43,42 +57,111 @@ public class Timer extends Recording {
     this.maxTags = mergeTags(MAX, tags);
   }
 
-  Timer(final String name, final StatsDClient statsd, long flushAfterNanos) {
-    this(name, null, statsd, flushAfterNanos);
+  Timer(final String name, final StatsDClient statsd) {
+    this(name, null, statsd);
   }
 
   @Override
   public Recording start() {
-    start = System.nanoTime();
-    return this;
+    return threadTimer.get().start();
   }
 
   @Override
   public void reset() {
-    long now = System.nanoTime();
-    record(now);
-    start = now;
+    threadTimer.get().reset();
   }
 
   @Override
   public void stop() {
-    record(System.nanoTime());
+    threadTimer.get().stop();
   }
 
-  private void record(long now) {
-    // if it's longer than 30s, we have bigger problems
-    histogram.recordValue(Math.min(now - start, THIRTY_SECONDS_AS_NANOS));
-    if (now - lastFlush > flushAfterNanos) {
-      lastFlush = now;
-      flush();
+  @Override
+  public synchronized void flush() {
+    final Iterator<ThreadTimer> it = threadTimers.iterator();
+    while (it.hasNext()) {
+      final ThreadTimer timer = it.next();
+      // a thread which is not alive before collecting can't record anything afterwards
+      final boolean terminated = !timer.owner.isAlive();
+      collect(timer);
+      if (terminated) {
+        it.remove();
+      }
+    }
+    if (histogram.getTotalCount() > 0) {
+      report();
+      histogram.reset();
     }
   }
 
-  @Override
-  public void flush() {
+  /** @return the number of thread timers which have not been dropped yet */
+  int threadTimerCount() {
+    return threadTimers.size();
+  }
+
+  ThreadTimer newThreadTimer() {
+    return new ThreadTimer(this);
+  }
+
+  /** Called from {@link #flush()} to merge the values recorded by the thread since last flush */
+  void collect(final ThreadTimer timer) {
+    timer.interval = timer.recorder.getIntervalHistogram(timer.interval);
+    histogram.add(timer.interval);
+  }
+
+  /** Called from {@link #flush()} when any values were recorded since last flush */
+  void report() {
     statsd.gauge(name, (long) histogram.getMean(), meanTags);
     statsd.gauge(name, histogram.getValueAtPercentile(50), p50Tags);
     statsd.gauge(name, histogram.getValueAtPercentile(99), p99Tags);
     statsd.gauge(name, histogram.getMaxValue(), maxTags);
   }
+
+  /** The per-thread state of a {@link Timer}; only its owner thread records. */
+  static class ThreadTimer extends Recording {
+    final Timer timer;
+    final Thread owner = Thread.currentThread();
+    final SingleWriterRecorder recorder = new SingleWriterRecorder(3, true);
+    // owned by the flushing thread
+    Histogram interval;
+
+    private long start;
+    private boolean started;
+
+    ThreadTimer(final Timer timer) {
+      this.timer = timer;
+    }
+
+    @Override
+    public Recording start() {
+      start = System.nanoTime();
+      started = true;
+      return this;
+    }
+
+    @Override
+    public void reset() {
+      final long now = System.nanoTime();
+      record(now);
+      start = now;
+      started = true;
+    }
+
+    @Override
+    public void stop() {
+      record(System.nanoTime());
+    }
+
+    @Override
+    public void flush() {
+      timer.flush();
+    }
+
+    private void record(final long now) {
+      if (started) {
+        // if it's longer than 30s, we have bigger problems
+        recorder.recordValue(Math.min(now - start, THIRTY_SECONDS_AS_NANOS));
+      }
+    }
+  }
 }
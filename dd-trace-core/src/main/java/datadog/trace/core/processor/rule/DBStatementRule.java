@@ -1,14 +1,44 @@
 package datadog.trace.core.processor.rule;
 
+import datadog.trace.api.Config;
+import datadog.trace.api.Function;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.core.ExclusiveSpan;
 import datadog.trace.core.processor.TraceProcessor;
 
 /**
  * Converts db.statement tag to resource name. This is later set to sql.query by the datadog agent
  * after obfuscation.
+ *
+ * <p>The resource names are cached per statement text, so services running a small set of
+ * statements encode each of them only once. When sql obfuscation is enabled the statements are also
+ * obfuscated by the tracer, so the literals are not sent to the agent, and cached by their
+ * obfuscated text, so statements only differing by their literals share a resource name.
  */
 public class DBStatementRule implements TraceProcessor.Rule {
+
+  private static final Function<String, UTF8BytesString> TO_RESOURCE_NAME =
+      new Function<String, UTF8BytesString>() {
+        @Override
+        public UTF8BytesString apply(final String statement) {
+          return UTF8BytesString.create(statement);
+        }
+      };
+
+  private final DDCache<String, UTF8BytesString> resourceNames = DDCaches.newFixedSizeCache(512);
+  private final boolean obfuscate;
+
+  public DBStatementRule() {
+    this(Config.get().isDbClientSqlObfuscation());
+  }
+
+  public DBStatementRule(final boolean obfuscate) {
+    this.obfuscate = obfuscate;
+  }
+
   @Override
   public String[] aliases() {
     return new String[] {"DBStatementAsResourceName"};
@@ -23,9 +53,22 @@ public class DBStatementRule implements TraceProcessor.Rule {
       if (dbStatementValue instanceof CharSequence) {
         final CharSequence statement = (CharSequence) dbStatementValue;
         if (statement.length() != 0) {
-          span.setResourceName(statement);
+          span.setResourceName(resourceName(statement, span.getTag(Tags.DB_TYPE)));
         }
       }
     }
   }
+
+  private CharSequence resourceName(final CharSequence statement, final Object dbType) {
+    if (obfuscate) {
+      final boolean mysql = "mysql".equals(dbType) || "mariadb".equals(dbType);
+      return resourceNames.computeIfAbsent(
+          SQLObfuscator.obfuscate(statement.toString(), mysql), TO_RESOURCE_NAME);
+    }
+    if (statement instanceof UTF8BytesString) {
+      // already encoded, e.g. the sql of a prepared statement
+      return statement;
+    }
+    return resourceNames.computeIfAbsent(statement.toString(), TO_RESOURCE_NAME);
+  }
 }
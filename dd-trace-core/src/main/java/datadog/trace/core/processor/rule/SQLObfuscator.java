@@ -0,0 +1,230 @@
+package datadog.trace.core.processor.rule;
+
+/**
+ * Obfuscates sql statements in a single pass: string and numeric literals are replaced with {@code
+ * ?}, {@code IN} lists of literals and parameters are collapsed to {@code IN (?)}, comments are
+ * removed and whitespace is collapsed. Identifiers, keywords, operators and bind parameters are
+ * kept as they are.
+ *
+ * <p>Backslashes only escape characters in string literals of MySQL-style dialects and in {@code
+ * E'...'} strings, other dialects only escape a quote by doubling it. MySQL-style dialects also
+ * treat double quoted text as a string literal and {@code #} as the start of a comment.
+ *
+ * <p>Unterminated literals and comments swallow the rest of the statement, so malformed statements
+ * are over rather than under obfuscated.
+ */
+final class SQLObfuscator {
+
+  private SQLObfuscator() {}
+
+  static String obfuscate(final String sql) {
+    return obfuscate(sql, false);
+  }
+
+  /**
+   * @param mysql whether the statement uses the MySQL dialect, with backslash escapes, double
+   *     quoted strings and {@code #} comments
+   */
+  static String obfuscate(final String sql, final boolean mysql) {
+    final int length = sql.length();
+    final StringBuilder out = new StringBuilder(length);
+    boolean space = false;
+    boolean afterIn = false;
+    // the output position of the opening parenthesis of an IN list holding only placeholders so far
+    int inList = -1;
+    int i = 0;
+    while (i < length) {
+      final char c = sql.charAt(i);
+      final char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+      if (Character.isWhitespace(c)) {
+        space = out.length() > 0;
+        i++;
+        continue;
+      }
+      if ((c == '-' && next == '-') || (c == '#' && mysql)) {
+        final int end = sql.indexOf('\n', i + 1);
+        i = end < 0 ? length : end + 1;
+        space = out.length() > 0;
+        continue;
+      }
+      if (c == '/' && next == '*') {
+        final int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+        space = out.length() > 0;
+        continue;
+      }
+      if (space) {
+        out.append(' ');
+        space = false;
+      }
+
+      if (c == '\'' || (c == '"' && mysql)) {
+        i = skipString(sql, i, mysql);
+        out.append('?');
+        afterIn = false;
+      } else if (isDigit(c) || (c == '.' && isDigit(next) && !endsWithWord(out))) {
+        i = skipNumber(sql, i);
+        // a malformed number like 1e or 12ab is replaced as a whole
+        while (i < length && isWordPart(sql.charAt(i))) {
+          i++;
+        }
+        out.append('?');
+        afterIn = false;
+      } else if (c == '$') {
+        i = dollar(sql, i, out);
+        if (out.charAt(out.length() - 1) == '$') {
+          inList = -1;
+        }
+        afterIn = false;
+      } else if (c == '"' || c == '`') {
+        final int end = sql.indexOf(c, i + 1);
+        final int to = end < 0 ? length : end + 1;
+        out.append(sql, i, to);
+        i = to;
+        afterIn = false;
+        inList = -1;
+      } else if (isWordStart(c)) {
+        int end = i + 1;
+        while (end < length && isWordPart(sql.charAt(end))) {
+          end++;
+        }
+        if (end == i + 1 && end < length && sql.charAt(end) == '\'' && isStringPrefix(c)) {
+          // N'...', E'...', X'...' and B'...' literals
+          i = skipString(sql, end, mysql || (c | 0x20) == 'e');
+          out.append('?');
+          afterIn = false;
+          continue;
+        }
+        out.append(sql, i, end);
+        afterIn = end - i == 2 && (c == 'i' || c == 'I') && (next == 'n' || next == 'N');
+        i = end;
+        inList = -1;
+      } else {
+        if (c == '(' && afterIn) {
+          inList = out.length();
+        } else if (c == ')' && inList >= 0) {
+          if (out.indexOf("?", inList) >= 0) {
+            out.setLength(inList);
+            out.append("(?");
+          }
+          inList = -1;
+        } else if (c != '?' && c != ',') {
+          inList = -1;
+        }
+        out.append(c);
+        i++;
+        afterIn = false;
+      }
+    }
+    return out.toString();
+  }
+
+  /**
+   * @param backslashEscapes whether a backslash escapes the next character
+   * @return the position after the string literal starting with the quote at {@code start}
+   */
+  private static int skipString(final String sql, final int start, final boolean backslashEscapes) {
+    final int length = sql.length();
+    final char quote = sql.charAt(start);
+    int i = start + 1;
+    while (i < length) {
+      final char c = sql.charAt(i);
+      if (c == '\\' && backslashEscapes) {
+        i += 2;
+      } else if (c == quote) {
+        if (i + 1 < length && sql.charAt(i + 1) == quote) {
+          i += 2;
+        } else {
+          return i + 1;
+        }
+      } else {
+        i++;
+      }
+    }
+    return length;
+  }
+
+  private static int skipNumber(final String sql, final int start) {
+    final int length = sql.length();
+    int i = start;
+    if (sql.charAt(i) == '0' && i + 1 < length && (sql.charAt(i + 1) | 0x20) == 'x') {
+      i += 2;
+      while (i < length && Character.digit(sql.charAt(i), 16) >= 0) {
+        i++;
+      }
+      return i;
+    }
+    while (i < length) {
+      final char c = sql.charAt(i);
+      if (isDigit(c) || c == '.') {
+        i++;
+      } else if ((c | 0x20) == 'e'
+          && i + 1 < length
+          && (isDigit(sql.charAt(i + 1))
+              || ((sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')
+                  && i + 2 < length
+                  && isDigit(sql.charAt(i + 2))))) {
+        i += 2;
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Copies a {@code $1} bind parameter or replaces a {@code $tag$...$tag$} dollar quoted string
+   *
+   * @return the position after the parameter or string
+   */
+  private static int dollar(final String sql, final int start, final StringBuilder out) {
+    final int length = sql.length();
+    int i = start + 1;
+    if (i < length && isDigit(sql.charAt(i))) {
+      while (i < length && isDigit(sql.charAt(i))) {
+        i++;
+      }
+      out.append(sql, start, i);
+      return i;
+    }
+    while (i < length && (Character.isLetter(sql.charAt(i)) || sql.charAt(i) == '_')) {
+      i++;
+    }
+    if (i < length && sql.charAt(i) == '$') {
+      final String tag = sql.substring(start, i + 1);
+      final int end = sql.indexOf(tag, i + 1);
+      out.append('?');
+      return end < 0 ? length : end + tag.length();
+    }
+    out.append('$');
+    return start + 1;
+  }
+
+  private static boolean endsWithWord(final StringBuilder out) {
+    return out.length() > 0 && isWordPart(out.charAt(out.length() - 1));
+  }
+
+  private static boolean isStringPrefix(final char c) {
+    switch (c | 0x20) {
+      case 'n':
+      case 'e':
+      case 'x':
+      case 'b':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isWordStart(final char c) {
+    return Character.isLetter(c) || c == '_' || c == '@' || c == '#';
+  }
+
+  private static boolean isWordPart(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '@' || c == '#' || c == '$';
+  }
+}
@@ -1,6 +1,10 @@
 package datadog.trace.core.processor.rule;
 
+import datadog.trace.api.Function;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.core.ExclusiveSpan;
 import datadog.trace.core.processor.TraceProcessor;
 
@@ -16,6 +20,16 @@ public class URLAsResourceNameRule implements TraceProcessor.Rule {
         }
       };
 
+  private final Function<String, NormalizedPath> normalize =
+      new Function<String, NormalizedPath>() {
+        @Override
+        public NormalizedPath apply(final String url) {
+          return new NormalizedPath(extractResourceNameFromURL(null, url));
+        }
+      };
+  // url -> normalized path, so the paths of the most requested urls are not parsed again
+  private final DDCache<String, NormalizedPath> pathCache = DDCaches.newFixedSizeCache(512);
+
   @Override
   public String[] aliases() {
     return new String[] {"URLAsResourceName", "Status404Rule", "Status404Decorator"};
@@ -35,7 +49,10 @@ public class URLAsResourceNameRule implements TraceProcessor.Rule {
     if (null == url) {
       return;
     }
-    span.setResourceName(extractResourceNameFromURL(span.getTag(Tags.HTTP_METHOD), url.toString()));
+    span.setResourceName(
+        pathCache
+            .computeIfAbsent(url.toString(), normalize)
+            .resourceName(span.getTag(Tags.HTTP_METHOD)));
   }
 
   private String extractResourceNameFromURL(final Object method, final String url) {
@@ -130,6 +147,43 @@ public class URLAsResourceNameRule implements TraceProcessor.Rule {
     }
   }
 
+  /** A normalized path and the resource name last derived from it */
+  private static final class NormalizedPath {
+    private final UTF8BytesString path;
+    private volatile ResourceName last;
+
+    NormalizedPath(final String path) {
+      this.path = UTF8BytesString.create(path);
+    }
+
+    CharSequence resourceName(final Object method) {
+      if (method == null) {
+        return path;
+      }
+      final String methodName = method.toString();
+      final ResourceName cached = last;
+      if (cached != null && cached.method.equals(methodName)) {
+        return cached.resourceName;
+      }
+      final ResourceName created =
+          new ResourceName(
+              methodName,
+              UTF8BytesString.create(methodName.toUpperCase().trim() + ' ' + path.toString()));
+      last = created;
+      return created.resourceName;
+    }
+  }
+
+  private static final class ResourceName {
+    private final String method;
+    private final UTF8BytesString resourceName;
+
+    ResourceName(final String method, final UTF8BytesString resourceName) {
+      this.method = method;
+      this.resourceName = resourceName;
+    }
+  }
+
   /**
    * This class does substring search on latin 1 strings of up to 32 characters, and will inspect
    * each character at most once in the input.
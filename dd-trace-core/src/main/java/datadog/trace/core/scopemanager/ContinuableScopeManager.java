@@ -73,7 +73,12 @@ public class ContinuableScopeManager implements AgentScopeManager {
   @Override
   public AgentScope activate(final AgentSpan span, final ScopeSource source) {
     final ScopeStack scopeStack = scopeStack();
+    activateLazyScope(scopeStack);
+    return activate(scopeStack, span, source);
+  }
 
+  private AgentScope activate(
+      final ScopeStack scopeStack, final AgentSpan span, final ScopeSource source) {
     final ContinuableScope active = scopeStack.top();
     if (active != null && active.span.equals(span)) {
       active.incrementReferences();
@@ -98,14 +103,41 @@ public class ContinuableScopeManager implements AgentScopeManager {
     return scope;
   }
 
+  @Override
+  public AgentScope activateLazily(final AgentSpan span) {
+    final ScopeStack scopeStack = scopeStack();
+    final LazyScope scope = new LazyScope(this, scopeStack, span);
+    scopeStack.lazy = scope;
+    return scope;
+  }
+
+  /** Activates the scope of the lazily activated span of the thread, if there is one */
+  private void activateLazyScope(final ScopeStack scopeStack) {
+    final LazyScope lazy = scopeStack.lazy;
+    if (lazy != null) {
+      scopeStack.lazy = null;
+      final AgentScope scope = activate(scopeStack, lazy.span, ScopeSource.INSTRUMENTATION);
+      scope.setAsyncPropagation(true);
+      lazy.scope = scope;
+    }
+  }
+
   @Override
   public TraceScope active() {
-    return scopeStack().top();
+    final ScopeStack scopeStack = scopeStack();
+    activateLazyScope(scopeStack);
+    return scopeStack.top();
   }
 
   @Override
   public AgentSpan activeSpan() {
-    final AgentScope active = scopeStack().top();
+    final ScopeStack scopeStack = scopeStack();
+    final LazyScope lazy = scopeStack.lazy;
+    if (lazy != null) {
+      // reading the span alone doesn't need a scope
+      return lazy.span;
+    }
+    final AgentScope active = scopeStack.top();
     return active == null ? null : active.span();
   }
 
@@ -259,6 +291,9 @@ public class ContinuableScopeManager implements AgentScopeManager {
   static final class ScopeStack {
     private final ArrayDeque<ContinuableScope> stack = new ArrayDeque<>();
 
+    /** Lazily activated span whose scope is not activated yet. May be null. */
+    LazyScope lazy;
+
     /** top - accesses the top of the ScopeStack */
     final ContinuableScope top() {
       return stack.peek();
@@ -302,6 +337,92 @@ public class ContinuableScopeManager implements AgentScopeManager {
     // DQH - regrettably needed for pre-existing tests
     final void clear() {
       stack.clear();
+      lazy = null;
+    }
+  }
+
+  /**
+   * A span made active without pushing a scope. Propagating the span of a reactive stream through
+   * every signal this way avoids the scope activation and listener notifications for the signals
+   * where nothing reads the active span.
+   */
+  private static final class LazyScope implements AgentScope {
+    private final ContinuableScopeManager scopeManager;
+    private final ScopeStack scopeStack;
+    private final AgentSpan span;
+    /** Lazily activated span this one hides, restored on close. May be null. */
+    private final LazyScope previous;
+    /** Scope activated for the span once it was needed. May be null. */
+    private AgentScope scope;
+
+    private boolean closed;
+
+    LazyScope(
+        final ContinuableScopeManager scopeManager,
+        final ScopeStack scopeStack,
+        final AgentSpan span) {
+      this.scopeManager = scopeManager;
+      this.scopeStack = scopeStack;
+      this.span = span;
+      this.previous = scopeStack.lazy;
+    }
+
+    /** @return the activated scope, activating it if this is the pending lazy scope */
+    private AgentScope scope() {
+      if (scope == null && scopeStack.lazy == this) {
+        scopeManager.activateLazyScope(scopeStack);
+      }
+      return scope;
+    }
+
+    @Override
+    public AgentSpan span() {
+      return span;
+    }
+
+    @Override
+    public void setAsyncPropagation(final boolean value) {
+      if (value && scope == null) {
+        // the scope is async propagating once activated
+        return;
+      }
+      final AgentScope scope = scope();
+      if (scope != null) {
+        scope.setAsyncPropagation(value);
+      }
+    }
+
+    @Override
+    public boolean isAsyncPropagating() {
+      return scope == null || scope.isAsyncPropagating();
+    }
+
+    @Override
+    public TraceScope.Continuation capture() {
+      final AgentScope scope = scope();
+      return scope == null ? null : scope.capture();
+    }
+
+    @Override
+    public void close() {
+      if (scope != null) {
+        scope.close();
+      }
+      closed = true;
+      // closed out of order, the lazy span of a later scope stays; once activated, this scope had
+      // cleared the lazy span, so the hidden one is restored too
+      if (scopeStack.lazy == this || (scope != null && scopeStack.lazy == null)) {
+        LazyScope restored = previous;
+        while (restored != null && restored.closed) {
+          restored = restored.previous;
+        }
+        scopeStack.lazy = restored;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return super.toString() + "->" + span;
     }
   }
 
@@ -336,6 +457,7 @@ public class ContinuableScopeManager implements AgentScopeManager {
 
     @Override
     public AgentScope activate() {
+      scopeManager.activateLazyScope(scopeManager.scopeStack());
       if (used.compareAndSet(false, true)) {
         final AgentScope scope = scopeManager.handleSpan(this, spanUnderScope, source);
         log.debug("t_id={} -> activating continuation {}", spanUnderScope.getTraceId(), this);
@@ -5,20 +5,27 @@ import datadog.trace.util.test.DDSpecification
 import org.junit.Assert
 import org.junit.Assume
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.atomic.AtomicLong
+
 import static java.lang.management.ManagementFactory.getThreadMXBean
+import static java.util.concurrent.TimeUnit.HOURS
 import static java.util.concurrent.TimeUnit.MILLISECONDS
+import static java.util.concurrent.TimeUnit.SECONDS
 
 class TimingTest extends DDSpecification {
 
   def "timer times stuff"() {
     setup:
     StatsDClient statsd = Mock(StatsDClient)
-    Monitoring monitoring = new Monitoring(statsd, 100, MILLISECONDS)
+    Monitoring monitoring = new Monitoring(statsd, 1, HOURS)
     def timer = monitoring.newTimer("my_timer")
     when:
     Recording recording = timer.start()
     Thread.sleep(200)
     recording.close()
+    monitoring.flush()
     then:
     1 * statsd.gauge("my_timer", { it > MILLISECONDS.toNanos(200) }, "stat:avg")
     1 * statsd.gauge("my_timer", { it > MILLISECONDS.toNanos(200) }, "stat:p50")
@@ -30,12 +37,13 @@ class TimingTest extends DDSpecification {
   def "threadlocal timer times stuff"() {
     setup:
     StatsDClient statsd = Mock(StatsDClient)
-    Monitoring monitoring = new Monitoring(statsd, 100, MILLISECONDS)
+    Monitoring monitoring = new Monitoring(statsd, 1, HOURS)
     def timer = monitoring.newThreadLocalTimer("my_timer")
     when:
     Recording recording = timer.start()
     Thread.sleep(200)
     recording.close()
+    monitoring.flush()
     then:
     1 * statsd.gauge("my_timer", { it > MILLISECONDS.toNanos(200) }, { it[0] == "stat:avg" && it[1].startsWith("thread:") })
     1 * statsd.gauge("my_timer", { it > MILLISECONDS.toNanos(200) }, { it[0] == "stat:p50" && it[1].startsWith("thread:") })
@@ -47,7 +55,7 @@ class TimingTest extends DDSpecification {
   def "reset timer"() {
     setup:
     StatsDClient statsd = Mock(StatsDClient)
-    Monitoring monitoring = new Monitoring(statsd, 100, MILLISECONDS)
+    Monitoring monitoring = new Monitoring(statsd, 1, HOURS)
     def timer = timerCreator(monitoring)
     when:
     timer.start()
@@ -55,9 +63,9 @@ class TimingTest extends DDSpecification {
     timer.reset()
     then:
     if (timer instanceof ThreadLocalRecording) {
-      timer.tls.get().start >= min
+      timer.tls.get().threadTimer.get().start >= min
     } else {
-      timer.start >= min
+      timer.threadTimer.get().start >= min
     }
 
     where:
@@ -92,12 +100,13 @@ class TimingTest extends DDSpecification {
     setup:
     Assume.assumeTrue(getThreadMXBean().isCurrentThreadCpuTimeSupported())
     StatsDClient statsd = Mock(StatsDClient)
-    Monitoring monitoring = new Monitoring(statsd, 100, MILLISECONDS)
+    Monitoring monitoring = new Monitoring(statsd, 1, HOURS)
     def timer = monitoring.newCPUTimer("my_timer")
     when:
     Recording recording = timer.start()
     Thread.sleep(200)
     recording.close()
+    monitoring.flush()
     then:
     1 * statsd.gauge("my_timer", { it > MILLISECONDS.toNanos(200) }, { it[0] == "stat:avg" && it[1].startsWith("thread:") })
     1 * statsd.gauge("my_timer", { it > MILLISECONDS.toNanos(200) }, { it[0] == "stat:p50" && it[1].startsWith("thread:") })
@@ -106,5 +115,88 @@ class TimingTest extends DDSpecification {
     1 * statsd.gauge("my_timer.cpu", { it > 0 }, { it[0].startsWith("thread:") })
     0 * _
   }
-}
 
+  def "timer is flushed by the reporter"() {
+    setup:
+    StatsDClient statsd = Mock(StatsDClient)
+    Monitoring monitoring = new Monitoring(statsd, 100, MILLISECONDS)
+    def timer = monitoring.newTimer("my_timer")
+    def flushed = new CountDownLatch(1)
+    when:
+    timer.start().stop()
+    def reported = flushed.await(5, SECONDS)
+    then:
+    reported
+    (1.._) * statsd.gauge("my_timer", _, "stat:max") >> { flushed.countDown() }
+  }
+
+  def "nothing is reported without recordings"() {
+    setup:
+    StatsDClient statsd = Mock(StatsDClient)
+    Monitoring monitoring = new Monitoring(statsd, 1, HOURS)
+    monitoring.newTimer("my_timer")
+    monitoring.newCPUTimer("my_cpu_timer")
+    when:
+    monitoring.flush()
+    then:
+    0 * _
+  }
+
+  def "timer merges recordings of all threads"() {
+    setup:
+    StatsDClient statsd = Mock(StatsDClient)
+    def collected = new AtomicLong()
+    def timer = new datadog.trace.core.monitor.Timer("my_timer", statsd) {
+      @Override
+      void collect(datadog.trace.core.monitor.Timer.ThreadTimer threadTimer) {
+        super.collect(threadTimer)
+        collected.addAndGet(threadTimer.interval.totalCount)
+      }
+    }
+    int threadCount = 8
+    int recordings = 10_000
+    def barrier = new CyclicBarrier(threadCount)
+    when:
+    def threads = (1..threadCount).collect { i ->
+      Thread.start {
+        barrier.await()
+        for (int j = 0; j < recordings; j++) {
+          Recording recording = timer.start()
+          if (j % 1000 == 0) {
+            timer.flush()
+          }
+          recording.stop()
+        }
+      }
+    }
+    threads*.join()
+    timer.flush()
+    then:
+    collected.get() == threadCount * recordings
+    // all thread timers are drained and the terminated ones are dropped
+    timer.threadTimerCount() == 0
+    (1.._) * statsd.gauge("my_timer", _, "stat:avg")
+    (1.._) * statsd.gauge("my_timer", _, "stat:p50")
+    (1.._) * statsd.gauge("my_timer", _, "stat:p99")
+    (1.._) * statsd.gauge("my_timer", _, "stat:max")
+    0 * _
+  }
+
+  def "threadlocal timers of terminated threads are dropped"() {
+    setup:
+    StatsDClient statsd = Mock(StatsDClient)
+    Monitoring monitoring = new Monitoring(statsd, 1, HOURS)
+    def timer = monitoring.newThreadLocalTimer("my_timer")
+    when:
+    def threads = (1..4).collect {
+      Thread.start {
+        timer.start().stop()
+      }
+    }
+    threads*.join()
+    monitoring.flush()
+    then:
+    monitoring.threadTimerCount() == 0
+    4 * statsd.gauge("my_timer", _, { it[0] == "stat:max" && it[1].startsWith("thread:") })
+  }
+}
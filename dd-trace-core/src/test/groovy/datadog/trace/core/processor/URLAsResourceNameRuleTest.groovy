@@ -139,4 +139,29 @@ class URLAsResourceNameRuleTest extends DDSpecification {
 
     ignore = meta.put(Tags.HTTP_URL, value)
   }
+
+  def "reuses the normalized path of a url for other methods"() {
+    when:
+    def resourceNames = methods.collect { method ->
+      def span = SpanFactory.newSpanOf(0)
+      span.setTag(Tags.HTTP_URL, "/users/123")
+      if (method != null) {
+        span.setTag(Tags.HTTP_METHOD, method)
+      }
+      span.context().processExclusiveSpan(new ExclusiveSpan.Consumer() {
+          @Override
+          void accept(ExclusiveSpan exclusiveSpan) {
+            decorator.processSpan(exclusiveSpan)
+          }
+        })
+      span.resourceName.toString()
+    }
+
+    then:
+    resourceNames == expected
+
+    where:
+    methods                            | expected
+    ["GET", "GET", "post", null, "GET"] | ["GET /users/?", "GET /users/?", "POST /users/?", "/users/?", "GET /users/?"]
+  }
 }
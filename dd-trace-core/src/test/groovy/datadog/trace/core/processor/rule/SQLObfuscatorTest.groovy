@@ -0,0 +1,120 @@
+package datadog.trace.core.processor.rule
+
+import datadog.trace.bootstrap.instrumentation.api.Tags
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
+import datadog.trace.core.ExclusiveSpan
+import datadog.trace.core.SpanFactory
+import datadog.trace.util.test.DDSpecification
+
+class SQLObfuscatorTest extends DDSpecification {
+
+  def "obfuscates #sql"() {
+    expect:
+    SQLObfuscator.obfuscate(sql) == obfuscated
+
+    where:
+    sql                                                                            | obfuscated
+    "SELECT * FROM users WHERE id = ?"                                             | "SELECT * FROM users WHERE id = ?"
+    "SELECT * FROM users WHERE id = 42"                                            | "SELECT * FROM users WHERE id = ?"
+    "SELECT * FROM users WHERE name = 'O''Brien' AND age > 3.5e10"                 | "SELECT * FROM users WHERE name = ? AND age > ?"
+    "SELECT * FROM t WHERE id IN (1, 2, 3) AND x IN ('a','b')"                     | "SELECT * FROM t WHERE id IN (?) AND x IN (?)"
+    "SELECT * FROM t WHERE id in( 1 ,2 )"                                          | "SELECT * FROM t WHERE id in(?)"
+    "SELECT * FROM t WHERE id IN (?, ?, ?)"                                        | "SELECT * FROM t WHERE id IN (?)"
+    "SELECT * FROM t WHERE id IN (SELECT id FROM u WHERE v = 1)"                   | "SELECT * FROM t WHERE id IN (SELECT id FROM u WHERE v = ?)"
+    "SELECT * FROM t WHERE a = :name AND b IN (:list)"                             | "SELECT * FROM t WHERE a = :name AND b IN (:list)"
+    "select  a,\n\tb -- comment\nfrom t1 /* hint */ where c = 0x1F"                | "select a, b from t1 where c = ?"
+    "SELECT * FROM t WHERE a = \$1 AND b = \$\$it's\$\$ AND c = \$tag\$x\$tag\$"   | "SELECT * FROM t WHERE a = \$1 AND b = ? AND c = ?"
+    "INSERT INTO t (a, b) VALUES (N'x', E'\\'y')"                                  | "INSERT INTO t (a, b) VALUES (?, ?)"
+    "SELECT \"col1\", `col2` FROM t2 WHERE t2.col3 = .5"                           | "SELECT \"col1\", `col2` FROM t2 WHERE t2.col3 = ?"
+    "UPDATE t SET a = -1 WHERE b IN (1,2) "                                        | "UPDATE t SET a = -? WHERE b IN (?)"
+    "SELECT * FROM t WHERE name = 'unterminated AND id = 1"                        | "SELECT * FROM t WHERE name = ?"
+    "SELECT * FROM t WHERE path = 'C:\\' AND id = 5"                               | "SELECT * FROM t WHERE path = ? AND id = ?"
+    "SELECT * FROM t WHERE id IN ()"                                               | "SELECT * FROM t WHERE id IN ()"
+    "SELECT * FROM t WHERE x = 1e AND y = 12ab"                                    | "SELECT * FROM t WHERE x = ? AND y = ?"
+    "SELECT * FROM #temp WHERE id = 1"                                             | "SELECT * FROM #temp WHERE id = ?"
+  }
+
+  def "obfuscates mysql #sql"() {
+    expect:
+    SQLObfuscator.obfuscate(sql, true) == obfuscated
+
+    where:
+    sql                                                                            | obfuscated
+    "SELECT * FROM t WHERE a = 'it\\'s' AND b = 1"                                 | "SELECT * FROM t WHERE a = ? AND b = ?"
+    "SELECT * FROM t WHERE path = 'C:\\\\' AND id = 5"                             | "SELECT * FROM t WHERE path = ? AND id = ?"
+    "SELECT a # comment\nFROM t WHERE b = \"x\""                                   | "SELECT a FROM t WHERE b = ?"
+    "SELECT `a` FROM t WHERE b IN (\"x\", \"y\") # trailing comment"               | "SELECT `a` FROM t WHERE b IN (?)"
+  }
+
+  def "db statement rule obfuscates=#obfuscate"() {
+    setup:
+    def rule = new DBStatementRule(obfuscate)
+    def span = SpanFactory.newSpanOf(0)
+    span.setTag(Tags.DB_STATEMENT, statement)
+
+    when:
+    span.context().processExclusiveSpan(new ExclusiveSpan.Consumer() {
+        @Override
+        void accept(ExclusiveSpan exclusiveSpan) {
+          rule.processSpan(exclusiveSpan)
+        }
+      })
+
+    then:
+    span.resourceName.toString() == resourceName
+    span.getTag(Tags.DB_STATEMENT) == null
+
+    where:
+    obfuscate | statement                                                      | resourceName
+    false     | "SELECT * FROM t WHERE id = 1"                                 | "SELECT * FROM t WHERE id = 1"
+    false     | UTF8BytesString.create("SELECT * FROM t WHERE id = 1")         | "SELECT * FROM t WHERE id = 1"
+    true      | "SELECT * FROM t WHERE id = 1"                                 | "SELECT * FROM t WHERE id = ?"
+    true      | UTF8BytesString.create("SELECT * FROM t WHERE id IN (1, 2)")  | "SELECT * FROM t WHERE id IN (?)"
+  }
+
+  def "statements only differing by their literals share a resource name"() {
+    setup:
+    def rule = new DBStatementRule(true)
+    def spans = ["SELECT * FROM t WHERE id = 1", "SELECT * FROM t WHERE id = 2"].collect { statement ->
+      def span = SpanFactory.newSpanOf(0)
+      span.setTag(Tags.DB_STATEMENT, statement)
+      span.context().processExclusiveSpan(new ExclusiveSpan.Consumer() {
+          @Override
+          void accept(ExclusiveSpan exclusiveSpan) {
+            rule.processSpan(exclusiveSpan)
+          }
+        })
+      return span
+    }
+
+    expect:
+    spans[0].resourceName.toString() == "SELECT * FROM t WHERE id = ?"
+    spans[0].resourceName.is(spans[1].resourceName)
+  }
+
+  def "db statement rule uses the mysql dialect for #dbType"() {
+    setup:
+    def rule = new DBStatementRule(true)
+    def span = SpanFactory.newSpanOf(0)
+    span.setTag(Tags.DB_TYPE, dbType)
+    span.setTag(Tags.DB_STATEMENT, "SELECT * FROM t WHERE a = 'x\\' AND b = 1")
+
+    when:
+    span.context().processExclusiveSpan(new ExclusiveSpan.Consumer() {
+        @Override
+        void accept(ExclusiveSpan exclusiveSpan) {
+          rule.processSpan(exclusiveSpan)
+        }
+      })
+
+    then:
+    span.resourceName.toString() == resourceName
+
+    where:
+    dbType       | resourceName
+    "postgresql"                                                                   | "SELECT * FROM t WHERE a = ? AND b = ?"
+    // the backslash escapes the closing quote, so the string swallows the rest
+    "mysql"                                                                        | "SELECT * FROM t WHERE a = ?"
+    "mariadb"                                                                      | "SELECT * FROM t WHERE a = ?"
+  }
+}
@@ -582,6 +582,142 @@ class ScopeManagerTest extends DDSpecification {
     writer == [[secondSpan, span]]
   }
 
+  def "lazily activated span is only activated when the active scope is read"() {
+    setup:
+    AgentSpan span = tracer.buildSpan("foo").start()
+
+    when:
+    AgentScope lazyScope = tracer.activateSpanLazily(span)
+
+    then:
+    scopeManager.activeSpan() == span
+    lazyScope.span() == span
+    scopeManager.scopeStack().depth() == 0
+    eventCountingListener.events == []
+
+    when:
+    def active = scopeManager.active()
+
+    then:
+    active instanceof ContinuableScopeManager.ContinuableScope
+    active.span() == span
+    active.isAsyncPropagating()
+    scopeManager.scopeStack().depth() == 1
+    eventCountingListener.events == [ACTIVATE]
+
+    when:
+    lazyScope.close()
+    span.finish()
+
+    then:
+    scopeManager.active() == null
+    scopeManager.activeSpan() == null
+    eventCountingListener.events == [ACTIVATE, CLOSE]
+  }
+
+  def "closing a lazily activated span that was not read does nothing"() {
+    setup:
+    AgentSpan span = tracer.buildSpan("foo").start()
+    AgentScope scope = tracer.activateSpan(span)
+    AgentSpan lazySpan = tracer.buildSpan("bar").start()
+
+    when:
+    AgentScope lazyScope = tracer.activateSpanLazily(lazySpan)
+
+    then:
+    scopeManager.activeSpan() == lazySpan
+
+    when:
+    lazyScope.close()
+
+    then:
+    scopeManager.activeSpan() == span
+    scopeManager.active() == scope
+    eventCountingListener.events == [ACTIVATE]
+
+    cleanup:
+    scope.close()
+  }
+
+  def "activating a span activates the lazily activated span below it"() {
+    setup:
+    AgentSpan lazySpan = tracer.buildSpan("foo").start()
+    AgentScope lazyScope = tracer.activateSpanLazily(lazySpan)
+
+    when:
+    AgentSpan childSpan = tracer.buildSpan("bar").start()
+    AgentScope childScope = tracer.activateSpan(childSpan)
+
+    then:
+    ((DDSpan) childSpan).context().parentId == ((DDSpan) lazySpan).context().spanId
+    scopeManager.scopeStack().depth() == 2
+    scopeManager.activeSpan() == childSpan
+
+    when:
+    childScope.close()
+
+    then:
+    scopeManager.activeSpan() == lazySpan
+    scopeManager.scopeStack().depth() == 1
+
+    when:
+    lazyScope.close()
+
+    then:
+    scopeManager.activeSpan() == null
+    scopeManager.scopeStack().depth() == 0
+    eventCountingListener.events == [ACTIVATE, ACTIVATE, CLOSE, ACTIVATE, CLOSE]
+  }
+
+  def "nested lazily activated spans restore the outer span on close"() {
+    setup:
+    AgentSpan outerSpan = tracer.buildSpan("foo").start()
+    AgentSpan innerSpan = tracer.buildSpan("bar").start()
+
+    when:
+    AgentScope outerScope = tracer.activateSpanLazily(outerSpan)
+    AgentScope innerScope = tracer.activateSpanLazily(innerSpan)
+
+    then:
+    scopeManager.active().span() == innerSpan
+
+    when:
+    innerScope.close()
+
+    then:
+    scopeManager.activeSpan() == outerSpan
+    scopeManager.scopeStack().depth() == 0
+
+    when:
+    outerScope.close()
+
+    then:
+    scopeManager.activeSpan() == null
+    eventCountingListener.events == [ACTIVATE, CLOSE]
+  }
+
+  def "closing lazily activated spans out of order keeps the later span active"() {
+    setup:
+    AgentSpan outerSpan = tracer.buildSpan("foo").start()
+    AgentSpan innerSpan = tracer.buildSpan("bar").start()
+    AgentScope outerScope = tracer.activateSpanLazily(outerSpan)
+    AgentScope innerScope = tracer.activateSpanLazily(innerSpan)
+
+    when:
+    outerScope.close()
+
+    then:
+    scopeManager.activeSpan() == innerSpan
+
+    when:
+    innerScope.close()
+
+    then:
+    scopeManager.activeSpan() == null
+    scopeManager.active() == null
+    eventCountingListener.events == []
+  }
+
   def "exception thrown in TraceInterceptor does not leave scopemanager in bad state"() {
     when:
     tracer.addTraceInterceptor(new ExceptionThrowingInterceptor())
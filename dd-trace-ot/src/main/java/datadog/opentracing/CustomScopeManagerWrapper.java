@@ -42,6 +42,12 @@ class CustomScopeManagerWrapper implements AgentScopeManager {
     return new CustomScopeManagerScope(scope);
   }
 
+  @Override
+  public AgentScope activateLazily(final AgentSpan agentSpan) {
+    // custom scope managers can't tell when the active span is read
+    return activate(agentSpan, ScopeSource.INSTRUMENTATION);
+  }
+
   @Override
   public TraceScope active() {
     return new CustomScopeManagerScope(delegate.active());
@@ -6,6 +6,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_AGENT_UNIX_DOMAIN_SOCKET;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_AGENT_WRITER_TYPE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_ANALYTICS_SAMPLE_RATE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_SQL_OBFUSCATION;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_CLIENT_ERROR_STATUSES;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_CLIENT_SPLIT_BY_DOMAIN;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_CLIENT_TAG_QUERY_STRING;
@@ -25,9 +26,15 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_EXCEPTION_HISTOGRAM_TOP_ITEMS;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_EXCEPTION_SAMPLE_LIMIT;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_OVERHEAD_MEASUREMENT_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_POSTPROCESSING_CPU_BUDGET;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_POSTPROCESSING_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_PROXY_PORT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_START_DELAY;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_START_FORCE_FIRST;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_TEMPLATE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_UPLOAD_COMPRESSION;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_UPLOAD_PERIOD;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_PROFILING_UPLOAD_TIMEOUT;
@@ -43,6 +50,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_ANALYTICS_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_ANNOTATIONS;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_EXECUTORS_ALL;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_METHODS;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_RATE_LIMIT;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_TRACE_REPORT_HOSTNAME;
@@ -56,7 +64,9 @@ import static datadog.trace.api.DDTags.SERVICE;
 import static datadog.trace.api.DDTags.SERVICE_TAG;
 import static datadog.trace.api.IdGenerationStrategy.RANDOM;
 import static datadog.trace.api.config.TraceInstrumentationConfig.HYSTRIX_TAGS_ENABLED;
+import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_INJECTION_LAZY;
 import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_MDC_TAGS_INJECTION_ENABLED;
+import static datadog.trace.api.config.TraceInstrumentationConfig.REACTOR_LAZY_SCOPE_ACTIVATION;
 import static datadog.trace.api.config.TracerConfig.ENABLE_TRACE_AGENT_V05;
 
 import datadog.trace.api.config.GeneralConfig;
@@ -142,6 +152,8 @@ public class Config {
   public static final String TRACE_ANNOTATIONS = TraceInstrumentationConfig.TRACE_ANNOTATIONS;
   public static final String TRACE_EXECUTORS_ALL = TraceInstrumentationConfig.TRACE_EXECUTORS_ALL;
   public static final String TRACE_EXECUTORS = TraceInstrumentationConfig.TRACE_EXECUTORS;
+  public static final String TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION =
+      TraceInstrumentationConfig.TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION;
   public static final String TRACE_METHODS = TraceInstrumentationConfig.TRACE_METHODS;
   public static final String TRACE_CLASSES_EXCLUDE =
       TraceInstrumentationConfig.TRACE_CLASSES_EXCLUDE;
@@ -163,6 +175,8 @@ public class Config {
       TraceInstrumentationConfig.HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN;
   public static final String DB_CLIENT_HOST_SPLIT_BY_INSTANCE =
       TraceInstrumentationConfig.DB_CLIENT_HOST_SPLIT_BY_INSTANCE;
+  public static final String DB_CLIENT_SQL_OBFUSCATION =
+      TraceInstrumentationConfig.DB_CLIENT_SQL_OBFUSCATION;
   public static final String SPLIT_BY_TAGS = TracerConfig.SPLIT_BY_TAGS;
   public static final String SCOPE_DEPTH_LIMIT = TracerConfig.SCOPE_DEPTH_LIMIT;
   public static final String SCOPE_STRICT_MODE = TracerConfig.SCOPE_STRICT_MODE;
@@ -214,6 +228,7 @@ public class Config {
   public static final String PROFILING_START_FORCE_FIRST =
       ProfilingConfig.PROFILING_START_FORCE_FIRST;
   public static final String PROFILING_UPLOAD_PERIOD = ProfilingConfig.PROFILING_UPLOAD_PERIOD;
+  public static final String PROFILING_TEMPLATE = ProfilingConfig.PROFILING_TEMPLATE;
   public static final String PROFILING_TEMPLATE_OVERRIDE_FILE =
       ProfilingConfig.PROFILING_TEMPLATE_OVERRIDE_FILE;
   public static final String PROFILING_UPLOAD_TIMEOUT = ProfilingConfig.PROFILING_UPLOAD_TIMEOUT;
@@ -229,6 +244,16 @@ public class Config {
       ProfilingConfig.PROFILING_EXCEPTION_HISTOGRAM_TOP_ITEMS;
   public static final String PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE =
       ProfilingConfig.PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE;
+  public static final String PROFILING_POSTPROCESSING_ENABLED =
+      ProfilingConfig.PROFILING_POSTPROCESSING_ENABLED;
+  public static final String PROFILING_POSTPROCESSING_CPU_BUDGET =
+      ProfilingConfig.PROFILING_POSTPROCESSING_CPU_BUDGET;
+  public static final String PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE =
+      ProfilingConfig.PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE;
+  public static final String PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE =
+      ProfilingConfig.PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE;
+  public static final String PROFILING_OVERHEAD_MEASUREMENT_ENABLED =
+      ProfilingConfig.PROFILING_OVERHEAD_MEASUREMENT_ENABLED;
 
   public static final String KAFKA_CLIENT_PROPAGATION_ENABLED =
       TraceInstrumentationConfig.KAFKA_CLIENT_PROPAGATION_ENABLED;
@@ -236,6 +261,12 @@ public class Config {
   public static final String KAFKA_CLIENT_BASE64_DECODING_ENABLED =
       TraceInstrumentationConfig.KAFKA_CLIENT_BASE64_DECODING_ENABLED;
 
+  public static final String KAFKA_CLIENT_BATCH_TRACING_ENABLED =
+      TraceInstrumentationConfig.KAFKA_CLIENT_BATCH_TRACING_ENABLED;
+
+  public static final String KAFKA_CLIENT_PROPAGATION_SKIP_UNSAMPLED =
+      TraceInstrumentationConfig.KAFKA_CLIENT_PROPAGATION_SKIP_UNSAMPLED;
+
   private static final String PROFILING_REMOTE_URL_TEMPLATE = "https://intake.profile.%s/v1/input";
   private static final String PROFILING_LOCAL_URL_TEMPLATE = "http://%s:%d/profiling/v1/input";
 
@@ -296,11 +327,15 @@ public class Config {
   @Getter private final boolean httpClientTagQueryString;
   @Getter private final boolean httpClientSplitByDomain;
   @Getter private final boolean dbClientSplitByInstance;
+  @Getter private final boolean dbClientSqlObfuscation;
   @Getter private final Set<String> splitByTags;
   @Getter private final int scopeDepthLimit;
   @Getter private final boolean scopeStrictMode;
   @Getter private final int partialFlushMinSpans;
   @Getter private final boolean runtimeContextFieldInjection;
+  @Getter private final boolean batchedHelperInjection;
+  @Getter private final String transformationStatsFile;
+  @Getter private final boolean indyAdviceEnabled;
   @Getter private final Set<PropagationStyle> propagationStylesToExtract;
   @Getter private final Set<PropagationStyle> propagationStylesToInject;
 
@@ -321,6 +356,7 @@ public class Config {
 
   @Getter private final boolean logsInjectionEnabled;
   @Getter private final boolean logsMDCTagsInjectionEnabled;
+  @Getter private final boolean logsInjectionLazy;
   @Getter private final boolean reportHostName;
 
   @Getter private final String traceAnnotations;
@@ -329,6 +365,7 @@ public class Config {
 
   @Getter private final boolean traceExecutorsAll;
   @Getter private final List<String> traceExecutors;
+  @Getter private final boolean traceExecutorsLightweightPropagation;
 
   @Getter private final boolean traceAnalyticsEnabled;
 
@@ -343,6 +380,7 @@ public class Config {
   @Getter private final int profilingStartDelay;
   @Getter private final boolean profilingStartForceFirst;
   @Getter private final int profilingUploadPeriod;
+  @Getter private final String profilingTemplate;
   @Getter private final String profilingTemplateOverrideFile;
   @Getter private final int profilingUploadTimeout;
   @Getter private final String profilingUploadCompression;
@@ -353,11 +391,19 @@ public class Config {
   @Getter private final int profilingExceptionSampleLimit;
   @Getter private final int profilingExceptionHistogramTopItems;
   @Getter private final int profilingExceptionHistogramMaxCollectionSize;
+  @Getter private final boolean profilingPostProcessingEnabled;
+  @Getter private final int profilingPostProcessingCpuBudget;
+  @Getter private final int profilingPostProcessingAllocationSampleStride;
+  @Getter private final int profilingPostProcessingExceptionSamplesPerStackTrace;
+  @Getter private final boolean profilingOverheadMeasurementEnabled;
 
   @Getter private final boolean kafkaClientPropagationEnabled;
   @Getter private final boolean kafkaClientBase64DecodingEnabled;
+  @Getter private final boolean kafkaClientBatchTracingEnabled;
+  @Getter private final boolean kafkaClientPropagationSkipUnsampled;
 
   @Getter private final boolean hystrixTagsEnabled;
+  @Getter private final boolean reactorLazyScopeActivation;
   @Getter private final boolean servletPrincipalEnabled;
   @Getter private final boolean servletAsyncTimeoutError;
 
@@ -487,6 +533,9 @@ public class Config {
         configProvider.getBoolean(
             DB_CLIENT_HOST_SPLIT_BY_INSTANCE, DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE);
 
+    dbClientSqlObfuscation =
+        configProvider.getBoolean(DB_CLIENT_SQL_OBFUSCATION, DEFAULT_DB_CLIENT_SQL_OBFUSCATION);
+
     splitByTags =
         Collections.unmodifiableSet(new LinkedHashSet<>(configProvider.getList(SPLIT_BY_TAGS)));
 
@@ -501,6 +550,15 @@ public class Config {
         configProvider.getBoolean(
             RUNTIME_CONTEXT_FIELD_INJECTION, DEFAULT_RUNTIME_CONTEXT_FIELD_INJECTION);
 
+    batchedHelperInjection =
+        configProvider.getBoolean(TraceInstrumentationConfig.BATCHED_HELPER_INJECTION, false);
+
+    transformationStatsFile =
+        configProvider.getString(TraceInstrumentationConfig.TRANSFORMATION_STATS_FILE);
+
+    indyAdviceEnabled =
+        configProvider.getBoolean(TraceInstrumentationConfig.INDY_ADVICE_ENABLED, false);
+
     propagationStylesToExtract =
         getPropagationStyleSetSettingFromEnvironmentOrDefault(
             PROPAGATION_STYLE_EXTRACT, DEFAULT_PROPAGATION_STYLE_EXTRACT);
@@ -528,6 +586,7 @@ public class Config {
     logsInjectionEnabled =
         configProvider.getBoolean(LOGS_INJECTION_ENABLED, DEFAULT_LOGS_INJECTION_ENABLED);
     logsMDCTagsInjectionEnabled = configProvider.getBoolean(LOGS_MDC_TAGS_INJECTION_ENABLED, false);
+    logsInjectionLazy = configProvider.getBoolean(LOGS_INJECTION_LAZY, false);
     reportHostName =
         configProvider.getBoolean(TRACE_REPORT_HOSTNAME, DEFAULT_TRACE_REPORT_HOSTNAME);
 
@@ -541,6 +600,10 @@ public class Config {
     traceExecutorsAll = configProvider.getBoolean(TRACE_EXECUTORS_ALL, DEFAULT_TRACE_EXECUTORS_ALL);
 
     traceExecutors = configProvider.getList(TRACE_EXECUTORS);
+    traceExecutorsLightweightPropagation =
+        configProvider.getBoolean(
+            TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION,
+            DEFAULT_TRACE_EXECUTORS_LIGHTWEIGHT_PROPAGATION);
 
     traceAnalyticsEnabled =
         configProvider.getBoolean(TRACE_ANALYTICS_ENABLED, DEFAULT_TRACE_ANALYTICS_ENABLED);
@@ -591,6 +654,7 @@ public class Config {
         configProvider.getBoolean(PROFILING_START_FORCE_FIRST, DEFAULT_PROFILING_START_FORCE_FIRST);
     profilingUploadPeriod =
         configProvider.getInteger(PROFILING_UPLOAD_PERIOD, DEFAULT_PROFILING_UPLOAD_PERIOD);
+    profilingTemplate = configProvider.getString(PROFILING_TEMPLATE, DEFAULT_PROFILING_TEMPLATE);
     profilingTemplateOverrideFile = configProvider.getString(PROFILING_TEMPLATE_OVERRIDE_FILE);
     profilingUploadTimeout =
         configProvider.getInteger(PROFILING_UPLOAD_TIMEOUT, DEFAULT_PROFILING_UPLOAD_TIMEOUT);
@@ -614,6 +678,23 @@ public class Config {
         configProvider.getInteger(
             PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE,
             DEFAULT_PROFILING_EXCEPTION_HISTOGRAM_MAX_COLLECTION_SIZE);
+    profilingPostProcessingEnabled =
+        configProvider.getBoolean(
+            PROFILING_POSTPROCESSING_ENABLED, DEFAULT_PROFILING_POSTPROCESSING_ENABLED);
+    profilingPostProcessingCpuBudget =
+        configProvider.getInteger(
+            PROFILING_POSTPROCESSING_CPU_BUDGET, DEFAULT_PROFILING_POSTPROCESSING_CPU_BUDGET);
+    profilingPostProcessingAllocationSampleStride =
+        configProvider.getInteger(
+            PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE,
+            DEFAULT_PROFILING_POSTPROCESSING_ALLOCATION_SAMPLE_STRIDE);
+    profilingPostProcessingExceptionSamplesPerStackTrace =
+        configProvider.getInteger(
+            PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE,
+            DEFAULT_PROFILING_POSTPROCESSING_EXCEPTION_SAMPLES_PER_STACK_TRACE);
+    profilingOverheadMeasurementEnabled =
+        configProvider.getBoolean(
+            PROFILING_OVERHEAD_MEASUREMENT_ENABLED, DEFAULT_PROFILING_OVERHEAD_MEASUREMENT_ENABLED);
 
     kafkaClientPropagationEnabled =
         configProvider.getBoolean(
@@ -622,8 +703,16 @@ public class Config {
     kafkaClientBase64DecodingEnabled =
         configProvider.getBoolean(KAFKA_CLIENT_BASE64_DECODING_ENABLED, false);
 
+    kafkaClientBatchTracingEnabled =
+        configProvider.getBoolean(KAFKA_CLIENT_BATCH_TRACING_ENABLED, false);
+
+    kafkaClientPropagationSkipUnsampled =
+        configProvider.getBoolean(KAFKA_CLIENT_PROPAGATION_SKIP_UNSAMPLED, false);
+
     hystrixTagsEnabled = configProvider.getBoolean(HYSTRIX_TAGS_ENABLED, false);
 
+    reactorLazyScopeActivation = configProvider.getBoolean(REACTOR_LAZY_SCOPE_ACTIVATION, false);
+
     servletPrincipalEnabled =
         configProvider.getBoolean(TraceInstrumentationConfig.SERVLET_PRINCIPAL_ENABLED, false);
 
@@ -9,6 +9,13 @@ public interface AgentScopeManager {
 
   AgentScope activate(AgentSpan span, ScopeSource source);
 
+  /**
+   * Makes the span the active span of the current thread, but only activates an async propagating
+   * scope for it when the active scope is read or another scope is activated. Closing the returned
+   * scope closes that scope, if there is one.
+   */
+  AgentScope activateLazily(AgentSpan span);
+
   TraceScope active();
 
   AgentSpan activeSpan();
@@ -41,6 +41,11 @@ public class AgentTracer {
     return get().activateSpan(span, ScopeSource.INSTRUMENTATION);
   }
 
+  /** @see AgentScopeManager#activateLazily(AgentSpan) */
+  public static AgentScope activateSpanLazily(final AgentSpan span) {
+    return get().activateSpanLazily(span);
+  }
+
   public static AgentSpan activeSpan() {
     return get().activeSpan();
   }
@@ -91,6 +96,8 @@ public class AgentTracer {
 
     AgentScope activateSpan(AgentSpan span, ScopeSource source);
 
+    AgentScope activateSpanLazily(AgentSpan span);
+
     AgentSpan activeSpan();
 
     TraceScope activeScope();
@@ -160,6 +167,11 @@ public class AgentTracer {
       return NoopAgentScope.INSTANCE;
     }
 
+    @Override
+    public AgentScope activateSpanLazily(final AgentSpan span) {
+      return NoopAgentScope.INSTANCE;
+    }
+
     @Override
     public AgentSpan activeSpan() {
       return NoopAgentSpan.INSTANCE;
@@ -11,6 +11,8 @@ public class InstrumentationTags {
   public static final String PARTITION = "partition";
   public static final String OFFSET = "offset";
   public static final String RECORD_QUEUE_TIME_MS = "record.queue_time_ms";
+  public static final String RECORD_COUNT = "record.count";
+  public static final String PARTITION_COUNT = "partition.count";
   public static final String RECORD_END_TO_END_DURATION_MS = "record.e2e_duration_ms";
   public static final String TOMBSTONE = "tombstone";
   public static final String AWS_AGENT = "aws.agent";
@@ -0,0 +1,200 @@
+package com.datadog.mlt.io;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LEB128 encoding throughput of the writers, one value at a time and in batches.
+ *
+ * <p>{@code BYTE_BY_BYTE} is the generic {@linkplain AbstractLEB128Writer} encoding over a buffer
+ * writer which checks the capacity and moves the position for every byte, as the {@linkplain
+ * LEB128ByteBufferWriter} used to do. {@code HEAP} and {@code DIRECT} are the {@linkplain
+ * LEB128ByteBufferWriter} over a heap and a direct buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LEB128WriterBenchmark {
+  private static final int VALUES = 4096;
+
+  public enum Writer {
+    BYTE_BY_BYTE,
+    HEAP,
+    DIRECT
+  }
+
+  @Param({"BYTE_BY_BYTE", "HEAP", "DIRECT"})
+  Writer writer;
+
+  /** Encoded length of the values; constant pool indexes mostly take 1 or 2 bytes */
+  @Param({"1", "2", "5"})
+  int encodedLength;
+
+  private int[] values;
+  private ByteByByteWriter byteByByteWriter;
+
+  @Setup
+  public void setup() {
+    Random rnd = new Random(0);
+    values = new int[VALUES];
+    int min = encodedLength == 1 ? 0 : 1 << (7 * (encodedLength - 1));
+    int range = encodedLength >= 5 ? Integer.MAX_VALUE - min : (1 << (7 * encodedLength)) - min;
+    for (int i = 0; i < values.length; i++) {
+      values[i] = min + rnd.nextInt(range);
+    }
+    if (encodedLength == 5) {
+      // negative values take the full 5 bytes
+      for (int i = 0; i < values.length; i += 2) {
+        values[i] = -values[i];
+      }
+    }
+    byteByByteWriter = new ByteByByteWriter();
+  }
+
+  @Benchmark
+  public int single() {
+    return write(
+        w -> {
+          for (int value : values) {
+            w.writeInt(value);
+          }
+        });
+  }
+
+  @Benchmark
+  public int batch() {
+    return write(w -> w.writeInts(values));
+  }
+
+  private int write(Consumer<LEB128Writer> code) {
+    LEB128Writer w;
+    switch (writer) {
+      case BYTE_BY_BYTE:
+        w = byteByByteWriter;
+        break;
+      case DIRECT:
+        w = new LEB128ByteBufferWriter(true);
+        break;
+      case HEAP:
+      default:
+        w = new LEB128ByteBufferWriter(false);
+        break;
+    }
+    try {
+      code.accept(w);
+      return w.position();
+    } finally {
+      w.reset();
+    }
+  }
+
+  /**
+   * Writes through {@linkplain #writeByte(int, byte)} and looks the thread-local buffer up for each
+   * byte, like the buffer writer used to
+   */
+  static final class ByteByByteWriter extends AbstractLEB128Writer {
+    private static final ThreadLocal<SoftReference<ByteBuffer>> BUFFER_REF =
+        ThreadLocal.withInitial(() -> new SoftReference<>(ByteBuffer.allocate(64 * 1024)));
+
+    @Override
+    public void reset() {
+      getBuffer().clear();
+    }
+
+    @Override
+    public int writeByte(int offset, byte data) {
+      ByteBuffer buffer = ensureCapacity(offset, 1);
+      int originalPosition = buffer.position();
+      buffer.position(offset);
+      buffer.put(data);
+      if (originalPosition > buffer.position()) {
+        buffer.position(originalPosition);
+      }
+      return position();
+    }
+
+    @Override
+    public int writeBytes(int offset, byte... data) {
+      for (byte b : data) {
+        offset = writeByte(offset, b);
+      }
+      return offset;
+    }
+
+    @Override
+    public int writeFloat(int offset, float data) {
+      return writeIntRaw(offset, Float.floatToIntBits(data));
+    }
+
+    @Override
+    public int writeDouble(int offset, double data) {
+      return writeLongRaw(offset, Double.doubleToLongBits(data));
+    }
+
+    @Override
+    public int writeShortRaw(int offset, short data) {
+      offset = writeByte(offset, (byte) (data >> 8));
+      return writeByte(offset, (byte) data);
+    }
+
+    @Override
+    public int writeIntRaw(int offset, int data) {
+      offset = writeShortRaw(offset, (short) (data >> 16));
+      return writeShortRaw(offset, (short) data);
+    }
+
+    @Override
+    public int writeLongRaw(int offset, long data) {
+      offset = writeIntRaw(offset, (int) (data >> 32));
+      return writeIntRaw(offset, (int) data);
+    }
+
+    @Override
+    public void export(Consumer<ByteBuffer> consumer) {
+      consumer.accept(getBuffer());
+    }
+
+    @Override
+    public int position() {
+      return getBuffer().position();
+    }
+
+    @Override
+    public int capacity() {
+      return getBuffer().capacity();
+    }
+
+    private ByteBuffer ensureCapacity(int offset, int dataLength) {
+      ByteBuffer buffer = getBuffer();
+      if (offset + dataLength > buffer.capacity()) {
+        ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, offset + 1));
+        buffer.flip();
+        newBuffer.put(buffer);
+        BUFFER_REF.set(new SoftReference<>(newBuffer));
+        return newBuffer;
+      }
+      return buffer;
+    }
+
+    private static ByteBuffer getBuffer() {
+      return BUFFER_REF.get().get();
+    }
+  }
+}
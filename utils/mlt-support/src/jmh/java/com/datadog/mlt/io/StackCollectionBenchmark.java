@@ -0,0 +1,96 @@
+package com.datadog.mlt.io;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Collecting stack traces into constant pools: the interning {@linkplain StackInterner} against the
+ * previous approach building a {@linkplain FrameElement} per frame and a flat {@linkplain
+ * FrameSequence} per sample. Run with {@code -prof gc} to compare allocation rates.
+ *
+ * <p>The samples share their outermost frames, like stacks sampled from a thread pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StackCollectionBenchmark {
+  private static final int DISTINCT_STACKS = 64;
+
+  @Param({"16", "64", "256"})
+  int depth;
+
+  private StackTraceElement[][] samples;
+  private int next;
+
+  private StackInterner interner;
+
+  private ConstantPool<String> stringPool;
+  private ConstantPool<FrameElement> framePool;
+  private ConstantPool<FrameSequence> stackPool;
+
+  @Setup
+  public void setup() {
+    samples = new StackTraceElement[DISTINCT_STACKS][];
+    int sharedDepth = depth * 3 / 4;
+    for (int i = 0; i < DISTINCT_STACKS; i++) {
+      StackTraceElement[] stack = new StackTraceElement[depth];
+      for (int j = 0; j < depth; j++) {
+        // the last frames are the outermost ones
+        boolean shared = j >= depth - sharedDepth;
+        stack[j] =
+            new StackTraceElement(
+                (shared ? "com.example.Shared" : "com.example.Leaf" + i).intern(),
+                ("method" + j).intern(),
+                "Source.java",
+                j);
+      }
+      samples[i] = stack;
+    }
+    interner = new StackInterner(new ConstantPool<>(1), new ConstantPool<>(), new ConstantPool<>());
+    stringPool = new ConstantPool<>(1);
+    framePool = new ConstantPool<>();
+    stackPool = new ConstantPool<>();
+  }
+
+  @Benchmark
+  public int interned() {
+    return interner.intern(nextSample());
+  }
+
+  @Benchmark
+  public int flat() {
+    StackTraceElement[] stackTrace = nextSample();
+    int[] framePtrs = new int[stackTrace.length];
+    for (int i = 0; i < stackTrace.length; i++) {
+      StackTraceElement element = stackTrace[i];
+      framePtrs[i] =
+          framePool.getOrInsert(
+              new FrameElement(
+                  element.getClassName(),
+                  element.getMethodName(),
+                  element.getLineNumber(),
+                  stringPool,
+                  framePool));
+    }
+    return new FrameSequence(framePtrs, framePool, stackPool).getCpIndex();
+  }
+
+  private StackTraceElement[] nextSample() {
+    StackTraceElement[] sample = samples[next];
+    next = (next + 1) % DISTINCT_STACKS;
+    return sample;
+  }
+}
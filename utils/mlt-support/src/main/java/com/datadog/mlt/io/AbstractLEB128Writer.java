@@ -43,7 +43,7 @@ abstract class AbstractLEB128Writer implements LEB128Writer {
   }
 
   @Override
-  public final int writeLong(int offset, long data) {
+  public int writeLong(int offset, long data) {
     if ((data & LEB128Writer.COMPRESSED_INT_MASK) == 0) {
       return writeByte(offset, (byte) (data & 0xff));
     }
@@ -86,6 +86,34 @@ abstract class AbstractLEB128Writer implements LEB128Writer {
     return writeByte(offset, (byte) (data >> 7));
   }
 
+  @Override
+  public final LEB128Writer writeInts(int[] data) {
+    writeInts(position(), data);
+    return this;
+  }
+
+  @Override
+  public int writeInts(int offset, int[] data) {
+    for (int value : data) {
+      offset = writeInt(offset, value);
+    }
+    return offset;
+  }
+
+  @Override
+  public final LEB128Writer writeLongs(long[] data) {
+    writeLongs(position(), data);
+    return this;
+  }
+
+  @Override
+  public int writeLongs(int offset, long[] data) {
+    for (long value : data) {
+      offset = writeLong(offset, value);
+    }
+    return offset;
+  }
+
   @Override
   public final LEB128Writer writeFloat(float data) {
     writeFloat(position(), data);
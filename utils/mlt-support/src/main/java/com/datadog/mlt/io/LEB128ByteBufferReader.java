@@ -0,0 +1,124 @@
+package com.datadog.mlt.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@linkplain ByteBuffer} reader with default support for LEB128 encoded integer types. Reads with
+ * absolute positions, leaving the buffer's own position and limit untouched, and never copies the
+ * buffer.
+ */
+final class LEB128ByteBufferReader {
+  private static final int EXT_BIT = 0x80;
+  private static final long COMPRESSED_INT_MASK = 0x7f;
+  private final ByteBuffer buffer;
+  private final int limit;
+  private int pointer;
+
+  /**
+   * @param buffer the data, from its current position to its limit; position 0 of the reader is the
+   *     buffer's current position
+   */
+  LEB128ByteBufferReader(ByteBuffer buffer) {
+    this.buffer = buffer.slice();
+    this.limit = this.buffer.limit();
+  }
+
+  /**
+   * Check whether there is more data to read
+   *
+   * @return {@literal true} if there is more data to read
+   */
+  boolean hasMore() {
+    return pointer < limit;
+  }
+
+  /**
+   * Get the current position and set the new one
+   *
+   * @param pos the new position
+   * @return the previous position
+   */
+  int getAndSetPos(int pos) {
+    if (pos > limit) {
+      throw new IndexOutOfBoundsException();
+    }
+    int current = pointer;
+    pointer = pos;
+    return current;
+  }
+
+  int readInt() {
+    return (int) (readLong() & 0xffffffff);
+  }
+
+  long readLong() {
+    long result = 0;
+    short shift = 0;
+    while (true) {
+      byte b = readByte();
+      result |= (b & COMPRESSED_INT_MASK) << shift;
+      if ((b & EXT_BIT) == 0) {
+        break;
+      }
+      shift += 7;
+    }
+    return result;
+  }
+
+  byte readByte() {
+    return buffer.get(pointer++);
+  }
+
+  /** Skip a LEB128 encoded value without decoding it */
+  void skipLong() {
+    while ((readByte() & EXT_BIT) != 0) {}
+  }
+
+  void skip(int len) {
+    getAndSetPos(pointer + len);
+  }
+
+  String readUTF() {
+    int size = readInt();
+    String value;
+    if (buffer.hasArray()) {
+      value =
+          new String(buffer.array(), buffer.arrayOffset() + pointer, size, StandardCharsets.UTF_8);
+    } else {
+      byte[] data = new byte[size];
+      for (int i = 0; i < size; i++) {
+        data[i] = buffer.get(pointer + i);
+      }
+      value = new String(data, StandardCharsets.UTF_8);
+    }
+    skip(size);
+    return value;
+  }
+
+  int readIntRaw() {
+    return (int) readRaw(4);
+  }
+
+  long readLongRaw() {
+    return readRaw(8);
+  }
+
+  private long readRaw(int len) {
+    long data = 0;
+    for (int i = 0; i < len; i++) {
+      data = (data << 8 | (readByte() & 0xff));
+    }
+    return data;
+  }
+
+  /** @return current reader position */
+  int position() {
+    return pointer;
+  }
+
+  /** @return number of bytes in the input set */
+  int size() {
+    return limit;
+  }
+}
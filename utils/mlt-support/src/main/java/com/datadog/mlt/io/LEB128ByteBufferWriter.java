@@ -13,19 +13,49 @@ import lombok.extern.slf4j.Slf4j;
  * 'nested' writers - a child writer will pick up where its parent finished and will restore the
  * position and limit back to the initial values upon calling {@linkplain
  * LEB128ByteBufferWriter#reset()}.
+ *
+ * <p>LEB128 values are encoded straight into the backing buffer after a single capacity check for
+ * their encoded length, and arrays of values are encoded after a single capacity check for the
+ * whole array. The backing buffer can be either a heap or a direct {@linkplain ByteBuffer}.
  */
 @Slf4j
 final class LEB128ByteBufferWriter extends AbstractLEB128Writer {
-  private static final ThreadLocal<SoftReference<ByteBuffer>> BUFFER_REF;
+  private static final int INITIAL_CAPACITY = 64 * 1024;
+  private static final int MAX_INT_LENGTH = 5;
+  private static final int MAX_LONG_LENGTH = 9;
+
+  private static final ThreadLocal<BufferHolder> BUFFER_REF;
+  private static final ThreadLocal<BufferHolder> DIRECT_BUFFER_REF;
 
   static {
-    BUFFER_REF = ThreadLocal.withInitial(() -> new SoftReference<>(allocateBuffer(64 * 1024)));
+    BUFFER_REF = ThreadLocal.withInitial(() -> new BufferHolder(false));
+    DIRECT_BUFFER_REF = ThreadLocal.withInitial(() -> new BufferHolder(true));
+  }
+
+  /**
+   * The per-thread buffer. Writers look it up once and nested writers share it, so they all see the
+   * buffer when it gets reallocated.
+   */
+  private static final class BufferHolder {
+    private final boolean direct;
+    private SoftReference<ByteBuffer> ref;
+
+    BufferHolder(boolean direct) {
+      this.direct = direct;
+      this.ref = new SoftReference<>(allocateBuffer(INITIAL_CAPACITY, direct));
+    }
   }
 
+  private final BufferHolder holder;
   private final int offset;
   private final int limit;
 
   LEB128ByteBufferWriter() {
+    this(false);
+  }
+
+  LEB128ByteBufferWriter(boolean direct) {
+    this.holder = direct ? DIRECT_BUFFER_REF.get() : BUFFER_REF.get();
     ByteBuffer buffer = getBuffer();
     offset = buffer.position();
     limit = buffer.limit();
@@ -37,6 +67,69 @@ final class LEB128ByteBufferWriter extends AbstractLEB128Writer {
     getBuffer().limit(limit);
   }
 
+  @Override
+  public int writeLong(int offset, long data) {
+    offset += this.offset;
+    ByteBuffer buffer = ensureCapacity(offset, encodedLength(data));
+    return advance(buffer, encode(buffer, offset, data));
+  }
+
+  @Override
+  public int writeInts(int offset, int[] data) {
+    offset += this.offset;
+    int length = data.length * MAX_INT_LENGTH;
+    if (offset + length > getBuffer().capacity()) {
+      // only grow the buffer for what is really written
+      length = 0;
+      for (int value : data) {
+        length += encodedLength(value & 0x00000000ffffffffL);
+      }
+    }
+    ByteBuffer buffer = ensureCapacity(offset, length);
+    if (buffer.hasArray()) {
+      byte[] array = buffer.array();
+      int base = buffer.arrayOffset();
+      int pos = base + offset;
+      for (int value : data) {
+        pos = encode(array, pos, value & 0x00000000ffffffffL);
+      }
+      offset = pos - base;
+    } else {
+      for (int value : data) {
+        offset = encode(buffer, offset, value & 0x00000000ffffffffL);
+      }
+    }
+    return advance(buffer, offset);
+  }
+
+  @Override
+  public int writeLongs(int offset, long[] data) {
+    offset += this.offset;
+    int length = data.length * MAX_LONG_LENGTH;
+    if (offset + length > getBuffer().capacity()) {
+      // only grow the buffer for what is really written
+      length = 0;
+      for (long value : data) {
+        length += encodedLength(value);
+      }
+    }
+    ByteBuffer buffer = ensureCapacity(offset, length);
+    if (buffer.hasArray()) {
+      byte[] array = buffer.array();
+      int base = buffer.arrayOffset();
+      int pos = base + offset;
+      for (long value : data) {
+        pos = encode(array, pos, value);
+      }
+      offset = pos - base;
+    } else {
+      for (long value : data) {
+        offset = encode(buffer, offset, value);
+      }
+    }
+    return advance(buffer, offset);
+  }
+
   @Override
   public int writeFloat(int offset, float data) {
     offset += this.offset;
@@ -143,6 +236,61 @@ final class LEB128ByteBufferWriter extends AbstractLEB128Writer {
     return getBuffer().capacity() - offset;
   }
 
+  /** Move the buffer position past the written data unless it is there already */
+  private int advance(ByteBuffer buffer, int end) {
+    if (end > buffer.position()) {
+      buffer.position(end);
+    }
+    return position();
+  }
+
+  /** @return the number of bytes {@code data} is encoded on */
+  static int encodedLength(long data) {
+    if ((data & COMPRESSED_INT_MASK) == 0) {
+      return 1;
+    }
+    // 7 bits per byte, the last of the 9 bytes holding the remaining 8 bits
+    int bits = Long.SIZE - Long.numberOfLeadingZeros(data);
+    return bits > 7 * (MAX_LONG_LENGTH - 1) ? MAX_LONG_LENGTH : (bits + 6) / 7;
+  }
+
+  /** @return the index following the encoded value */
+  private static int encode(ByteBuffer buffer, int index, long data) {
+    if ((data & COMPRESSED_INT_MASK) == 0) {
+      // the most common case - constant pool indexes and small counts
+      buffer.put(index, (byte) data);
+      return index + 1;
+    }
+    for (int i = 0; i < MAX_LONG_LENGTH - 1; i++) {
+      if ((data & COMPRESSED_INT_MASK) == 0) {
+        buffer.put(index++, (byte) data);
+        return index;
+      }
+      buffer.put(index++, (byte) (data | EXT_BIT));
+      data >>= 7;
+    }
+    buffer.put(index++, (byte) data);
+    return index;
+  }
+
+  /** @return the index following the encoded value */
+  private static int encode(byte[] array, int index, long data) {
+    if ((data & COMPRESSED_INT_MASK) == 0) {
+      array[index] = (byte) data;
+      return index + 1;
+    }
+    for (int i = 0; i < MAX_LONG_LENGTH - 1; i++) {
+      if ((data & COMPRESSED_INT_MASK) == 0) {
+        array[index++] = (byte) data;
+        return index;
+      }
+      array[index++] = (byte) (data | EXT_BIT);
+      data >>= 7;
+    }
+    array[index++] = (byte) data;
+    return index;
+  }
+
   private ByteBuffer ensureCapacity(int offset, int dataLength) {
     ByteBuffer buffer = getBuffer();
     if (offset == -1) {
@@ -155,33 +303,39 @@ final class LEB128ByteBufferWriter extends AbstractLEB128Writer {
           this.getClass().getName(),
           buffer.capacity(),
           newCapacity);
-      ByteBuffer newBuffer = allocateBuffer(newCapacity);
-      buffer.flip();
-      newBuffer.put(buffer);
-      BUFFER_REF.set(new SoftReference<>(newBuffer));
+      ByteBuffer newBuffer = allocateBuffer(newCapacity, holder.direct);
+      ByteBuffer written = buffer.duplicate();
+      written.flip();
+      newBuffer.put(written);
+      holder.ref = new SoftReference<>(newBuffer);
       return newBuffer;
     }
+    if (offset + dataLength > buffer.limit()) {
+      /*
+       * A nested writer restores the limit it started with, which is below the capacity of a
+       * buffer it had to grow. Absolute puts are checked against the limit, not the capacity.
+       */
+      buffer.limit(buffer.capacity());
+    }
     return buffer;
   }
 
-  private static ByteBuffer allocateBuffer(int capacity) {
-    return ByteBuffer.allocate(capacity);
+  private static ByteBuffer allocateBuffer(int capacity, boolean direct) {
+    return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
   }
 
   private ByteBuffer getBuffer() {
-    ByteBuffer buffer = null;
-    while (buffer == null) {
-      buffer = BUFFER_REF.get().get();
-      if (buffer == null) {
-        /*
-         * The underlying ByteBuffer was released due to memory pressure.
-         * Clear the TLS variable and try recreating the buffer.
-         */
-        log.info(
-            "Cleaning dangling reference to ByteBuffer from thread {}",
-            Thread.currentThread().getName());
-        BUFFER_REF.remove();
-      }
+    ByteBuffer buffer = holder.ref.get();
+    if (buffer == null) {
+      /*
+       * The underlying ByteBuffer was released due to memory pressure.
+       * Recreate the buffer.
+       */
+      log.info(
+          "Recreating ByteBuffer released due to memory pressure in thread {}",
+          Thread.currentThread().getName());
+      buffer = allocateBuffer(INITIAL_CAPACITY, holder.direct);
+      holder.ref = new SoftReference<>(buffer);
     }
     return buffer;
   }
@@ -38,6 +38,40 @@ public interface LEB128Writer {
     }
   }
 
+  /**
+   * Execute the given code within the context of a new {@linkplain LEB128Writer} instance backed by
+   * a direct {@linkplain ByteBuffer}. The exported buffer can be handed over to a channel without
+   * being copied first.
+   *
+   * @param code the code to execute within the writer context
+   */
+  static void executeDirect(Consumer<LEB128Writer> code) {
+    LEB128ByteBufferWriter writer = new LEB128ByteBufferWriter(true);
+    try {
+      code.accept(writer);
+    } finally {
+      writer.reset();
+    }
+  }
+
+  /**
+   * Execute the given code within the context of a new {@linkplain LEB128Writer} instance backed by
+   * a direct {@linkplain ByteBuffer}. The exported buffer can be handed over to a channel without
+   * being copied first.
+   *
+   * @param code the code to execute within the writer context
+   * @param <R> the return value type
+   * @return the code execution result
+   */
+  static <R> R executeDirect(Function<LEB128Writer, R> code) {
+    LEB128ByteBufferWriter writer = new LEB128ByteBufferWriter(true);
+    try {
+      return code.apply(writer);
+    } finally {
+      writer.reset();
+    }
+  }
+
   /** Reset the writer. Discard any collected data and set position to 0. */
   void reset();
 
@@ -109,6 +143,40 @@ public interface LEB128Writer {
    */
   int writeLong(int offset, long data);
 
+  /**
+   * Write an array of {@linkplain Integer} elements in LEB128 encoding
+   *
+   * @param data the data
+   * @return the writer instance for chaining
+   */
+  LEB128Writer writeInts(int[] data);
+
+  /**
+   * Write an array of {@linkplain Integer} elements in LEB128 encoding at the given offset
+   *
+   * @param offset the offset from which to start writing the data
+   * @param data the data
+   * @return the writer position after the data has been written
+   */
+  int writeInts(int offset, int[] data);
+
+  /**
+   * Write an array of {@linkplain Long} elements in LEB128 encoding
+   *
+   * @param data the data
+   * @return the writer instance for chaining
+   */
+  LEB128Writer writeLongs(long[] data);
+
+  /**
+   * Write an array of {@linkplain Long} elements in LEB128 encoding at the given offset
+   *
+   * @param offset the offset from which to start writing the data
+   * @param data the data
+   * @return the writer position after the data has been written
+   */
+  int writeLongs(int offset, long[] data);
+
   /**
    * Write {@linkplain Float} data in default Java encoding
    *
@@ -14,6 +14,7 @@ public abstract class MLTChunkCollector implements IMLTChunk {
   @Getter protected final ConstantPool<FrameSequence> stackPool;
   @Getter protected final ConstantPool<String> stringPool;
 
+  private final StackInterner stackInterner;
   private final IntList stacks = new IntArrayList();
 
   public MLTChunkCollector(
@@ -21,32 +22,32 @@ public abstract class MLTChunkCollector implements IMLTChunk {
       ConstantPool<String> stringPool,
       ConstantPool<FrameElement> framePool,
       ConstantPool<FrameSequence> stackPool) {
-    this.framePool = framePool;
-    this.stackPool = stackPool;
-    this.stringPool = stringPool;
+    this(baseStack, new StackInterner(stringPool, framePool, stackPool));
+  }
+
+  /**
+   * Create a collector sharing the constant pools, and the frames and stack prefixes already
+   * interned, with other collectors using the same {@linkplain StackInterner}
+   */
+  public MLTChunkCollector(StackTraceElement[] baseStack, StackInterner stackInterner) {
+    this.stackInterner = stackInterner;
+    this.framePool = stackInterner.getFramePool();
+    this.stackPool = stackInterner.getStackPool();
+    this.stringPool = stackInterner.getStringPool();
     collect(baseStack);
   }
 
+  /**
+   * Collect a stack trace. Frames and stack prefixes which were collected before are not allocated
+   * again.
+   *
+   * @param stackTrace the stack trace, innermost frame first
+   */
   public void collect(StackTraceElement[] stackTrace) {
     if (stackTrace.length == 0) {
       return;
     }
-    FrameSequence tree;
-    int[] framePtrs = new int[stackTrace.length];
-    for (int i = 0; i < stackTrace.length; i++) {
-      StackTraceElement element = stackTrace[i];
-      framePtrs[i] =
-          framePool.getOrInsert(
-              new FrameElement(
-                  element.getClassName(),
-                  element.getMethodName(),
-                  element.getLineNumber(),
-                  stringPool,
-                  framePool));
-    }
-    tree = new FrameSequence(framePtrs, framePool, stackPool);
-
-    addCompressedStackptr(tree.getCpIndex());
+    addCompressedStackptr(stackInterner.intern(stackTrace));
   }
 
   @Override
@@ -0,0 +1,282 @@
+package com.datadog.mlt.io;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A read-only view of a single MLT chunk in its binary format, as passed to {@linkplain MLTVisitor}
+ * instances by {@linkplain MLTReader}.
+ *
+ * <p>Nothing is decoded upfront: the constant pools are indexed the first time a constant is
+ * resolved and the constants themselves are decoded on demand, so only the chunk data and the
+ * offsets of its constants are held in memory. Not thread-safe.
+ */
+public final class MLTChunkView {
+  /** Receives the frames of a stack, innermost frame first */
+  @FunctionalInterface
+  public interface FrameVisitor {
+    void visitFrame(String owner, String method, int line);
+  }
+
+  private final LEB128ByteBufferReader reader;
+
+  private final byte version;
+  private final int size;
+  private final int constantPoolsOffset;
+  private final long startTime;
+  private final long duration;
+  private final long threadId;
+  private final int eventsOffset;
+
+  private Int2IntMap stringOffsets;
+  private Int2IntMap frameOffsets;
+  private Int2IntMap stackOffsets;
+  private final Int2ObjectMap<String> strings = new Int2ObjectOpenHashMap<>();
+
+  /** @param data the chunk, from the buffer's position to its limit */
+  MLTChunkView(ByteBuffer data) {
+    reader = new LEB128ByteBufferReader(data);
+    byte[] magic = new byte[MLTConstants.MAGIC.length];
+    for (int i = 0; i < magic.length; i++) {
+      magic[i] = reader.readByte();
+    }
+    if (!Arrays.equals(MLTConstants.MAGIC, magic)) {
+      throw new IllegalStateException();
+    }
+    version = reader.readByte();
+    size = reader.readIntRaw();
+    constantPoolsOffset = reader.readIntRaw();
+    startTime = reader.readLong();
+    duration = reader.readLong();
+    threadId = reader.readLong();
+    eventsOffset = reader.position();
+  }
+
+  public byte getVersion() {
+    return version;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getDuration() {
+    return duration;
+  }
+
+  public long getThreadId() {
+    return threadId;
+  }
+
+  public String getThreadName() {
+    return string(0);
+  }
+
+  /**
+   * Retrieve a string constant
+   *
+   * @param ptr string constant index
+   * @return the string
+   * @throws IllegalStateException if the chunk has no such constant
+   */
+  public String string(int ptr) {
+    String value = strings.get(ptr);
+    if (value == null) {
+      int saved = reader.getAndSetPos(offset(stringOffsets(), ptr));
+      try {
+        value = reader.readUTF();
+      } finally {
+        reader.getAndSetPos(saved);
+      }
+      strings.put(ptr, value);
+    }
+    return value;
+  }
+
+  /**
+   * Visit the frames of a stack constant
+   *
+   * @param stackPtr stack constant index
+   * @param visitor receives the frames, innermost frame first
+   * @throws IllegalStateException if the chunk has no such constant
+   */
+  public void forEachFrame(int stackPtr, FrameVisitor visitor) {
+    int saved = reader.position();
+    try {
+      int ptr = stackPtr;
+      while (ptr != -1) {
+        reader.getAndSetPos(offset(stackOffsets(), ptr));
+        byte type = reader.readByte();
+        int length = reader.readInt();
+        for (int i = 0; i < length; i++) {
+          int framePtr = reader.readInt();
+          int next = reader.position();
+          visitFrame(framePtr, visitor);
+          reader.getAndSetPos(next);
+        }
+        ptr = type == 1 ? reader.readInt() : -1;
+      }
+    } finally {
+      reader.getAndSetPos(saved);
+    }
+  }
+
+  /**
+   * @param stackPtr stack constant index
+   * @return number of frames of the stack
+   * @throws IllegalStateException if the chunk has no such constant
+   */
+  public int stackDepth(int stackPtr) {
+    int saved = reader.position();
+    try {
+      int depth = 0;
+      int ptr = stackPtr;
+      while (ptr != -1) {
+        reader.getAndSetPos(offset(stackOffsets(), ptr));
+        byte type = reader.readByte();
+        int length = reader.readInt();
+        depth += length;
+        if (type == 1) {
+          for (int i = 0; i < length; i++) {
+            reader.skipLong();
+          }
+          ptr = reader.readInt();
+        } else {
+          ptr = -1;
+        }
+      }
+      return depth;
+    } finally {
+      reader.getAndSetPos(saved);
+    }
+  }
+
+  /**
+   * Report the stack events of this chunk. The first event is the base stack of the chunk and is
+   * not reported; consecutive occurrences of the same stack are reported once, with their count.
+   */
+  void visitEvents(MLTVisitor visitor) {
+    reader.getAndSetPos(eventsOffset);
+    int eventCount = reader.readInt();
+    int last = -1;
+    for (int i = 0; i < eventCount; i++) {
+      int ptr = reader.readInt();
+      int count = 1;
+      if ((ptr & MLTConstants.EVENT_REPEAT_FLAG) == MLTConstants.EVENT_REPEAT_FLAG) {
+        if (last == -1) {
+          throw new IllegalStateException();
+        }
+        count = ptr & MLTConstants.EVENT_REPEAT_MASK;
+        ptr = last;
+      } else {
+        last = ptr;
+        if (i == 0) {
+          continue;
+        }
+      }
+      visitor.visitStack(this, ptr, count);
+    }
+  }
+
+  private void visitFrame(int framePtr, FrameVisitor visitor) {
+    reader.getAndSetPos(offset(frameOffsets(), framePtr));
+    int ownerPtr = reader.readInt();
+    int methodPtr = reader.readInt();
+    int line = reader.readIntRaw();
+    visitor.visitFrame(string(ownerPtr), string(methodPtr), line);
+  }
+
+  private static int offset(Int2IntMap offsets, int ptr) {
+    int offset = offsets.get(ptr);
+    if (offset == -1) {
+      throw new IllegalStateException("Missing constant " + ptr);
+    }
+    return offset;
+  }
+
+  private Int2IntMap stringOffsets() {
+    indexConstantPools();
+    return stringOffsets;
+  }
+
+  private Int2IntMap frameOffsets() {
+    indexConstantPools();
+    return frameOffsets;
+  }
+
+  private Int2IntMap stackOffsets() {
+    indexConstantPools();
+    return stackOffsets;
+  }
+
+  /** Record the offset of each constant, skipping over the constant values */
+  private void indexConstantPools() {
+    if (stringOffsets != null) {
+      return;
+    }
+    int saved = reader.getAndSetPos(constantPoolsOffset);
+    try {
+      int count = reader.readInt();
+      Int2IntMap stringPool = newOffsets(count);
+      for (int i = 0; i < count; i++) {
+        stringPool.put(reader.readInt(), reader.position());
+        reader.skip(reader.readInt());
+      }
+      count = reader.readInt();
+      Int2IntMap framePool = newOffsets(count);
+      for (int i = 0; i < count; i++) {
+        framePool.put(reader.readInt(), reader.position());
+        reader.skipLong(); // owner
+        reader.skipLong(); // method
+        reader.skip(4); // line
+      }
+      count = reader.readInt();
+      Int2IntMap stackPool = newOffsets(count);
+      for (int i = 0; i < count; i++) {
+        stackPool.put(reader.readInt(), reader.position());
+        byte type = reader.readByte();
+        int length = reader.readInt();
+        for (int j = 0; j < length; j++) {
+          reader.skipLong();
+        }
+        if (type == 1) {
+          reader.skipLong(); // subsequence
+        }
+      }
+      stringOffsets = stringPool;
+      frameOffsets = framePool;
+      stackOffsets = stackPool;
+    } finally {
+      reader.getAndSetPos(saved);
+    }
+  }
+
+  private static Int2IntMap newOffsets(int count) {
+    Int2IntMap offsets = new Int2IntOpenHashMap(count);
+    offsets.defaultReturnValue(-1);
+    return offsets;
+  }
+
+  @Override
+  public String toString() {
+    return "MLTChunkView(version="
+        + version
+        + ", size="
+        + size
+        + ", startTime="
+        + startTime
+        + ", duration="
+        + duration
+        + ", threadId="
+        + threadId
+        + ")";
+  }
+}
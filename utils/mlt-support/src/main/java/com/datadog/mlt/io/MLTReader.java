@@ -1,5 +1,11 @@
 package com.datadog.mlt.io;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -7,6 +13,10 @@ import lombok.NonNull;
 
 /** The MLT binary format reader */
 public final class MLTReader {
+  // magic, version, size and constant pool offset
+  private static final int CHUNK_HEADER_SIZE = 13;
+  private static final int CHUNK_SIZE_OFFSET = 5;
+
   private MLTReader() {}
 
   /**
@@ -24,6 +34,66 @@ public final class MLTReader {
     return chunks;
   }
 
+  /**
+   * Visit all subsequent MLT chunks from the given data without materializing them
+   *
+   * @param data the MLT binary format data, from the buffer's position to its limit; the buffer's
+   *     position is left untouched
+   * @param visitor receives the chunks and their stack events
+   */
+  public static void visitMLTChunks(@NonNull ByteBuffer data, @NonNull MLTVisitor visitor) {
+    int offset = data.position();
+    while (offset < data.limit()) {
+      int size = data.getInt(offset + CHUNK_SIZE_OFFSET);
+      if (size < CHUNK_HEADER_SIZE || size > data.limit() - offset) {
+        throw new IllegalStateException("Invalid chunk size " + size + " at " + offset);
+      }
+      ByteBuffer chunk = data.duplicate();
+      chunk.position(offset).limit(offset + size);
+      visitMLTChunk(new MLTChunkView(chunk), visitor);
+      offset += size;
+    }
+  }
+
+  /**
+   * Visit all MLT chunks of the given file without materializing them. The chunks are memory mapped
+   * one at a time, so the file may be larger than the available heap.
+   *
+   * @param file the MLT binary format file
+   * @param visitor receives the chunks and their stack events
+   * @throws IOException if the file can not be read
+   */
+  public static void visitMLTChunks(@NonNull Path file, @NonNull MLTVisitor visitor)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+      long offset = 0;
+      long fileSize = channel.size();
+      while (offset < fileSize) {
+        header.clear();
+        while (header.hasRemaining()) {
+          if (channel.read(header, offset + header.position()) < 0) {
+            throw new EOFException("Truncated chunk header at " + offset);
+          }
+        }
+        int size = header.getInt(CHUNK_SIZE_OFFSET);
+        if (size < CHUNK_HEADER_SIZE || size > fileSize - offset) {
+          throw new IllegalStateException("Invalid chunk size " + size + " at " + offset);
+        }
+        visitMLTChunk(
+            new MLTChunkView(channel.map(FileChannel.MapMode.READ_ONLY, offset, size)), visitor);
+        offset += size;
+      }
+    }
+  }
+
+  private static void visitMLTChunk(MLTChunkView chunk, MLTVisitor visitor) {
+    if (visitor.visitChunk(chunk)) {
+      chunk.visitEvents(visitor);
+    }
+    visitor.visitChunkEnd(chunk);
+  }
+
   private static MLTChunk readMLTChunk(LEB128ByteArrayReader r) {
     int chunkBase = r.position();
     byte[] magic = r.readBytes(4);
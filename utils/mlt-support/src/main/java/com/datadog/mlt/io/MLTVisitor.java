@@ -0,0 +1,35 @@
+package com.datadog.mlt.io;
+
+/**
+ * Receives the chunks and stack events of MLT binary data as it is read by {@linkplain
+ * MLTReader#visitMLTChunks(java.nio.ByteBuffer, MLTVisitor)}. The chunk views are only valid while
+ * they are being visited.
+ */
+public interface MLTVisitor {
+  /**
+   * Called when a chunk is reached
+   *
+   * @param chunk the chunk
+   * @return {@literal false} to skip the stack events of the chunk
+   */
+  default boolean visitChunk(MLTChunkView chunk) {
+    return true;
+  }
+
+  /**
+   * Called for each stack event of the chunk, in order of appearance. Consecutive events with the
+   * same stack are reported once.
+   *
+   * @param chunk the chunk
+   * @param stackPtr the stack constant index, to be resolved via the chunk
+   * @param count number of consecutive events with this stack
+   */
+  void visitStack(MLTChunkView chunk, int stackPtr, int count);
+
+  /**
+   * Called after the stack events of a chunk were visited or skipped
+   *
+   * @param chunk the chunk
+   */
+  default void visitChunkEnd(MLTChunkView chunk) {}
+}
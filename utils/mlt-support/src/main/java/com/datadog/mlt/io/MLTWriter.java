@@ -1,5 +1,10 @@
 package com.datadog.mlt.io;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import java.nio.ByteBuffer;
@@ -10,6 +15,9 @@ import lombok.NonNull;
 
 /** The MLT binary format writer */
 public final class MLTWriter {
+  // frames a shared stack suffix must save to be written as its own stack pool record
+  static final int MIN_SHARED_FRAMES = 8;
+
   private MLTWriter() {}
 
   /**
@@ -59,35 +67,35 @@ public final class MLTWriter {
 
     IntSet stringConstants = new IntOpenHashSet();
     IntSet frameConstants = new IntOpenHashSet();
-    IntSet stackConstants = new IntOpenHashSet();
-
-    int[] eventCount = new int[1];
-    chunk
-        .frameSequenceCpIndexes()
-        .forEach(
-            val -> {
-              eventCount[0]++;
-              /*
-               * Checking for compression flag - `(topItem & 0x80000000) == 0`, simplified as `topItem >= 0`
-               */
-              if (val >= 0) {
-                collectStackPtrUsage(
-                    val,
-                    stringConstants,
-                    frameConstants,
-                    stackConstants,
-                    chunk.getFramePool(),
-                    chunk.getStackPool());
-              }
-            });
-    writer.writeInt(eventCount[0]);
-    chunk.frameSequenceCpIndexes().forEach(writer::writeInt);
+    IntSet reachableStacks = new IntOpenHashSet();
+
+    int[] events = chunk.frameSequenceCpIndexes().toArray();
+    for (int val : events) {
+      /*
+       * Checking for compression flag - `(topItem & 0x80000000) == 0`, simplified as `topItem >= 0`
+       */
+      if (val >= 0) {
+        collectStackPtrUsage(
+            val,
+            stringConstants,
+            frameConstants,
+            reachableStacks,
+            chunk.getFramePool(),
+            chunk.getStackPool());
+      }
+    }
+    IntSet stackConstants = selectStackRecords(events, chunk.getStackPool());
+    Int2IntMap stackIds = numberStacks(events, stackConstants);
+    writer.writeInt(events.length);
+    for (int val : events) {
+      writer.writeInt(val >= 0 ? stackIds.get(val) : val);
+    }
 
     writer.writeIntRaw(
         MLTConstants.CONSTANT_POOLS_OFFSET, writer.position()); // write the constant pools offset
     writeStringPool(chunk, writer, stringConstants);
     writeFramePool(chunk, writer, frameConstants);
-    writeStackPool(chunk, writer, stackConstants);
+    writeStackPool(chunk, writer, stackConstants, stackIds);
     int size = writer.position();
     writer.writeIntRaw(MLTConstants.CHUNK_SIZE_OFFSET, size); // write the chunk size
     if (chunk instanceof MLTChunk) {
@@ -95,50 +103,122 @@ public final class MLTWriter {
     }
   }
 
-  private static void writeStackPool(IMLTChunk chunk, LEB128Writer writer, IntSet stackConstants) {
+  private static void writeStackPool(
+      IMLTChunk chunk, LEB128Writer writer, IntSet stackConstants, Int2IntMap stackIds) {
     // write stack pool array
     writer.writeInt(stackConstants.size());
+    IntArrayList framePtrs = new IntArrayList();
     stackConstants
         .iterator()
         .forEachRemaining(
             (IntConsumer)
                 ptr -> {
-                  writer.writeInt(ptr);
+                  writer.writeInt(stackIds.get(ptr));
+                  // flatten the stack up to the next stack written as its own record
+                  framePtrs.clear();
                   FrameSequence stack = chunk.getStackPool().get(ptr);
-                  if (stack.getSubsequenceCpIndex() == -1) {
-                    writer.writeByte((byte) 2);
-                    writer.writeInt(stack.length());
-                    stack
-                        .framesFromLeaves()
-                        .map(FrameElement::getCpIndex)
-                        .forEachOrdered(writer::writeInt);
-                  } else {
-                    int cutoff = 5;
-                    int depth = stack.length();
-                    if (depth > cutoff) {
-                      writer
-                          .writeByte((byte) 1) // write type
-                          .writeInt(cutoff); // number of frames
-                      for (int i = 0; i < cutoff - 1; i++) {
-                        writer.writeInt(stack.getHeadCpIndex());
-                        stack = chunk.getStackPool().get(stack.getSubsequenceCpIndex());
-                      }
-                      writer
-                          .writeInt(stack.getHeadCpIndex())
-                          .writeInt(stack.getSubsequenceCpIndex());
-                    } else {
-                      writer
-                          .writeByte((byte) 0) // write type
-                          .writeInt(depth); // number of elements
-                      for (int i = 0; i < depth; i++) {
-                        writer.writeInt(stack.getHeadCpIndex());
-                        stack = chunk.getStackPool().get(stack.getSubsequenceCpIndex());
-                      }
+                  int subsequencePtr;
+                  while (true) {
+                    framePtrs.addElements(
+                        framePtrs.size(),
+                        stack.getFrameCpIndexes(),
+                        0,
+                        stack.getFrameCpIndexes().length);
+                    subsequencePtr = stack.getSubsequenceCpIndex();
+                    if (subsequencePtr == -1 || stackConstants.contains(subsequencePtr)) {
+                      break;
                     }
+                    stack = chunk.getStackPool().get(subsequencePtr);
+                  }
+                  writer
+                      .writeByte((byte) (subsequencePtr == -1 ? 2 : 1)) // write type
+                      .writeInt(framePtrs.size());
+                  for (int i = 0; i < framePtrs.size(); i++) {
+                    writer.writeInt(framePtrs.getInt(i));
+                  }
+                  if (subsequencePtr != -1) {
+                    writer.writeInt(stackIds.get(subsequencePtr));
                   }
                 });
   }
 
+  /**
+   * Choose the stacks written as their own stack pool records. Stacks built by {@linkplain
+   * StackInterner} are chains of single frames, and writing every link as a record would take more
+   * space than writing the stacks flat. So only the stacks referenced by events get a record, plus
+   * the suffixes shared by several of them when that saves at least {@value #MIN_SHARED_FRAMES}
+   * frames. Everything else is flattened into the record of the stack pointing to it.
+   *
+   * @param events the chunk events
+   * @param stackPool the stack constant pool
+   * @return the stack constant indexes to write
+   */
+  static IntSet selectStackRecords(int[] events, ConstantPool<FrameSequence> stackPool) {
+    IntSet records = new IntOpenHashSet();
+    for (int val : events) {
+      if (val >= 0) {
+        records.add(val);
+      }
+    }
+    // count the distinct stacks pointing to each suffix
+    Int2IntOpenHashMap referrers = new Int2IntOpenHashMap();
+    IntSet visited = new IntOpenHashSet();
+    IntIterator roots = records.iterator();
+    while (roots.hasNext()) {
+      int ptr = roots.nextInt();
+      while (ptr != -1 && visited.add(ptr)) {
+        ptr = stackPool.get(ptr).getSubsequenceCpIndex();
+        if (ptr != -1) {
+          referrers.addTo(ptr, 1);
+        }
+      }
+    }
+    // decide from the outermost frames up, so the frames saved by a shared suffix are only counted
+    // up to the next record
+    IntArrayList candidates = new IntArrayList();
+    for (Int2IntMap.Entry entry : referrers.int2IntEntrySet()) {
+      if (entry.getIntValue() > 1 && !records.contains(entry.getIntKey())) {
+        candidates.add(entry.getIntKey());
+      }
+    }
+    int[] shared = candidates.toIntArray();
+    IntArrays.quickSort(
+        shared, (a, b) -> Integer.compare(stackPool.get(a).length(), stackPool.get(b).length()));
+    for (int ptr : shared) {
+      int frames = 0;
+      for (int next = ptr; next != -1 && (next == ptr || !records.contains(next)); ) {
+        FrameSequence stack = stackPool.get(next);
+        frames += stack.getFrameCpIndexes().length;
+        next = stack.getSubsequenceCpIndex();
+      }
+      if ((referrers.get(ptr) - 1) * frames >= MIN_SHARED_FRAMES) {
+        records.add(ptr);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Number the written stacks densely, in the order the events use them: the stack pool of a chunk
+   * holds far more stacks than the chunk writes, and small indexes take fewer bytes to encode.
+   */
+  private static Int2IntMap numberStacks(int[] events, IntSet stackConstants) {
+    Int2IntMap stackIds = new Int2IntOpenHashMap(stackConstants.size());
+    for (int val : events) {
+      if (val >= 0 && !stackIds.containsKey(val)) {
+        stackIds.put(val, stackIds.size());
+      }
+    }
+    IntIterator ptrs = stackConstants.iterator();
+    while (ptrs.hasNext()) {
+      int ptr = ptrs.nextInt();
+      if (!stackIds.containsKey(ptr)) {
+        stackIds.put(ptr, stackIds.size());
+      }
+    }
+    return stackIds;
+  }
+
   private static void writeFramePool(IMLTChunk chunk, LEB128Writer writer, IntSet frameConstants) {
     // write frame pool array
     writer.writeInt(frameConstants.size());
@@ -183,22 +263,14 @@ public final class MLTWriter {
       IntSet stackConstants,
       ConstantPool<FrameElement> framePool,
       ConstantPool<FrameSequence> stackPool) {
-    if (ptr > -1) {
+    // stops at the first stack already visited: the rest of the chain was collected with it
+    while (ptr > -1 && stackConstants.add(ptr)) {
       FrameSequence stack = stackPool.get(ptr);
-      stackConstants.add(ptr);
       int[] framePtrs = stack.getFrameCpIndexes();
       for (int framePtr : framePtrs) {
         collectFramePtrUsage(framePtr, stringConstants, frameConstants, framePool);
       }
-      if (stack.getSubsequenceCpIndex() != -1) {
-        collectStackPtrUsage(
-            stack.getSubsequenceCpIndex(),
-            stringConstants,
-            frameConstants,
-            stackConstants,
-            framePool,
-            stackPool);
-      }
+      ptr = stack.getSubsequenceCpIndex();
     }
   }
 
@@ -0,0 +1,172 @@
+package com.datadog.mlt.io;
+
+/**
+ * Turns stack traces into stack constant pool indexes without allocating for frames and stack
+ * prefixes which were seen before.
+ *
+ * <p>Frames are looked up by their class name, method name and line number straight from the
+ * {@linkplain StackTraceElement}. Stacks are stored as a trie rooted at the outermost frame: each
+ * node is a {@linkplain FrameSequence} holding one frame and pointing to its parent, so a new stack
+ * only adds the nodes of the frames where it diverges from the stacks collected so far.
+ *
+ * <p>Not thread-safe - should be used together with the constant pools it fills.
+ */
+public final class StackInterner {
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final ConstantPool<String> stringPool;
+  private final ConstantPool<FrameElement> framePool;
+  private final ConstantPool<FrameSequence> stackPool;
+
+  // open addressing frame table, keyed by owner, method and line
+  private String[] frameOwners = new String[INITIAL_CAPACITY];
+  private String[] frameMethods = new String[INITIAL_CAPACITY];
+  private int[] frameLines = new int[INITIAL_CAPACITY];
+  private FrameElement[] frames = new FrameElement[INITIAL_CAPACITY];
+  private int frameCount;
+
+  // open addressing trie node table, keyed by the parent node and the frame constant pool indexes
+  private long[] nodeKeys = new long[INITIAL_CAPACITY];
+  private FrameSequence[] nodes = new FrameSequence[INITIAL_CAPACITY];
+  private int nodeCount;
+
+  public StackInterner(
+      ConstantPool<String> stringPool,
+      ConstantPool<FrameElement> framePool,
+      ConstantPool<FrameSequence> stackPool) {
+    this.stringPool = stringPool;
+    this.framePool = framePool;
+    this.stackPool = stackPool;
+  }
+
+  ConstantPool<String> getStringPool() {
+    return stringPool;
+  }
+
+  ConstantPool<FrameElement> getFramePool() {
+    return framePool;
+  }
+
+  ConstantPool<FrameSequence> getStackPool() {
+    return stackPool;
+  }
+
+  /**
+   * Retrieve the stack constant index, adding the stack to the constant pools if needed
+   *
+   * @param stackTrace the stack trace, innermost frame first
+   * @return the stack constant index or {@literal -1} for an empty stack trace
+   */
+  public int intern(StackTraceElement[] stackTrace) {
+    FrameSequence node = null;
+    for (int i = stackTrace.length - 1; i >= 0; i--) {
+      StackTraceElement element = stackTrace[i];
+      FrameElement frame =
+          frame(element.getClassName(), element.getMethodName(), element.getLineNumber());
+      node = node(node, frame);
+    }
+    return node == null ? -1 : node.getCpIndex();
+  }
+
+  private FrameElement frame(String owner, String method, int line) {
+    int mask = frames.length - 1;
+    int slot = mix((owner.hashCode() * 31 + method.hashCode()) * 31 + line) & mask;
+    FrameElement frame;
+    while ((frame = frames[slot]) != null) {
+      if (frameLines[slot] == line
+          && sameString(frameMethods[slot], method)
+          && sameString(frameOwners[slot], owner)) {
+        return frame;
+      }
+      slot = (slot + 1) & mask;
+    }
+    frame = new FrameElement(owner, method, line, stringPool, framePool);
+    frameOwners[slot] = owner;
+    frameMethods[slot] = method;
+    frameLines[slot] = line;
+    frames[slot] = frame;
+    if (++frameCount * 2 > frames.length) {
+      resizeFrames();
+    }
+    return frame;
+  }
+
+  private FrameSequence node(FrameSequence parent, FrameElement frame) {
+    // `+ 1` maps the missing parent of the outermost frames to 0
+    long key = ((long) (parent == null ? 0 : parent.getCpIndex() + 1) << 32) | frame.getCpIndex();
+    int mask = nodes.length - 1;
+    int slot = mix(key) & mask;
+    FrameSequence node;
+    while ((node = nodes[slot]) != null) {
+      if (nodeKeys[slot] == key) {
+        return node;
+      }
+      slot = (slot + 1) & mask;
+    }
+    node = new FrameSequence(frame, parent, framePool, stackPool);
+    node.getCpIndex(); // registers the node in the stack pool
+    nodeKeys[slot] = key;
+    nodes[slot] = node;
+    if (++nodeCount * 2 > nodes.length) {
+      resizeNodes();
+    }
+    return node;
+  }
+
+  private void resizeFrames() {
+    String[] oldOwners = frameOwners;
+    String[] oldMethods = frameMethods;
+    int[] oldLines = frameLines;
+    FrameElement[] oldFrames = frames;
+    int capacity = oldFrames.length * 2;
+    frameOwners = new String[capacity];
+    frameMethods = new String[capacity];
+    frameLines = new int[capacity];
+    frames = new FrameElement[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < oldFrames.length; i++) {
+      if (oldFrames[i] != null) {
+        String owner = oldOwners[i];
+        String method = oldMethods[i];
+        int line = oldLines[i];
+        int slot = mix((owner.hashCode() * 31 + method.hashCode()) * 31 + line) & mask;
+        while (frames[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        frameOwners[slot] = owner;
+        frameMethods[slot] = method;
+        frameLines[slot] = line;
+        frames[slot] = oldFrames[i];
+      }
+    }
+  }
+
+  private void resizeNodes() {
+    long[] oldKeys = nodeKeys;
+    FrameSequence[] oldNodes = nodes;
+    int capacity = oldNodes.length * 2;
+    nodeKeys = new long[capacity];
+    nodes = new FrameSequence[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < oldNodes.length; i++) {
+      if (oldNodes[i] != null) {
+        int slot = mix(oldKeys[i]) & mask;
+        while (nodes[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        nodeKeys[slot] = oldKeys[i];
+        nodes[slot] = oldNodes[i];
+      }
+    }
+  }
+
+  private static boolean sameString(String a, String b) {
+    // class and method names of stack trace elements are usually interned by the JVM
+    return a == b || a.equals(b);
+  }
+
+  private static int mix(long key) {
+    // node keys are made of small, correlated indexes: spread them with a multiplicative hash
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+  }
+}
@@ -0,0 +1,180 @@
+package com.datadog.mlt.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LEB128ByteBufferWriterTest {
+  private static final long[] LONGS = {
+    0,
+    1,
+    0x7f,
+    0x80,
+    0x3fff,
+    0x4000,
+    Integer.MAX_VALUE,
+    0xffffffffL,
+    1L << 55,
+    1L << 56,
+    Long.MAX_VALUE,
+    -1,
+    Long.MIN_VALUE
+  };
+  private static final int[] INTS = {0, 1, 0x7f, 0x80, 0x3fff, 0x4000, Integer.MAX_VALUE, -1};
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void longs(boolean direct) {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (long value : LONGS) {
+      encode(expected, value);
+    }
+
+    assertArrayEquals(
+        expected.toByteArray(),
+        write(
+            direct,
+            writer -> {
+              for (long value : LONGS) {
+                writer.writeLong(value);
+              }
+            }));
+    assertArrayEquals(expected.toByteArray(), write(direct, writer -> writer.writeLongs(LONGS)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void ints(boolean direct) {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (int value : INTS) {
+      encode(expected, value & 0xffffffffL);
+    }
+
+    assertArrayEquals(
+        expected.toByteArray(),
+        write(
+            direct,
+            writer -> {
+              for (int value : INTS) {
+                writer.writeInt(value);
+              }
+            }));
+    assertArrayEquals(expected.toByteArray(), write(direct, writer -> writer.writeInts(INTS)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void batchesGrowTheBuffer(boolean direct) {
+    Random rnd = new Random(42);
+    int[] values = new int[100_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = rnd.nextInt();
+    }
+
+    byte[] data =
+        write(direct, writer -> writer.writeIntRaw(values.length).writeInts(values).writeInt(7));
+
+    LEB128ByteArrayReader reader = new LEB128ByteArrayReader(data);
+    assertEquals(values.length, reader.readIntRaw());
+    for (int value : values) {
+      assertEquals(value, reader.readInt());
+    }
+    assertEquals(7, reader.readInt());
+  }
+
+  @Test
+  void encodedLength() {
+    for (long value : LONGS) {
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      encode(expected, value);
+      assertEquals(expected.size(), LEB128ByteBufferWriter.encodedLength(value), "" + value);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void smallValuesFillTheBufferWithoutGrowing(boolean direct) {
+    Consumer<LEB128Writer> code =
+        writer -> {
+          int capacity = writer.capacity();
+          for (int i = 0; i < capacity; i++) {
+            writer.writeLong(1);
+          }
+          assertEquals(capacity, writer.position());
+          assertEquals(capacity, writer.capacity());
+        };
+    if (direct) {
+      LEB128Writer.executeDirect(code);
+    } else {
+      LEB128Writer.execute(code);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void nestedWriterGrowsTheBuffer(boolean direct) {
+    byte[] data =
+        write(
+            direct,
+            writer -> {
+              writer.writeBytes(new byte[writer.capacity() - 16]);
+              Consumer<LEB128Writer> nested = inner -> inner.writeBytes(new byte[64]);
+              if (direct) {
+                LEB128Writer.executeDirect(nested);
+              } else {
+                LEB128Writer.execute(nested);
+              }
+              for (int i = 0; i < 1000; i++) {
+                writer.writeInt(0x4000 + i);
+              }
+            });
+
+    LEB128ByteArrayReader reader = new LEB128ByteArrayReader(data);
+    reader.getAndSetPos(data.length - 3000);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(0x4000 + i, reader.readInt());
+    }
+  }
+
+  @Test
+  void batchAtOffset() {
+    byte[] data =
+        write(
+            false,
+            writer -> {
+              writer.writeIntRaw(0).writeInts(new int[] {1, 2, 3});
+              writer.writeInts(0, new int[] {0x7f, 0x7f, 0x7f, 0x7f});
+            });
+
+    assertArrayEquals(new byte[] {0x7f, 0x7f, 0x7f, 0x7f, 1, 2, 3}, data);
+  }
+
+  private static byte[] write(boolean direct, Consumer<LEB128Writer> code) {
+    Function<LEB128Writer, byte[]> export =
+        writer -> {
+          code.accept(writer);
+          return writer.export();
+        };
+    return direct ? LEB128Writer.executeDirect(export) : LEB128Writer.execute(export);
+  }
+
+  /** The reference encoding - 7 bits per byte, the 9th byte holding the remaining 8 bits */
+  private static void encode(ByteArrayOutputStream out, long value) {
+    for (int i = 0; i < 8; i++) {
+      if ((value & ~0x7fL) == 0) {
+        out.write((int) value);
+        return;
+      }
+      out.write((int) ((value & 0x7f) | 0x80));
+      value >>= 7;
+    }
+    out.write((int) value);
+  }
+}
@@ -0,0 +1,204 @@
+package com.datadog.mlt.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MLTChunkViewTest {
+  @TempDir Path tempDir;
+
+  @Test
+  void visitBuffer() {
+    byte[] data = twoChunks();
+
+    assertEquals(expected(data), visit(ByteBuffer.wrap(data)));
+  }
+
+  @Test
+  void visitDirectBufferSlice() {
+    byte[] data = twoChunks();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(data.length + 3);
+    buffer.put(new byte[3]).put(data);
+    buffer.position(3);
+
+    assertEquals(expected(data), visit(buffer));
+    assertEquals(3, buffer.position());
+  }
+
+  @Test
+  void visitFile() throws IOException {
+    byte[] data = twoChunks();
+    Path file = tempDir.resolve("recording.mlt");
+    Files.write(file, data);
+
+    List<String> visited = new ArrayList<>();
+    MLTReader.visitMLTChunks(file, new RecordingVisitor(visited));
+
+    assertEquals(expected(data), visited);
+  }
+
+  @Test
+  void skipChunk() {
+    List<Long> threadIds = new ArrayList<>();
+    MLTReader.visitMLTChunks(
+        ByteBuffer.wrap(twoChunks()),
+        new MLTVisitor() {
+          @Override
+          public boolean visitChunk(MLTChunkView chunk) {
+            threadIds.add(chunk.getThreadId());
+            return false;
+          }
+
+          @Override
+          public void visitStack(MLTChunkView chunk, int stackPtr, int count) {
+            throw new AssertionError();
+          }
+        });
+
+    assertEquals(Arrays.asList(1L, 2L), threadIds);
+  }
+
+  @Test
+  void stackDepth() {
+    List<Integer> depths = new ArrayList<>();
+    MLTReader.visitMLTChunks(
+        ByteBuffer.wrap(twoChunks()),
+        (chunk, stackPtr, count) -> depths.add(chunk.stackDepth(stackPtr)));
+
+    // the first stack of each chunk is its base stack; the repeats of the deep stack are merged
+    assertEquals(Arrays.asList(4, 9, 9, 6), depths);
+  }
+
+  @Test
+  void garbage() {
+    byte[] data = new byte[64];
+    Arrays.fill(data, (byte) 1);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> MLTReader.visitMLTChunks(ByteBuffer.wrap(data), (chunk, stackPtr, count) -> {}));
+  }
+
+  private static List<String> visit(ByteBuffer data) {
+    List<String> visited = new ArrayList<>();
+    MLTReader.visitMLTChunks(data, new RecordingVisitor(visited));
+    return visited;
+  }
+
+  private static List<String> expected(byte[] data) {
+    List<String> expected = new ArrayList<>();
+    for (IMLTChunk chunk : MLTReader.readMLTChunks(data)) {
+      expected.add("chunk " + chunk.getThreadId() + " " + chunk.getThreadName());
+      chunk
+          .frameSequences()
+          .forEach(
+              stack ->
+                  expected.add(
+                      stack
+                          .framesFromLeaves()
+                          .map(f -> f.getOwner() + "." + f.getMethod() + ":" + f.getLine())
+                          .collect(Collectors.joining(","))));
+    }
+    return expected;
+  }
+
+  private static byte[] twoChunks() {
+    MLTChunk built =
+        new MLTChunkBuilder(System.currentTimeMillis(), 1, "main")
+            .addStack()
+            .addFrame("ClassA", "main", -1)
+            .addFrame("ClassA", "m1", 10)
+            .addFrame("ClassC", "m1", -1)
+            .build()
+            .addStack()
+            .addFrame("ClassB", "main", -1)
+            .addFrame("ClassA", "m2", 20)
+            .addFrame("ClassC", "m4", -1)
+            .addFrame("ClassD", "m1", -1)
+            .build()
+            .build(10000);
+
+    MLTChunkCollector collector =
+        new MLTChunkCollector(
+            stack("run", "main"),
+            new StackInterner(new ConstantPool<>(1), new ConstantPool<>(), new ConstantPool<>())) {
+          @Override
+          public byte getVersion() {
+            return MLTConstants.VERSION;
+          }
+
+          @Override
+          public long getStartTime() {
+            return 0;
+          }
+
+          @Override
+          public long getDuration() {
+            return 1;
+          }
+
+          @Override
+          public long getThreadId() {
+            return 2;
+          }
+
+          @Override
+          public String getThreadName() {
+            return "worker";
+          }
+        };
+    StackTraceElement[] deep = stack("g", "f", "e", "d", "c", "b", "a", "run", "main");
+    collector.collect(deep);
+    collector.collect(deep);
+    collector.collect(deep);
+    collector.collect(stack("x", "c", "b", "a", "run", "main"));
+
+    byte[] first = MLTWriter.writeChunk(built);
+    byte[] second = collector.serialize();
+    byte[] data = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, data, first.length, second.length);
+    return data;
+  }
+
+  private static StackTraceElement[] stack(String... methods) {
+    StackTraceElement[] stack = new StackTraceElement[methods.length];
+    for (int i = 0; i < methods.length; i++) {
+      stack[i] = new StackTraceElement("com.example.Type", methods[i], "Type.java", i);
+    }
+    return stack;
+  }
+
+  private static final class RecordingVisitor implements MLTVisitor {
+    private final List<String> visited;
+
+    RecordingVisitor(List<String> visited) {
+      this.visited = visited;
+    }
+
+    @Override
+    public boolean visitChunk(MLTChunkView chunk) {
+      visited.add("chunk " + chunk.getThreadId() + " " + chunk.getThreadName());
+      return true;
+    }
+
+    @Override
+    public void visitStack(MLTChunkView chunk, int stackPtr, int count) {
+      List<String> frames = new ArrayList<>();
+      chunk.forEachFrame(
+          stackPtr, (owner, method, line) -> frames.add(owner + "." + method + ":" + line));
+      for (int i = 0; i < count; i++) {
+        visited.add(String.join(",", frames));
+      }
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.datadog.mlt.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StackInternerTest {
+  private final ConstantPool<String> stringPool = new ConstantPool<>(1);
+  private final ConstantPool<FrameElement> framePool = new ConstantPool<>();
+  private final ConstantPool<FrameSequence> stackPool = new ConstantPool<>();
+  private final StackInterner interner = new StackInterner(stringPool, framePool, stackPool);
+
+  @Test
+  void emptyStack() {
+    assertEquals(-1, interner.intern(new StackTraceElement[0]));
+  }
+
+  @Test
+  void sameStackSameIndex() {
+    StackTraceElement[] stack = stack("c", "b", "a");
+    int ptr = interner.intern(stack);
+
+    assertEquals(ptr, interner.intern(stack));
+    assertEquals(ptr, interner.intern(stack("c", "b", "a")));
+    assertNotEquals(ptr, interner.intern(stack("c", "b")));
+    assertEquals(3, framePool.size());
+  }
+
+  @Test
+  void sharedPrefixes() {
+    int first = interner.intern(stack("d", "c", "b", "a"));
+    int second = interner.intern(stack("e", "c", "b", "a"));
+
+    assertNotEquals(first, second);
+    // a, b, c are shared; d and e only add one node each
+    assertEquals(5, stackPool.size());
+    assertEquals(
+        stackPool.get(first).getSubsequenceCpIndex(),
+        stackPool.get(second).getSubsequenceCpIndex());
+  }
+
+  @Test
+  void framesInOrder() {
+    StackTraceElement[] stack = stack("f", "e", "d", "c", "b", "a", "main");
+    FrameSequence sequence = stackPool.get(interner.intern(stack));
+
+    assertEquals(stack.length, sequence.length());
+    assertArrayEquals(
+        Arrays.stream(stack).map(StackTraceElement::getMethodName).toArray(),
+        sequence.framesFromLeaves().map(FrameElement::getMethod).toArray());
+  }
+
+  @Test
+  void lineNumbersDistinguishFrames() {
+    int first = interner.intern(new StackTraceElement[] {element("a", 1)});
+    int second = interner.intern(new StackTraceElement[] {element("a", 2)});
+
+    assertNotEquals(first, second);
+    assertEquals(2, framePool.size());
+  }
+
+  @Test
+  void manyStacks() {
+    int[] ptrs = new int[2000];
+    for (int i = 0; i < ptrs.length; i++) {
+      ptrs[i] = interner.intern(stack("leaf" + i, "middle" + (i % 10), "root"));
+    }
+    for (int i = 0; i < ptrs.length; i++) {
+      assertEquals(ptrs[i], interner.intern(stack("leaf" + i, "middle" + (i % 10), "root")));
+    }
+    assertEquals(1 + 10 + ptrs.length, stackPool.size());
+  }
+
+  @Test
+  void collectedChunkRoundTrip() {
+    StackTraceElement[] base = stack("run", "main");
+    List<StackTraceElement[]> stacks =
+        Arrays.asList(
+            stack("g", "f", "e", "d", "c", "b", "a", "run", "main"),
+            stack("g", "f", "e", "d", "c", "b", "a", "run", "main"),
+            stack("x", "c", "b", "a", "run", "main"));
+    MLTChunkCollector collector = new TestCollector(base, interner);
+    stacks.forEach(collector::collect);
+
+    List<IMLTChunk> chunks = MLTReader.readMLTChunks(collector.serialize());
+
+    assertEquals(1, chunks.size());
+    List<List<String>> expected =
+        stacks.stream().map(StackInternerTest::methods).collect(Collectors.toList());
+    assertEquals(
+        expected,
+        chunks
+            .get(0)
+            .frameSequences()
+            .map(StackInternerTest::methods)
+            .collect(Collectors.toList()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 16, 64, 256})
+  void encodedSizeDoesNotRegress(int depth) {
+    // stacks sharing their outermost frames, as sampled from a thread pool
+    List<StackTraceElement[]> stacks = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      StackTraceElement[] stack = new StackTraceElement[depth];
+      for (int j = 0; j < depth; j++) {
+        boolean shared = j >= depth / 4;
+        stack[j] = element((shared ? "shared" : "leaf" + (i % 16) + "_" + (j % 3)) + j, i % 4);
+      }
+      stacks.add(stack);
+    }
+    StackTraceElement[] base = stack("run", "main");
+    MLTChunkCollector interning = new TestCollector(base, interner);
+    MLTChunkCollector flat =
+        new TestCollector(
+            base,
+            new StackInterner(new ConstantPool<>(1), new ConstantPool<>(), new ConstantPool<>())) {
+          @Override
+          public void collect(StackTraceElement[] stackTrace) {
+            // how stacks were collected before StackInterner: one flat sequence per stack
+            int[] framePtrs = new int[stackTrace.length];
+            for (int i = 0; i < stackTrace.length; i++) {
+              StackTraceElement element = stackTrace[i];
+              framePtrs[i] =
+                  framePool.getOrInsert(
+                      new FrameElement(
+                          element.getClassName(),
+                          element.getMethodName(),
+                          element.getLineNumber(),
+                          stringPool,
+                          framePool));
+            }
+            addCompressedStackptr(new FrameSequence(framePtrs, framePool, stackPool).getCpIndex());
+          }
+        };
+    for (int i = 0; i < 1000; i++) {
+      StackTraceElement[] stack = stacks.get((i * 7) % stacks.size());
+      interning.collect(stack);
+      flat.collect(stack);
+    }
+
+    byte[] interned = interning.serialize();
+    assertTrue(
+        interned.length <= flat.serialize().length,
+        interned.length + " bytes, flat " + flat.serialize().length + " bytes");
+    List<List<String>> expected =
+        flat.frameSequences().map(StackInternerTest::methods).collect(Collectors.toList());
+    assertEquals(
+        expected,
+        MLTReader.readMLTChunks(interned)
+            .get(0)
+            .frameSequences()
+            .map(StackInternerTest::methods)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void sharedSuffixesOnlyWrittenWhenWorthIt() {
+    int first = interner.intern(stack("x", "c", "b", "a"));
+    int second = interner.intern(stack("y", "c", "b", "a"));
+    int shared = stackPool.get(first).getSubsequenceCpIndex();
+
+    // sharing three frames between two stacks saves less than a record costs
+    assertEquals(
+        new HashSet<>(Arrays.asList(first, second)),
+        MLTWriter.selectStackRecords(new int[] {first, second}, stackPool));
+
+    List<Integer> many = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      many.add(interner.intern(stack("z" + i, "c", "b", "a")));
+    }
+    assertTrue(
+        MLTWriter.selectStackRecords(many.stream().mapToInt(i -> i).toArray(), stackPool)
+            .contains(shared));
+  }
+
+  private static List<String> methods(StackTraceElement[] stack) {
+    return Arrays.stream(stack).map(StackTraceElement::getMethodName).collect(Collectors.toList());
+  }
+
+  private static List<String> methods(FrameSequence sequence) {
+    return sequence.framesFromLeaves().map(FrameElement::getMethod).collect(Collectors.toList());
+  }
+
+  private static StackTraceElement[] stack(String... methods) {
+    StackTraceElement[] stack = new StackTraceElement[methods.length];
+    for (int i = 0; i < methods.length; i++) {
+      stack[i] = element(methods[i], 10);
+    }
+    return stack;
+  }
+
+  private static StackTraceElement element(String method, int line) {
+    return new StackTraceElement("com.example.Type", method, "Type.java", line);
+  }
+
+  private static class TestCollector extends MLTChunkCollector {
+    TestCollector(StackTraceElement[] baseStack, StackInterner stackInterner) {
+      super(baseStack, stackInterner);
+    }
+
+    @Override
+    public byte getVersion() {
+      return MLTConstants.VERSION;
+    }
+
+    @Override
+    public long getStartTime() {
+      return 0;
+    }
+
+    @Override
+    public long getDuration() {
+      return 1;
+    }
+
+    @Override
+    public long getThreadId() {
+      return 1;
+    }
+
+    @Override
+    public String getThreadName() {
+      return "main";
+    }
+  }
+}